@@ -0,0 +1,122 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.List;
+
+import com.openshift.internal.client.response.ApplicationResourceDTO;
+import com.openshift.internal.client.response.ResourceDTOFactory;
+import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
+import com.openshift.internal.client.utils.JsonReader;
+
+/**
+ * The responses that are unmarshalled in the benchmarks. They are either
+ * samples that the client tests use or synthetic responses with a large
+ * number of applications.
+ *
+ * @author Andre Dietisheim
+ */
+public enum Payload {
+
+	API("get-api.json"),
+	USER("get-user.json"),
+	KEYS("get-user-keys-multiple.json"),
+	DOMAINS("get-domains-2existing.json"),
+	APPLICATION("get-application-2cartridges-2aliases.json"),
+	APPLICATIONS("get-applications-with2apps.json"),
+	CARTRIDGES("get-cartridges.json"),
+	GEARS("get-application-gears-with2elements.json"),
+	APPLICATIONS_1K(1000),
+	APPLICATIONS_10K(10000);
+
+	private static final String SAMPLES_FOLDER = "/samples/";
+	private static final String APPLICATIONS_TEMPLATE = "get-applications-with2apps.json";
+	private static final String UTF8 = "UTF-8";
+
+	private final String sample;
+	private final int numOfApplications;
+
+	Payload(String sample) {
+		this.sample = sample;
+		this.numOfApplications = -1;
+	}
+
+	Payload(int numOfApplications) {
+		this.sample = null;
+		this.numOfApplications = numOfApplications;
+	}
+
+	public byte[] getContent() throws IOException {
+		if (sample != null) {
+			return readSample(sample);
+		}
+		return createApplications(numOfApplications).getBytes(UTF8);
+	}
+
+	/**
+	 * Creates an applications response with the given number of
+	 * applications. The applications are copies of the first application in
+	 * the {@link #APPLICATIONS_TEMPLATE} sample that differ in name and links.
+	 */
+	private static String createApplications(int numOfApplications) throws IOException {
+		String response = new String(readSample(APPLICATIONS_TEMPLATE), UTF8);
+		String application = getFirstApplication(response);
+		List<ApplicationResourceDTO> applications = ResourceDTOFactory.get(response).getData();
+		String name = applications.get(0).getName();
+
+		StringBuilder builder = new StringBuilder("{\"type\":\"applications\",\"status\":\"ok\",")
+				.append("\"messages\":[],\"version\":\"1.0\",\"data\":[");
+		for (int i = 0; i < numOfApplications; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append(application
+					.replace("\"name\":\"" + name + "\"", "\"name\":\"" + name + i + "\"")
+					.replace("/applications/" + name, "/applications/" + name + i));
+		}
+		return builder.append("]}").toString();
+	}
+
+	private static String getFirstApplication(String response) throws IOException {
+		JsonReader reader = new JsonReader(new StringReader(response));
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if (IOpenShiftJsonConstants.PROPERTY_DATA.equals(reader.nextName())) {
+				reader.beginArray();
+				return reader.nextRawValue();
+			}
+			reader.skipValue();
+		}
+		throw new IOException("Sample " + APPLICATIONS_TEMPLATE + " has no applications");
+	}
+
+	private static byte[] readSample(String sample) throws IOException {
+		InputStream inputStream = Payload.class.getResourceAsStream(SAMPLES_FOLDER + sample);
+		if (inputStream == null) {
+			throw new IOException("Could not find sample " + sample);
+		}
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read = -1;
+			while ((read = inputStream.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		} finally {
+			inputStream.close();
+		}
+	}
+}
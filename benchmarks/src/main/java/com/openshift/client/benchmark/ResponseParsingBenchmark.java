@@ -0,0 +1,108 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.openshift.internal.client.response.DmrResponseParser;
+import com.openshift.internal.client.response.IResponseParser;
+import com.openshift.internal.client.response.JsonResponseParser;
+import com.openshift.internal.client.response.ResourceDTOFactory;
+import com.openshift.internal.client.response.RestResponse;
+
+/**
+ * Measures the throughput of {@link ResourceDTOFactory#get(String)} and
+ * {@link ResourceDTOFactory#get(java.io.InputStream)} for each dto type and
+ * response parser. Run with <code>-prof gc</code> to get the allocation rate
+ * (<code>gc.alloc.rate.norm</code> is the number of bytes allocated per
+ * response).
+ *
+ * @author Andre Dietisheim
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseParsingBenchmark {
+
+	@Param({ "API", "USER", "KEYS", "DOMAINS", "APPLICATION", "APPLICATIONS", "CARTRIDGES", "GEARS",
+			"APPLICATIONS_1K", "APPLICATIONS_10K" })
+	public Payload payload;
+
+	@Param({ "json", "dmr" })
+	public String parser;
+
+	private IResponseParser previousParser;
+	private byte[] content;
+	private String contentString;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.previousParser = ResourceDTOFactory.getParser();
+		ResourceDTOFactory.setParser(createParser(parser));
+		this.content = payload.getContent();
+		this.contentString = new String(content, "UTF-8");
+	}
+
+	@TearDown
+	public void tearDown() {
+		ResourceDTOFactory.setParser(previousParser);
+	}
+
+	private static IResponseParser createParser(String name) {
+		if (ResourceDTOFactory.RESPONSE_PARSER_DMR.equals(name)) {
+			return new DmrResponseParser();
+		}
+		return new JsonResponseParser();
+	}
+
+	@Benchmark
+	public RestResponse parseString() {
+		return ResourceDTOFactory.get(contentString);
+	}
+
+	@Benchmark
+	public RestResponse parseStream() throws IOException {
+		return ResourceDTOFactory.get(new ByteArrayInputStream(content));
+	}
+
+	/**
+	 * Runs the benchmarks with the gc profiler.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(ResponseParsingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build())
+				.run();
+	}
+}
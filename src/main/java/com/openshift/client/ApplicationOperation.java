@@ -0,0 +1,55 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * The lifecycle operations that may be run on a fleet of applications.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see FleetOperation
+ */
+public enum ApplicationOperation {
+
+	START {
+		@Override
+		public void execute(IApplication application) throws OpenShiftException {
+			application.start();
+		}
+	},
+	STOP {
+		@Override
+		public void execute(IApplication application) throws OpenShiftException {
+			application.stop();
+		}
+	},
+	FORCE_STOP {
+		@Override
+		public void execute(IApplication application) throws OpenShiftException {
+			application.stop(true);
+		}
+	},
+	RESTART {
+		@Override
+		public void execute(IApplication application) throws OpenShiftException {
+			application.restart();
+		}
+	};
+
+	/**
+	 * Runs this operation on the given application.
+	 * 
+	 * @param application
+	 *            the application to run this operation on
+	 * @throws OpenShiftException
+	 */
+	public abstract void execute(IApplication application) throws OpenShiftException;
+}
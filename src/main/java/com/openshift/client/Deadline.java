@@ -0,0 +1,124 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a chain of operations has to be done. A deadline
+ * is attached to the calling thread, all broker requests that this thread
+ * sends while it is attached use timeouts that end before the deadline, and
+ * fail once it has passed. Deadlines can be nested, the earliest one applies.
+ *
+ * <pre>
+ * Deadline deadline = Deadline.after(5, TimeUnit.MINUTES).attach();
+ * try {
+ * 	IApplication application = domain.createApplication("myapp", cartridge);
+ * 	application.addEmbeddableCartridge(mysql);
+ * 	application.waitForAccessible(deadline.getRemaining());
+ * } finally {
+ * 	deadline.detach();
+ * }
+ * </pre>
+ *
+ * @author Andre Dietisheim
+ */
+public class Deadline {
+
+	private static final ThreadLocal<Deadline> current = new ThreadLocal<Deadline>();
+
+	private final long expires;
+	private Deadline previous;
+
+	private Deadline(long expires) {
+		this.expires = expires;
+	}
+
+	/**
+	 * Creates a deadline that's reached once the given duration has passed.
+	 * The deadline is not attached yet.
+	 */
+	public static Deadline after(long duration, TimeUnit unit) {
+		return new Deadline(System.nanoTime() + unit.toNanos(duration));
+	}
+
+	/**
+	 * Returns the deadline that's attached to the calling thread or
+	 * <code>null</code> if there's none.
+	 */
+	public static Deadline current() {
+		return current.get();
+	}
+
+	/**
+	 * Returns the given timeout or the time that's left until the current
+	 * deadline, whichever is shorter.
+	 *
+	 * @param timeout
+	 *            the timeout (in milliseconds)
+	 * @return the timeout (in milliseconds) that ends before the deadline
+	 */
+	public static long getRemaining(long timeout) {
+		Deadline deadline = current();
+		if (deadline == null) {
+			return timeout;
+		}
+		return Math.min(timeout, deadline.getRemaining());
+	}
+
+	/**
+	 * Attaches this deadline to the calling thread. It has to be detached by
+	 * the same thread once the operations are done.
+	 *
+	 * @return this deadline
+	 */
+	public Deadline attach() {
+		this.previous = current.get();
+		current.set(this);
+		return this;
+	}
+
+	/**
+	 * Detaches this deadline from the calling thread, the deadline that was
+	 * attached before applies again.
+	 */
+	public void detach() {
+		if (previous == null) {
+			current.remove();
+		} else {
+			current.set(previous);
+		}
+		this.previous = null;
+	}
+
+	/**
+	 * Returns the time (in milliseconds) that's left until this deadline or
+	 * an enclosing one is reached, 0 if it has passed.
+	 */
+	public long getRemaining() {
+		long remaining = TimeUnit.NANOSECONDS.toMillis(expires - System.nanoTime());
+		if (previous != null) {
+			remaining = Math.min(remaining, previous.getRemaining());
+		}
+		return Math.max(0, remaining);
+	}
+
+	public boolean isExpired() {
+		return getRemaining() == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "Deadline ["
+				+ "remaining=" + getRemaining()
+				+ "]";
+	}
+}
@@ -0,0 +1,261 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.internal.client.ApplicationOperationResult;
+import com.openshift.internal.client.ConcurrentBatch;
+import com.openshift.internal.client.FleetReport;
+import com.openshift.internal.client.utils.Assert;
+import com.openshift.internal.client.utils.TokenBucket;
+
+/**
+ * Runs a lifecycle operation (start, stop, restart) on many applications.
+ * The applications are processed in batches, the next batch is started once
+ * the previous one is done. Within a batch up to {@link #setParallelism(int)}
+ * applications are processed at once and the operations are started at most
+ * at the rate given by {@link #setRateLimit(double)}. Failures are reported
+ * in the {@link IFleetReport} and don't stop the other applications unless
+ * {@link #setStopOnFailure(boolean)} is set.
+ *
+ * <pre>
+ * IFleetReport report = new FleetOperation(ApplicationOperation.RESTART, connection)
+ * 		.setBatchSize(20)
+ * 		.setParallelism(5)
+ * 		.setRateLimit(2)
+ * 		.run(applications);
+ * </pre>
+ *
+ * @author Andre Dietisheim
+ */
+public class FleetOperation {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FleetOperation.class);
+
+	public static final int DEFAULT_PARALLELISM = 5;
+
+	private final ApplicationOperation operation;
+	private final ExecutorService executor;
+	private int parallelism = DEFAULT_PARALLELISM;
+	private double rateLimit = -1;
+	private int batchSize = -1;
+	private boolean stopOnFailure = false;
+	private IFleetOperationListener listener;
+
+	/**
+	 * @param operation
+	 *            the operation to run
+	 * @param connection
+	 *            the connection whose executor runs the operations
+	 *
+	 * @see IOpenShiftConnection#getExecutorService()
+	 */
+	public FleetOperation(ApplicationOperation operation, IOpenShiftConnection connection) {
+		this(operation, connection.getExecutorService());
+	}
+
+	public FleetOperation(ApplicationOperation operation, ExecutorService executor) {
+		Assert.notNull(operation);
+		Assert.notNull(executor);
+		this.operation = operation;
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets the maximum number of applications that are processed at once.
+	 */
+	public FleetOperation setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0);
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of operations that are started per second. Not
+	 * limited by default.
+	 */
+	public FleetOperation setRateLimit(double operationsPerSecond) {
+		Assert.isTrue(operationsPerSecond > 0);
+		this.rateLimit = operationsPerSecond;
+		return this;
+	}
+
+	/**
+	 * Sets the number of applications that are processed before the next
+	 * ones are started. All applications form a single batch by default.
+	 */
+	public FleetOperation setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0);
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * Stops once a batch had a failure, the remaining batches are reported as
+	 * cancelled.
+	 */
+	public FleetOperation setStopOnFailure(boolean stopOnFailure) {
+		this.stopOnFailure = stopOnFailure;
+		return this;
+	}
+
+	public FleetOperation setListener(IFleetOperationListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * Runs the operation on the applications of the given domain that are
+	 * accepted by the given filter.
+	 *
+	 * @param domain
+	 *            the domain whose applications the operation is run on
+	 * @param filter
+	 *            the filter that selects the applications, all
+	 *            applications if <code>null</code>
+	 * @return the report
+	 * @throws OpenShiftException
+	 *             if the applications of the domain could not be loaded
+	 */
+	public IFleetReport run(IDomain domain, IApplicationFilter filter) throws OpenShiftException {
+		Assert.notNull(domain);
+
+		List<IApplication> applications = new ArrayList<IApplication>();
+		for (IApplication application : domain.getApplications()) {
+			if (filter == null
+					|| filter.accept(application)) {
+				applications.add(application);
+			}
+		}
+		return run(applications);
+	}
+
+	/**
+	 * Runs the operation on the given applications and waits for it to
+	 * complete.
+	 *
+	 * @param applications
+	 *            the applications to run the operation on
+	 * @return the report
+	 */
+	public IFleetReport run(Collection<IApplication> applications) {
+		Assert.notNull(applications);
+
+		long start = System.nanoTime();
+		List<IApplication> fleet = new ArrayList<IApplication>(applications);
+		Batch batch = new Batch(fleet.size());
+		List<IApplicationOperationResult> results = new ArrayList<IApplicationOperationResult>(fleet.size());
+		int size = batchSize > 0 ? batchSize : Math.max(1, fleet.size());
+		for (int from = 0; from < fleet.size(); from += size) {
+			List<IApplication> applicationsInBatch = fleet.subList(from, Math.min(from + size, fleet.size()));
+			if (isCancelled(results)) {
+				for (IApplication application : applicationsInBatch) {
+					results.add(batch.cancelled(application));
+				}
+			} else {
+				results.addAll(batch.run(applicationsInBatch));
+			}
+		}
+		return new FleetReport(operation, results, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	private boolean isCancelled(List<IApplicationOperationResult> results) {
+		if (Thread.currentThread().isInterrupted()) {
+			return true;
+		}
+		if (!stopOnFailure) {
+			return false;
+		}
+		for (IApplicationOperationResult result : results) {
+			if (!result.isSuccessful()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private class Batch extends ConcurrentBatch<IApplication, IApplicationOperationResult> {
+
+		private final int total;
+		private final AtomicInteger completed = new AtomicInteger();
+		private final TokenBucket rateLimiter;
+
+		private Batch(int total) {
+			super(executor, parallelism);
+			this.total = total;
+			this.rateLimiter = rateLimit > 0 ? new TokenBucket(rateLimit, 1) : null;
+		}
+
+		@Override
+		protected void awaitStart(IApplication application) throws InterruptedException {
+			if (rateLimiter != null) {
+				rateLimiter.acquire();
+			}
+		}
+
+		@Override
+		protected IApplicationOperationResult process(IApplication application) {
+			notifyStarted(application);
+			long start = System.nanoTime();
+			OpenShiftException failure = null;
+			try {
+				operation.execute(application);
+			} catch (OpenShiftException e) {
+				failure = e;
+			} catch (RuntimeException e) {
+				failure = new OpenShiftException(e, "Could not {0} application {1}",
+						operation.name().toLowerCase(), application.getName());
+			}
+			return notifyCompleted(new ApplicationOperationResult(application, operation, failure,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+		}
+
+		@Override
+		protected IApplicationOperationResult cancelled(IApplication application) {
+			return notifyCompleted(new ApplicationOperationResult(application, operation,
+					new OpenShiftException("Operation {0} on application {1} was cancelled",
+							operation.name().toLowerCase(), application.getName()), 0));
+		}
+
+		private void notifyStarted(IApplication application) {
+			if (listener == null) {
+				return;
+			}
+			try {
+				listener.started(application, operation);
+			} catch (RuntimeException e) {
+				LOGGER.error("Listener failed to process the start of an operation", e);
+			}
+		}
+
+		private IApplicationOperationResult notifyCompleted(IApplicationOperationResult result) {
+			int numOfCompleted = completed.incrementAndGet();
+			if (listener == null) {
+				return result;
+			}
+			try {
+				listener.completed(result, numOfCompleted, total);
+			} catch (RuntimeException e) {
+				LOGGER.error("Listener failed to process the result of an operation", e);
+			}
+			return result;
+		}
+	}
+}
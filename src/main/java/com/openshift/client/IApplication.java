@@ -263,7 +263,9 @@ public interface IApplication extends IOpenShiftResource {
 	public void stop(boolean force) throws OpenShiftException;
 
 	/**
-	 * Waits for this application to become accessible on its public url.
+	 * Waits for this application to become accessible on its public url. The
+	 * timeout is shortened to the {@link Deadline} of the calling thread if
+	 * it has one.
 	 * 
 	 * @param timeout
 	 * @return
@@ -288,6 +290,48 @@ public interface IApplication extends IOpenShiftResource {
 	 */
 	public Future<Boolean> waitForAccessibleAsync(final long timeout) throws OpenShiftException;
 
+	/**
+	 * Returns a Future that's completed with <code>true</code> once the host
+	 * of the public url of this application resolves or with
+	 * <code>false</code> if it does not resolve within the given timeout. No
+	 * thread is blocked while waiting, the lookups are retried with a growing
+	 * delay.
+	 * 
+	 * @param timeout
+	 *            the time (in milliseconds) to wait
+	 * @param callback
+	 *            the callback to notify once the future is done, may be
+	 *            <code>null</code>
+	 * @return the future result
+	 * @throws OpenShiftException
+	 *             if the application has an invalid url
+	 * 
+	 * @see IApplication#getApplicationUrl()
+	 */
+	public Future<Boolean> waitForAccessibleAsync(long timeout, IResponseCallback<Boolean> callback)
+			throws OpenShiftException;
+
+	/**
+	 * Returns a Future that's completed with <code>true</code> once the
+	 * application answers on its public url, with <code>false</code> if it
+	 * does not within the given timeout. The application is considered
+	 * healthy once its host resolves and it answers with a status that's no
+	 * server error.
+	 * 
+	 * @param timeout
+	 *            the time (in milliseconds) to wait
+	 * @param callback
+	 *            the callback to notify once the future is done, may be
+	 *            <code>null</code>
+	 * @return the future result
+	 * @throws OpenShiftException
+	 *             if the application has an invalid url
+	 * 
+	 * @see IApplication#waitForAccessibleAsync(long, IResponseCallback)
+	 */
+	public Future<Boolean> waitForHealthyAsync(long timeout, IResponseCallback<Boolean> callback)
+			throws OpenShiftException;
+
 	/**
 	 * Get the domain of the application.
 	 * 
@@ -0,0 +1,31 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * Selects applications.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see FleetOperation#run(IDomain, IApplicationFilter)
+ */
+public interface IApplicationFilter {
+
+	/**
+	 * Returns <code>true</code> if the given application is selected.
+	 * 
+	 * @param application
+	 *            the application to check
+	 * @return true if selected
+	 */
+	public boolean accept(IApplication application);
+
+}
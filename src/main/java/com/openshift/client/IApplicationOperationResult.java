@@ -0,0 +1,44 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * The outcome of running an operation on a single application of a fleet.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see FleetOperation
+ * @see IFleetReport
+ */
+public interface IApplicationOperationResult {
+
+	public IApplication getApplication();
+
+	public ApplicationOperation getOperation();
+
+	public boolean isSuccessful();
+
+	/**
+	 * Returns the reason why the operation failed or <code>null</code> if it
+	 * succeeded.
+	 * 
+	 * @return the failure
+	 */
+	public OpenShiftException getFailure();
+
+	/**
+	 * Returns the time (in milliseconds) that the operation took.
+	 * 
+	 * @return the duration
+	 */
+	public long getDuration();
+
+}
@@ -0,0 +1,62 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The applications of several domains, loaded at once. Domains whose
+ * applications could not be loaded are reported as failures, they don't fail
+ * the other domains.
+ *
+ * @author Andre Dietisheim
+ * 
+ * @see IOpenShiftConnection#loadAllApplications()
+ */
+public interface IApplicationsByDomain {
+
+	/**
+	 * Returns the applications of all the domains that were loaded
+	 * successfully.
+	 * 
+	 * @return the applications
+	 */
+	public List<IApplication> getApplications();
+
+	/**
+	 * Returns the applications of the given domain.
+	 * 
+	 * @param domain
+	 *            the domain whose applications shall be returned
+	 * @return the applications or <code>null</code> if they could not be
+	 *         loaded
+	 */
+	public List<IApplication> getApplications(IDomain domain);
+
+	/**
+	 * Returns the domains whose applications were loaded successfully.
+	 * 
+	 * @return the domains
+	 */
+	public List<IDomain> getDomains();
+
+	/**
+	 * Returns the domains whose applications could not be loaded and the
+	 * reason why they could not.
+	 * 
+	 * @return the failures by domain
+	 */
+	public Map<IDomain, OpenShiftException> getFailures();
+
+	public boolean hasFailures();
+
+}
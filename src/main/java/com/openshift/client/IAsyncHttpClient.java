@@ -0,0 +1,48 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * A http client that executes requests without blocking the calling thread.
+ * The responses are either retrieved from the returned futures or handed to
+ * the given callbacks. Failed requests complete their future with a
+ * {@link com.openshift.internal.client.httpclient.HttpClientException} or a
+ * {@link java.net.SocketTimeoutException}.
+ *
+ * @author Andre Dietisheim
+ */
+public interface IAsyncHttpClient extends IHttpClient {
+
+	public Future<String> get(URL url, IResponseCallback<String> callback);
+
+	public Future<String> post(Map<String, Object> parameters, URL url, IResponseCallback<String> callback)
+			throws UnsupportedEncodingException;
+
+	public Future<String> put(Map<String, Object> parameters, URL url, IResponseCallback<String> callback)
+			throws UnsupportedEncodingException;
+
+	public Future<String> delete(Map<String, Object> parameters, URL url, IResponseCallback<String> callback)
+			throws UnsupportedEncodingException;
+
+	public Future<String> delete(URL url, IResponseCallback<String> callback);
+
+	/**
+	 * Closes all connections and stops the thread that processes the
+	 * requests. Requests that are still pending fail.
+	 */
+	public void shutdown();
+
+}
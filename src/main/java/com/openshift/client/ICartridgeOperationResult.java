@@ -0,0 +1,53 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * The outcome of adding or removing a cartridge to or from an application
+ * within a batch of cartridge operations.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see IOpenShiftConnection#addEmbeddableCartridges(java.util.Collection, java.util.List, int)
+ * @see IOpenShiftConnection#removeEmbeddedCartridges(java.util.Collection, java.util.List, int)
+ */
+public interface ICartridgeOperationResult {
+
+	public IApplication getApplication();
+
+	public IEmbeddableCartridge getCartridge();
+
+	/**
+	 * Returns the cartridge that was added to the application. Returns
+	 * <code>null</code> if the cartridge was removed or the operation failed.
+	 * 
+	 * @return the added cartridge
+	 */
+	public IEmbeddedCartridge getEmbeddedCartridge();
+
+	public boolean isSuccessful();
+
+	/**
+	 * Returns the reason why the operation failed or <code>null</code> if it
+	 * succeeded.
+	 * 
+	 * @return the failure
+	 */
+	public OpenShiftException getFailure();
+
+	/**
+	 * Returns the time (in milliseconds) that the operation took.
+	 * 
+	 * @return the duration
+	 */
+	public long getDuration();
+
+}
@@ -0,0 +1,45 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.net.SocketTimeoutException;
+import java.net.URL;
+
+import com.openshift.internal.client.httpclient.CachedResponse;
+import com.openshift.internal.client.httpclient.HttpClientException;
+
+/**
+ * A http client that sends conditional GET requests. The validators
+ * (<code>ETag</code>, <code>Last-Modified</code>) of a previous response are
+ * sent along (<code>If-None-Match</code>, <code>If-Modified-Since</code>) so
+ * that the server may skip the response if it did not change in between.
+ *
+ * @author Andre Dietisheim
+ */
+public interface IConditionalHttpClient extends IStreamingHttpClient {
+
+	/**
+	 * Requests the given url if it changed since the given response was
+	 * received.
+	 * 
+	 * @param url
+	 *            the url to request
+	 * @param cached
+	 *            the previous response or <code>null</code> if there's none
+	 * @param reader
+	 *            the reader that reads the response if it changed
+	 * @return the given response if the server reported it to be unchanged,
+	 *         the new response and its validators otherwise
+	 */
+	public <T> CachedResponse<T> get(URL url, CachedResponse<T> cached, IResponseReader<T> reader)
+			throws HttpClientException, SocketTimeoutException;
+
+}
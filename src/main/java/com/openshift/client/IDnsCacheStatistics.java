@@ -0,0 +1,38 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * A snapshot of the size and the counters of the cache that holds the hosts
+ * that were resolved.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see com.openshift.client.utils.HostUtils#getDnsCacheStatistics()
+ */
+public interface IDnsCacheStatistics {
+
+	/**
+	 * Returns the number of cached hosts, expired ones included.
+	 */
+	public int getSize();
+
+	/**
+	 * Returns the number of requests that were answered from the cache.
+	 */
+	public long getHits();
+
+	/**
+	 * Returns the number of requests that had to resolve the host.
+	 */
+	public long getMisses();
+
+}
@@ -0,0 +1,46 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * A listener that gets notified of the progress of a fleet operation. The
+ * listener is notified by the threads that run the operation, it should
+ * return quickly and must be thread safe.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see FleetOperation#setListener(IFleetOperationListener)
+ */
+public interface IFleetOperationListener {
+
+	/**
+	 * Called before the operation is run on the given application.
+	 * 
+	 * @param application
+	 *            the application that the operation is run on
+	 * @param operation
+	 *            the operation
+	 */
+	public void started(IApplication application, ApplicationOperation operation);
+
+	/**
+	 * Called once the operation completed for an application.
+	 * 
+	 * @param result
+	 *            the outcome for the application
+	 * @param completed
+	 *            the number of applications that were processed so far
+	 * @param total
+	 *            the number of applications in the fleet
+	 */
+	public void completed(IApplicationOperationResult result, int completed, int total);
+
+}
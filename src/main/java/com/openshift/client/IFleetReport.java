@@ -0,0 +1,53 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.List;
+
+/**
+ * The outcome of a fleet operation.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see FleetOperation
+ */
+public interface IFleetReport {
+
+	public ApplicationOperation getOperation();
+
+	/**
+	 * Returns the results for all the applications, in the order in which the
+	 * applications were given.
+	 * 
+	 * @return the results
+	 */
+	public List<IApplicationOperationResult> getResults();
+
+	public List<IApplicationOperationResult> getSuccessful();
+
+	/**
+	 * Returns the results of the applications whose operation failed or was
+	 * cancelled.
+	 * 
+	 * @return the failed results
+	 */
+	public List<IApplicationOperationResult> getFailed();
+
+	public boolean hasFailures();
+
+	/**
+	 * Returns the time (in milliseconds) that the whole fleet operation took.
+	 * 
+	 * @return the duration
+	 */
+	public long getDuration();
+
+}
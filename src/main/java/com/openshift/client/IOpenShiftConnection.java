@@ -10,9 +10,9 @@
  ******************************************************************************/
 package com.openshift.client;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * @author Xavier Coulon
@@ -43,6 +43,55 @@ public interface IOpenShiftConnection {
 	 */
 	public List<IDomain> getDomains() throws OpenShiftException;
 
+	/**
+	 * Loads the applications of all the domains associated with the current
+	 * OpenShift connection. The applications of the different domains are
+	 * requested concurrently. Domains whose applications cannot be loaded are
+	 * reported in the result and don't fail the whole operation.
+	 * 
+	 * @return the applications by domain
+	 * @throws OpenShiftException
+	 *             if the domains could not be loaded
+	 */
+	public IApplicationsByDomain loadAllApplications() throws OpenShiftException;
+
+	/**
+	 * Adds the given cartridges to the given applications. Up to
+	 * maxConcurrency applications are processed at once, the cartridges of
+	 * an application are added one after the other in the given order. A
+	 * failure is reported in the results and does not stop the other
+	 * operations.
+	 * 
+	 * @param applications
+	 *            the applications to add the cartridges to
+	 * @param cartridges
+	 *            the cartridges to add
+	 * @param maxConcurrency
+	 *            the maximum number of applications processed at once
+	 * @return the results, ordered by application and cartridge
+	 * 
+	 * @see #getExecutorService()
+	 */
+	public List<ICartridgeOperationResult> addEmbeddableCartridges(Collection<IApplication> applications,
+			List<IEmbeddableCartridge> cartridges, int maxConcurrency);
+
+	/**
+	 * Removes the given cartridges from the given applications. Cartridges
+	 * that are not present are skipped.
+	 * 
+	 * @param applications
+	 *            the applications to remove the cartridges from
+	 * @param cartridges
+	 *            the cartridges to remove
+	 * @param maxConcurrency
+	 *            the maximum number of applications processed at once
+	 * @return the results, ordered by application and cartridge
+	 * 
+	 * @see #addEmbeddableCartridges(Collection, List, int)
+	 */
+	public List<ICartridgeOperationResult> removeEmbeddedCartridges(Collection<IApplication> applications,
+			List<IEmbeddableCartridge> cartridges, int maxConcurrency);
+
 	/**
 	 * Returns the available standalone cartridges associated with the current
 	 * OpenShift connection.
@@ -92,12 +141,14 @@ public interface IOpenShiftConnection {
 
 	/**
 	 * Returns the executor service instance that's available in this
-	 * connection.
+	 * connection. The executor is shared with other connections or owned by
+	 * the caller that created the connection factory. It must not be shut
+	 * down by the users of this connection.
 	 * 
 	 * @return the executor service instance for this connection
 	 * 
 	 * @see ExecutorService
-	 * @see Executors
+	 * @see OpenShiftExecutors
 	 */
 	public ExecutorService getExecutorService();
 
@@ -0,0 +1,41 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+/**
+ * A callback that gets notified once an asynchronous request completed.
+ * Callbacks are invoked by the thread that completed the request, they should
+ * therefore return quickly and not block.
+ *
+ * @param <T>
+ *            the type of the response
+ *
+ * @author Andre Dietisheim
+ */
+public interface IResponseCallback<T> {
+
+	/**
+	 * Called when the request completed successfully.
+	 *
+	 * @param response
+	 *            the response to the request
+	 */
+	public void completed(T response);
+
+	/**
+	 * Called when the request failed or was cancelled.
+	 *
+	 * @param cause
+	 *            the reason for the failure
+	 */
+	public void failed(Throwable cause);
+
+}
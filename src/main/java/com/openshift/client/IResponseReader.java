@@ -0,0 +1,38 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a response from the stream of a http connection.
+ *
+ * @param <T>
+ *            the type that the response is read into
+ *
+ * @author Andre Dietisheim
+ */
+public interface IResponseReader<T> {
+
+	/**
+	 * Reads the response from the given stream. The stream is closed by the
+	 * caller.
+	 *
+	 * @param inputStream
+	 *            the stream to read the response from
+	 * @return the response
+	 * @throws IOException
+	 *             if the stream could not be read
+	 */
+	public T read(InputStream inputStream) throws IOException;
+
+}
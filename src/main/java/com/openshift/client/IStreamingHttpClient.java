@@ -0,0 +1,39 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.io.UnsupportedEncodingException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Map;
+
+import com.openshift.internal.client.httpclient.HttpClientException;
+
+/**
+ * A http client that hands the response stream to a reader instead of reading
+ * the whole response into a string first.
+ *
+ * @author Andre Dietisheim
+ */
+public interface IStreamingHttpClient extends IHttpClient {
+
+	public <T> T get(URL url, IResponseReader<T> reader) throws HttpClientException, SocketTimeoutException;
+
+	public <T> T post(Map<String, Object> parameters, URL url, IResponseReader<T> reader)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException;
+
+	public <T> T put(Map<String, Object> parameters, URL url, IResponseReader<T> reader)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException;
+
+	public <T> T delete(Map<String, Object> parameters, URL url, IResponseReader<T> reader)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException;
+
+}
@@ -10,12 +10,16 @@
  ******************************************************************************/
 package com.openshift.client;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import com.openshift.client.configuration.IOpenShiftConfiguration;
 import com.openshift.client.configuration.OpenShiftConfiguration;
 import com.openshift.internal.client.AbstractOpenShiftConnectionFactory;
+import com.openshift.internal.client.ApiDescriptorCache;
 import com.openshift.internal.client.IRestService;
 import com.openshift.internal.client.RestService;
 import com.openshift.internal.client.httpclient.UrlConnectionHttpClientBuilder;
@@ -30,6 +34,116 @@ import com.openshift.internal.client.utils.Assert;
  */
 public class OpenShiftConnectionFactory extends AbstractOpenShiftConnectionFactory {
 
+	/**
+	 * Creates a factory whose connections share a single executor.
+	 * 
+	 * @see OpenShiftExecutors#getShared()
+	 */
+	public OpenShiftConnectionFactory() {
+		super();
+	}
+
+	/**
+	 * Creates a factory whose connections run their asynchronous tasks in the
+	 * given executor. The caller owns the executor and has to shut it down,
+	 * the connections never do.
+	 * 
+	 * @param executorService
+	 *            the executor for the connections
+	 * 
+	 * @see OpenShiftExecutors#newThreadPool(int)
+	 * @see OpenShiftExecutors#newVirtualThreadExecutor()
+	 */
+	public OpenShiftConnectionFactory(ExecutorService executorService) {
+		super(executorService);
+		Assert.notNull(executorService);
+	}
+
+	/**
+	 * Limits the requests that the connections send to the broker. Applies to
+	 * the connections that are created from now on, each connection gets its
+	 * own limiter.
+	 * 
+	 * @param requestLimits
+	 *            the limits or <code>null</code> to not limit the requests
+	 * @return this factory
+	 */
+	public OpenShiftConnectionFactory setRequestLimits(RequestLimits requestLimits) {
+		setRequestLimitsInternal(requestLimits);
+		return this;
+	}
+
+	/**
+	 * Retries the failed requests of the connections that are created from
+	 * now on. Only idempotent requests are retried and only if they failed
+	 * with a transient error.
+	 * 
+	 * @param retryPolicy
+	 *            the policy or <code>null</code> to not retry requests
+	 * @return this factory
+	 */
+	public OpenShiftConnectionFactory setRetryPolicy(RetryPolicy retryPolicy) {
+		setRetryPolicyInternal(retryPolicy);
+		return this;
+	}
+
+	/**
+	 * Sets the timeouts for the requests of the connections that are created
+	 * from now on. They override the timeouts of the http client and the
+	 * system properties.
+	 * 
+	 * @param requestTimeouts
+	 *            the timeouts or <code>null</code> to use the ones of the
+	 *            http client
+	 * @return this factory
+	 */
+	public OpenShiftConnectionFactory setRequestTimeouts(RequestTimeouts requestTimeouts) {
+		setRequestTimeoutsInternal(requestTimeouts);
+		return this;
+	}
+
+	/**
+	 * Sets the time after which the connections that are created from now on
+	 * revalidate the cartridges that the broker offers. The cartridges are
+	 * listed once and shared by all connections to the same broker, stale
+	 * cartridges are returned while they are revalidated in the background.
+	 * 
+	 * @param timeToLive
+	 *            the time after which the cartridges get revalidated
+	 * @param unit
+	 *            the unit of the time to live
+	 * @return this factory
+	 */
+	public OpenShiftConnectionFactory setCartridgesTimeToLive(long timeToLive, TimeUnit unit) {
+		setCartridgesTimeToLiveInternal(unit.toMillis(timeToLive));
+		return this;
+	}
+
+	/**
+	 * Stores the api descriptor of the broker (and optionally its cartridges)
+	 * in the given directory. The connections that are created from now on
+	 * use the stored descriptor instead of requesting it when they connect,
+	 * and revalidate it in the background. Speeds up short-lived processes
+	 * that connect once and exit.
+	 * 
+	 * @param directory
+	 *            the directory for the cached responses or <code>null</code>
+	 *            to not cache them
+	 * @param cacheCartridges
+	 *            whether the cartridges are cached, too. They are revalidated
+	 *            once they are older than the
+	 *            {@link #setCartridgesTimeToLive(long, TimeUnit) time to live}
+	 * @return this factory
+	 */
+	public OpenShiftConnectionFactory setApiDescriptorCache(File directory, boolean cacheCartridges) {
+		if (directory == null) {
+			setApiDescriptorCacheInternal(null);
+		} else {
+			setApiDescriptorCacheInternal(new ApiDescriptorCache(directory, cacheCartridges));
+		}
+		return this;
+	}
+
 	/**
 	 * Establish a connection with the clientId along with user's password.
 	 * User's login and Server URL are retrieved from the local configuration
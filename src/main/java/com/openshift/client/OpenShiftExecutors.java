@@ -0,0 +1,291 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.metrics.ClientMetrics;
+import com.openshift.internal.client.utils.NamedThreadFactory;
+
+/**
+ * Creates the executors that the connections run their asynchronous tasks in.
+ * All connections share a single executor unless the
+ * {@link OpenShiftConnectionFactory} is given an executor of its own.
+ * <p>
+ * The executors that this class creates are instrumented, their
+ * {@link Statistics} report the number of queued and running tasks. The
+ * numbers are reported to the {@link ClientMetrics} too. The shared executor
+ * is sized by the system property {@link #SYSPROP_THREADS} and uses virtual
+ * threads if {@link #SYSPROP_VIRTUAL_THREADS} is set to <code>true</code> and
+ * the jvm supports them.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see OpenShiftConnectionFactory#OpenShiftConnectionFactory(ExecutorService)
+ * @see IOpenShiftConnection#getExecutorService()
+ */
+public class OpenShiftExecutors {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OpenShiftExecutors.class);
+
+	/** the system property that sets the number of threads of the shared executor */
+	public static final String SYSPROP_THREADS = "com.openshift.client.executor.threads";
+	/** the system property that makes the shared executor use virtual threads */
+	public static final String SYSPROP_VIRTUAL_THREADS = "com.openshift.client.executor.virtualthreads";
+
+	public static final int DEFAULT_THREADS = 10;
+	/** the time (in seconds) after which idle threads are stopped */
+	private static final long KEEP_ALIVE = 60;
+	private static final String THREAD_PREFIX = "openshift-client";
+
+	private static ExecutorService shared;
+
+	private OpenShiftExecutors() {
+		// inhibit instantiation
+	}
+
+	/**
+	 * Returns the executor that all connections share. The executor is created
+	 * when it's requested for the first time and created anew if it was shut
+	 * down.
+	 *
+	 * @return the shared executor
+	 */
+	public static synchronized ExecutorService getShared() {
+		if (shared == null
+				|| shared.isShutdown()) {
+			if (Boolean.getBoolean(SYSPROP_VIRTUAL_THREADS)) {
+				shared = newVirtualThreadExecutor();
+			} else {
+				shared = newThreadPool(getThreads());
+			}
+		}
+		return shared;
+	}
+
+	private static int getThreads() {
+		String threads = System.getProperty(SYSPROP_THREADS);
+		if (threads == null) {
+			return DEFAULT_THREADS;
+		}
+		try {
+			return Math.max(1, Integer.parseInt(threads));
+		} catch (NumberFormatException e) {
+			LOGGER.warn("Invalid number of threads {} in system property {}", threads, SYSPROP_THREADS);
+			return DEFAULT_THREADS;
+		}
+	}
+
+	/**
+	 * Creates an executor with the given maximum number of daemon threads.
+	 * Threads are only created when tasks are submitted and stopped once
+	 * they're idle for a minute.
+	 *
+	 * @param threads
+	 *            the maximum number of threads
+	 * @return the new executor
+	 */
+	public static ExecutorService newThreadPool(int threads) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory(THREAD_PREFIX));
+		executor.allowCoreThreadTimeOut(true);
+		return new InstrumentedExecutorService(executor);
+	}
+
+	/**
+	 * Creates an executor that runs each task in a virtual thread. Falls back
+	 * to a pool of {@link #DEFAULT_THREADS} threads if the jvm has no virtual
+	 * threads.
+	 *
+	 * @return the new executor
+	 *
+	 * @see #isVirtualThreadsAvailable()
+	 */
+	public static ExecutorService newVirtualThreadExecutor() {
+		Method factoryMethod = getVirtualThreadExecutorFactory();
+		if (factoryMethod != null) {
+			try {
+				return new InstrumentedExecutorService((ExecutorService) factoryMethod.invoke(null));
+			} catch (Exception e) {
+				LOGGER.warn("Could not create virtual thread executor", e);
+			}
+		}
+		return newThreadPool(DEFAULT_THREADS);
+	}
+
+	/**
+	 * Returns <code>true</code> if the jvm supports virtual threads.
+	 */
+	public static boolean isVirtualThreadsAvailable() {
+		return getVirtualThreadExecutorFactory() != null;
+	}
+
+	private static Method getVirtualThreadExecutorFactory() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the statistics of the given executor or <code>null</code> if
+	 * it was not created by this class.
+	 *
+	 * @param executor
+	 *            the executor to get the statistics of
+	 * @return the statistics or <code>null</code>
+	 */
+	public static Statistics getStatistics(ExecutorService executor) {
+		if (!(executor instanceof InstrumentedExecutorService)) {
+			return null;
+		}
+		return ((InstrumentedExecutorService) executor).getStatistics();
+	}
+
+	/**
+	 * An executor that counts the tasks that wait to be run and the tasks that
+	 * are running.
+	 */
+	private static class InstrumentedExecutorService extends AbstractExecutorService {
+
+		private final ExecutorService delegate;
+		private final AtomicInteger queued = new AtomicInteger();
+		private final AtomicInteger active = new AtomicInteger();
+		private final AtomicLong completed = new AtomicLong();
+
+		private InstrumentedExecutorService(ExecutorService delegate) {
+			this.delegate = delegate;
+		}
+
+		public void execute(Runnable command) {
+			ClientMetrics.get().executorUsed(queued.incrementAndGet(), active.get());
+			try {
+				delegate.execute(new CountingTask(command));
+			} catch (RejectedExecutionException e) {
+				queued.decrementAndGet();
+				throw e;
+			}
+		}
+
+		public void shutdown() {
+			delegate.shutdown();
+		}
+
+		public List<Runnable> shutdownNow() {
+			List<Runnable> tasks = new ArrayList<Runnable>();
+			for (Runnable task : delegate.shutdownNow()) {
+				if (task instanceof CountingTask) {
+					queued.decrementAndGet();
+					task = ((CountingTask) task).command;
+				}
+				tasks.add(task);
+			}
+			return tasks;
+		}
+
+		public boolean isShutdown() {
+			return delegate.isShutdown();
+		}
+
+		public boolean isTerminated() {
+			return delegate.isTerminated();
+		}
+
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return delegate.awaitTermination(timeout, unit);
+		}
+
+		private Statistics getStatistics() {
+			return new Statistics(queued.get(), active.get(), completed.get());
+		}
+
+		private class CountingTask implements Runnable {
+
+			private final Runnable command;
+
+			private CountingTask(Runnable command) {
+				this.command = command;
+			}
+
+			public void run() {
+				ClientMetrics.get().executorUsed(queued.decrementAndGet(), active.incrementAndGet());
+				try {
+					command.run();
+				} finally {
+					active.decrementAndGet();
+					completed.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * A snapshot of the tasks of an executor.
+	 */
+	public static class Statistics {
+
+		private final int queued;
+		private final int active;
+		private final long completed;
+
+		Statistics(int queued, int active, long completed) {
+			this.queued = queued;
+			this.active = active;
+			this.completed = completed;
+		}
+
+		/**
+		 * Returns the number of tasks that were submitted but are not running
+		 * yet.
+		 */
+		public int getQueued() {
+			return queued;
+		}
+
+		/**
+		 * Returns the number of tasks that are running.
+		 */
+		public int getActive() {
+			return active;
+		}
+
+		/**
+		 * Returns the number of tasks that have finished, successfully or not.
+		 */
+		public long getCompleted() {
+			return completed;
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics ["
+					+ "queued=" + queued
+					+ ", active=" + active
+					+ ", completed=" + completed
+					+ "]";
+		}
+	}
+}
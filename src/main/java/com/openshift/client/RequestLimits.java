@@ -0,0 +1,145 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import com.openshift.internal.client.utils.Assert;
+
+/**
+ * The limits for the requests that a connection sends to the broker. The
+ * requests are limited by rate and by the number of requests in flight. The
+ * latter adapts to the broker: it grows by 1 for every round of requests
+ * that succeeded and shrinks by the backoff ratio once a request fails with
+ * an internal server error or times out (additive increase, multiplicative
+ * decrease). Requests are not limited by rate by default. Slow responses are
+ * not taken as a sign of overload by default either, some operations (ex.
+ * creating an application) take minutes by design.
+ *
+ * <pre>
+ * new OpenShiftConnectionFactory()
+ * 		.setRequestLimits(new RequestLimits()
+ * 				.setRate(20, 5)
+ * 				.setConcurrency(4, 1, 16))
+ * 		.getConnection(clientId, login, password, serverUrl);
+ * </pre>
+ *
+ * @author Andre Dietisheim
+ *
+ * @see OpenShiftConnectionFactory#setRequestLimits(RequestLimits)
+ */
+public class RequestLimits {
+
+	public static final int DEFAULT_INITIAL_CONCURRENCY = 10;
+	public static final int DEFAULT_MIN_CONCURRENCY = 1;
+	public static final int DEFAULT_MAX_CONCURRENCY = 50;
+	public static final long NO_LATENCY_THRESHOLD = -1;
+	public static final double DEFAULT_BACKOFF_RATIO = 0.5;
+
+	private double requestsPerSecond = -1;
+	private int burst = 1;
+	private int initialConcurrency = DEFAULT_INITIAL_CONCURRENCY;
+	private int minConcurrency = DEFAULT_MIN_CONCURRENCY;
+	private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+	private long latencyThreshold = NO_LATENCY_THRESHOLD;
+	private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+
+	/**
+	 * Limits the number of requests that are sent per second.
+	 * 
+	 * @param requestsPerSecond
+	 *            the number of requests per second
+	 * @param burst
+	 *            the number of requests that may be sent at once after the
+	 *            connection was idle
+	 */
+	public RequestLimits setRate(double requestsPerSecond, int burst) {
+		Assert.isTrue(requestsPerSecond > 0);
+		Assert.isTrue(burst > 0);
+		this.requestsPerSecond = requestsPerSecond;
+		this.burst = burst;
+		return this;
+	}
+
+	/**
+	 * Sets the bounds of the number of requests in flight.
+	 * 
+	 * @param initial
+	 *            the number of requests in flight that are allowed at first
+	 * @param min
+	 *            the number that the limit never shrinks below
+	 * @param max
+	 *            the number that the limit never grows above
+	 */
+	public RequestLimits setConcurrency(int initial, int min, int max) {
+		Assert.isTrue(min > 0);
+		Assert.isTrue(min <= initial && initial <= max);
+		this.initialConcurrency = initial;
+		this.minConcurrency = min;
+		this.maxConcurrency = max;
+		return this;
+	}
+
+	/**
+	 * Sets the time (in milliseconds) above which a response is considered a
+	 * sign of an overloaded broker. The threshold applies to all requests, it
+	 * has to be above the time that the slowest operation takes normally.
+	 */
+	public RequestLimits setLatencyThreshold(long latencyThreshold) {
+		Assert.isTrue(latencyThreshold > 0);
+		this.latencyThreshold = latencyThreshold;
+		return this;
+	}
+
+	/**
+	 * Sets the factor that the concurrency limit is multiplied with when the
+	 * broker is overloaded.
+	 */
+	public RequestLimits setBackoffRatio(double backoffRatio) {
+		Assert.isTrue(backoffRatio > 0 && backoffRatio < 1);
+		this.backoffRatio = backoffRatio;
+		return this;
+	}
+
+	public boolean isRateLimited() {
+		return requestsPerSecond > 0;
+	}
+
+	public double getRequestsPerSecond() {
+		return requestsPerSecond;
+	}
+
+	public int getBurst() {
+		return burst;
+	}
+
+	public int getInitialConcurrency() {
+		return initialConcurrency;
+	}
+
+	public int getMinConcurrency() {
+		return minConcurrency;
+	}
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	public boolean isLatencyLimited() {
+		return latencyThreshold > 0;
+	}
+
+	public long getLatencyThreshold() {
+		return latencyThreshold;
+	}
+
+	public double getBackoffRatio() {
+		return backoffRatio;
+	}
+}
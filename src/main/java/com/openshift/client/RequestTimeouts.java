@@ -0,0 +1,122 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.openshift.internal.client.utils.Assert;
+
+/**
+ * The timeouts for the requests that a connection sends to the broker. The
+ * read timeout can be set per http method and per operation (link relation),
+ * so that long operations like creating an application get a long timeout
+ * while <code>GET</code>s fail fast. The timeout of an operation overrides
+ * the one of its method, which overrides the default. Timeouts that are not
+ * set fall back to the ones of the http client.
+ *
+ * <pre>
+ * new OpenShiftConnectionFactory()
+ * 		.setRequestTimeouts(new RequestTimeouts()
+ * 				.setReadTimeout(HttpMethod.GET, 10 * 1000)
+ * 				.setReadTimeout("Create new application", 5 * 60 * 1000))
+ * 		.getConnection(clientId, login, password, serverUrl);
+ * </pre>
+ *
+ * @author Andre Dietisheim
+ *
+ * @see OpenShiftConnectionFactory#setRequestTimeouts(RequestTimeouts)
+ * @see Deadline
+ */
+public class RequestTimeouts {
+
+	public static final int NO_TIMEOUT = -1;
+
+	private int connectTimeout = NO_TIMEOUT;
+	private int readTimeout = NO_TIMEOUT;
+	private final Map<HttpMethod, Integer> readTimeoutsByMethod = new ConcurrentHashMap<HttpMethod, Integer>();
+	private final Map<String, Integer> readTimeoutsByOperation = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * Sets the time (in milliseconds) to wait for a connection to the broker.
+	 */
+	public RequestTimeouts setConnectTimeout(int connectTimeout) {
+		Assert.isTrue(connectTimeout > 0);
+		this.connectTimeout = connectTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets the time (in milliseconds) to wait for the response of requests
+	 * that have no timeout of their own.
+	 */
+	public RequestTimeouts setReadTimeout(int readTimeout) {
+		Assert.isTrue(readTimeout > 0);
+		this.readTimeout = readTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets the time (in milliseconds) to wait for the response of requests
+	 * with the given method.
+	 */
+	public RequestTimeouts setReadTimeout(HttpMethod method, int readTimeout) {
+		Assert.notNull(method);
+		Assert.isTrue(readTimeout > 0);
+		readTimeoutsByMethod.put(method, readTimeout);
+		return this;
+	}
+
+	/**
+	 * Sets the time (in milliseconds) to wait for the response of the
+	 * operation with the given link relation.
+	 *
+	 * @param linkRelation
+	 *            the relation of the link, ex. "Create new application"
+	 */
+	public RequestTimeouts setReadTimeout(String linkRelation, int readTimeout) {
+		Assert.notNull(linkRelation);
+		Assert.isTrue(readTimeout > 0);
+		readTimeoutsByOperation.put(linkRelation, readTimeout);
+		return this;
+	}
+
+	/**
+	 * Returns the connect timeout or {@link #NO_TIMEOUT} if it is not set.
+	 */
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Returns the read timeout for the given request or {@link #NO_TIMEOUT}
+	 * if none is set.
+	 *
+	 * @param method
+	 *            the http method of the request
+	 * @param linkRelation
+	 *            the relation of the requested link, may be <code>null</code>
+	 */
+	public int getReadTimeout(HttpMethod method, String linkRelation) {
+		Integer timeout = null;
+		if (linkRelation != null) {
+			timeout = readTimeoutsByOperation.get(linkRelation);
+		}
+		if (timeout == null
+				&& method != null) {
+			timeout = readTimeoutsByMethod.get(method);
+		}
+		if (timeout == null) {
+			return readTimeout;
+		}
+		return timeout;
+	}
+}
@@ -0,0 +1,203 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import com.openshift.internal.client.httpclient.InternalServerErrorException;
+import com.openshift.internal.client.utils.Assert;
+
+/**
+ * The policy that tells which failed broker requests are sent again. Only
+ * requests that can safely be repeated are retried: <code>GET</code>s and the
+ * operations that were marked safe by their link relation (ex. "Start
+ * application"). They are retried if they failed with a transient error: a
+ * timeout, an internal server error or a connection that could not be
+ * established or was reset. The delay between the attempts grows
+ * exponentially, its upper half is random. A request is given up once it was
+ * attempted {@link #setMaxAttempts(int)} times or its time budget is spent.
+ * <p>
+ * Each broker host has a circuit breaker: once a host failed
+ * {@link #setCircuitBreaker(int, long)} times in a row, requests to it fail
+ * immediately until the open duration has passed. A single trial request is
+ * then let through, its success closes the breaker again.
+ * <p>
+ * Clients can change what is retried by overriding
+ * {@link #isRetryable(HttpMethod, String)} and {@link #isTransient(Throwable)}.
+ *
+ * <pre>
+ * new OpenShiftConnectionFactory()
+ * 		.setRetryPolicy(new RetryPolicy()
+ * 				.setMaxAttempts(5)
+ * 				.setTimeBudget(2 * 60 * 1000)
+ * 				.markSafe("Start application", "Stop application"))
+ * 		.getConnection(clientId, login, password, serverUrl);
+ * </pre>
+ *
+ * @author Andre Dietisheim
+ *
+ * @see OpenShiftConnectionFactory#setRetryPolicy(RetryPolicy)
+ */
+public class RetryPolicy {
+
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+	public static final long DEFAULT_INITIAL_DELAY = 500;
+	public static final long DEFAULT_MAX_DELAY = 8 * 1000;
+	public static final long DEFAULT_TIME_BUDGET = 60 * 1000;
+	public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+	public static final long DEFAULT_OPEN_DURATION = 30 * 1000;
+
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+	private long initialDelay = DEFAULT_INITIAL_DELAY;
+	private long maxDelay = DEFAULT_MAX_DELAY;
+	private long timeBudget = DEFAULT_TIME_BUDGET;
+	private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+	private long openDuration = DEFAULT_OPEN_DURATION;
+	private final Set<String> safeOperations = Collections.synchronizedSet(new HashSet<String>());
+	private final Random random = new Random();
+
+	/**
+	 * Sets the number of times a request is sent at most, the first attempt
+	 * included. 1 disables retries.
+	 */
+	public RetryPolicy setMaxAttempts(int maxAttempts) {
+		Assert.isTrue(maxAttempts > 0);
+		this.maxAttempts = maxAttempts;
+		return this;
+	}
+
+	/**
+	 * Sets the bounds of the delay between 2 attempts.
+	 *
+	 * @param initialDelay
+	 *            the delay (in milliseconds) before the first retry
+	 * @param maxDelay
+	 *            the delay (in milliseconds) that the growing delay never
+	 *            exceeds
+	 */
+	public RetryPolicy setBackoff(long initialDelay, long maxDelay) {
+		Assert.isTrue(initialDelay > 0);
+		Assert.isTrue(initialDelay <= maxDelay);
+		this.initialDelay = initialDelay;
+		this.maxDelay = maxDelay;
+		return this;
+	}
+
+	/**
+	 * Sets the time (in milliseconds) after which a request is not retried
+	 * any more. It starts with the first attempt and includes the time the
+	 * attempts took.
+	 */
+	public RetryPolicy setTimeBudget(long timeBudget) {
+		Assert.isTrue(timeBudget > 0);
+		this.timeBudget = timeBudget;
+		return this;
+	}
+
+	/**
+	 * Sets when the circuit breaker of a broker host opens and for how long.
+	 *
+	 * @param failureThreshold
+	 *            the number of transient failures in a row that open the
+	 *            breaker
+	 * @param openDuration
+	 *            the time (in milliseconds) during which requests fail
+	 *            immediately
+	 */
+	public RetryPolicy setCircuitBreaker(int failureThreshold, long openDuration) {
+		Assert.isTrue(failureThreshold > 0);
+		Assert.isTrue(openDuration > 0);
+		this.failureThreshold = failureThreshold;
+		this.openDuration = openDuration;
+		return this;
+	}
+
+	/**
+	 * Marks the operations with the given link relations as safe to be
+	 * repeated. Only mark operations that have the same effect if they're
+	 * sent several times.
+	 *
+	 * @param linkRelations
+	 *            the relations of the links, ex. "Start application"
+	 */
+	public RetryPolicy markSafe(String... linkRelations) {
+		for (String linkRelation : linkRelations) {
+			Assert.notNull(linkRelation);
+			safeOperations.add(linkRelation);
+		}
+		return this;
+	}
+
+	/**
+	 * Returns <code>true</code> if a request with the given method and link
+	 * relation may be sent again.
+	 *
+	 * @param method
+	 *            the http method of the request
+	 * @param linkRelation
+	 *            the relation of the requested link, <code>null</code> if the
+	 *            request was not sent to a link
+	 */
+	public boolean isRetryable(HttpMethod method, String linkRelation) {
+		return method == HttpMethod.GET
+				|| (linkRelation != null
+				&& safeOperations.contains(linkRelation));
+	}
+
+	/**
+	 * Returns <code>true</code> if the given cause of a failed request is
+	 * likely to go away if the request is sent again.
+	 */
+	public boolean isTransient(Throwable cause) {
+		return cause instanceof SocketTimeoutException
+				|| cause instanceof InternalServerErrorException
+				|| (cause != null
+				&& cause.getCause() instanceof SocketException);
+	}
+
+	/**
+	 * Returns the delay (in milliseconds) before the given retry: an
+	 * exponentially growing delay of which the upper half is random.
+	 *
+	 * @param retry
+	 *            the number of the retry, 0 for the first one
+	 */
+	public long getDelay(int retry) {
+		long delay = initialDelay << Math.min(retry, 30);
+		if (delay <= 0
+				|| delay > maxDelay) {
+			delay = maxDelay;
+		}
+		long half = delay / 2;
+		return half + (long) (random.nextDouble() * (delay - half));
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public long getOpenDuration() {
+		return openDuration;
+	}
+}
@@ -0,0 +1,74 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client.metrics;
+
+import com.openshift.client.HttpMethod;
+
+/**
+ * Holds the metrics that all connections of this jvm report to. Nothing is
+ * recorded unless metrics are set.
+ *
+ * <pre>
+ * SimpleClientMetrics metrics = new SimpleClientMetrics();
+ * ClientMetrics.set(metrics);
+ * ...
+ * metrics.getLatency(HttpMethod.POST, "Create new application").getPercentile(0.99);
+ * </pre>
+ *
+ * @author Andre Dietisheim
+ */
+public class ClientMetrics {
+
+	/** the metrics that discard all measurements */
+	public static final IClientMetrics NOOP = new IClientMetrics() {
+
+		public void requestCompleted(HttpMethod method, String linkRelation, long duration) {
+		}
+
+		public void requestFailed(HttpMethod method, String linkRelation, long duration, int status) {
+		}
+
+		public void bytesSent(long bytes) {
+		}
+
+		public void bytesReceived(long bytes, long decodedBytes) {
+		}
+
+		public void responseParsed(long duration) {
+		}
+
+		public void executorUsed(int queued, int active) {
+		}
+	};
+
+	private static volatile IClientMetrics metrics = NOOP;
+
+	private ClientMetrics() {
+		// inhibit instantiation
+	}
+
+	/**
+	 * Sets the metrics that the connections report to.
+	 *
+	 * @param metrics
+	 *            the metrics, <code>null</code> to stop recording
+	 */
+	public static void set(IClientMetrics metrics) {
+		if (metrics == null) {
+			metrics = NOOP;
+		}
+		ClientMetrics.metrics = metrics;
+	}
+
+	public static IClientMetrics get() {
+		return metrics;
+	}
+}
@@ -0,0 +1,94 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client.metrics;
+
+import com.openshift.client.HttpMethod;
+
+/**
+ * Receives the measurements of the client: the latency of the broker
+ * requests, the bytes that were sent and received, the time spent parsing
+ * responses and the usage of the executors. Implementations adapt the
+ * measurements to a metrics library and are registered with
+ * {@link ClientMetrics#set(IClientMetrics)}.
+ * <p>
+ * The methods are called by the threads that send the requests and run the
+ * tasks, they have to be thread safe and should return quickly.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see ClientMetrics
+ * @see SimpleClientMetrics
+ */
+public interface IClientMetrics {
+
+	/**
+	 * A request to the broker was answered successfully.
+	 *
+	 * @param method
+	 *            the http method of the request
+	 * @param linkRelation
+	 *            the relation of the requested link, <code>null</code> if the
+	 *            request was not sent to a link
+	 * @param duration
+	 *            the time (in nanoseconds) the request took
+	 */
+	public void requestCompleted(HttpMethod method, String linkRelation, long duration);
+
+	/**
+	 * A request to the broker failed.
+	 *
+	 * @param method
+	 *            the http method of the request
+	 * @param linkRelation
+	 *            the relation of the requested link, <code>null</code> if the
+	 *            request was not sent to a link
+	 * @param duration
+	 *            the time (in nanoseconds) the request took
+	 * @param status
+	 *            the http status of the response or -1 if there was none (ex.
+	 *            the request timed out)
+	 */
+	public void requestFailed(HttpMethod method, String linkRelation, long duration, int status);
+
+	/**
+	 * The body of a request was sent.
+	 */
+	public void bytesSent(long bytes);
+
+	/**
+	 * The body of a response was received.
+	 *
+	 * @param bytes
+	 *            the number of bytes that were received
+	 * @param decodedBytes
+	 *            the number of bytes once they were decompressed
+	 */
+	public void bytesReceived(long bytes, long decodedBytes);
+
+	/**
+	 * A response was parsed.
+	 *
+	 * @param duration
+	 *            the time (in nanoseconds) parsing took. Includes reading the
+	 *            response if it was parsed while it was read.
+	 */
+	public void responseParsed(long duration);
+
+	/**
+	 * A task was submitted to or completed by an executor of the client.
+	 *
+	 * @param queued
+	 *            the number of tasks that wait to be run
+	 * @param active
+	 *            the number of tasks that are running
+	 */
+	public void executorUsed(int queued, int active);
+}
@@ -0,0 +1,252 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.client.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.openshift.client.HttpMethod;
+
+/**
+ * Metrics that keep the measurements in memory so that they can be polled
+ * and published to a dashboard. Latencies are kept in histograms per http
+ * method and link relation, failures are counted per http status.
+ *
+ * @author Andre Dietisheim
+ */
+public class SimpleClientMetrics implements IClientMetrics {
+
+	private final ConcurrentMap<String, Histogram> latencies = new ConcurrentHashMap<String, Histogram>();
+	private final ConcurrentMap<Integer, AtomicLong> failures = new ConcurrentHashMap<Integer, AtomicLong>();
+	private final Histogram parseTimes = new Histogram();
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final AtomicLong bytesReceived = new AtomicLong();
+	private final AtomicLong bytesDecoded = new AtomicLong();
+	private final AtomicInteger maxQueued = new AtomicInteger();
+	private final AtomicInteger maxActive = new AtomicInteger();
+
+	public void requestCompleted(HttpMethod method, String linkRelation, long duration) {
+		getOrCreateLatency(method, linkRelation).record(duration);
+	}
+
+	public void requestFailed(HttpMethod method, String linkRelation, long duration, int status) {
+		getOrCreateLatency(method, linkRelation).record(duration);
+		AtomicLong counter = failures.get(status);
+		if (counter == null) {
+			AtomicLong newCounter = new AtomicLong();
+			counter = failures.putIfAbsent(status, newCounter);
+			if (counter == null) {
+				counter = newCounter;
+			}
+		}
+		counter.incrementAndGet();
+	}
+
+	public void bytesSent(long bytes) {
+		bytesSent.addAndGet(bytes);
+	}
+
+	public void bytesReceived(long bytes, long decodedBytes) {
+		bytesReceived.addAndGet(bytes);
+		bytesDecoded.addAndGet(decodedBytes);
+	}
+
+	public void responseParsed(long duration) {
+		parseTimes.record(duration);
+	}
+
+	public void executorUsed(int queued, int active) {
+		setMax(queued, maxQueued);
+		setMax(active, maxActive);
+	}
+
+	private void setMax(int value, AtomicInteger max) {
+		int current = max.get();
+		while (value > current
+				&& !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	private Histogram getOrCreateLatency(HttpMethod method, String linkRelation) {
+		String key = getKey(method, linkRelation);
+		Histogram histogram = latencies.get(key);
+		if (histogram == null) {
+			Histogram newHistogram = new Histogram();
+			histogram = latencies.putIfAbsent(key, newHistogram);
+			if (histogram == null) {
+				histogram = newHistogram;
+			}
+		}
+		return histogram;
+	}
+
+	private static String getKey(HttpMethod method, String linkRelation) {
+		if (linkRelation == null) {
+			return String.valueOf(method);
+		}
+		return method + " " + linkRelation;
+	}
+
+	/**
+	 * Returns the latencies of the requests with the given method and link
+	 * relation or <code>null</code> if there were none.
+	 */
+	public Histogram getLatency(HttpMethod method, String linkRelation) {
+		return latencies.get(getKey(method, linkRelation));
+	}
+
+	/**
+	 * Returns the latencies of all requests, keyed by their method and link
+	 * relation.
+	 */
+	public Map<String, Histogram> getLatencies() {
+		return new HashMap<String, Histogram>(latencies);
+	}
+
+	/**
+	 * Returns the number of requests that failed with the given http status,
+	 * -1 for the ones that got no response.
+	 */
+	public long getFailures(int status) {
+		AtomicLong counter = failures.get(status);
+		if (counter == null) {
+			return 0;
+		}
+		return counter.get();
+	}
+
+	public Histogram getParseTimes() {
+		return parseTimes;
+	}
+
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	public long getBytesDecoded() {
+		return bytesDecoded.get();
+	}
+
+	/**
+	 * Returns the highest number of tasks that waited in an executor.
+	 */
+	public int getMaxQueued() {
+		return maxQueued.get();
+	}
+
+	/**
+	 * Returns the highest number of tasks that ran at once in an executor.
+	 */
+	public int getMaxActive() {
+		return maxActive.get();
+	}
+
+	/**
+	 * A histogram of durations. The durations are counted in buckets whose
+	 * bounds are powers of 2 microseconds, percentiles are reported as the
+	 * upper bound of their bucket.
+	 */
+	public static class Histogram {
+
+		private static final int BUCKETS = 64;
+
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong total = new AtomicLong();
+		private final AtomicLong max = new AtomicLong();
+
+		void record(long duration) {
+			long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(duration));
+			buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(micros));
+			count.incrementAndGet();
+			total.addAndGet(duration);
+			long current = max.get();
+			while (duration > current
+					&& !max.compareAndSet(current, duration)) {
+				current = max.get();
+			}
+		}
+
+		public long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * Returns the mean duration in milliseconds.
+		 */
+		public double getMean() {
+			long count = this.count.get();
+			if (count == 0) {
+				return 0;
+			}
+			return toMillis(total.get() / count);
+		}
+
+		/**
+		 * Returns the longest duration in milliseconds.
+		 */
+		public long getMax() {
+			return TimeUnit.NANOSECONDS.toMillis(max.get());
+		}
+
+		/**
+		 * Returns the duration (in milliseconds) that the given share of the
+		 * recorded durations did not exceed.
+		 *
+		 * @param quantile
+		 *            the share, ex. 0.99 for the 99th percentile
+		 */
+		public double getPercentile(double quantile) {
+			long count = this.count.get();
+			if (count == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(quantile * count);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += buckets.get(i);
+				if (seen >= rank) {
+					return Math.min(getUpperBound(i), toMillis(max.get()));
+				}
+			}
+			return toMillis(max.get());
+		}
+
+		private static double toMillis(long nanos) {
+			return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		private static double getUpperBound(int bucket) {
+			return Math.pow(2, bucket) / 1000d;
+		}
+
+		@Override
+		public String toString() {
+			return "Histogram ["
+					+ "count=" + getCount()
+					+ ", mean=" + getMean()
+					+ ", p99=" + getPercentile(0.99)
+					+ ", max=" + getMax()
+					+ "]";
+		}
+	}
+}
@@ -10,24 +10,63 @@
  ******************************************************************************/
 package com.openshift.client.utils;
 
-import java.net.InetAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.UnknownHostException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.openshift.client.IDnsCacheStatistics;
+import com.openshift.internal.client.utils.DnsCache;
 
 /**
  * @author Andre Dietisheim
  */
 public class HostUtils {
 
+	private static final DnsCache dnsCache = new DnsCache();
+
+	/**
+	 * Returns <code>true</code> if the host of the given url resolves. The
+	 * results are cached.
+	 * 
+	 * @see #getDnsCacheStatistics()
+	 */
 	public static boolean canResolv(String urlString) throws MalformedURLException {
-		try {
-			URL url = new URL(urlString);
-			String host = url.getHost();
-			return InetAddress.getByName(host) != null;
-		} catch (UnknownHostException e) {
-			return false;
-		}
+		URL url = new URL(urlString);
+		return dnsCache.resolve(url.getHost()) != null;
+	}
+
+	/**
+	 * Resolves the host of the given url in the given executor so that later
+	 * requests find it in the cache.
+	 * 
+	 * @param urlString
+	 *            the url whose host shall get resolved
+	 * @param executor
+	 *            the executor to resolve the host in
+	 * @return the future that's completed with <code>true</code> if the host
+	 *         resolved
+	 * @throws MalformedURLException
+	 */
+	public static Future<Boolean> preResolve(String urlString, ExecutorService executor)
+			throws MalformedURLException {
+		final String host = new URL(urlString).getHost();
+		return executor.submit(new Callable<Boolean>() {
+
+			public Boolean call() throws Exception {
+				return dnsCache.resolve(host) != null;
+			}
+		});
+	}
+
+	/**
+	 * Returns the size and the hits and misses of the cache that
+	 * {@link #canResolv(String)} and {@link #preResolve(String, ExecutorService)}
+	 * use.
+	 */
+	public static IDnsCacheStatistics getDnsCacheStatistics() {
+		return dnsCache.getStatistics();
 	}
 
 }
@@ -11,25 +11,34 @@
 package com.openshift.internal.client;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
-import com.openshift.client.EmbeddableCartridge;
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationsByDomain;
 import com.openshift.client.ICartridge;
+import com.openshift.client.ICartridgeOperationResult;
 import com.openshift.client.IDomain;
 import com.openshift.client.IEmbeddableCartridge;
+import com.openshift.client.IEmbeddedCartridge;
 import com.openshift.client.IOpenShiftConnection;
 import com.openshift.client.IUser;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftExecutors;
 import com.openshift.internal.client.response.CartridgeResourceDTO;
 import com.openshift.internal.client.response.DomainResourceDTO;
 import com.openshift.internal.client.response.Link;
+import com.openshift.internal.client.response.ResourceDTOFactory;
 import com.openshift.internal.client.response.UserResourceDTO;
 import com.openshift.internal.client.utils.Assert;
-import com.openshift.internal.client.utils.CollectionUtils;
+import com.openshift.internal.client.CartridgeCatalog.Cartridges;
+import com.openshift.internal.client.CartridgeCatalog.ICartridgesLoader;
 import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
+import com.openshift.internal.client.utils.IndexedList;
+import com.openshift.internal.client.utils.LazyValue;
 
 /**
  * @author Andre Dietisheim
@@ -40,23 +49,41 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 	private static final String SYSPROPERTY_PROXY_PORT = "proxyPort";
 	private static final String SYSPROPERTY_PROXY_HOST = "proxyHost";
 	private static final String SYSPROPERTY_PROXY_SET = "proxySet";
+	private static final String LINK_LIST_CARTRIDGES = "LIST_CARTRIDGES";
 
 	private final String login;
 	private final String password;
-	private List<IDomain> domains;
-	private UserResource user;
+	private final LazyValue<Domains> domains = new LazyValue<Domains>() {
+
+		@Override
+		protected Domains load() throws OpenShiftException {
+			return loadDomains();
+		}
+	};
+	private final LazyValue<UserResource> user = new LazyValue<UserResource>() {
+
+		@Override
+		protected UserResource load() throws OpenShiftException {
+			return new UserResource(APIResource.this, new GetUserRequest().execute(), password);
+		}
+	};
 	//TODO: implement switch that allows to turn ssl checks on/off 
 	private boolean doSSLChecks = false;
-	private final List<ICartridge> standaloneCartridgeNames = new ArrayList<ICartridge>();
-	private final List<IEmbeddableCartridge> embeddedCartridgeNames = new ArrayList<IEmbeddableCartridge>();
+	private long cartridgesTimeToLive = CartridgeCatalog.DEFAULT_TIME_TO_LIVE;
+	private ApiDescriptorCache apiDescriptorCache;
 	private final ExecutorService executorService;
 	
 	protected APIResource(final String login, final String password, final IRestService service,
 			final Map<String, Link> links) {
+		this(login, password, service, links, OpenShiftExecutors.getShared());
+	}
+
+	protected APIResource(final String login, final String password, final IRestService service,
+			final Map<String, Link> links, final ExecutorService executorService) {
 		super(service, links, null);
 		this.login = login;
 		this.password = password;
-		this.executorService = Executors.newFixedThreadPool(10);
+		this.executorService = executorService;
 	}
 
 	protected final String getLogin() {
@@ -94,36 +121,96 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 	}
 
 	public IUser getUser() throws OpenShiftException {
-		if (user == null) {
-			this.user = new UserResource(this, new GetUserRequest().execute(), this.password);
-		}
-		return this.user;
+		return user.get();
 	}
 
 	public List<IDomain> getDomains() throws OpenShiftException {
-		if (domains == null) {
-			this.domains = loadDomains();
-		}
-		return CollectionUtils.toUnmodifiableCopy(this.domains);
+		return domains.get().asList();
 	}
 
-	private List<IDomain> loadDomains() throws OpenShiftException {
-		List<IDomain> domains = new ArrayList<IDomain>();
+	private Domains loadDomains() throws OpenShiftException {
+		List<IDomain> domainResources = new ArrayList<IDomain>();
 		for (DomainResourceDTO domainDTO : new ListDomainsRequest().execute()) {
-			domains.add(new DomainResource(domainDTO, this));
+			domainResources.add(new DomainResource(domainDTO, this));
 		}
+		Domains domains = new Domains();
+		domains.addAll(domainResources);
 		return domains;
 	}
 
-	public IDomain getDomain(String id) throws OpenShiftException {
-		Assert.notNull(id);
+	public IApplicationsByDomain loadAllApplications() throws OpenShiftException {
+		List<IDomain> domains = getDomains();
+		List<DomainApplications> loaded = new ConcurrentBatch<IDomain, DomainApplications>(executorService, domains.size()) {
+
+			@Override
+			protected DomainApplications process(IDomain domain) {
+				try {
+					return new DomainApplications(domain.getApplications(), null);
+				} catch (RuntimeException e) {
+					return new DomainApplications(null, toOpenShiftException(domain, e));
+				}
+			}
 
-		for (IDomain domain : getDomains()) {
-			if (domain.getId().equals(id)) {
-				return domain;
+			@Override
+			protected DomainApplications cancelled(IDomain domain) {
+				return new DomainApplications(null, new OpenShiftException(
+						"Loading the applications of domain {0} was cancelled", domain.getId()));
+			}
+		}.run(domains);
+		ApplicationsByDomain result = new ApplicationsByDomain();
+		for (int i = 0; i < domains.size(); i++) {
+			DomainApplications domainApplications = loaded.get(i);
+			if (domainApplications.failure != null) {
+				result.addFailure(domains.get(i), domainApplications.failure);
+			} else {
+				result.add(domains.get(i), domainApplications.applications);
 			}
 		}
-		return null;
+		return result;
+	}
+
+	public List<ICartridgeOperationResult> addEmbeddableCartridges(Collection<IApplication> applications,
+			List<IEmbeddableCartridge> cartridges, int maxConcurrency) {
+		Assert.notNull(applications);
+		Assert.notNull(cartridges);
+
+		return new CartridgeBatch(executorService, new ArrayList<IEmbeddableCartridge>(cartridges), maxConcurrency) {
+
+			@Override
+			protected IEmbeddedCartridge execute(IApplication application, IEmbeddableCartridge cartridge)
+					throws OpenShiftException {
+				return application.addEmbeddableCartridge(cartridge);
+			}
+		}.runAll(new ArrayList<IApplication>(applications));
+	}
+
+	public List<ICartridgeOperationResult> removeEmbeddedCartridges(Collection<IApplication> applications,
+			List<IEmbeddableCartridge> cartridges, int maxConcurrency) {
+		Assert.notNull(applications);
+		Assert.notNull(cartridges);
+
+		return new CartridgeBatch(executorService, new ArrayList<IEmbeddableCartridge>(cartridges), maxConcurrency) {
+
+			@Override
+			protected IEmbeddedCartridge execute(IApplication application, IEmbeddableCartridge cartridge)
+					throws OpenShiftException {
+				application.removeEmbeddedCartridge(cartridge);
+				return null;
+			}
+		}.runAll(new ArrayList<IApplication>(applications));
+	}
+
+	private OpenShiftException toOpenShiftException(IDomain domain, Throwable e) {
+		if (e instanceof OpenShiftException) {
+			return (OpenShiftException) e;
+		}
+		return new OpenShiftException(e, "Could not load the applications of domain {0}", domain.getId());
+	}
+
+	public IDomain getDomain(String id) throws OpenShiftException {
+		Assert.notNull(id);
+
+		return domains.get().byId.get(id);
 	}
 
 	public IDomain getDefaultDomain() {
@@ -143,43 +230,61 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 
 		final DomainResourceDTO domainDTO = new AddDomainRequest().execute(id);
 		final IDomain domain = new DomainResource(domainDTO, this);
-		this.domains.add(domain);
+		domains.get().add(domain);
 		return domain;
 	}
 
 	public List<ICartridge> getStandaloneCartridges() throws OpenShiftException {
-		if (standaloneCartridgeNames.isEmpty()) {
-			retrieveCartridges();
-		}
-		return standaloneCartridgeNames;
+		return getCartridges().getStandalone();
 	}
 
 	public List<IEmbeddableCartridge> getEmbeddableCartridges() throws OpenShiftException {
-		if (embeddedCartridgeNames.isEmpty()) {
-			retrieveCartridges();
-		}
-		return CollectionUtils.toUnmodifiableCopy(embeddedCartridgeNames);
-	}
-
-	private void retrieveCartridges() throws OpenShiftException {
-		final List<CartridgeResourceDTO> cartridgeDTOs = new GetCartridgesRequest().execute();
-		for (CartridgeResourceDTO cartridgeDTO : cartridgeDTOs) {
-			// TODO replace by enum (standalone, embedded)
-			switch (cartridgeDTO.getType()) {
-			case STANDALONE:
-				this.standaloneCartridgeNames.add(new Cartridge(cartridgeDTO.getName()));
-				break;
-			case EMBEDDED:
-				this.embeddedCartridgeNames.add(new EmbeddableCartridge(cartridgeDTO.getName()));
-				break;
-			default:
+		return getCartridges().getEmbeddable();
+	}
+
+	private Cartridges getCartridges() throws OpenShiftException {
+		return CartridgeCatalog.get(getServer()).getCartridges(new ICartridgesLoader() {
+
+			public List<CartridgeResourceDTO> load() throws OpenShiftException {
+				if (apiDescriptorCache != null
+						&& apiDescriptorCache.isCacheCartridges()) {
+					return loadAndCacheCartridges();
+				}
+				return new GetCartridgesRequest().execute();
 			}
-		}
+		}, cartridgesTimeToLive, executorService);
 	}
-	
+
+	private List<CartridgeResourceDTO> loadAndCacheCartridges() throws OpenShiftException {
+		String cartridges = getService().request(getLink(LINK_LIST_CARTRIDGES).getHref(), HttpMethod.GET, null);
+		apiDescriptorCache.put(getServer(), RestService.SERVICE_VERSION, ApiDescriptorCache.CARTRIDGES, cartridges);
+		return ResourceDTOFactory.get(cartridges).getData();
+	}
+
+	/**
+	 * Sets the cache that the cartridges are stored to once they were
+	 * listed.
+	 * 
+	 * @param apiDescriptorCache
+	 *            the cache or <code>null</code> to not store the cartridges
+	 */
+	protected void setApiDescriptorCache(ApiDescriptorCache apiDescriptorCache) {
+		this.apiDescriptorCache = apiDescriptorCache;
+	}
+
+	/**
+	 * Sets the time after which the cartridges of the broker are revalidated.
+	 * 
+	 * @param timeToLive
+	 *            the time (in milliseconds)
+	 */
+	protected void setCartridgesTimeToLive(long timeToLive) {
+		this.cartridgesTimeToLive = timeToLive;
+	}
+
 	@Override
 	public void refresh() throws OpenShiftException {
-		this.domains = null;
+		domains.reset();
 	}
 
 	/**
@@ -189,7 +294,23 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 	 *            the domain to remove from the API's domains list.
 	 */
 	protected void removeDomain(final IDomain domain) {
-		this.domains.remove(domain);
+		Domains domains = this.domains.getIfLoaded();
+		if (domains != null) {
+			domains.remove(domain);
+		}
+	}
+
+	/**
+	 * Called after a domain has been renamed
+	 * 
+	 * @param domain
+	 *            the domain whose id changed
+	 */
+	protected void updateDomain(final IDomain domain) {
+		Domains domains = this.domains.getIfLoaded();
+		if (domains != null) {
+			domains.reindex();
+		}
 	}
 
 	protected boolean hasDomain(String name) throws OpenShiftException {
@@ -201,12 +322,21 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 	}
 	
 	public void disconnect() {
-		standaloneCartridgeNames.clear();
-		embeddedCartridgeNames.clear();
-		domains = null;
-		executorService.shutdownNow();
+		domains.reset();
+		// the executor is shared or owned by the caller, dont shut it down
 	}
 	
+	private static class Domains extends IndexedList<IDomain> {
+
+		private final Index<IDomain> byId = addIndex(new Index<IDomain>() {
+
+			@Override
+			protected String getKey(IDomain domain) {
+				return domain.getId();
+			}
+		});
+	}
+
 	private class AddDomainRequest extends ServiceRequest {
 
 		public AddDomainRequest() throws OpenShiftException {
@@ -243,11 +373,25 @@ public class APIResource extends AbstractOpenShiftResource implements IOpenShift
 	private class GetCartridgesRequest extends ServiceRequest {
 
 		public GetCartridgesRequest() throws OpenShiftException {
-			super("LIST_CARTRIDGES");
+			super(LINK_LIST_CARTRIDGES);
 		}
 
 		public List<CartridgeResourceDTO> execute() throws OpenShiftException {
 			return super.execute();
 		}
 	}
+
+	/**
+	 * The applications of a domain or the failure to load them.
+	 */
+	private static class DomainApplications {
+
+		private final List<IApplication> applications;
+		private final OpenShiftException failure;
+
+		private DomainApplications(List<IApplication> applications, OpenShiftException failure) {
+			this.applications = applications;
+			this.failure = failure;
+		}
+	}
 }
@@ -12,12 +12,24 @@ package com.openshift.internal.client;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.openshift.client.HttpMethod;
 import com.openshift.client.IOpenShiftConnection;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftExecutors;
+import com.openshift.client.RequestLimits;
+import com.openshift.client.RequestTimeouts;
+import com.openshift.client.RetryPolicy;
+import com.openshift.internal.client.response.CartridgeResourceDTO;
 import com.openshift.internal.client.response.Link;
+import com.openshift.internal.client.response.ResourceDTOFactory;
 import com.openshift.internal.client.response.RestResponse;
 
 /**
@@ -28,12 +40,206 @@ import com.openshift.internal.client.response.RestResponse;
  * 
  */
 public abstract class AbstractOpenShiftConnectionFactory {
-	
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractOpenShiftConnectionFactory.class);
+
+	private final ExecutorService executorService;
+	private RequestLimits requestLimits;
+	private RetryPolicy retryPolicy;
+	private RequestTimeouts requestTimeouts;
+	private long cartridgesTimeToLive = CartridgeCatalog.DEFAULT_TIME_TO_LIVE;
+	private ApiDescriptorCache apiDescriptorCache;
+
+	/**
+	 * Creates a factory whose connections share the executor that all
+	 * connections in this jvm use.
+	 * 
+	 * @see OpenShiftExecutors#getShared()
+	 */
+	protected AbstractOpenShiftConnectionFactory() {
+		this(null);
+	}
+
+	/**
+	 * Creates a factory whose connections use the given executor. The
+	 * connections dont shut it down when they're disconnected.
+	 * 
+	 * @param executorService
+	 *            the executor for the connections or <code>null</code> to
+	 *            use the shared one
+	 */
+	protected AbstractOpenShiftConnectionFactory(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	protected ExecutorService getExecutorService() {
+		if (executorService == null) {
+			return OpenShiftExecutors.getShared();
+		}
+		return executorService;
+	}
+
+	/**
+	 * Sets the limits for the requests of the connections that are created
+	 * from now on. Each connection gets its own limiter.
+	 * 
+	 * @param requestLimits
+	 *            the limits or <code>null</code> to not limit the requests
+	 */
+	protected void setRequestLimitsInternal(RequestLimits requestLimits) {
+		this.requestLimits = requestLimits;
+	}
+
+	/**
+	 * Sets the policy for retrying the failed requests of the connections
+	 * that are created from now on. Each connection gets its own retrier and
+	 * circuit breakers.
+	 * 
+	 * @param retryPolicy
+	 *            the policy or <code>null</code> to not retry requests
+	 */
+	protected void setRetryPolicyInternal(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * Sets the timeouts for the requests of the connections that are created
+	 * from now on.
+	 * 
+	 * @param requestTimeouts
+	 *            the timeouts or <code>null</code> to use the ones of the
+	 *            http client
+	 */
+	protected void setRequestTimeoutsInternal(RequestTimeouts requestTimeouts) {
+		this.requestTimeouts = requestTimeouts;
+	}
+
+	/**
+	 * Sets the time after which the connections that are created from now on
+	 * revalidate the cartridges of the broker. The cartridges are shared by
+	 * all connections to a broker.
+	 * 
+	 * @param timeToLive
+	 *            the time (in milliseconds)
+	 */
+	protected void setCartridgesTimeToLiveInternal(long timeToLive) {
+		this.cartridgesTimeToLive = timeToLive;
+	}
+
+	/**
+	 * Sets the cache that the connections that are created from now on read
+	 * the api descriptor (and the cartridges) from.
+	 * 
+	 * @param apiDescriptorCache
+	 *            the cache or <code>null</code> to request the api descriptor
+	 *            when connecting
+	 */
+	protected void setApiDescriptorCacheInternal(ApiDescriptorCache apiDescriptorCache) {
+		this.apiDescriptorCache = apiDescriptorCache;
+	}
+
 	@SuppressWarnings("unchecked")
 	protected IOpenShiftConnection getConnection(IRestService service, final String login, final String password) throws FileNotFoundException, IOException, OpenShiftException {
-		RestResponse response =
-				(RestResponse) service.request(new Link("Get API", "/api", HttpMethod.GET));
-		return new APIResource(login, password, service, (Map<String, Link>) response.getData());
+		if (requestLimits != null
+				&& service instanceof RestService
+				&& ((RestService) service).getRequestLimiter() == null) {
+			((RestService) service).setRequestLimiter(new RequestLimiter(requestLimits));
+		}
+		if (retryPolicy != null
+				&& service instanceof RestService
+				&& ((RestService) service).getRequestRetrier() == null) {
+			((RestService) service).setRequestRetrier(new RequestRetrier(retryPolicy));
+		}
+		if (requestTimeouts != null
+				&& service instanceof RestService
+				&& ((RestService) service).getRequestTimeouts() == null) {
+			((RestService) service).setRequestTimeouts(requestTimeouts);
+		}
+		if (executorService != null
+				&& service instanceof RestService) {
+			((RestService) service).setExecutor(executorService);
+		}
+		APIResource api = null;
+		if (apiDescriptorCache == null) {
+			RestResponse response =
+					(RestResponse) service.request(new Link("Get API", "/api", HttpMethod.GET));
+			api = new APIResource(login, password, service, (Map<String, Link>) response.getData(),
+					getExecutorService());
+		} else {
+			api = getCachedConnection(service, login, password, apiDescriptorCache);
+		}
+		api.setCartridgesTimeToLive(cartridgesTimeToLive);
+		return api;
+	}
+
+	/**
+	 * Creates a connection from the api descriptor in the given cache and
+	 * revalidates the descriptor in the background. Requests the descriptor
+	 * if it is not cached yet.
+	 */
+	private APIResource getCachedConnection(final IRestService service, final String login, final String password,
+			final ApiDescriptorCache cache) throws OpenShiftException {
+		final String brokerUrl = service.getPlatformUrl();
+		final Map<String, Link> cachedLinks =
+				parse(cache.get(brokerUrl, RestService.SERVICE_VERSION, ApiDescriptorCache.DESCRIPTOR), brokerUrl);
+		final APIResource api;
+		if (cachedLinks == null) {
+			api = new APIResource(login, password, service, requestApiDescriptor(service, cache), getExecutorService());
+		} else {
+			api = new APIResource(login, password, service, cachedLinks, getExecutorService());
+			revalidateApiDescriptor(api, service, cache);
+		}
+		api.setApiDescriptorCache(cache);
+		if (cache.isCacheCartridges()) {
+			ApiDescriptorCache.Entry cartridges =
+					cache.get(brokerUrl, RestService.SERVICE_VERSION, ApiDescriptorCache.CARTRIDGES);
+			List<CartridgeResourceDTO> cartridgeDTOs = parse(cartridges, brokerUrl);
+			if (cartridgeDTOs != null) {
+				CartridgeCatalog.get(brokerUrl).seed(cartridgeDTOs, System.currentTimeMillis() - cartridges.getLastModified());
+			}
+		}
+		return api;
+	}
+
+	private <T> T parse(ApiDescriptorCache.Entry cachedResponse, String brokerUrl) {
+		if (cachedResponse == null) {
+			return null;
+		}
+		try {
+			return ResourceDTOFactory.get(cachedResponse.getContent()).<T> getData();
+		} catch (RuntimeException e) {
+			// the parsers throw IllegalArgumentException on corrupt json
+			LOGGER.warn("Could not parse a cached response of {}: {}", brokerUrl, e.getMessage());
+			return null;
+		}
+	}
+
+	private Map<String, Link> requestApiDescriptor(IRestService service, ApiDescriptorCache cache)
+			throws OpenShiftException {
+		String descriptor = service.request("/api", HttpMethod.GET, null);
+		Map<String, Link> links = ResourceDTOFactory.get(descriptor).getData();
+		cache.put(service.getPlatformUrl(), RestService.SERVICE_VERSION, ApiDescriptorCache.DESCRIPTOR, descriptor);
+		return links;
+	}
+
+	private void revalidateApiDescriptor(final APIResource api, final IRestService service,
+			final ApiDescriptorCache cache) {
+		try {
+			getExecutorService().execute(new Runnable() {
+
+				public void run() {
+					try {
+						api.setLinks(requestApiDescriptor(service, cache));
+					} catch (OpenShiftException e) {
+						// keep the cached links, revalidate when connecting again
+						LOGGER.warn("Could not revalidate the api descriptor of {}: {}",
+								service.getPlatformUrl(), e.getMessage());
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			LOGGER.warn("Could not revalidate the api descriptor of {}: {}", service.getPlatformUrl(), e.getMessage());
+		}
 	}
 	
 }
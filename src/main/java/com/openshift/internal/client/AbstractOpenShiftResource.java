@@ -30,7 +30,7 @@ import com.openshift.internal.client.response.RestResponse;
 public abstract class AbstractOpenShiftResource implements IOpenShiftResource {
 
 	/** The links. Null means collection is not loaded yet. */
-	private Map<String, Link> links;
+	private volatile Map<String, Link> links;
 
 	/** The service. */
 	private final IRestService service;
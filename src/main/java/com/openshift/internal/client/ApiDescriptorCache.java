@@ -0,0 +1,163 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLEncoder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.internal.client.utils.StreamUtils;
+
+/**
+ * Keeps the responses that describe a broker on disk so that a new process
+ * can connect without waiting for them: the api descriptor (the links that
+ * <code>GET /api</code> returns) and the cartridges. The responses are
+ * stored per broker url and api version, they are served as is and
+ * replaced once they were revalidated.
+ * <p>
+ * The cache never fails a connection: responses that can't be read are
+ * reported as missing, responses that can't be written are dropped.
+ *
+ * @author Andre Dietisheim
+ */
+public class ApiDescriptorCache {
+
+	public static final String DESCRIPTOR = "api";
+	public static final String CARTRIDGES = "cartridges";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ApiDescriptorCache.class);
+
+	private static final String CHARSET = "UTF-8";
+	private static final String SUFFIX = ".json";
+
+	private final File directory;
+	private final boolean cacheCartridges;
+
+	/**
+	 * @param directory
+	 *            the directory that the responses are stored to, created if
+	 *            it doesn't exist
+	 * @param cacheCartridges
+	 *            whether the cartridges are cached, too
+	 */
+	public ApiDescriptorCache(File directory, boolean cacheCartridges) {
+		this.directory = directory;
+		this.cacheCartridges = cacheCartridges;
+	}
+
+	public boolean isCacheCartridges() {
+		return cacheCartridges;
+	}
+
+	/**
+	 * Returns the stored response or <code>null</code> if there's none.
+	 *
+	 * @param brokerUrl
+	 *            the url of the broker
+	 * @param version
+	 *            the version of the api
+	 * @param name
+	 *            the response, {@link #DESCRIPTOR} or {@link #CARTRIDGES}
+	 */
+	public Entry get(String brokerUrl, String version, String name) {
+		File file = getFile(brokerUrl, version, name);
+		if (!file.isFile()) {
+			return null;
+		}
+		Reader reader = null;
+		try {
+			reader = new InputStreamReader(new FileInputStream(file), CHARSET);
+			return new Entry(StreamUtils.readToString(reader), file.lastModified());
+		} catch (IOException e) {
+			LOGGER.warn("Could not read cached response {}: {}", file, e.getMessage());
+			return null;
+		} finally {
+			StreamUtils.quietlyClose(reader);
+		}
+	}
+
+	/**
+	 * Stores the given response, replaces the one that was stored before.
+	 */
+	public void put(String brokerUrl, String version, String name, String content) {
+		File file = getFile(brokerUrl, version, name);
+		File tempFile = null;
+		Writer writer = null;
+		try {
+			if (!directory.isDirectory()
+					&& !directory.mkdirs()) {
+				throw new IOException("could not create " + directory);
+			}
+			tempFile = File.createTempFile(name, ".tmp", directory);
+			writer = new OutputStreamWriter(new FileOutputStream(tempFile), CHARSET);
+			writer.write(content);
+			writer.close();
+			writer = null;
+			// replace atomically so that concurrent processes never read a partial response
+			if (!tempFile.renameTo(file)) {
+				file.delete();
+				if (!tempFile.renameTo(file)) {
+					throw new IOException("could not rename " + tempFile + " to " + file);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Could not cache response {}: {}", file, e.getMessage());
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		} finally {
+			StreamUtils.quietlyClose(writer);
+		}
+	}
+
+	private File getFile(String brokerUrl, String version, String name) {
+		try {
+			return new File(directory,
+					URLEncoder.encode(brokerUrl, CHARSET) + "-" + version + "-" + name + SUFFIX);
+		} catch (UnsupportedEncodingException e) {
+			// utf-8 is always supported
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public static class Entry {
+
+		private final String content;
+		private final long lastModified;
+
+		private Entry(String content, long lastModified) {
+			this.content = content;
+			this.lastModified = lastModified;
+		}
+
+		public String getContent() {
+			return content;
+		}
+
+		/**
+		 * Returns the time (in milliseconds since the epoch) the response was
+		 * stored.
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+	}
+}
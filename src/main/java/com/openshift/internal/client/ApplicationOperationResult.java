@@ -0,0 +1,65 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import com.openshift.client.ApplicationOperation;
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationOperationResult;
+import com.openshift.client.OpenShiftException;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class ApplicationOperationResult implements IApplicationOperationResult {
+
+	private final IApplication application;
+	private final ApplicationOperation operation;
+	private final OpenShiftException failure;
+	private final long duration;
+
+	public ApplicationOperationResult(IApplication application, ApplicationOperation operation,
+			OpenShiftException failure, long duration) {
+		this.application = application;
+		this.operation = operation;
+		this.failure = failure;
+		this.duration = duration;
+	}
+
+	public IApplication getApplication() {
+		return application;
+	}
+
+	public ApplicationOperation getOperation() {
+		return operation;
+	}
+
+	public boolean isSuccessful() {
+		return failure == null;
+	}
+
+	public OpenShiftException getFailure() {
+		return failure;
+	}
+
+	public long getDuration() {
+		return duration;
+	}
+
+	@Override
+	public String toString() {
+		return "ApplicationOperationResult ["
+				+ "application=" + (application == null ? null : application.getName())
+				+ ", operation=" + operation
+				+ ", successful=" + isSuccessful()
+				+ ", duration=" + duration
+				+ "]";
+	}
+}
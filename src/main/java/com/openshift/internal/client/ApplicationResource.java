@@ -14,6 +14,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -22,7 +23,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.StringTokenizer;
-import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 
 import javax.xml.datatype.DatatypeConfigurationException;
@@ -35,6 +35,7 @@ import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import com.openshift.client.ApplicationScale;
+import com.openshift.client.Deadline;
 import com.openshift.client.IApplication;
 import com.openshift.client.IApplicationPortForwarding;
 import com.openshift.client.ICartridge;
@@ -45,9 +46,9 @@ import com.openshift.client.IEmbeddedCartridge;
 import com.openshift.client.IGearGroup;
 import com.openshift.client.IGearProfile;
 import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.IResponseCallback;
 import com.openshift.client.OpenShiftException;
 import com.openshift.client.OpenShiftSSHOperationException;
-import com.openshift.client.utils.HostUtils;
 import com.openshift.client.utils.RFC822DateUtils;
 import com.openshift.internal.client.AbstractOpenShiftResource.ServiceRequest;
 import com.openshift.internal.client.response.ApplicationResourceDTO;
@@ -59,6 +60,8 @@ import com.openshift.internal.client.ssh.ApplicationPortForwarding;
 import com.openshift.internal.client.utils.Assert;
 import com.openshift.internal.client.utils.CollectionUtils;
 import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
+import com.openshift.internal.client.utils.IndexedList;
+import com.openshift.internal.client.utils.LazyValue;
 
 /**
  * The Class Application.
@@ -69,8 +72,6 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationResource.class);
 
-	private static final long APPLICATION_WAIT_RETRY_DELAY = 2 * 1024;
-
 	private static final String LINK_GET_APPLICATION = "GET";
 	private static final String LINK_DELETE_APPLICATION = "DELETE";
 	private static final String LINK_START_APPLICATION = "START";
@@ -117,11 +118,16 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	private final List<String> aliases;
 
 	/**
-	 * List of configured embedded cartridges. <code>null</code> means list if
-	 * not loaded yet.
+	 * List of configured embedded cartridges, loaded when it's requested for
+	 * the first time.
 	 */
-	// TODO: replace by a map indexed by cartridge names ?
-	private List<IEmbeddedCartridge> embeddedCartridges = null;
+	private final LazyValue<EmbeddedCartridges> embeddedCartridges = new LazyValue<EmbeddedCartridges>() {
+
+		@Override
+		protected EmbeddedCartridges load() throws OpenShiftException {
+			return loadEmbeddedCartridges();
+		}
+	};
 
 	/**
 	 * SSH Fowardable ports for the current application.
@@ -136,7 +142,13 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 
 	private Map<String, String> embeddedCartridgesInfos;
 	
-	private List<IGearGroup> gearGroups;
+	private final LazyValue<List<IGearGroup>> gearGroups = new LazyValue<List<IGearGroup>>() {
+
+		@Override
+		protected List<IGearGroup> load() throws OpenShiftException {
+			return loadGearGroups();
+		}
+	};
 
 	/**
 	 * Constructor...
@@ -187,26 +199,29 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 		this.creationTime = RFC822DateUtils.safeGetDate(creationTime);
 		this.scale = scale;
 		this.gearProfile = gearProfile;
-		this.gearGroups = gearGroups;
+		if (gearGroups != null) {
+			this.gearGroups.set(CollectionUtils.toUnmodifiableCopy(gearGroups));
+		}
 		this.cartridge = cartridge;
 		this.applicationUrl = applicationUrl;
 		this.gitUrl = gitUrl;
 		this.domain = domain;
-		this.aliases = aliases;
+		// own copy, the dto may be shared (ex. cached responses)
+		this.aliases = new ArrayList<String>();
+		if (aliases != null) {
+			this.aliases.addAll(aliases);
+		}
 		// TODO: fix this workaround once
 		// https://bugzilla.redhat.com/show_bug.cgi?id=812046 is fixed
 		this.embeddedCartridgesInfos = embeddedCartridgesInfos;
 	}
 	
 	public List<IGearGroup> getGearGroups() throws OpenShiftException {
-		return CollectionUtils.toUnmodifiableCopy(getOrLoadGearGroups());
+		return getOrLoadGearGroups();
 	}
 	
 	protected List<IGearGroup> getOrLoadGearGroups() throws OpenShiftException {
-		if (gearGroups == null) {
-			this.gearGroups = loadGearGroups();
-		}
-		return gearGroups;
+		return gearGroups.get();
 	}
 	
 	private List<IGearGroup> loadGearGroups() throws OpenShiftException {
@@ -217,7 +232,7 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 					new GearGroupResource(gearGroupDTO, this);
 			gearGroups.add(gearGroup);
 		}
-		return gearGroups;
+		return Collections.unmodifiableList(gearGroups);
 	}
 	
 	private class ListGearGroupsRequest extends ServiceRequest {
@@ -356,16 +371,14 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	public IEmbeddedCartridge addEmbeddableCartridge(IEmbeddableCartridge cartridge) throws OpenShiftException {
 		Assert.notNull(cartridge);
 
-		if (this.embeddedCartridges == null) {
-			loadEmbeddedCartridges();
-		}
+		final EmbeddedCartridges embeddedCartridges = this.embeddedCartridges.get();
 		final CartridgeResourceDTO embeddedCartridgeDTO =
 				new AddEmbeddedCartridgeRequest().execute(cartridge.getName());
 		final EmbeddedCartridgeResource embeddedCartridge =
 				new EmbeddedCartridgeResource(
 						embeddedCartridgesInfos.get(embeddedCartridgeDTO.getName()),
 						embeddedCartridgeDTO, this);
-		this.embeddedCartridges.add(embeddedCartridge);
+		embeddedCartridges.add(embeddedCartridge);
 		return embeddedCartridge;
 	}
 
@@ -391,28 +404,29 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	protected void removeEmbeddedCartridge(IEmbeddedCartridge embeddedCartridge) throws OpenShiftException {
 		Assert.notNull(embeddedCartridge);
 
-		this.embeddedCartridges.remove(embeddedCartridge);
+		final EmbeddedCartridges embeddedCartridges = this.embeddedCartridges.getIfLoaded();
+		if (embeddedCartridges != null) {
+			embeddedCartridges.remove(embeddedCartridge);
+		}
 	}
 
-	private List<IEmbeddedCartridge> loadEmbeddedCartridges() throws OpenShiftException {
-		// load collection if necessary
-		this.embeddedCartridges = new ArrayList<IEmbeddedCartridge>();
+	private EmbeddedCartridges loadEmbeddedCartridges() throws OpenShiftException {
+		final List<IEmbeddedCartridge> cartridges = new ArrayList<IEmbeddedCartridge>();
 		List<CartridgeResourceDTO> embeddableCartridgeDTOs = new ListEmbeddableCartridgesRequest().execute();
 		for (CartridgeResourceDTO embeddableCartridgeDTO : embeddableCartridgeDTOs) {
 			IEmbeddedCartridge embeddableCartridge =
 					new EmbeddedCartridgeResource(
 							embeddedCartridgesInfos.get(embeddableCartridgeDTO.getName()),
 							embeddableCartridgeDTO, this);
-			embeddedCartridges.add(embeddableCartridge);
+			cartridges.add(embeddableCartridge);
 		}
+		final EmbeddedCartridges embeddedCartridges = new EmbeddedCartridges();
+		embeddedCartridges.addAll(cartridges);
 		return embeddedCartridges;
 	}
 
 	public List<IEmbeddedCartridge> getEmbeddedCartridges() throws OpenShiftException {
-		if (this.embeddedCartridges == null) {
-			this.embeddedCartridges = loadEmbeddedCartridges();
-		}
-		return CollectionUtils.toUnmodifiableCopy(this.embeddedCartridges);
+		return embeddedCartridges.get().asList();
 	}
 
 	public boolean hasEmbeddedCartridge(String cartridgeName) throws OpenShiftException {
@@ -440,12 +454,7 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	public IEmbeddedCartridge getEmbeddedCartridge(String cartridgeName) throws OpenShiftException {
 		Assert.notNull(cartridgeName);
 
-		for (IEmbeddedCartridge embeddedCartridge : getEmbeddedCartridges()) {
-			if (cartridgeName.equals(embeddedCartridge.getName())) {
-				return embeddedCartridge;
-			}
-		}
-		return null;
+		return embeddedCartridges.get().byName.get(cartridgeName);
 	}
 	
 	public void removeEmbeddedCartridges(ICartridgeConstraint cartridgeConstraint) throws OpenShiftException {
@@ -473,55 +482,54 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 	}
 
 	public boolean waitForAccessible(long timeout) throws OpenShiftException {
-		try {
-			return waitForResolved(timeout, System.currentTimeMillis());
-		} catch (InterruptedException e) {
-			return false;
-		}
+		getApplicationURL();
+		return new ReadinessChecker(getConnection().getExecutorService())
+				.await(Deadline.getRemaining(timeout), new ReadinessChecker.DnsProbe(applicationUrl));
 	}
 
 	public Future<Boolean> waitForAccessibleAsync(final long timeout) throws OpenShiftException {
-		IOpenShiftConnection connection = getConnection();
-		return connection.getExecutorService().submit(new Callable<Boolean>() {
-
-			public Boolean call() throws Exception {
-				return waitForAccessible(timeout);
-			}
-		});
+		return waitForAccessibleAsync(timeout, null);
 	}
-	
-	public String getCartridge(String cartridgeName) throws OpenShiftException {
-		Assert.notNull(cartridgeName);
-
-		return new GetCartridgeRequest().execute(cartridgeName);
 
+	public Future<Boolean> waitForAccessibleAsync(long timeout, IResponseCallback<Boolean> callback)
+			throws OpenShiftException {
+		getApplicationURL();
+		return new ReadinessChecker(getConnection().getExecutorService())
+				.check(Deadline.getRemaining(timeout), callback, new ReadinessChecker.DnsProbe(applicationUrl));
 	}
 
-	protected IOpenShiftConnection getConnection() {
-		return getDomain().getUser().getConnection();
+	public Future<Boolean> waitForHealthyAsync(long timeout, IResponseCallback<Boolean> callback)
+			throws OpenShiftException {
+		URL url = getApplicationURL();
+		return new ReadinessChecker(getConnection().getExecutorService())
+				.check(Deadline.getRemaining(timeout), callback, new ReadinessChecker.DnsProbe(applicationUrl),
+						new ReadinessChecker.HttpProbe(url));
 	}
 
-	private boolean waitForResolved(long timeout, long startTime) throws OpenShiftException, InterruptedException {
+	private URL getApplicationURL() throws OpenShiftException {
 		try {
-			while (!HostUtils.canResolv(applicationUrl)
-					&& !isTimeouted(timeout, startTime)) {
-				Thread.sleep(APPLICATION_WAIT_RETRY_DELAY);
-			}
-			return HostUtils.canResolv(applicationUrl);
+			return new URL(applicationUrl);
 		} catch (MalformedURLException e) {
 			throw new OpenShiftException(e,
 					"Could not wait for application {0} to become accessible, it has an invalid URL \"{1}\": {2}",
 					name, applicationUrl, e.getMessage());
 		}
 	}
+	
+	public String getCartridge(String cartridgeName) throws OpenShiftException {
+		Assert.notNull(cartridgeName);
+
+		return new GetCartridgeRequest().execute(cartridgeName);
+
+	}
 
-	private boolean isTimeouted(long timeout, long startTime) {
-		return !(System.currentTimeMillis() < (startTime + timeout));
+	protected IOpenShiftConnection getConnection() {
+		return getDomain().getUser().getConnection();
 	}
 
 	public void refresh() throws OpenShiftException {
-		if (this.embeddedCartridges != null) {
-			this.embeddedCartridges = loadEmbeddedCartridges();
+		if (embeddedCartridges.isLoaded()) {
+			embeddedCartridges.reload();
 		}
 		if (this.ports != null) {
 			this.ports = loadPorts();
@@ -745,6 +753,17 @@ public class ApplicationResource extends AbstractOpenShiftResource implements IA
 		return name;
 	}
 
+	private static class EmbeddedCartridges extends IndexedList<IEmbeddedCartridge> {
+
+		private final Index<IEmbeddedCartridge> byName = addIndex(new Index<IEmbeddedCartridge>() {
+
+			@Override
+			protected String getKey(IEmbeddedCartridge cartridge) {
+				return cartridge.getName();
+			}
+		});
+	}
+
 	private class RefreshApplicationRequest extends ServiceRequest {
 
 		protected RefreshApplicationRequest() {
@@ -0,0 +1,71 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationsByDomain;
+import com.openshift.client.IDomain;
+import com.openshift.client.OpenShiftException;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class ApplicationsByDomain implements IApplicationsByDomain {
+
+	private final Map<IDomain, List<IApplication>> applications = new LinkedHashMap<IDomain, List<IApplication>>();
+	private final Map<IDomain, OpenShiftException> failures = new LinkedHashMap<IDomain, OpenShiftException>();
+
+	void add(IDomain domain, List<IApplication> applications) {
+		this.applications.put(domain, Collections.unmodifiableList(new ArrayList<IApplication>(applications)));
+	}
+
+	void addFailure(IDomain domain, OpenShiftException failure) {
+		this.failures.put(domain, failure);
+	}
+
+	public List<IApplication> getApplications() {
+		List<IApplication> allApplications = new ArrayList<IApplication>();
+		for (List<IApplication> domainApplications : applications.values()) {
+			allApplications.addAll(domainApplications);
+		}
+		return allApplications;
+	}
+
+	public List<IApplication> getApplications(IDomain domain) {
+		return applications.get(domain);
+	}
+
+	public List<IDomain> getDomains() {
+		return new ArrayList<IDomain>(applications.keySet());
+	}
+
+	public Map<IDomain, OpenShiftException> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
+
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "ApplicationsByDomain ["
+				+ "domains=" + applications.keySet()
+				+ ", failures=" + failures.keySet()
+				+ "]";
+	}
+}
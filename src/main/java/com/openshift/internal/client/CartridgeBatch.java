@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2011 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.openshift.client.IApplication;
+import com.openshift.client.ICartridgeOperationResult;
+import com.openshift.client.IEmbeddableCartridge;
+import com.openshift.client.IEmbeddedCartridge;
+import com.openshift.client.OpenShiftException;
+
+/**
+ * Runs a cartridge operation for several applications. The applications are
+ * processed concurrently by at most the given number of workers, the
+ * cartridges of an application are processed one after the other and in the
+ * given order since cartridges may depend on each other (ex. phpmyadmin on
+ * mysql). A failing operation is reported in the results and does not stop
+ * the others.
+ *
+ * @author Andre Dietisheim
+ */
+abstract class CartridgeBatch extends ConcurrentBatch<IApplication, List<ICartridgeOperationResult>> {
+
+	private final List<IEmbeddableCartridge> cartridges;
+
+	CartridgeBatch(ExecutorService executor, List<IEmbeddableCartridge> cartridges, int maxConcurrency) {
+		super(executor, maxConcurrency);
+		this.cartridges = cartridges;
+	}
+
+	/**
+	 * Runs the operation for all the applications and cartridges and waits
+	 * for it to complete. The results are in the order of the applications
+	 * and cartridges.
+	 * 
+	 * @param applications
+	 *            the applications to run the operation for
+	 * @return the results
+	 */
+	List<ICartridgeOperationResult> runAll(List<IApplication> applications) {
+		List<ICartridgeOperationResult> allResults = new ArrayList<ICartridgeOperationResult>();
+		for (List<ICartridgeOperationResult> applicationResults : run(applications)) {
+			allResults.addAll(applicationResults);
+		}
+		return allResults;
+	}
+
+	@Override
+	protected List<ICartridgeOperationResult> cancelled(IApplication application) {
+		List<ICartridgeOperationResult> cancelled = new ArrayList<ICartridgeOperationResult>();
+		for (IEmbeddableCartridge cartridge : cartridges) {
+			cancelled.add(CartridgeOperationResult.failure(application, cartridge,
+					new OpenShiftException("Operation for cartridge {0} of application {1} was cancelled",
+							cartridge.getName(), application.getName()), 0));
+		}
+		return cancelled;
+	}
+
+	@Override
+	protected List<ICartridgeOperationResult> process(IApplication application) {
+		List<ICartridgeOperationResult> applicationResults = new ArrayList<ICartridgeOperationResult>();
+		for (IEmbeddableCartridge cartridge : cartridges) {
+			applicationResults.add(process(application, cartridge));
+		}
+		return applicationResults;
+	}
+
+	private ICartridgeOperationResult process(IApplication application, IEmbeddableCartridge cartridge) {
+		long start = System.nanoTime();
+		try {
+			IEmbeddedCartridge embeddedCartridge = execute(application, cartridge);
+			return CartridgeOperationResult.success(application, cartridge, embeddedCartridge, getDuration(start));
+		} catch (OpenShiftException e) {
+			return CartridgeOperationResult.failure(application, cartridge, e, getDuration(start));
+		} catch (RuntimeException e) {
+			return CartridgeOperationResult.failure(application, cartridge,
+					new OpenShiftException(e, "Operation for cartridge {0} of application {1} failed",
+							cartridge.getName(), application.getName()), getDuration(start));
+		}
+	}
+
+	private long getDuration(long start) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+	/**
+	 * Executes the operation for the given application and cartridge.
+	 * 
+	 * @return the cartridge that was added or <code>null</code>
+	 */
+	protected abstract IEmbeddedCartridge execute(IApplication application, IEmbeddableCartridge cartridge)
+			throws OpenShiftException;
+}
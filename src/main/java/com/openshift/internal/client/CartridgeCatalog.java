@@ -0,0 +1,242 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.EmbeddableCartridge;
+import com.openshift.client.ICartridge;
+import com.openshift.client.IEmbeddableCartridge;
+import com.openshift.client.OpenShiftException;
+import com.openshift.internal.client.response.CartridgeResourceDTO;
+
+/**
+ * The cartridges that a broker offers. There's a single catalog per broker,
+ * it is shared by all connections to this broker so that the cartridges are
+ * only listed once.
+ * <p>
+ * Cartridges that are older than the time to live are still returned, they
+ * are revalidated in the background meanwhile. Callers only wait if the
+ * catalog was never loaded, concurrent callers then wait for a single load.
+ *
+ * @author Andre Dietisheim
+ */
+public class CartridgeCatalog {
+
+	public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(10);
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CartridgeCatalog.class);
+
+	private static final ConcurrentMap<String, CartridgeCatalog> catalogs =
+			new ConcurrentHashMap<String, CartridgeCatalog>();
+
+	private final String brokerUrl;
+	private volatile Cartridges cartridges;
+	private final AtomicReference<FutureTask<Cartridges>> loading = new AtomicReference<FutureTask<Cartridges>>();
+	private final AtomicBoolean revalidating = new AtomicBoolean();
+
+	protected CartridgeCatalog(String brokerUrl) {
+		this.brokerUrl = brokerUrl;
+	}
+
+	/**
+	 * Returns the catalog for the given broker.
+	 *
+	 * @param brokerUrl
+	 *            the url of the broker
+	 */
+	public static CartridgeCatalog get(String brokerUrl) {
+		CartridgeCatalog catalog = catalogs.get(brokerUrl);
+		if (catalog == null) {
+			CartridgeCatalog newCatalog = new CartridgeCatalog(brokerUrl);
+			catalog = catalogs.putIfAbsent(brokerUrl, newCatalog);
+			if (catalog == null) {
+				catalog = newCatalog;
+			}
+		}
+		return catalog;
+	}
+
+	/**
+	 * Discards the catalogs of all brokers.
+	 */
+	public static void clear() {
+		catalogs.clear();
+	}
+
+	/**
+	 * Returns the cartridges of this catalog. Loads them if they were never
+	 * loaded, revalidates them in the background if they are older than the
+	 * given time to live.
+	 *
+	 * @param loader
+	 *            lists the cartridges of the broker
+	 * @param timeToLive
+	 *            the time (in milliseconds) after which the cartridges get
+	 *            revalidated
+	 * @param executor
+	 *            the executor that revalidates the cartridges
+	 * @return the cartridges
+	 * @throws OpenShiftException
+	 *             if the cartridges were never loaded and could not be loaded
+	 */
+	public Cartridges getCartridges(ICartridgesLoader loader, long timeToLive, Executor executor)
+			throws OpenShiftException {
+		Cartridges cartridges = this.cartridges;
+		if (cartridges == null) {
+			return load(loader);
+		}
+		if (now() - cartridges.loadedAt > TimeUnit.MILLISECONDS.toNanos(timeToLive)) {
+			revalidate(loader, executor);
+		}
+		return cartridges;
+	}
+
+	/**
+	 * Sets the given cartridges (ex. read from disk) if the catalog was not
+	 * loaded yet. They are revalidated once they are older than the time to
+	 * live.
+	 *
+	 * @param cartridgeDTOs
+	 *            the cartridges
+	 * @param age
+	 *            the age (in milliseconds) of the cartridges
+	 */
+	public void seed(List<CartridgeResourceDTO> cartridgeDTOs, long age) {
+		if (this.cartridges == null) {
+			this.cartridges = new Cartridges(cartridgeDTOs, now() - TimeUnit.MILLISECONDS.toNanos(Math.max(0, age)));
+		}
+	}
+
+	private Cartridges load(final ICartridgesLoader loader) throws OpenShiftException {
+		FutureTask<Cartridges> task = loading.get();
+		if (task == null) {
+			FutureTask<Cartridges> newTask = new FutureTask<Cartridges>(new Callable<Cartridges>() {
+
+				public Cartridges call() throws Exception {
+					Cartridges cartridges = new Cartridges(loader.load(), now());
+					CartridgeCatalog.this.cartridges = cartridges;
+					return cartridges;
+				}
+			});
+			if (loading.compareAndSet(null, newTask)) {
+				newTask.run();
+				loading.compareAndSet(newTask, null);
+				task = newTask;
+			} else {
+				return load(loader);
+			}
+		}
+		return await(task);
+	}
+
+	private Cartridges await(FutureTask<Cartridges> task) throws OpenShiftException {
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof OpenShiftException) {
+				throw (OpenShiftException) e.getCause();
+			}
+			throw new OpenShiftException(e.getCause(), "Could not list the cartridges of {0}", brokerUrl);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OpenShiftException(e, "Interrupted while listing the cartridges of {0}", brokerUrl);
+		}
+	}
+
+	private void revalidate(final ICartridgesLoader loader, Executor executor) {
+		if (!revalidating.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			executor.execute(new Runnable() {
+
+				public void run() {
+					try {
+						load(loader);
+					} catch (OpenShiftException e) {
+						// keep the stale cartridges, retry on the next request
+						LOGGER.warn("Could not revalidate the cartridges of {}: {}", brokerUrl, e.getMessage());
+					} finally {
+						revalidating.set(false);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			revalidating.set(false);
+		}
+	}
+
+	protected long now() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Lists the cartridges of a broker.
+	 */
+	public interface ICartridgesLoader {
+
+		public List<CartridgeResourceDTO> load() throws OpenShiftException;
+	}
+
+	/**
+	 * The cartridges that a broker offered at a given time.
+	 */
+	public static class Cartridges {
+
+		private final List<ICartridge> standalone;
+		private final List<IEmbeddableCartridge> embeddable;
+		private final long loadedAt;
+
+		private Cartridges(List<CartridgeResourceDTO> cartridgeDTOs, long loadedAt) {
+			final List<ICartridge> standalone = new ArrayList<ICartridge>();
+			final List<IEmbeddableCartridge> embeddable = new ArrayList<IEmbeddableCartridge>();
+			for (CartridgeResourceDTO cartridgeDTO : cartridgeDTOs) {
+				// TODO replace by enum (standalone, embedded)
+				switch (cartridgeDTO.getType()) {
+				case STANDALONE:
+					standalone.add(new Cartridge(cartridgeDTO.getName()));
+					break;
+				case EMBEDDED:
+					embeddable.add(new EmbeddableCartridge(cartridgeDTO.getName()));
+					break;
+				default:
+				}
+			}
+			this.standalone = Collections.unmodifiableList(standalone);
+			this.embeddable = Collections.unmodifiableList(embeddable);
+			this.loadedAt = loadedAt;
+		}
+
+		public List<ICartridge> getStandalone() {
+			return standalone;
+		}
+
+		public List<IEmbeddableCartridge> getEmbeddable() {
+			return embeddable;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import com.openshift.client.IApplication;
+import com.openshift.client.ICartridgeOperationResult;
+import com.openshift.client.IEmbeddableCartridge;
+import com.openshift.client.IEmbeddedCartridge;
+import com.openshift.client.OpenShiftException;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class CartridgeOperationResult implements ICartridgeOperationResult {
+
+	private final IApplication application;
+	private final IEmbeddableCartridge cartridge;
+	private final IEmbeddedCartridge embeddedCartridge;
+	private final OpenShiftException failure;
+	private final long duration;
+
+	private CartridgeOperationResult(IApplication application, IEmbeddableCartridge cartridge,
+			IEmbeddedCartridge embeddedCartridge, OpenShiftException failure, long duration) {
+		this.application = application;
+		this.cartridge = cartridge;
+		this.embeddedCartridge = embeddedCartridge;
+		this.failure = failure;
+		this.duration = duration;
+	}
+
+	static CartridgeOperationResult success(IApplication application, IEmbeddableCartridge cartridge,
+			IEmbeddedCartridge embeddedCartridge, long duration) {
+		return new CartridgeOperationResult(application, cartridge, embeddedCartridge, null, duration);
+	}
+
+	static CartridgeOperationResult failure(IApplication application, IEmbeddableCartridge cartridge,
+			OpenShiftException failure, long duration) {
+		return new CartridgeOperationResult(application, cartridge, null, failure, duration);
+	}
+
+	public IApplication getApplication() {
+		return application;
+	}
+
+	public IEmbeddableCartridge getCartridge() {
+		return cartridge;
+	}
+
+	public IEmbeddedCartridge getEmbeddedCartridge() {
+		return embeddedCartridge;
+	}
+
+	public boolean isSuccessful() {
+		return failure == null;
+	}
+
+	public OpenShiftException getFailure() {
+		return failure;
+	}
+
+	public long getDuration() {
+		return duration;
+	}
+
+	@Override
+	public String toString() {
+		return "CartridgeOperationResult ["
+				+ "application=" + (application == null ? null : application.getName())
+				+ ", cartridge=" + (cartridge == null ? null : cartridge.getName())
+				+ ", successful=" + isSuccessful()
+				+ ", duration=" + duration
+				+ "]";
+	}
+}
@@ -0,0 +1,97 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+/**
+ * A circuit breaker for the requests to a broker host. It opens once the
+ * host failed a given number of times in a row and rejects all requests
+ * while it's open. Once the open duration has passed it lets a single trial
+ * request through (half open): the breaker closes if the trial succeeds and
+ * opens again if it fails.
+ *
+ * @author Andre Dietisheim
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final int failureThreshold;
+	private final long openDuration;
+	private State state = State.CLOSED;
+	private int failures;
+	private long openedAt;
+
+	/**
+	 * @param failureThreshold
+	 *            the number of failures in a row that open the breaker
+	 * @param openDuration
+	 *            the time (in milliseconds) the breaker stays open
+	 */
+	public CircuitBreaker(int failureThreshold, long openDuration) {
+		this.failureThreshold = failureThreshold;
+		this.openDuration = openDuration;
+	}
+
+	/**
+	 * Returns <code>true</code> if a request may be sent. The caller then has
+	 * to report the outcome of the request by calling {@link #succeeded()},
+	 * {@link #failed()} or {@link #cancelled()}.
+	 */
+	public synchronized boolean allowRequest() {
+		switch (state) {
+		case CLOSED:
+			return true;
+		case OPEN:
+			if (now() - openedAt < openDuration) {
+				return false;
+			}
+			this.state = State.HALF_OPEN;
+			return true;
+		default:
+			// trial request is in flight
+			return false;
+		}
+	}
+
+	public synchronized void succeeded() {
+		this.state = State.CLOSED;
+		this.failures = 0;
+	}
+
+	public synchronized void failed() {
+		if (state == State.HALF_OPEN
+				|| ++failures >= failureThreshold) {
+			this.state = State.OPEN;
+			this.openedAt = now();
+			this.failures = 0;
+		}
+	}
+
+	/**
+	 * Reports that an allowed request was not sent. A trial request that was
+	 * not sent leaves the breaker open, the next request is the trial.
+	 */
+	public synchronized void cancelled() {
+		if (state == State.HALF_OPEN) {
+			this.state = State.OPEN;
+		}
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	protected long now() {
+		return System.currentTimeMillis();
+	}
+}
@@ -0,0 +1,191 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Processes items concurrently by at most the given number of workers. The
+ * calling thread is one of the workers, the others run in the given
+ * executor. The calling thread hands out the items: an item goes to the
+ * executor if a worker is free and is processed by the calling thread
+ * otherwise. The calling thread thus never waits for the executor to run a
+ * task, a saturated executor (ex. shared with the caller) only reduces the
+ * concurrency. Items that were not processed because the caller was
+ * interrupted are reported by {@link #cancelled(Object)}.
+ *
+ * @param <T>
+ *            the type of the items
+ * @param <R>
+ *            the type of the result for an item
+ *
+ * @author Andre Dietisheim
+ */
+public abstract class ConcurrentBatch<T, R> {
+
+	private final ExecutorService executor;
+	private final int maxConcurrency;
+
+	protected ConcurrentBatch(ExecutorService executor, int maxConcurrency) {
+		this.executor = executor;
+		this.maxConcurrency = Math.max(1, maxConcurrency);
+	}
+
+	/**
+	 * Processes the given items and waits for them to be processed. The
+	 * results are in the order of the items.
+	 * 
+	 * @param items
+	 *            the items to process
+	 * @return the results
+	 */
+	public List<R> run(List<T> items) {
+		AtomicReferenceArray<R> results = new AtomicReferenceArray<R>(items.size());
+		Semaphore freeWorkers = new Semaphore(maxConcurrency - 1);
+		List<Task> tasks = new ArrayList<Task>();
+		try {
+			for (int i = 0; i < items.size()
+					&& !Thread.currentThread().isInterrupted(); i++) {
+				awaitStart(items.get(i));
+				Task task = new Task(items, i, results, freeWorkers);
+				if (!submit(task)) {
+					task.process();
+				} else {
+					tasks.add(task);
+				}
+			}
+			for (Task task : tasks) {
+				if (task.claim()) {
+					// not started yet, dont wait for the executor
+					task.process();
+				} else {
+					task.await();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (Thread.currentThread().isInterrupted()) {
+			for (Task task : tasks) {
+				task.cancel();
+			}
+		}
+		return getResults(items, results);
+	}
+
+	private boolean submit(Task task) {
+		if (!task.freeWorkers.tryAcquire()) {
+			return false;
+		}
+		try {
+			task.future = executor.submit(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			task.freeWorkers.release();
+			return false;
+		}
+	}
+
+	private List<R> getResults(List<T> items, AtomicReferenceArray<R> results) {
+		List<R> allResults = new ArrayList<R>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			R result = results.get(i);
+			if (result == null) {
+				result = cancelled(items.get(i));
+			}
+			allResults.add(result);
+		}
+		return allResults;
+	}
+
+	/**
+	 * Waits until the given item may be started. Called in the calling thread
+	 * before the item is handed to a worker so that waiting does not hold a
+	 * thread of the executor. Does not wait by default.
+	 * 
+	 * @throws InterruptedException
+	 *             if the calling thread was interrupted while waiting, the
+	 *             remaining items are then cancelled
+	 */
+	protected void awaitStart(T item) throws InterruptedException {
+	}
+
+	/**
+	 * Processes the given item. Should not throw but report failures in the
+	 * result.
+	 */
+	protected abstract R process(T item);
+
+	/**
+	 * Returns the result for an item that was not processed.
+	 */
+	protected abstract R cancelled(T item);
+
+	private class Task implements Runnable {
+
+		private final List<T> items;
+		private final int index;
+		private final AtomicReferenceArray<R> results;
+		private final Semaphore freeWorkers;
+		private final AtomicBoolean started = new AtomicBoolean();
+		private final CountDownLatch done = new CountDownLatch(1);
+		private volatile Future<?> future;
+
+		private Task(List<T> items, int index, AtomicReferenceArray<R> results, Semaphore freeWorkers) {
+			this.items = items;
+			this.index = index;
+			this.results = results;
+			this.freeWorkers = freeWorkers;
+		}
+
+		public void run() {
+			try {
+				if (claim()) {
+					process();
+				}
+			} finally {
+				freeWorkers.release();
+				done.countDown();
+			}
+		}
+
+		/**
+		 * Marks this task as started. Returns <code>false</code> if it was
+		 * started before.
+		 */
+		private boolean claim() {
+			return started.compareAndSet(false, true);
+		}
+
+		private void process() {
+			results.set(index, ConcurrentBatch.this.process(items.get(index)));
+		}
+
+		private void await() throws InterruptedException {
+			done.await();
+		}
+
+		private void cancel() {
+			claim();
+			if (future != null) {
+				future.cancel(true);
+			}
+		}
+	}
+}
@@ -11,7 +11,6 @@
 package com.openshift.internal.client;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -28,8 +27,9 @@ import com.openshift.internal.client.response.Link;
 import com.openshift.internal.client.response.LinkParameter;
 import com.openshift.internal.client.response.Message;
 import com.openshift.internal.client.utils.Assert;
-import com.openshift.internal.client.utils.CollectionUtils;
 import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
+import com.openshift.internal.client.utils.IndexedList;
+import com.openshift.internal.client.utils.LazyValue;
 
 /**
  * @author André Dietisheim
@@ -46,8 +46,13 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 	/** root node in the business domain. */
 	private final APIResource connectionResource;
 	/** Applications for the domain. */
-	// TODO: replace by a map indexed by application names ?
-	private List<IApplication> applications = null;
+	private final LazyValue<Applications> applications = new LazyValue<Applications>() {
+
+		@Override
+		protected Applications load() throws OpenShiftException {
+			return loadApplications();
+		}
+	};
 
 	protected DomainResource(final String namespace, final String suffix, final Map<String, Link> links,
 			final List<Message> creationLog,
@@ -76,8 +81,8 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 		DomainResourceDTO domainDTO = new UpdateDomainRequest().execute(id);
 		this.id = domainDTO.getNamespace();
 		this.suffix = domainDTO.getSuffix();
-		this.getLinks().clear();
-		this.getLinks().putAll(domainDTO.getLinks());
+		setLinks(domainDTO.getLinks());
+		connectionResource.updateDomain(this);
 	}
 
 	public IUser getUser() throws OpenShiftException {
@@ -143,25 +148,12 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 
 	public IApplication getApplicationByName(String name) throws OpenShiftException {
 		Assert.notNull(name);
-		return getApplicationByName(name, getApplications());
-	}
-
-	private IApplication getApplicationByName(String name, Collection<IApplication> applications) throws OpenShiftException {
-		Assert.notNull(name);
-
-		IApplication matchingApplication = null;
-		for (IApplication application : applications) {
-			if (application.getName().equals(name)) {
-				matchingApplication = application;
-				break;
-			}
-		}
-		return matchingApplication;
+		return applications.get().byName.get(name);
 	}
 
 	public List<IApplication> getApplicationsByCartridge(ICartridge cartridge) throws OpenShiftException {
 		List<IApplication> matchingApplications = new ArrayList<IApplication>();
-		for (IApplication application : getApplications()) {
+		for (IApplication application : applications.get().byCartridge.getAll(cartridge.getName())) {
 			if (cartridge.equals(application.getCartridge())) {
 				matchingApplications.add(application);
 			}
@@ -182,21 +174,18 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 		connectionResource.removeDomain(this);
 	}
 
-	protected List<IApplication> getOrLoadApplications() throws OpenShiftException {
-		if (applications == null) {
-			this.applications = loadApplications();
-		}
-		return applications;
+	protected IndexedList<IApplication> getOrLoadApplications() throws OpenShiftException {
+		return applications.get();
 	}
 	
 	public List<IApplication> getApplications() throws OpenShiftException {
-		return CollectionUtils.toUnmodifiableCopy(getOrLoadApplications());
+		return getOrLoadApplications().asList();
 	}
 
 	/**
 	 * @throws OpenShiftException
 	 */
-	private List<IApplication> loadApplications() throws OpenShiftException {
+	private Applications loadApplications() throws OpenShiftException {
 		List<IApplication> apps = new ArrayList<IApplication>();
 		List<ApplicationResourceDTO> applicationDTOs = new ListApplicationsRequest().execute();
 		for (ApplicationResourceDTO applicationDTO : applicationDTOs) {
@@ -205,12 +194,16 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 					new ApplicationResource(applicationDTO, cartridge, this);
 			apps.add(application);
 		}
-		return apps;
+		Applications applications = new Applications();
+		applications.addAll(apps);
+		return applications;
 	}
 
 	protected void removeApplication(IApplication application) {
-		// TODO: can this collection be a null ?
-		this.applications.remove(application);
+		Applications applications = this.applications.getIfLoaded();
+		if (applications != null) {
+			applications.remove(application);
+		}
 	}
 
 	public List<String> getAvailableCartridgeNames() throws OpenShiftException {
@@ -243,8 +236,8 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 		final DomainResourceDTO domainResourceDTO =  new GetDomainRequest().execute();
 		this.id = domainResourceDTO.getNamespace();
 		this.suffix = domainResourceDTO.getSuffix();
-		if(this.applications != null) {
-			this.applications = loadApplications();
+		if (applications.isLoaded()) {
+			applications.reload();
 		}
 		
 	}
@@ -257,6 +250,28 @@ public class DomainResource extends AbstractOpenShiftResource implements IDomain
 				+ "]";
 	}
 
+	private static class Applications extends IndexedList<IApplication> {
+
+		private final Index<IApplication> byName = addIndex(new Index<IApplication>() {
+
+			@Override
+			protected String getKey(IApplication application) {
+				return application.getName();
+			}
+		});
+
+		private final Index<IApplication> byCartridge = addIndex(new Index<IApplication>() {
+
+			@Override
+			protected String getKey(IApplication application) {
+				if (application.getCartridge() == null) {
+					return null;
+				}
+				return application.getCartridge().getName();
+			}
+		});
+	}
+
 	private class GetDomainRequest extends ServiceRequest {
 		public GetDomainRequest() throws OpenShiftException {
 			super(LINK_GET);
@@ -0,0 +1,84 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.openshift.client.ApplicationOperation;
+import com.openshift.client.IApplicationOperationResult;
+import com.openshift.client.IFleetReport;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class FleetReport implements IFleetReport {
+
+	private final ApplicationOperation operation;
+	private final List<IApplicationOperationResult> results;
+	private final long duration;
+
+	public FleetReport(ApplicationOperation operation, List<IApplicationOperationResult> results, long duration) {
+		this.operation = operation;
+		this.results = Collections.unmodifiableList(new ArrayList<IApplicationOperationResult>(results));
+		this.duration = duration;
+	}
+
+	public ApplicationOperation getOperation() {
+		return operation;
+	}
+
+	public List<IApplicationOperationResult> getResults() {
+		return results;
+	}
+
+	public List<IApplicationOperationResult> getSuccessful() {
+		return filter(true);
+	}
+
+	public List<IApplicationOperationResult> getFailed() {
+		return filter(false);
+	}
+
+	private List<IApplicationOperationResult> filter(boolean successful) {
+		List<IApplicationOperationResult> filtered = new ArrayList<IApplicationOperationResult>();
+		for (IApplicationOperationResult result : results) {
+			if (result.isSuccessful() == successful) {
+				filtered.add(result);
+			}
+		}
+		return filtered;
+	}
+
+	public boolean hasFailures() {
+		for (IApplicationOperationResult result : results) {
+			if (!result.isSuccessful()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public long getDuration() {
+		return duration;
+	}
+
+	@Override
+	public String toString() {
+		return "FleetReport ["
+				+ "operation=" + operation
+				+ ", applications=" + results.size()
+				+ ", failed=" + getFailed().size()
+				+ ", duration=" + duration
+				+ "]";
+	}
+}
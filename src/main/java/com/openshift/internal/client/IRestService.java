@@ -14,8 +14,10 @@ import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import com.openshift.client.HttpMethod;
+import com.openshift.client.IResponseCallback;
 import com.openshift.client.OpenShiftException;
 import com.openshift.internal.client.httpclient.HttpClientException;
 import com.openshift.internal.client.response.Link;
@@ -41,6 +43,17 @@ public interface IRestService {
 	public abstract String request(String url, HttpMethod httpMethod, Map<String, Object> parameters)
 			throws OpenShiftException;
 
+	/**
+	 * Requests the given link without blocking if the http client supports
+	 * asynchronous requests. Failures complete the returned future with an
+	 * {@link OpenShiftException}.
+	 */
+	public Future<RestResponse> requestAsync(Link link, IResponseCallback<RestResponse> callback,
+			ServiceParameter... serviceParameters);
+
+	public Future<RestResponse> requestAsync(Link link, Map<String, Object> parameters,
+			IResponseCallback<RestResponse> callback);
+
 	public abstract void setProxySet(boolean proxySet);
 
 	public abstract void setProxyHost(String proxyHost);
@@ -0,0 +1,301 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.IResponseCallback;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.RetryPolicy;
+import com.openshift.client.utils.HostUtils;
+import com.openshift.internal.client.utils.CallbackFuture;
+import com.openshift.internal.client.utils.NamedThreadFactory;
+
+/**
+ * Checks if resources are ready by running probes until they all succeed or
+ * the timeout is reached. Asynchronous checks dont hold a thread while they
+ * wait: the probes are run in the given executor and the next attempt is
+ * scheduled on a timer that all checks share. Synchronous checks run the
+ * probes in the calling thread so that they never wait for the executor. The
+ * delay between the attempts is the backoff of the given {@link RetryPolicy}:
+ * it grows exponentially and is randomized so that checks that were started
+ * together dont probe in lockstep.
+ *
+ * @author Andre Dietisheim
+ */
+public class ReadinessChecker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReadinessChecker.class);
+
+	public static final long DEFAULT_INITIAL_DELAY = 256;
+	public static final long DEFAULT_MAX_DELAY = 8 * 1024;
+
+	private static ScheduledExecutorService timer;
+
+	private final ExecutorService executor;
+	private final RetryPolicy backoff;
+
+	public ReadinessChecker(ExecutorService executor) {
+		this(executor, DEFAULT_INITIAL_DELAY, DEFAULT_MAX_DELAY);
+	}
+
+	/**
+	 * @param executor
+	 *            the executor to run the probes in
+	 * @param initialDelay
+	 *            the delay (in milliseconds) before the second attempt
+	 * @param maxDelay
+	 *            the maximum delay (in milliseconds) between 2 attempts
+	 */
+	public ReadinessChecker(ExecutorService executor, long initialDelay, long maxDelay) {
+		this(executor, new RetryPolicy()
+				.setBackoff(Math.max(1, initialDelay), Math.max(Math.max(1, initialDelay), maxDelay)));
+	}
+
+	/**
+	 * @param executor
+	 *            the executor to run the probes in
+	 * @param backoff
+	 *            the policy whose backoff is the delay between 2 attempts
+	 */
+	public ReadinessChecker(ExecutorService executor, RetryPolicy backoff) {
+		this.executor = executor;
+		this.backoff = backoff;
+	}
+
+	private static synchronized ScheduledExecutorService getTimer() {
+		if (timer == null) {
+			timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("openshift-readiness"));
+		}
+		return timer;
+	}
+
+	/**
+	 * Runs the given probes until they all succeed or the timeout is reached.
+	 * The returned future is completed with <code>true</code> if all probes
+	 * succeeded, with <code>false</code> if they still failed once the timeout
+	 * was reached. It fails if a probe throws an {@link OpenShiftException}.
+	 * Cancelling the future stops the check.
+	 *
+	 * @param timeout
+	 *            the time (in milliseconds) to wait for the probes to succeed
+	 * @param callback
+	 *            the callback to notify once the check is done, may be
+	 *            <code>null</code>
+	 * @param probes
+	 *            the probes to run, in the given order
+	 * @return the future result of the check
+	 */
+	public CallbackFuture<Boolean> check(long timeout, IResponseCallback<Boolean> callback, IProbe... probes) {
+		CallbackFuture<Boolean> future = new CallbackFuture<Boolean>(callback);
+		new Check(future, probes, System.currentTimeMillis() + timeout).submit();
+		return future;
+	}
+
+	/**
+	 * Runs the given probes in the calling thread until they all succeed or
+	 * the timeout is reached.
+	 *
+	 * @param timeout
+	 *            the time (in milliseconds) to wait for the probes to succeed
+	 * @param probes
+	 *            the probes to run, in the given order
+	 * @return <code>true</code> if all probes succeeded, <code>false</code>
+	 *         if they still failed once the timeout was reached or the
+	 *         calling thread was interrupted
+	 * @throws OpenShiftException
+	 *             if a probe threw
+	 */
+	public boolean await(long timeout, IProbe... probes) throws OpenShiftException {
+		long deadline = System.currentTimeMillis() + timeout;
+		for (int attempt = 0;; attempt++) {
+			if (isReady(probes)) {
+				return true;
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				return false;
+			}
+			try {
+				Thread.sleep(Math.min(getDelay(attempt), remaining));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the delay before the given attempt.
+	 */
+	protected long getDelay(int attempt) {
+		return backoff.getDelay(attempt);
+	}
+
+	private static boolean isReady(IProbe[] probes) throws OpenShiftException {
+		for (IProbe probe : probes) {
+			if (!probe.isReady()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private class Check implements Runnable {
+
+		private final CallbackFuture<Boolean> future;
+		private final IProbe[] probes;
+		private final long deadline;
+		private int attempt;
+
+		private Check(CallbackFuture<Boolean> future, IProbe[] probes, long deadline) {
+			this.future = future;
+			this.probes = probes;
+			this.deadline = deadline;
+		}
+
+		private void submit() {
+			try {
+				executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				future.fail(e);
+			}
+		}
+
+		public void run() {
+			if (future.isDone()) {
+				return;
+			}
+			try {
+				if (isReady(probes)) {
+					future.complete(true);
+					return;
+				}
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					future.complete(false);
+					return;
+				}
+				long delay = Math.min(getDelay(attempt++), remaining);
+				getTimer().schedule(new Runnable() {
+
+					public void run() {
+						submit();
+					}
+				}, delay, TimeUnit.MILLISECONDS);
+			} catch (RuntimeException e) {
+				future.fail(e);
+			}
+		}
+	}
+
+	/**
+	 * A probe that tells if a resource is ready. Probes are run repeatedly
+	 * and should not block for long.
+	 */
+	public static interface IProbe {
+
+		/**
+		 * Returns <code>true</code> if the resource is ready.
+		 *
+		 * @throws OpenShiftException
+		 *             if the resource cannot become ready, the check is
+		 *             aborted
+		 */
+		public boolean isReady() throws OpenShiftException;
+	}
+
+	/**
+	 * A probe that succeeds once the host of the given url resolves.
+	 */
+	public static class DnsProbe implements IProbe {
+
+		private final String url;
+
+		public DnsProbe(String url) {
+			this.url = url;
+		}
+
+		public boolean isReady() throws OpenShiftException {
+			try {
+				return HostUtils.canResolv(url);
+			} catch (MalformedURLException e) {
+				throw new OpenShiftException(e, "Could not resolve host of invalid url \"{0}\"", url);
+			}
+		}
+	}
+
+	/**
+	 * A probe that succeeds once the given url answers with a status that's
+	 * not a server error. The OpenShift proxies answer with 503 while an
+	 * application is starting. No credentials are sent.
+	 */
+	public static class HttpProbe implements IProbe {
+
+		public static final int DEFAULT_TIMEOUT = 5 * 1000;
+
+		private final URL url;
+		private final int timeout;
+
+		public HttpProbe(URL url) {
+			this(url, DEFAULT_TIMEOUT);
+		}
+
+		/**
+		 * @param url
+		 *            the url to request
+		 * @param timeout
+		 *            the connect and read timeout (in milliseconds)
+		 */
+		public HttpProbe(URL url, int timeout) {
+			this.url = url;
+			this.timeout = timeout;
+		}
+
+		public boolean isReady() throws OpenShiftException {
+			HttpURLConnection connection = null;
+			try {
+				URLConnection urlConnection = url.openConnection();
+				if (!(urlConnection instanceof HttpURLConnection)) {
+					throw new OpenShiftException("Could not probe {0}, it is no http url", url);
+				}
+				connection = (HttpURLConnection) urlConnection;
+				connection.setConnectTimeout(timeout);
+				connection.setReadTimeout(timeout);
+				connection.setInstanceFollowRedirects(false);
+				connection.setUseCaches(false);
+				int status = connection.getResponseCode();
+				LOGGER.trace("Probed {}, status {}", url, status);
+				return status > 0
+						&& status < HttpURLConnection.HTTP_INTERNAL_ERROR;
+			} catch (IOException e) {
+				LOGGER.trace("Could not probe {}: {}", url, e.getMessage());
+				return false;
+			} finally {
+				if (connection != null) {
+					connection.disconnect();
+				}
+			}
+		}
+	}
+}
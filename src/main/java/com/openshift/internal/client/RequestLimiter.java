@@ -0,0 +1,272 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.RequestLimits;
+import com.openshift.internal.client.utils.TokenBucket;
+
+/**
+ * Limits the requests of a connection by rate and by the number of requests
+ * in flight. The concurrency limit grows additively while requests succeed
+ * and shrinks multiplicatively once the broker shows signs of overload. The
+ * limit shrinks at most once per second so that a burst of failures that
+ * were caused by the same overload does not collapse it.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see RequestLimits
+ */
+public class RequestLimiter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RequestLimiter.class);
+
+	private static final long DECREASE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	private final RequestLimits limits;
+	private final TokenBucket rateLimiter;
+	private double limit;
+	private int inFlight;
+	private int waiting;
+	private long lastDecrease;
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong overloads = new AtomicLong();
+	private final AtomicLong decreases = new AtomicLong();
+
+	public RequestLimiter(RequestLimits limits) {
+		this.limits = limits;
+		this.rateLimiter = limits.isRateLimited() ?
+				new TokenBucket(limits.getRequestsPerSecond(), limits.getBurst()) : null;
+		this.limit = limits.getInitialConcurrency();
+		this.lastDecrease = System.nanoTime() - DECREASE_INTERVAL;
+	}
+
+	/**
+	 * Waits until a request may be sent.
+	 * 
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting
+	 */
+	public void acquire() throws InterruptedException {
+		acquire(false, 0);
+	}
+
+	/**
+	 * Waits until a request may be sent, but no longer than the given
+	 * timeout.
+	 * 
+	 * @param timeout
+	 *            the maximum time (in milliseconds) to wait
+	 * @return <code>true</code> if the request may be sent,
+	 *         <code>false</code> if the timeout elapsed
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting
+	 */
+	public boolean tryAcquire(long timeout) throws InterruptedException {
+		return acquire(true, TimeUnit.MILLISECONDS.toNanos(timeout));
+	}
+
+	/**
+	 * Waits for a slot among the requests in flight first and for the rate
+	 * only then, a request that gives up on its slot must not have spent a
+	 * rate permit.
+	 */
+	private boolean acquire(boolean timed, long timeout) throws InterruptedException {
+		long start = System.nanoTime();
+		synchronized (this) {
+			waiting++;
+			try {
+				while (inFlight >= (int) limit) {
+					if (!timed) {
+						wait();
+						continue;
+					}
+					long remaining = timeout - (System.nanoTime() - start);
+					if (remaining <= 0) {
+						return false;
+					}
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			} finally {
+				waiting--;
+			}
+			inFlight++;
+		}
+		if (rateLimiter != null) {
+			boolean permitted = false;
+			try {
+				if (!timed) {
+					rateLimiter.acquire();
+					permitted = true;
+				} else {
+					permitted = rateLimiter.tryAcquire(
+							Math.max(0, timeout - (System.nanoTime() - start)), TimeUnit.NANOSECONDS);
+				}
+			} finally {
+				if (!permitted) {
+					cancel();
+				}
+			}
+			if (!permitted) {
+				return false;
+			}
+		}
+		requests.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Reports that a request that was acquired before is done.
+	 * 
+	 * @param latency
+	 *            the time (in milliseconds) the request took
+	 * @param overloaded
+	 *            <code>true</code> if the request failed because the broker
+	 *            was overloaded
+	 */
+	public synchronized void release(long latency, boolean overloaded) {
+		inFlight--;
+		if (overloaded
+				|| (limits.isLatencyLimited()
+						&& latency > limits.getLatencyThreshold())) {
+			overloads.incrementAndGet();
+			decrease();
+		} else {
+			increase();
+		}
+		notifyAll();
+	}
+
+	/**
+	 * Reports that a request that was acquired before was not sent. Frees its
+	 * slot without adjusting the limit, the broker told nothing about its
+	 * load.
+	 */
+	public synchronized void cancel() {
+		inFlight--;
+		notifyAll();
+	}
+
+	private void increase() {
+		limit = Math.min(limits.getMaxConcurrency(), limit + 1 / limit);
+	}
+
+	private void decrease() {
+		long now = System.nanoTime();
+		if (now - lastDecrease < DECREASE_INTERVAL) {
+			return;
+		}
+		this.lastDecrease = now;
+		double previous = limit;
+		this.limit = Math.max(limits.getMinConcurrency(), limit * limits.getBackoffRatio());
+		decreases.incrementAndGet();
+		LOGGER.debug("Broker overloaded, reduced concurrent requests from {} to {}", (int) previous, (int) limit);
+	}
+
+	public RequestLimits getLimits() {
+		return limits;
+	}
+
+	public synchronized Statistics getStatistics() {
+		return new Statistics((int) limit, inFlight, waiting,
+				rateLimiter == null ? -1 : rateLimiter.getAvailablePermits(),
+				requests.get(), overloads.get(), decreases.get());
+	}
+
+	/**
+	 * A snapshot of the state and the counters of a request limiter.
+	 */
+	public static class Statistics {
+
+		private final int limit;
+		private final int inFlight;
+		private final int waiting;
+		private final int availablePermits;
+		private final long requests;
+		private final long overloads;
+		private final long decreases;
+
+		Statistics(int limit, int inFlight, int waiting, int availablePermits, long requests, long overloads,
+				long decreases) {
+			this.limit = limit;
+			this.inFlight = inFlight;
+			this.waiting = waiting;
+			this.availablePermits = availablePermits;
+			this.requests = requests;
+			this.overloads = overloads;
+			this.decreases = decreases;
+		}
+
+		/**
+		 * Returns the current number of requests that may be in flight.
+		 */
+		public int getLimit() {
+			return limit;
+		}
+
+		public int getInFlight() {
+			return inFlight;
+		}
+
+		/**
+		 * Returns the number of requests that wait for a request in flight to
+		 * complete.
+		 */
+		public int getWaiting() {
+			return waiting;
+		}
+
+		/**
+		 * Returns the number of requests that may be sent right away or -1 if
+		 * requests are not limited by rate.
+		 */
+		public int getAvailablePermits() {
+			return availablePermits;
+		}
+
+		public long getRequests() {
+			return requests;
+		}
+
+		/**
+		 * Returns the number of requests that failed or were slow because
+		 * the broker was overloaded.
+		 */
+		public long getOverloads() {
+			return overloads;
+		}
+
+		/**
+		 * Returns the number of times the limit was reduced.
+		 */
+		public long getDecreases() {
+			return decreases;
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics ["
+					+ "limit=" + limit
+					+ ", inFlight=" + inFlight
+					+ ", waiting=" + waiting
+					+ ", availablePermits=" + availablePermits
+					+ ", requests=" + requests
+					+ ", overloads=" + overloads
+					+ ", decreases=" + decreases
+					+ "]";
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.Deadline;
+import com.openshift.client.HttpMethod;
+import com.openshift.client.OpenShiftEndpointException;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.RetryPolicy;
+import com.openshift.internal.client.httpclient.ConnectionLeaseTimeoutException;
+
+/**
+ * Sends the requests of a connection and sends them again if they failed
+ * and the {@link RetryPolicy} allows it. Requests are guarded by a
+ * {@link CircuitBreaker} per broker host, they fail immediately while the
+ * breaker of their host is open.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see RetryPolicy
+ */
+public class RequestRetrier {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RequestRetrier.class);
+
+	private final RetryPolicy policy;
+	private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+	private final AtomicLong retries = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+
+	public RequestRetrier(RetryPolicy policy) {
+		this.policy = policy;
+	}
+
+	/**
+	 * Executes the given request and retries it until it succeeds, fails
+	 * with an error that is not transient, or its attempts, its time budget
+	 * or the deadline of the calling thread are spent.
+	 *
+	 * @param url
+	 *            the requested url
+	 * @param method
+	 *            the http method of the request
+	 * @param linkRelation
+	 *            the relation of the requested link, may be <code>null</code>
+	 * @param request
+	 *            the request to execute
+	 * @return the response of the request
+	 * @throws OpenShiftException
+	 *             the failure of the last attempt or an
+	 *             {@link OpenShiftEndpointException} if the circuit breaker of
+	 *             the host is open
+	 */
+	public <T> T execute(URL url, HttpMethod method, String linkRelation, IRequest<T> request)
+			throws OpenShiftException {
+		CircuitBreaker circuitBreaker = getCircuitBreaker(url.getHost());
+		boolean retryable = policy.isRetryable(method, linkRelation);
+		long start = System.currentTimeMillis();
+		for (int attempt = 1;; attempt++) {
+			if (!circuitBreaker.allowRequest()) {
+				rejected.incrementAndGet();
+				throw new OpenShiftEndpointException(url.toString(), null, null,
+						"Could not request {0}, too many requests to {1} failed recently", url, url.getHost());
+			}
+			RuntimeException failure;
+			try {
+				T response = request.execute();
+				circuitBreaker.succeeded();
+				return response;
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+
+			if (failure.getCause() instanceof ConnectionLeaseTimeoutException) {
+				// the request was not sent, the broker told nothing
+				circuitBreaker.cancelled();
+				throw failure;
+			}
+			boolean transientFailure = failure instanceof OpenShiftException
+					&& policy.isTransient(failure.getCause());
+			if (transientFailure) {
+				circuitBreaker.failed();
+			} else {
+				// the broker answered
+				circuitBreaker.succeeded();
+			}
+			if (!transientFailure
+					|| !retryable
+					|| attempt >= policy.getMaxAttempts()) {
+				throw failure;
+			}
+			long delay = policy.getDelay(attempt - 1);
+			long remaining = Deadline.getRemaining(policy.getTimeBudget() - (System.currentTimeMillis() - start));
+			if (delay >= remaining) {
+				LOGGER.debug("Giving up {} {}, time budget or deadline is spent", method, url);
+				throw failure;
+			}
+			LOGGER.debug("Retrying {} {} in {} ms: {}", new Object[] { method, url, delay, failure.getMessage() });
+			retries.incrementAndGet();
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw failure;
+			}
+		}
+	}
+
+	/**
+	 * Returns the circuit breaker for the given host, creates it if there's
+	 * none yet.
+	 */
+	public CircuitBreaker getCircuitBreaker(String host) {
+		CircuitBreaker circuitBreaker = circuitBreakers.get(host);
+		if (circuitBreaker == null) {
+			CircuitBreaker newCircuitBreaker =
+					new CircuitBreaker(policy.getFailureThreshold(), policy.getOpenDuration());
+			circuitBreaker = circuitBreakers.putIfAbsent(host, newCircuitBreaker);
+			if (circuitBreaker == null) {
+				circuitBreaker = newCircuitBreaker;
+			}
+		}
+		return circuitBreaker;
+	}
+
+	public RetryPolicy getPolicy() {
+		return policy;
+	}
+
+	public Statistics getStatistics() {
+		return new Statistics(retries.get(), rejected.get());
+	}
+
+	/**
+	 * A request that may be executed several times.
+	 */
+	public static interface IRequest<T> {
+
+		public T execute() throws OpenShiftException;
+	}
+
+	/**
+	 * A snapshot of the counters of a retrier.
+	 */
+	public static class Statistics {
+
+		private final long retries;
+		private final long rejected;
+
+		Statistics(long retries, long rejected) {
+			this.retries = retries;
+			this.rejected = rejected;
+		}
+
+		/**
+		 * Returns the number of requests that were sent again.
+		 */
+		public long getRetries() {
+			return retries;
+		}
+
+		/**
+		 * Returns the number of requests that failed immediately because the
+		 * circuit breaker of their host was open.
+		 */
+		public long getRejected() {
+			return rejected;
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics ["
+					+ "retries=" + retries
+					+ ", rejected=" + rejected
+					+ "]";
+		}
+	}
+}
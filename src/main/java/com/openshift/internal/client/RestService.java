@@ -10,26 +10,48 @@
  ******************************************************************************/
 package com.openshift.internal.client;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.openshift.client.Deadline;
 import com.openshift.client.HttpMethod;
+import com.openshift.client.IAsyncHttpClient;
+import com.openshift.client.IConditionalHttpClient;
 import com.openshift.client.IHttpClient;
+import com.openshift.client.IResponseCallback;
+import com.openshift.client.IResponseReader;
+import com.openshift.client.IStreamingHttpClient;
 import com.openshift.client.InvalidCredentialsOpenShiftException;
 import com.openshift.client.NotFoundOpenShiftException;
 import com.openshift.client.OpenShiftEndpointException;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftExecutors;
 import com.openshift.client.OpenShiftRequestException;
 import com.openshift.client.OpenShiftTimeoutException;
+import com.openshift.client.RequestTimeouts;
+import com.openshift.client.metrics.ClientMetrics;
+import com.openshift.client.metrics.IClientMetrics;
+import com.openshift.internal.client.RequestRetrier.IRequest;
+import com.openshift.internal.client.httpclient.CachedResponse;
+import com.openshift.internal.client.httpclient.ConnectionLeaseTimeoutException;
 import com.openshift.internal.client.httpclient.HttpClientException;
+import com.openshift.internal.client.httpclient.InternalServerErrorException;
 import com.openshift.internal.client.httpclient.NotFoundException;
+import com.openshift.internal.client.httpclient.RequestTimeout;
+import com.openshift.internal.client.httpclient.ResponseCache;
 import com.openshift.internal.client.httpclient.UnauthorizedException;
 import com.openshift.internal.client.response.Link;
 import com.openshift.internal.client.response.LinkParameter;
@@ -37,6 +59,7 @@ import com.openshift.internal.client.response.LinkParameterType;
 import com.openshift.internal.client.response.Message;
 import com.openshift.internal.client.response.ResourceDTOFactory;
 import com.openshift.internal.client.response.RestResponse;
+import com.openshift.internal.client.utils.CallbackFuture;
 import com.openshift.internal.client.utils.StringUtils;
 import com.openshift.internal.client.utils.UrlUtils;
 
@@ -56,10 +79,23 @@ public class RestService implements IRestService {
 	private static final String SYSPROPERTY_PROXY_HOST = "proxyHost";
 	private static final String SYSPROPERTY_PROXY_SET = "proxySet";
 
-	private static final String SERVICE_VERSION = "1.0";
+	static final String SERVICE_VERSION = "1.0";
+
+	private static final IResponseReader<RestResponse> RESPONSE_READER = new IResponseReader<RestResponse>() {
+
+		public RestResponse read(InputStream inputStream) throws IOException {
+			return ResourceDTOFactory.get(inputStream);
+		}
+	};
 
 	private String baseUrl;
 	private IHttpClient client;
+	/** the responses to GET requests, they're served if the server reports them unchanged */
+	private final ResponseCache<RestResponse> responseCache = new ResponseCache<RestResponse>();
+	private volatile RequestLimiter requestLimiter;
+	private volatile RequestRetrier requestRetrier;
+	private volatile RequestTimeouts requestTimeouts;
+	private volatile Executor executor;
 
 	public RestService(String baseUrl, String clientId, IHttpClient client) {
 		this.baseUrl = UrlUtils.ensureStartsWithHttps(baseUrl);
@@ -84,33 +120,210 @@ public class RestService implements IRestService {
 		return parameterMap;
 	}
 
-	public RestResponse request(Link link, Map<String, Object> parameters)
+	public RestResponse request(Link link, final Map<String, Object> parameters)
 			throws OpenShiftException {
 		validateParameters(parameters, link);
-		HttpMethod httpMethod = link.getHttpMethod();
-		String response = request(link.getHref(), httpMethod, parameters);
-		return ResourceDTOFactory.get(response);
+		final URL url = getUrl(link.getHref());
+		final HttpMethod httpMethod = link.getHttpMethod();
+		return execute(url, httpMethod, link.getRel(), new IRequest<RestResponse>() {
+
+			public RestResponse execute() throws OpenShiftException {
+				return requestResource(url, httpMethod, parameters);
+			}
+		});
+	}
+
+	private RestResponse requestResource(URL url, HttpMethod httpMethod, Map<String, Object> parameters)
+			throws OpenShiftException {
+		if (client instanceof IConditionalHttpClient
+				&& httpMethod == HttpMethod.GET) {
+			return requestConditionally(url);
+		}
+		if (client instanceof IStreamingHttpClient) {
+			return request(url, httpMethod, parameters, RESPONSE_READER);
+		}
+		return ResourceDTOFactory.get(requestString(url, httpMethod, parameters));
+	}
+
+	/**
+	 * Requests the given url, sending the validators of the response that was
+	 * received last time. The cached response is returned if the server
+	 * reports that it did not change, the new response is parsed and cached
+	 * otherwise.
+	 */
+	private RestResponse requestConditionally(URL url) throws OpenShiftException {
+		LOGGER.trace("Requesting GET on {}", url);
+		long start = acquire(url);
+		Throwable failure = null;
+		try {
+			CachedResponse<RestResponse> response =
+					((IConditionalHttpClient) client).get(url, responseCache.get(url), RESPONSE_READER);
+			responseCache.put(url, response);
+			return response.getResponse();
+		} catch (HttpClientException e) {
+			failure = e;
+			responseCache.put(url, null);
+			throw createException(url, e);
+		} catch (SocketTimeoutException e) {
+			failure = e;
+			throw createException(url, e);
+		} finally {
+			release(start, failure);
+		}
+	}
+
+	/**
+	 * Requests the given url and parses the response while it is read from
+	 * the connection.
+	 */
+	private <T> T request(URL url, HttpMethod httpMethod, Map<String, Object> parameters, IResponseReader<T> reader)
+			throws OpenShiftException {
+		LOGGER.trace("Requesting {} on {}", httpMethod.name(), url);
+		IStreamingHttpClient streamingClient = (IStreamingHttpClient) client;
+		long start = acquire(url);
+		Throwable failure = null;
+		try {
+			switch (httpMethod) {
+			case GET:
+				return streamingClient.get(url, reader);
+			case POST:
+				return streamingClient.post(parameters, url, reader);
+			case PUT:
+				return streamingClient.put(parameters, url, reader);
+			case DELETE:
+				return streamingClient.delete(parameters, url, reader);
+			default:
+				throw new OpenShiftException("Unexpected HTTP method {0}", httpMethod.toString());
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw createException(url, e);
+		} catch (HttpClientException e) {
+			failure = e;
+			throw createException(url, e);
+		} catch (SocketTimeoutException e) {
+			failure = e;
+			throw createException(url, e);
+		} finally {
+			release(start, failure);
+		}
+	}
+
+	public String request(String href, final HttpMethod httpMethod, final Map<String, Object> parameters)
+			throws OpenShiftException {
+		final URL url = getUrl(href);
+		return execute(url, httpMethod, null, new IRequest<String>() {
+
+			public String execute() throws OpenShiftException {
+				return requestString(url, httpMethod, parameters);
+			}
+		});
 	}
 
-	public String request(String href, HttpMethod httpMethod, Map<String, Object> parameters) throws OpenShiftException {
-		URL url = getUrl(href);
+	private String requestString(URL url, HttpMethod httpMethod, Map<String, Object> parameters)
+			throws OpenShiftException {
 		try {
 			return request(url, httpMethod, parameters);
 		} catch (UnsupportedEncodingException e) {
-			throw new OpenShiftException(e, e.getMessage());
-		} catch (UnauthorizedException e) {
-			throw new InvalidCredentialsOpenShiftException(url.toString(), e);
-		} catch (NotFoundException e) {
-			throw new NotFoundOpenShiftException(url.toString(), e);
+			throw createException(url, e);
 		} catch (HttpClientException e) {
-			throw new OpenShiftEndpointException(
-					url.toString(), e, e.getMessage(),
-					"Could not request {0}: {1}", url.toString(), getResponseMessage(e));
+			throw createException(url, e);
 		} catch (SocketTimeoutException e) {
-			throw new OpenShiftTimeoutException(url.toString(), e, e.getMessage(), "Could not request url {0}, connection timed out", url.toString());
+			throw createException(url, e);
+		}
+	}
+
+	public Future<RestResponse> requestAsync(Link link, IResponseCallback<RestResponse> callback,
+			ServiceParameter... serviceParameters) {
+		return requestAsync(link, toMap(serviceParameters), callback);
+	}
+
+	public Future<RestResponse> requestAsync(Link link, Map<String, Object> parameters,
+			IResponseCallback<RestResponse> callback) {
+		final CallbackFuture<RestResponse> future = new CallbackFuture<RestResponse>(callback);
+		try {
+			if (!(client instanceof IAsyncHttpClient)) {
+				future.complete(request(link, parameters));
+				return future;
+			}
+			validateParameters(parameters, link);
+			final URL url = getUrl(link.getHref());
+			requestAsync(url, link.getHttpMethod(), parameters, new IResponseCallback<String>() {
+
+				public void completed(String response) {
+					parseAsync(url, response, future);
+				}
+
+				public void failed(Throwable cause) {
+					future.fail(createException(url, cause));
+				}
+			});
+		} catch (OpenShiftException e) {
+			future.fail(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Parses the given response in the executor of this service. Responses to
+	 * asynchronous requests are received in the io thread of the client,
+	 * which must not be kept from serving the other requests.
+	 */
+	private void parseAsync(URL url, final String response, final CallbackFuture<RestResponse> future) {
+		try {
+			getExecutor().execute(new Runnable() {
+
+				public void run() {
+					try {
+						future.complete(ResourceDTOFactory.get(response));
+					} catch (RuntimeException e) {
+						future.fail(e);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.fail(new OpenShiftException(e, "Could not parse the response of {0}", url));
 		}
 	}
 
+	private Future<String> requestAsync(URL url, HttpMethod httpMethod, Map<String, Object> parameters,
+			IResponseCallback<String> callback) throws OpenShiftException {
+		LOGGER.trace("Requesting {} asynchronously on {}", httpMethod.name(), url);
+		IAsyncHttpClient asyncClient = (IAsyncHttpClient) client;
+		try {
+			switch (httpMethod) {
+			case GET:
+				return asyncClient.get(url, callback);
+			case POST:
+				return asyncClient.post(parameters, url, callback);
+			case PUT:
+				return asyncClient.put(parameters, url, callback);
+			case DELETE:
+				return asyncClient.delete(parameters, url, callback);
+			default:
+				throw new OpenShiftException("Unexpected HTTP method {0}", httpMethod.toString());
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw createException(url, e);
+		}
+	}
+
+	private OpenShiftException createException(URL url, Throwable e) {
+		if (e instanceof OpenShiftException) {
+			return (OpenShiftException) e;
+		} else if (e instanceof UnauthorizedException) {
+			return new InvalidCredentialsOpenShiftException(url.toString(), (UnauthorizedException) e);
+		} else if (e instanceof NotFoundException) {
+			return new NotFoundOpenShiftException(url.toString(), (NotFoundException) e);
+		} else if (e instanceof HttpClientException) {
+			return new OpenShiftEndpointException(
+					url.toString(), e, e.getMessage(),
+					"Could not request {0}: {1}", url.toString(), getResponseMessage((HttpClientException) e));
+		} else if (e instanceof SocketTimeoutException) {
+			return new OpenShiftTimeoutException(url.toString(), e, e.getMessage(), "Could not request url {0}, connection timed out", url.toString());
+		}
+		return new OpenShiftException(e, e.getMessage());
+	}
+
 	private String getResponseMessage(HttpClientException clientException) {
 		try {
 			StringBuilder builder = new StringBuilder();
@@ -135,43 +348,207 @@ public class RestService implements IRestService {
 	private String request(URL url, HttpMethod httpMethod, Map<String, Object> parameters)
 			throws HttpClientException, SocketTimeoutException, OpenShiftException, UnsupportedEncodingException {
 		LOGGER.trace("Requesting {} on {}", httpMethod.name(), url);
-		LOGGER.info("Requesting {} on {}", httpMethod.name(), url);
-		
-		String result = null;
-		
-		switch (httpMethod) {
-		case GET:
-			return client.get(url);
-		case POST:
-			return client.post(parameters, url);
-		case PUT:
-			return client.put(parameters, url);
-		case DELETE:
-			return client.delete(parameters, url);
-		default:
-			throw new OpenShiftException("Unexpected HTTP method {0}", httpMethod.toString());
+
+		long start = acquire(url);
+		Throwable failure = null;
+		try {
+			switch (httpMethod) {
+			case GET:
+				return client.get(url);
+			case POST:
+				return client.post(parameters, url);
+			case PUT:
+				return client.put(parameters, url);
+			case DELETE:
+				return client.delete(parameters, url);
+			default:
+				throw new OpenShiftException("Unexpected HTTP method {0}", httpMethod.toString());
+			}
+		} catch (HttpClientException e) {
+			failure = e;
+			throw e;
+		} catch (SocketTimeoutException e) {
+			failure = e;
+			throw e;
+		} finally {
+			release(start, failure);
 		}
-		
-		
 	}
 	
-	public String request(Link link, String acceptedMediaType,  ServiceParameter... serviceParameters)
+	public String request(Link link, final String acceptedMediaType,  ServiceParameter... serviceParameters)
 			throws MalformedURLException, HttpClientException, SocketTimeoutException, OpenShiftException, UnsupportedEncodingException {
+		final URL url = getUrl(link.getHref());
+		return execute(url, HttpMethod.GET, link.getRel(), new IRequest<String>() {
+
+			public String execute() throws OpenShiftException {
+				return requestString(url, acceptedMediaType);
+			}
+		});
+	}
+
+	/**
+	 * Requests the given url, accepting the given media type instead of the
+	 * one of the client.
+	 */
+	private String requestString(URL url, String acceptedMediaType) throws OpenShiftException {
+		LOGGER.trace("Requesting GET on {}", url);
+		long start = acquire(url);
+		Throwable failure = null;
 		String save = client.getAcceptedMediaType();
-		client.setAcceptedMediaType(acceptedMediaType);
-		
-		HttpMethod httpMethod = link.getHttpMethod();
-		URL url = getUrl(link.getHref());
-		Map<String, Object> parameters = toMap(serviceParameters);
-		
-		LOGGER.trace("Requesting {} on {}", httpMethod.name(), url);
-		LOGGER.info("Requesting {} on {}", httpMethod.name(), url);
-		
-		String response = client.get(url);
+		try {
+			client.setAcceptedMediaType(acceptedMediaType);
+			return client.get(url);
+		} catch (HttpClientException e) {
+			failure = e;
+			throw createException(url, e);
+		} catch (SocketTimeoutException e) {
+			failure = e;
+			throw createException(url, e);
+		} finally {
+			release(start, failure);
+			client.setAcceptedMediaType(save);
+		}
+	}
+
+	/**
+	 * Executes the given request with the timeouts that are configured for
+	 * it and the request retrier (if any).
+	 */
+	private <T> T execute(URL url, HttpMethod httpMethod, String linkRelation, IRequest<T> request)
+			throws OpenShiftException {
+		IRequest<T> meteredRequest = new MeteredRequest<T>(httpMethod, linkRelation, request);
+		RequestTimeout previousTimeout = RequestTimeout.set(getRequestTimeout(httpMethod, linkRelation));
+		try {
+			if (requestRetrier == null) {
+				return meteredRequest.execute();
+			}
+			return requestRetrier.execute(url, httpMethod, linkRelation, meteredRequest);
+		} finally {
+			RequestTimeout.set(previousTimeout);
+		}
+	}
+
+	private RequestTimeout getRequestTimeout(HttpMethod httpMethod, String linkRelation) {
+		RequestTimeouts timeouts = this.requestTimeouts;
+		if (timeouts == null) {
+			return null;
+		}
+		return new RequestTimeout(timeouts.getConnectTimeout(), timeouts.getReadTimeout(httpMethod, linkRelation));
+	}
+
+	/**
+	 * Fails if the deadline of the calling thread was reached. Waits for the
+	 * request limiter (if any) to allow a request, but not beyond the
+	 * deadline.
+	 * 
+	 * @return the time at which the request was allowed
+	 */
+	private long acquire(URL url) throws OpenShiftException {
+		Deadline deadline = Deadline.current();
+		if (deadline != null
+				&& deadline.isExpired()) {
+			throw new OpenShiftTimeoutException(url.toString(), null,
+					"Could not request url {0}, deadline was reached", url.toString());
+		}
+		if (requestLimiter != null) {
+			try {
+				if (deadline == null) {
+					requestLimiter.acquire();
+				} else if (!requestLimiter.tryAcquire(deadline.getRemaining())) {
+					throw new OpenShiftTimeoutException(url.toString(), null,
+							"Could not request url {0}, deadline was reached while waiting for the request limiter",
+							url.toString());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OpenShiftException(e, "Interrupted while waiting to request {0}", url);
+			}
+		}
+		return System.nanoTime();
+	}
 
-		client.setAcceptedMediaType(save);
-		
-		return response;
+	/**
+	 * Reports the outcome of a request to the request limiter (if any).
+	 * Internal server errors and timeouts are signs of an overloaded broker,
+	 * requests that found no connection to lease were not sent at all.
+	 */
+	private void release(long start, Throwable failure) {
+		if (requestLimiter == null) {
+			return;
+		}
+		if (failure instanceof ConnectionLeaseTimeoutException) {
+			requestLimiter.cancel();
+			return;
+		}
+		requestLimiter.release(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+				failure instanceof InternalServerErrorException
+						|| failure instanceof SocketTimeoutException);
+	}
+
+	/**
+	 * Sets the limiter for the requests of this service. Requests are not
+	 * limited if <code>null</code>. Asynchronous requests are not limited.
+	 * 
+	 * @param requestLimiter
+	 *            the limiter
+	 */
+	public void setRequestLimiter(RequestLimiter requestLimiter) {
+		this.requestLimiter = requestLimiter;
+	}
+
+	public RequestLimiter getRequestLimiter() {
+		return requestLimiter;
+	}
+
+	/**
+	 * Sets the retrier that sends failed requests again. Failed requests are
+	 * not retried if <code>null</code>. Asynchronous requests are not
+	 * retried.
+	 * 
+	 * @param requestRetrier
+	 *            the retrier
+	 */
+	public void setRequestRetrier(RequestRetrier requestRetrier) {
+		this.requestRetrier = requestRetrier;
+	}
+
+	public RequestRetrier getRequestRetrier() {
+		return requestRetrier;
+	}
+
+	/**
+	 * Sets the timeouts for the requests of this service. The timeouts of the
+	 * http client apply if <code>null</code>.
+	 * 
+	 * @param requestTimeouts
+	 *            the timeouts
+	 */
+	public void setRequestTimeouts(RequestTimeouts requestTimeouts) {
+		this.requestTimeouts = requestTimeouts;
+	}
+
+	public RequestTimeouts getRequestTimeouts() {
+		return requestTimeouts;
+	}
+
+	/**
+	 * Sets the executor that parses the responses to asynchronous requests.
+	 * The executor that all connections share is used if <code>null</code>.
+	 * 
+	 * @param executor
+	 *            the executor
+	 * 
+	 * @see OpenShiftExecutors#getShared()
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	public Executor getExecutor() {
+		if (executor == null) {
+			return OpenShiftExecutors.getShared();
+		}
+		return executor;
 	}
 
 	private URL getUrl(String href) throws OpenShiftException {
@@ -255,4 +632,41 @@ public class RestService implements IRestService {
 	public String getPlatformUrl() {
 		return baseUrl;
 	}
+
+	/**
+	 * A request that reports its latency and outcome to the client metrics.
+	 * Each attempt of a retried request is reported.
+	 */
+	private static class MeteredRequest<T> implements IRequest<T> {
+
+		private final HttpMethod httpMethod;
+		private final String linkRelation;
+		private final IRequest<T> request;
+
+		private MeteredRequest(HttpMethod httpMethod, String linkRelation, IRequest<T> request) {
+			this.httpMethod = httpMethod;
+			this.linkRelation = linkRelation;
+			this.request = request;
+		}
+
+		public T execute() throws OpenShiftException {
+			IClientMetrics metrics = ClientMetrics.get();
+			long start = System.nanoTime();
+			try {
+				T response = request.execute();
+				metrics.requestCompleted(httpMethod, linkRelation, System.nanoTime() - start);
+				return response;
+			} catch (RuntimeException e) {
+				metrics.requestFailed(httpMethod, linkRelation, System.nanoTime() - start, getStatus(e));
+				throw e;
+			}
+		}
+
+		private int getStatus(RuntimeException e) {
+			if (e.getCause() instanceof HttpClientException) {
+				return ((HttpClientException) e.getCause()).getStatus();
+			}
+			return HttpClientException.STATUS_UNKNOWN;
+		}
+	}
 }
@@ -82,6 +82,7 @@ public class SSHKeyResource extends AbstractOpenShiftResource implements IOpenSh
 		}
 		this.type = SSHKeyType.getByTypeId(dto.getType());
 		this.publicKey = dto.getContent();
+		user.updateSSHKey(this);
 	}
 
 	private class UpdateKeyRequest extends ServiceRequest {
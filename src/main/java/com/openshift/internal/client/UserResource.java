@@ -25,8 +25,9 @@ import com.openshift.client.SSHKeyType;
 import com.openshift.internal.client.response.KeyResourceDTO;
 import com.openshift.internal.client.response.UserResourceDTO;
 import com.openshift.internal.client.utils.Assert;
-import com.openshift.internal.client.utils.CollectionUtils;
 import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
+import com.openshift.internal.client.utils.IndexedList;
+import com.openshift.internal.client.utils.LazyValue;
 
 /**
  * @author André Dietisheim
@@ -39,7 +40,13 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 	private final int maxGears;
 	private final int consumedGears;
 
-	private List<SSHKeyResource> sshKeys;
+	private final LazyValue<SSHKeys> sshKeys = new LazyValue<SSHKeys>() {
+
+		@Override
+		protected SSHKeys load() throws OpenShiftException {
+			return loadKeys();
+		}
+	};
 	
 	public UserResource(final APIResource api, final UserResourceDTO dto, final String password) {
 		super(api.getService(), dto.getLinks(), dto.getCreationLog());
@@ -104,9 +111,8 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 	}
 
 	public void refresh() throws OpenShiftException {
-		if (this.sshKeys != null) {
-			this.sshKeys = null;
-			loadKeys();
+		if (sshKeys.isLoaded()) {
+			sshKeys.reload();
 		}
 		
 		api.refresh();
@@ -118,26 +124,23 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 
 	public List<IOpenShiftSSHKey> getSSHKeys() throws OpenShiftUnknonwSSHKeyTypeException,
 			OpenShiftException {
-		List<IOpenShiftSSHKey> keys = new ArrayList<IOpenShiftSSHKey>();
-		keys.addAll(getCachedOrLoadSSHKeys());
-		return CollectionUtils.toUnmodifiableCopy(keys);
+		return getCachedOrLoadSSHKeys().asList();
 	}
 
-	private List<SSHKeyResource> getCachedOrLoadSSHKeys() throws OpenShiftException,
+	private SSHKeys getCachedOrLoadSSHKeys() throws OpenShiftException,
 			OpenShiftUnknonwSSHKeyTypeException {
-		if (sshKeys == null) {
-			this.sshKeys = loadKeys();
-		}
-		return sshKeys;
+		return sshKeys.get();
 	}
 
-	private List<SSHKeyResource> loadKeys() throws OpenShiftException,
+	private SSHKeys loadKeys() throws OpenShiftException,
 			OpenShiftUnknonwSSHKeyTypeException {
-		List<SSHKeyResource> keys = new ArrayList<SSHKeyResource>();
+		List<IOpenShiftSSHKey> keyResources = new ArrayList<IOpenShiftSSHKey>();
 		List<KeyResourceDTO> keyDTOs = new GetSShKeysRequest().execute();
 		for (KeyResourceDTO keyDTO : keyDTOs) {
-			keys.add(new SSHKeyResource(keyDTO, this));
+			keyResources.add(new SSHKeyResource(keyDTO, this));
 		}
+		SSHKeys keys = new SSHKeys();
+		keys.addAll(keyResources);
 		return keys;
 	}
 
@@ -152,36 +155,14 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 			throws OpenShiftUnknonwSSHKeyTypeException, OpenShiftException {
 		Assert.notNull(name);
 
-		IOpenShiftSSHKey matchingKey = null;
-		if (name == null) {
-			return null;
-		}
-
-		for (SSHKeyResource key : getCachedOrLoadSSHKeys()) {
-			if (name.equals(key.getName())) {
-				matchingKey = key;
-				break;
-			}
-		}
-		return matchingKey;
+		return getCachedOrLoadSSHKeys().byName.get(name);
 	}
 
 	public IOpenShiftSSHKey getSSHKeyByPublicKey(String publicKey)
 			throws OpenShiftUnknonwSSHKeyTypeException, OpenShiftException {
 		Assert.notNull(publicKey);
 
-		IOpenShiftSSHKey matchingKey = null;
-		if (publicKey == null) {
-			return null;
-		}
-
-		for (SSHKeyResource key : getCachedOrLoadSSHKeys()) {
-			if (publicKey.equals(key.getPublicKey())) {
-				matchingKey = key;
-				break;
-			}
-		}
-		return matchingKey;
+		return getCachedOrLoadSSHKeys().byPublicKey.get(publicKey);
 	}
 
 	public boolean hasSSHKeyName(String name) throws OpenShiftUnknonwSSHKeyTypeException,
@@ -227,12 +208,44 @@ public class UserResource extends AbstractOpenShiftResource implements IUser {
 
 	private SSHKeyResource put(KeyResourceDTO keyDTO) throws OpenShiftUnknonwSSHKeyTypeException {
 		SSHKeyResource sshKey = new SSHKeyResource(keyDTO, this);
-		sshKeys.add(sshKey);
+		getCachedOrLoadSSHKeys().add(sshKey);
 		return sshKey;
 	}
 
 	protected void removeSSHKey(SSHKeyResource key) {
-		sshKeys.remove(key);
+		SSHKeys keys = sshKeys.getIfLoaded();
+		if (keys != null) {
+			keys.remove(key);
+		}
+	}
+
+	/**
+	 * "callback" from the key once its public key was updated.
+	 */
+	protected void updateSSHKey(SSHKeyResource key) {
+		SSHKeys keys = sshKeys.getIfLoaded();
+		if (keys != null) {
+			keys.reindex();
+		}
+	}
+
+	private static class SSHKeys extends IndexedList<IOpenShiftSSHKey> {
+
+		private final Index<IOpenShiftSSHKey> byName = addIndex(new Index<IOpenShiftSSHKey>() {
+
+			@Override
+			protected String getKey(IOpenShiftSSHKey key) {
+				return key.getName();
+			}
+		});
+
+		private final Index<IOpenShiftSSHKey> byPublicKey = addIndex(new Index<IOpenShiftSSHKey>() {
+
+			@Override
+			protected String getKey(IOpenShiftSSHKey key) {
+				return key.getPublicKey();
+			}
+		});
 	}
 
 	private class GetSShKeysRequest extends ServiceRequest {
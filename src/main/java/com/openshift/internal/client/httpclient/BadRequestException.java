@@ -10,6 +10,8 @@
  ******************************************************************************/ 
 package com.openshift.internal.client.httpclient;
 
+import com.openshift.client.IHttpClient;
+
 /**
  * @author André Dietisheim
  */
@@ -24,4 +26,9 @@ public class BadRequestException extends HttpClientException {
 	public BadRequestException(Throwable cause) {
 		super(cause);
 	}
+
+	@Override
+	public int getStatus() {
+		return IHttpClient.STATUS_BAD_REQUEST;
+	}
 }
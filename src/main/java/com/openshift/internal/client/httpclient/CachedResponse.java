@@ -0,0 +1,59 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+/**
+ * A response and the validators that the server sent along with it.
+ *
+ * @author Andre Dietisheim
+ * 
+ * @see com.openshift.client.IConditionalHttpClient
+ */
+public class CachedResponse<T> {
+
+	private final T response;
+	private final String eTag;
+	private final String lastModified;
+
+	public CachedResponse(T response, String eTag, String lastModified) {
+		this.response = response;
+		this.eTag = eTag;
+		this.lastModified = lastModified;
+	}
+
+	public T getResponse() {
+		return response;
+	}
+
+	/**
+	 * @return the value of the <code>ETag</code> header or <code>null</code>
+	 */
+	public String getETag() {
+		return eTag;
+	}
+
+	/**
+	 * @return the value of the <code>Last-Modified</code> header or
+	 *         <code>null</code>
+	 */
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Returns <code>true</code> if the server sent validators that allow a
+	 * conditional request for this response.
+	 */
+	public boolean isValidatable() {
+		return eTag != null
+				|| lastModified != null;
+	}
+}
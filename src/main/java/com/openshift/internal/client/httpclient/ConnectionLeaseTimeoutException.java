@@ -0,0 +1,29 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+/**
+ * Reports that a request was not sent since the connection pool had no
+ * connection to lease within the lease timeout. The request never reached
+ * the server, this is no sign of an overloaded or failing server.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see HttpConnectionPool
+ */
+public class ConnectionLeaseTimeoutException extends HttpClientException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ConnectionLeaseTimeoutException(String message) {
+		super(message);
+	}
+}
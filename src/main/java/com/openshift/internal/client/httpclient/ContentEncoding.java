@@ -0,0 +1,108 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The content encodings (compressions) that the http clients accept and
+ * decode.
+ *
+ * @author Andre Dietisheim
+ */
+public class ContentEncoding {
+
+	public static final String PROPERTY_ACCEPT_ENCODING = "Accept-Encoding";
+	public static final String PROPERTY_CONTENT_ENCODING = "Content-Encoding";
+
+	public static final String GZIP = "gzip";
+	public static final String X_GZIP = "x-gzip";
+	public static final String DEFLATE = "deflate";
+	public static final String IDENTITY = "identity";
+
+	/** the value of the Accept-Encoding header that the clients send */
+	public static final String ACCEPTED_ENCODINGS = GZIP + ", " + DEFLATE;
+
+	private ContentEncoding() {
+		// inhibit instantiation
+	}
+
+	/**
+	 * Returns a stream that decodes the given stream, which is encoded in the
+	 * given content encoding. The stream is decoded while it is read.
+	 * 
+	 * @param inputStream
+	 *            the (encoded) stream
+	 * @param contentEncoding
+	 *            the value of the Content-Encoding header, <code>null</code>
+	 *            if the content is not encoded
+	 * @return the decoding stream
+	 * @throws IOException
+	 *             if the encoding is not supported
+	 */
+	public static InputStream decode(InputStream inputStream, String contentEncoding) throws IOException {
+		if (inputStream == null
+				|| contentEncoding == null) {
+			return inputStream;
+		}
+		String encoding = contentEncoding.trim().toLowerCase();
+		if (encoding.length() == 0
+				|| IDENTITY.equals(encoding)) {
+			return inputStream;
+		}
+		PushbackInputStream pushbackStream = new PushbackInputStream(inputStream, 2);
+		byte[] header = new byte[2];
+		int read = readFully(pushbackStream, header);
+		if (read <= 0) {
+			// empty body, there's nothing to decode
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		pushbackStream.unread(header, 0, read);
+		if (GZIP.equals(encoding)
+				|| X_GZIP.equals(encoding)) {
+			return new GZIPInputStream(pushbackStream);
+		} else if (DEFLATE.equals(encoding)) {
+			// deflate is zlib wrapped, but some servers send raw deflate
+			boolean raw = read < 2 || !isZlibHeader(header);
+			return new InflaterInputStream(pushbackStream, new Inflater(raw));
+		}
+		throw new IOException("Unsupported content encoding " + contentEncoding);
+	}
+
+	private static int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+		int read = 0;
+		while (read < buffer.length) {
+			int count = inputStream.read(buffer, read, buffer.length - read);
+			if (count == -1) {
+				break;
+			}
+			read += count;
+		}
+		return read;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given bytes are a zlib header (RFC
+	 * 1950) with the deflate compression method.
+	 */
+	private static boolean isZlibHeader(byte[] header) {
+		int cmf = header[0] & 0xff;
+		int flg = header[1] & 0xff;
+		return (cmf & 0x0f) == 8
+				&& ((cmf << 8) + flg) % 31 == 0;
+	}
+}
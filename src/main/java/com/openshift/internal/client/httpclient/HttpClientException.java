@@ -17,6 +17,16 @@ public class HttpClientException extends RuntimeException {
 
 	private static final long serialVersionUID = 1L;
 
+	/** the status of failures that got no http response */
+	public static final int STATUS_UNKNOWN = -1;
+
+	private int status = STATUS_UNKNOWN;
+
+	public HttpClientException(int status, String message, Throwable cause) {
+		super(message, cause);
+		this.status = status;
+	}
+
 	public  HttpClientException(String message, Throwable cause) {
 		super(message, cause);
 	}
@@ -29,4 +39,12 @@ public class HttpClientException extends RuntimeException {
 		super(cause);
 	}
 
+	/**
+	 * Returns the http status of the response or {@link #STATUS_UNKNOWN} if
+	 * there was none.
+	 */
+	public int getStatus() {
+		return status;
+	}
+
 }
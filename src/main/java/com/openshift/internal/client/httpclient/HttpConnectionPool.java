@@ -0,0 +1,306 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.internal.client.utils.StreamUtils;
+
+/**
+ * A pool that keeps http connections alive in between requests to the same
+ * host.
+ * <p>
+ * The sockets themselves are held by the jdk keep-alive cache: a connection is
+ * handed back to it once its response was fully read and its stream is
+ * closed. The keep-alive cache decides whether the socket is kept (it keeps
+ * up to "http.maxConnections" idle sockets per host), closes sockets that
+ * were idle for longer than the keep-alive timeout and discards stale sockets
+ * when they are picked for a new request. This pool has no insight into the
+ * keep-alive cache, it therefore only reports what it does itself: It hands
+ * reusable connections to the keep-alive cache and disconnects all others.
+ * <p>
+ * The number of connections that may be leased concurrently to a host is not
+ * limited by default. A pool that is created with a limit makes requests
+ * wait for a connection and fails them with a
+ * {@link ConnectionLeaseTimeoutException} once the lease timeout is reached.
+ *
+ * @author Andre Dietisheim
+ */
+public class HttpConnectionPool {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+	/** the number of connections per host that leases are not limited to */
+	public static final int NO_LIMIT = -1;
+	public static final long DEFAULT_LEASE_TIMEOUT = 10 * 1000;
+
+	private final int maxConnectionsPerHost;
+	private final long leaseTimeout;
+
+	private final ConcurrentMap<String, HostPool> hostPools = new ConcurrentHashMap<String, HostPool>();
+
+	private final AtomicLong keptAlive = new AtomicLong();
+	private final AtomicLong discarded = new AtomicLong();
+	private final AtomicLong timedOut = new AtomicLong();
+
+	/**
+	 * Creates a new pool that does not limit the number of connections that
+	 * are leased to a host.
+	 */
+	public HttpConnectionPool() {
+		this(NO_LIMIT, DEFAULT_LEASE_TIMEOUT);
+	}
+
+	/**
+	 * Creates a new pool.
+	 *
+	 * @param maxConnectionsPerHost
+	 *            the maximum number of connections that may be leased to a
+	 *            host at the same time or {@link #NO_LIMIT}
+	 * @param leaseTimeout
+	 *            the time in milliseconds that a request waits for a
+	 *            connection once the maximum number of connections to its
+	 *            host are leased
+	 */
+	public HttpConnectionPool(int maxConnectionsPerHost, long leaseTimeout) {
+		if (maxConnectionsPerHost < 1
+				&& maxConnectionsPerHost != NO_LIMIT) {
+			throw new IllegalArgumentException("max connections per host has to be at least 1");
+		}
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+		this.leaseTimeout = Math.max(0, leaseTimeout);
+	}
+
+	/**
+	 * Leases a connection to the host of the given url. Blocks for at most the
+	 * lease timeout if leases are limited and the maximum number of
+	 * connections to this host are currently leased. A connection that was
+	 * leased has to be released with
+	 * {@link #release(URL, HttpURLConnection, boolean)}.
+	 *
+	 * @param url
+	 *            the url that shall get requested
+	 * @throws ConnectionLeaseTimeoutException
+	 *             if no connection could be leased within the lease timeout
+	 * @throws InterruptedIOException
+	 *             if the calling thread was interrupted while waiting for a
+	 *             connection
+	 */
+	public void acquire(URL url) throws ConnectionLeaseTimeoutException, InterruptedIOException {
+		HostPool hostPool = getHostPool(url);
+		if (hostPool.leases != null) {
+			try {
+				if (!hostPool.leases.tryAcquire(leaseTimeout, TimeUnit.MILLISECONDS)) {
+					timedOut.incrementAndGet();
+					throw new ConnectionLeaseTimeoutException("Timed out waiting for a connection to " + url);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for a connection to " + url);
+			}
+		}
+		hostPool.leased.incrementAndGet();
+	}
+
+	/**
+	 * Hands a leased connection back to this pool. The connection is handed to
+	 * the keep-alive cache if it is reusable, it is disconnected otherwise.
+	 *
+	 * @param url
+	 *            the url that was requested
+	 * @param connection
+	 *            the connection that was used, may be <code>null</code> if
+	 *            none could be opened
+	 * @param reusable
+	 *            whether the response was fully read and the connection may
+	 *            get reused
+	 */
+	public void release(URL url, HttpURLConnection connection, boolean reusable) {
+		HostPool hostPool = getHostPool(url);
+		try {
+			if (connection == null) {
+				return;
+			}
+			if (reusable
+					&& keepAlive(connection)) {
+				keptAlive.incrementAndGet();
+			} else {
+				discarded.incrementAndGet();
+				connection.disconnect();
+			}
+		} finally {
+			hostPool.leased.decrementAndGet();
+			if (hostPool.leases != null) {
+				hostPool.leases.release();
+			}
+		}
+	}
+
+	/**
+	 * Closes the (fully read) response stream of the given connection, which
+	 * hands the connection to the jdk keep-alive cache.
+	 */
+	private boolean keepAlive(HttpURLConnection connection) {
+		try {
+			StreamUtils.close(connection.getInputStream());
+			return true;
+		} catch (IOException e) {
+			LOGGER.trace("Could not close response stream of {}", connection.getURL());
+			return false;
+		}
+	}
+
+	public Statistics getStatistics() {
+		int leased = 0;
+		int waiting = 0;
+		for (HostPool hostPool : hostPools.values()) {
+			leased += hostPool.leased.get();
+			if (hostPool.leases != null) {
+				waiting += hostPool.leases.getQueueLength();
+			}
+		}
+		return new Statistics(hostPools.size(), leased, waiting, keptAlive.get(), discarded.get(), timedOut.get());
+	}
+
+	/**
+	 * Returns the maximum number of connections that may be leased to a host
+	 * at the same time or {@link #NO_LIMIT}.
+	 */
+	public int getMaxConnectionsPerHost() {
+		return maxConnectionsPerHost;
+	}
+
+	public long getLeaseTimeout() {
+		return leaseTimeout;
+	}
+
+	private HostPool getHostPool(URL url) {
+		String key = getKey(url);
+		HostPool hostPool = hostPools.get(key);
+		if (hostPool == null) {
+			HostPool newHostPool = new HostPool();
+			hostPool = hostPools.putIfAbsent(key, newHostPool);
+			if (hostPool == null) {
+				hostPool = newHostPool;
+			}
+		}
+		return hostPool;
+	}
+
+	private String getKey(URL url) {
+		int port = url.getPort();
+		if (port == -1) {
+			port = url.getDefaultPort();
+		}
+		return new StringBuilder(url.getProtocol())
+				.append("://").append(url.getHost())
+				.append(':').append(port)
+				.toString();
+	}
+
+	private class HostPool {
+
+		private final Semaphore leases =
+				maxConnectionsPerHost == NO_LIMIT ? null : new Semaphore(maxConnectionsPerHost, true);
+		private final AtomicInteger leased = new AtomicInteger();
+	}
+
+	/**
+	 * A snapshot of the state and the counters of a connection pool.
+	 */
+	public static class Statistics {
+
+		private final int hosts;
+		private final int leased;
+		private final int waiting;
+		private final long keptAlive;
+		private final long discarded;
+		private final long timedOut;
+
+		Statistics(int hosts, int leased, int waiting, long keptAlive, long discarded, long timedOut) {
+			this.hosts = hosts;
+			this.leased = leased;
+			this.waiting = waiting;
+			this.keptAlive = keptAlive;
+			this.discarded = discarded;
+			this.timedOut = timedOut;
+		}
+
+		/**
+		 * @return the number of hosts this pool leased connections to
+		 */
+		public int getHosts() {
+			return hosts;
+		}
+
+		/**
+		 * @return the number of connections that are currently in use
+		 */
+		public int getLeased() {
+			return leased;
+		}
+
+		/**
+		 * @return the (estimated) number of requests that are currently waiting
+		 *         for a connection
+		 */
+		public int getWaiting() {
+			return waiting;
+		}
+
+		/**
+		 * @return the number of released connections that were handed to the
+		 *         jdk keep-alive cache
+		 */
+		public long getKeptAlive() {
+			return keptAlive;
+		}
+
+		/**
+		 * @return the number of connections that were closed when released
+		 *         since they could not be reused
+		 */
+		public long getDiscarded() {
+			return discarded;
+		}
+
+		/**
+		 * @return the number of requests that gave up waiting for a connection
+		 */
+		public long getTimedOut() {
+			return timedOut;
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics ["
+					+ "hosts=" + hosts
+					+ ", leased=" + leased
+					+ ", waiting=" + waiting
+					+ ", keptAlive=" + keptAlive
+					+ ", discarded=" + discarded
+					+ ", timedOut=" + timedOut
+					+ "]";
+		}
+	}
+}
@@ -0,0 +1,330 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes a http response that is received in chunks of bytes. Supports
+ * bodies that are delimited by a content length, chunked bodies and bodies
+ * that are terminated by the server closing the connection.
+ *
+ * @author Andre Dietisheim
+ */
+public class HttpResponseDecoder {
+
+	private static final String HEADER_CONTENT_LENGTH = "content-length";
+	private static final String HEADER_TRANSFER_ENCODING = "transfer-encoding";
+	private static final String HEADER_CONNECTION = "connection";
+	private static final String TRANSFER_ENCODING_CHUNKED = "chunked";
+	private static final String CONNECTION_CLOSE = "close";
+	private static final String CONNECTION_KEEP_ALIVE = "keep-alive";
+	private static final String HTTP_1_0 = "HTTP/1.0";
+	private static final String CHARSET_UTF8 = "UTF-8";
+	private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+	private enum State {
+		STATUS_LINE, HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, DONE
+	}
+
+	private State state = State.STATUS_LINE;
+	private final StringBuilder line = new StringBuilder();
+	private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+	private final Map<String, String> headers = new HashMap<String, String>();
+	private String protocol;
+	private int statusCode;
+	private String reasonPhrase;
+	/** the bytes that are missing in the current body or chunk, -1 if unknown */
+	private long remaining = -1;
+	/** whether the body is terminated by the server closing the connection */
+	private boolean untilClose;
+	private boolean started;
+
+	/**
+	 * Decodes the given bytes.
+	 *
+	 * @param buffer
+	 *            the bytes that were received
+	 * @return <code>true</code> if the response is complete
+	 * @throws IOException
+	 *             if the bytes are no valid http response
+	 */
+	public boolean decode(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()
+				&& state != State.DONE) {
+			started = true;
+			switch (state) {
+			case BODY:
+			case CHUNK_DATA:
+				readBody(buffer);
+				break;
+			default:
+				if (readLine(buffer)) {
+					processLine(line.toString());
+					line.setLength(0);
+				}
+			}
+		}
+		return isComplete();
+	}
+
+	/**
+	 * Signals that the connection was closed by the server.
+	 *
+	 * @return <code>true</code> if the response is complete
+	 * @throws EOFException
+	 *             if the response is incomplete
+	 */
+	public boolean endOfStream() throws EOFException {
+		if (state == State.BODY
+				&& untilClose) {
+			state = State.DONE;
+		}
+		if (!isComplete()) {
+			throw new EOFException("Connection was closed before the response was complete");
+		}
+		return true;
+	}
+
+	private boolean readLine(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			char character = (char) (buffer.get() & 0xff);
+			if (character == '\n') {
+				int length = line.length();
+				if (length > 0
+						&& line.charAt(length - 1) == '\r') {
+					line.setLength(length - 1);
+				}
+				return true;
+			}
+			if (line.length() >= MAX_LINE_LENGTH) {
+				throw new IOException("Response line exceeds " + MAX_LINE_LENGTH + " characters");
+			}
+			line.append(character);
+		}
+		return false;
+	}
+
+	private void processLine(String line) throws IOException {
+		switch (state) {
+		case STATUS_LINE:
+			processStatusLine(line);
+			state = State.HEADERS;
+			break;
+		case HEADERS:
+			if (line.length() == 0) {
+				processHeadersEnd();
+			} else {
+				processHeader(line);
+			}
+			break;
+		case CHUNK_SIZE:
+			remaining = parseChunkSize(line);
+			if (remaining == 0) {
+				state = State.TRAILERS;
+			} else {
+				state = State.CHUNK_DATA;
+			}
+			break;
+		case CHUNK_END:
+			state = State.CHUNK_SIZE;
+			break;
+		case TRAILERS:
+			if (line.length() == 0) {
+				state = State.DONE;
+			}
+			break;
+		default:
+			throw new IllegalStateException("Unexpected line in state " + state);
+		}
+	}
+
+	private void processStatusLine(String line) throws IOException {
+		String[] tokens = line.split(" ", 3);
+		if (tokens.length < 2
+				|| !tokens[0].startsWith("HTTP/")) {
+			throw new IOException("Invalid status line \"" + line + "\"");
+		}
+		this.protocol = tokens[0];
+		try {
+			this.statusCode = Integer.parseInt(tokens[1]);
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid status code in status line \"" + line + "\"");
+		}
+		if (tokens.length > 2) {
+			this.reasonPhrase = tokens[2];
+		}
+	}
+
+	private void processHeader(String line) {
+		int colon = line.indexOf(':');
+		if (colon <= 0) {
+			// ignore malformed header
+			return;
+		}
+		headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+	}
+
+	private void processHeadersEnd() throws IOException {
+		if (statusCode >= 100
+				&& statusCode < 200) {
+			// informational response, the real one follows
+			headers.clear();
+			state = State.STATUS_LINE;
+		} else if (statusCode == 204
+				|| statusCode == 304) {
+			state = State.DONE;
+		} else if (TRANSFER_ENCODING_CHUNKED.equalsIgnoreCase(getHeader(HEADER_TRANSFER_ENCODING))) {
+			state = State.CHUNK_SIZE;
+		} else if (getHeader(HEADER_CONTENT_LENGTH) != null) {
+			this.remaining = parseContentLength(getHeader(HEADER_CONTENT_LENGTH));
+			if (remaining == 0) {
+				state = State.DONE;
+			} else {
+				state = State.BODY;
+			}
+		} else {
+			this.remaining = -1;
+			this.untilClose = true;
+			state = State.BODY;
+		}
+	}
+
+	private long parseContentLength(String value) throws IOException {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid content length \"" + value + "\"");
+		}
+	}
+
+	private long parseChunkSize(String line) throws IOException {
+		int extension = line.indexOf(';');
+		if (extension >= 0) {
+			line = line.substring(0, extension);
+		}
+		try {
+			return Long.parseLong(line.trim(), 16);
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid chunk size \"" + line + "\"");
+		}
+	}
+
+	private void readBody(ByteBuffer buffer) {
+		int length = buffer.remaining();
+		if (remaining >= 0) {
+			length = (int) Math.min(length, remaining);
+		}
+		if (buffer.hasArray()) {
+			body.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+			buffer.position(buffer.position() + length);
+		} else {
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			body.write(bytes, 0, length);
+		}
+		if (remaining >= 0) {
+			remaining -= length;
+			if (remaining == 0) {
+				if (state == State.CHUNK_DATA) {
+					state = State.CHUNK_END;
+				} else {
+					state = State.DONE;
+				}
+			}
+		}
+	}
+
+	public boolean isComplete() {
+		return state == State.DONE;
+	}
+
+	/**
+	 * Returns <code>true</code> if bytes of the response were received.
+	 */
+	public boolean isStarted() {
+		return started;
+	}
+
+	/**
+	 * Returns <code>true</code> if the connection may be reused for further
+	 * requests once this response is complete.
+	 */
+	public boolean isKeepAlive() {
+		if (!isComplete()
+				|| untilClose) {
+			return false;
+		}
+		String connection = getHeader(HEADER_CONNECTION);
+		if (HTTP_1_0.equals(protocol)) {
+			return CONNECTION_KEEP_ALIVE.equalsIgnoreCase(connection);
+		}
+		return !CONNECTION_CLOSE.equalsIgnoreCase(connection);
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	public String getReasonPhrase() {
+		return reasonPhrase;
+	}
+
+	/**
+	 * Returns the value of the header with the given (case insensitive) name.
+	 */
+	public String getHeader(String name) {
+		return headers.get(name.toLowerCase());
+	}
+
+	public byte[] getBody() {
+		return body.toByteArray();
+	}
+
+	/**
+	 * Returns the number of body bytes that were received.
+	 */
+	public int getBodyLength() {
+		return body.size();
+	}
+
+	/**
+	 * Returns the body, decompressed if it was sent compressed.
+	 */
+	public byte[] getDecodedBody() throws IOException {
+		String contentEncoding = getHeader(ContentEncoding.PROPERTY_CONTENT_ENCODING);
+		if (contentEncoding == null) {
+			return body.toByteArray();
+		}
+		InputStream decodingStream =
+				ContentEncoding.decode(new ByteArrayInputStream(body.toByteArray()), contentEncoding);
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream(body.size() * 4);
+		byte[] buffer = new byte[4096];
+		for (int read = 0; (read = decodingStream.read(buffer)) != -1;) {
+			decoded.write(buffer, 0, read);
+		}
+		return decoded.toByteArray();
+	}
+
+	/**
+	 * Returns the body, decompressed if it was sent compressed.
+	 */
+	public String getBodyAsString() throws IOException {
+		return new String(getDecodedBody(), CHARSET_UTF8);
+	}
+}
@@ -0,0 +1,846 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.Deadline;
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IAsyncHttpClient;
+import com.openshift.client.IResponseCallback;
+import com.openshift.client.OpenShiftExecutors;
+import com.openshift.internal.client.utils.CallbackFuture;
+import com.openshift.internal.client.utils.StringUtils;
+
+/**
+ * A http client that uses non-blocking sockets. All requests are processed by
+ * a single (daemon) thread that multiplexes the connections with a selector,
+ * so pending requests do not occupy a thread each. The thread is started with
+ * the first request and stopped by {@link #shutdown()}. Connections are kept
+ * alive and reused for further requests to the same host. The timeouts of
+ * the request and the deadline of the thread that sends it apply as they do
+ * to the {@link UrlConnectionHttpClient}.
+ * <p>
+ * Callbacks are notified by the thread that processes the requests, they must
+ * not block. Host names are looked up in an executor since lookups block.
+ * Proxies and redirects are not supported.
+ *
+ * @author Andre Dietisheim
+ */
+public class NioHttpClient implements IAsyncHttpClient {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(NioHttpClient.class);
+
+	public static final long DEFAULT_IDLE_TIMEOUT = 5 * 1000;
+	/** as many as the jdk keep-alive cache keeps by default ("http.maxConnections") */
+	private static final int MAX_IDLE_CONNECTIONS_PER_HOST = 5;
+
+	private static final String THREAD_NAME = "OpenShift async http client";
+	private static final String HTTPS = "https";
+	private static final String HTTP_1_1 = "HTTP/1.1";
+	private static final String CRLF = "\r\n";
+	private static final String CHARSET_ISO_8859_1 = "ISO-8859-1";
+	private static final String CHARSET_UTF8 = "UTF-8";
+	private static final String PROPERTY_HOST = "Host";
+	private static final String PROPERTY_CONTENT_LENGTH = "Content-Length";
+	private static final String ENDPOINT_IDENTIFICATION_HTTPS = "HTTPS";
+	/** the interval in which timeouts are checked */
+	private static final long SELECT_TIMEOUT = 100;
+	private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+	private volatile String userAgent;
+	private final boolean sslChecks;
+	private final String username;
+	private final String password;
+	private final String authKey;
+	private final String authIV;
+	private final IMediaType requestMediaType;
+	private volatile String acceptedMediaType;
+	private volatile String version;
+	private final KeyStore trustStore;
+	private final int connectTimeout;
+	private final int readTimeout;
+	private final long idleTimeout;
+	private SSLContext sslContext;
+
+	private final TransferStatistics transferStatistics = new TransferStatistics();
+
+	private final Queue<Exchange> pendingExchanges = new ConcurrentLinkedQueue<Exchange>();
+	/** accessed by the io thread only */
+	private final Map<String, LinkedList<Connection>> idleConnections = new HashMap<String, LinkedList<Connection>>();
+	/** accessed by the io thread only */
+	private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+	private Selector selector;
+	private Thread ioThread;
+	private volatile boolean shutdown;
+	private volatile Executor executor;
+
+	public NioHttpClient(String username, String password, String userAgent, boolean sslChecks,
+			IMediaType requestMediaType, String acceptedMediaType, String version, String authKey, String authIV,
+			KeyStore trustStore) {
+		this(username, password, userAgent, sslChecks, requestMediaType, acceptedMediaType, version, authKey, authIV,
+				trustStore, UrlConnectionHttpClient.DEFAULT_CONNECT_TIMEOUT,
+				UrlConnectionHttpClient.DEFAULT_READ_TIMEOUT, DEFAULT_IDLE_TIMEOUT);
+	}
+
+	/**
+	 * Creates a new client.
+	 *
+	 * @param trustStore
+	 *            the keystore holding the certificates that shall be trusted
+	 *            when ssl checks are enabled. If <code>null</code> the jdk
+	 *            default truststore is used.
+	 * @param connectTimeout
+	 *            the time in milliseconds to wait for a connection to get
+	 *            established
+	 * @param readTimeout
+	 *            the time in milliseconds to wait for the server to respond
+	 * @param idleTimeout
+	 *            the time in milliseconds after which an unused connection is
+	 *            closed
+	 */
+	public NioHttpClient(String username, String password, String userAgent, boolean sslChecks,
+			IMediaType requestMediaType, String acceptedMediaType, String version, String authKey, String authIV,
+			KeyStore trustStore, int connectTimeout, int readTimeout, long idleTimeout) {
+		this.username = username;
+		this.password = password;
+		this.userAgent = userAgent;
+		this.sslChecks = sslChecks;
+		this.requestMediaType = requestMediaType;
+		this.acceptedMediaType = acceptedMediaType;
+		this.version = version;
+		this.authKey = authKey;
+		this.authIV = authIV;
+		this.trustStore = trustStore;
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+		this.idleTimeout = idleTimeout;
+	}
+
+	public void setUserAgent(String userAgent) {
+		this.userAgent = userAgent;
+	}
+
+	public String getUserAgent() {
+		return userAgent;
+	}
+
+	public void setVersion(String version) {
+		this.version = version;
+	}
+
+	public String getAcceptedMediaType() {
+		return acceptedMediaType;
+	}
+
+	public void setAcceptedMediaType(String acceptedMediaType) {
+		this.acceptedMediaType = acceptedMediaType;
+	}
+
+	/**
+	 * Sets the executor that resolves the hosts of the requests. The executor
+	 * that all connections share is used if <code>null</code>.
+	 *
+	 * @see OpenShiftExecutors#getShared()
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	private Executor getExecutor() {
+		if (executor == null) {
+			return OpenShiftExecutors.getShared();
+		}
+		return executor;
+	}
+
+	/**
+	 * Returns the number of responses and bytes that this client received.
+	 */
+	public TransferStatistics getTransferStatistics() {
+		return transferStatistics;
+	}
+
+	public String get(URL url) throws HttpClientException, SocketTimeoutException {
+		return await(get(url, null));
+	}
+
+	public String post(Map<String, Object> parameters, URL url)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException {
+		return await(post(parameters, url, null));
+	}
+
+	public String put(Map<String, Object> parameters, URL url)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException {
+		return await(put(parameters, url, null));
+	}
+
+	public String delete(Map<String, Object> parameters, URL url)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException {
+		return await(delete(parameters, url, null));
+	}
+
+	public String delete(URL url) throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException {
+		return await(delete(url, null));
+	}
+
+	public Future<String> get(URL url, IResponseCallback<String> callback) {
+		return execute(HttpMethod.GET, url, null, callback);
+	}
+
+	public Future<String> post(Map<String, Object> parameters, URL url, IResponseCallback<String> callback)
+			throws UnsupportedEncodingException {
+		return execute(HttpMethod.POST, url, requestMediaType.encodeParameters(parameters), callback);
+	}
+
+	public Future<String> put(Map<String, Object> parameters, URL url, IResponseCallback<String> callback)
+			throws UnsupportedEncodingException {
+		return execute(HttpMethod.PUT, url, requestMediaType.encodeParameters(parameters), callback);
+	}
+
+	public Future<String> delete(Map<String, Object> parameters, URL url, IResponseCallback<String> callback)
+			throws UnsupportedEncodingException {
+		return execute(HttpMethod.DELETE, url, requestMediaType.encodeParameters(parameters), callback);
+	}
+
+	public Future<String> delete(URL url, IResponseCallback<String> callback) {
+		return execute(HttpMethod.DELETE, url, null, callback);
+	}
+
+	public synchronized void shutdown() {
+		this.shutdown = true;
+		if (selector != null) {
+			selector.wakeup();
+		}
+	}
+
+	private String await(Future<String> future) throws HttpClientException, SocketTimeoutException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new HttpClientException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof HttpClientException) {
+				throw (HttpClientException) cause;
+			} else if (cause instanceof SocketTimeoutException) {
+				throw (SocketTimeoutException) cause;
+			}
+			throw new HttpClientException(cause);
+		}
+	}
+
+	private Future<String> execute(HttpMethod method, URL url, String data, IResponseCallback<String> callback) {
+		CallbackFuture<String> future = new CallbackFuture<String>(callback);
+		try {
+			if (data != null) {
+				LOGGER.trace("Sending \"{}\" to {}", data, url);
+			}
+			submit(createExchange(url, createRequest(method, url, data), future));
+		} catch (IOException e) {
+			future.fail(new HttpClientException(e));
+		}
+		return future;
+	}
+
+	/**
+	 * Creates an exchange with the timeouts of the request that the calling
+	 * thread is sending or the ones of this client. The exchange times out at
+	 * the latest when the deadline of the calling thread is reached.
+	 *
+	 * @see RequestTimeout
+	 * @see Deadline
+	 */
+	private Exchange createExchange(URL url, ByteBuffer request, CallbackFuture<String> future) {
+		int connectTimeout = this.connectTimeout;
+		int readTimeout = this.readTimeout;
+		RequestTimeout requestTimeout = RequestTimeout.get();
+		if (requestTimeout != null) {
+			connectTimeout = requestTimeout.getConnectTimeout(connectTimeout);
+			readTimeout = requestTimeout.getReadTimeout(readTimeout);
+		}
+		return new Exchange(url, request, future, connectTimeout, readTimeout, Deadline.current());
+	}
+
+	private ByteBuffer createRequest(HttpMethod method, URL url, String data) throws UnsupportedEncodingException {
+		StringBuilder builder = new StringBuilder()
+				.append(method.name()).append(SPACE).append(getRequestUri(url)).append(SPACE).append(HTTP_1_1)
+				.append(CRLF);
+		appendHeader(PROPERTY_HOST, getHostHeader(url), builder);
+		String userAgent = UrlConnectionHttpClient.getUserAgent(this.userAgent, authKey);
+		if (userAgent != null) {
+			appendHeader(PROPERTY_USER_AGENT, userAgent, builder);
+		}
+		appendHeader(PROPERTY_ACCEPT, UrlConnectionHttpClient.createAcceptHeader(acceptedMediaType, version), builder);
+		appendHeader(ContentEncoding.PROPERTY_ACCEPT_ENCODING, ContentEncoding.ACCEPTED_ENCODINGS, builder);
+		if (UrlConnectionHttpClient.hasCredentials(username, password)) {
+			appendHeader(PROPERTY_AUTHORIZATION, UrlConnectionHttpClient.createBasicAuthorization(username, password),
+					builder);
+		} else if (authKey != null
+				&& authIV != null) {
+			appendHeader(PROPERTY_AUTHKEY, authKey, builder);
+			appendHeader(PROPERTY_AUTHIV, authIV, builder);
+		}
+		appendHeader(PROPERTY_CONTENT_TYPE, requestMediaType.getType(), builder);
+		byte[] body = new byte[0];
+		if (data != null) {
+			body = data.getBytes();
+		}
+		if (method != HttpMethod.GET) {
+			appendHeader(PROPERTY_CONTENT_LENGTH, String.valueOf(body.length), builder);
+		}
+		builder.append(CRLF);
+
+		byte[] head = builder.toString().getBytes(CHARSET_ISO_8859_1);
+		ByteBuffer request = ByteBuffer.allocate(head.length + body.length);
+		request.put(head).put(body).flip();
+		return request;
+	}
+
+	private void appendHeader(String name, String value, StringBuilder builder) {
+		builder.append(name).append(COLON).append(SPACE).append(value).append(CRLF);
+	}
+
+	private String getRequestUri(URL url) {
+		String file = url.getFile();
+		if (StringUtils.isEmpty(file)) {
+			return "/";
+		}
+		return file;
+	}
+
+	private String getHostHeader(URL url) {
+		if (url.getPort() == -1) {
+			return url.getHost();
+		}
+		return url.getHost() + COLON + url.getPort();
+	}
+
+	private synchronized void submit(Exchange exchange) throws IOException {
+		if (shutdown) {
+			throw new IOException("The http client was shut down");
+		}
+		if (ioThread == null) {
+			this.selector = Selector.open();
+			this.ioThread = new Thread(new IoLoop(), THREAD_NAME);
+			ioThread.setDaemon(true);
+			ioThread.start();
+		}
+		pendingExchanges.add(exchange);
+		selector.wakeup();
+	}
+
+	private synchronized SSLContext getSSLContext() throws SSLException {
+		if (sslContext == null) {
+			try {
+				this.sslContext = UrlConnectionHttpClient.createSSLContext(sslChecks, trustStore);
+				if (sslContext == null) {
+					this.sslContext = SSLContext.getDefault();
+				}
+			} catch (GeneralSecurityException e) {
+				throw new SSLException("Could not create ssl context", e);
+			}
+		}
+		return sslContext;
+	}
+
+	private class IoLoop implements Runnable {
+
+		public void run() {
+			try {
+				while (!shutdown) {
+					selector.select(SELECT_TIMEOUT);
+					processSelectedKeys();
+					startPendingExchanges();
+					processTimeouts();
+				}
+			} catch (IOException e) {
+				LOGGER.error("Async http client failed", e);
+			} finally {
+				synchronized (NioHttpClient.this) {
+					shutdown = true;
+				}
+				closeAll();
+			}
+		}
+	}
+
+	private void processSelectedKeys() {
+		Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+		while (keys.hasNext()) {
+			SelectionKey key = keys.next();
+			keys.remove();
+			Connection connection = (Connection) key.attachment();
+			if (!key.isValid()) {
+				continue;
+			}
+			if (connection.exchange == null) {
+				// idle connections only get readable when closed by the server
+				closeIdle(connection);
+				continue;
+			}
+			try {
+				if (key.isConnectable()) {
+					if (!connection.getChannel().finishConnect()) {
+						continue;
+					}
+					connection.connected = true;
+					connection.exchange.touch(connection.exchange.readTimeout);
+				}
+				process(connection);
+			} catch (IOException e) {
+				fail(connection, e);
+			}
+		}
+	}
+
+	private void startPendingExchanges() {
+		Exchange exchange = null;
+		while ((exchange = pendingExchanges.poll()) != null) {
+			start(exchange);
+		}
+	}
+
+	private void start(Exchange exchange) {
+		if (exchange.future.isDone()) {
+			// cancelled
+			return;
+		}
+		Connection connection = pollIdleConnection(exchange.key);
+		if (connection == null
+				&& exchange.address.isUnresolved()) {
+			resolve(exchange);
+			return;
+		}
+		try {
+			if (connection == null) {
+				connection = openConnection(exchange);
+			}
+			connection.exchange = exchange;
+			if (connection.connected) {
+				exchange.touch(exchange.readTimeout);
+				process(connection);
+			} else {
+				exchange.touch(exchange.connectTimeout);
+			}
+		} catch (IOException e) {
+			if (connection == null) {
+				exchange.future.fail(new HttpClientException(e));
+			} else {
+				fail(connection, e);
+			}
+		}
+	}
+
+	/**
+	 * Resolves the host of the given exchange in the executor of this client
+	 * and then starts the exchange again. Lookups block, they must neither
+	 * run in the calling thread nor in the io thread.
+	 */
+	private void resolve(final Exchange exchange) {
+		try {
+			getExecutor().execute(new Runnable() {
+
+				public void run() {
+					try {
+						exchange.address =
+								new InetSocketAddress(InetAddress.getByName(exchange.url.getHost()), getPort(exchange.url));
+						submit(exchange);
+					} catch (IOException e) {
+						exchange.future.fail(new HttpClientException(e));
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			exchange.future.fail(new HttpClientException(e));
+		}
+	}
+
+	private Connection openConnection(Exchange exchange) throws IOException {
+		SocketChannel channel = SocketChannel.open();
+		try {
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			boolean connected = channel.connect(exchange.address);
+			Connection connection = new Connection(exchange.key, createTransport(channel, exchange.url));
+			connection.connected = connected;
+			int interestOps = SelectionKey.OP_CONNECT;
+			if (connected) {
+				interestOps = SelectionKey.OP_WRITE;
+			}
+			connection.selectionKey = channel.register(selector, interestOps, connection);
+			return connection;
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private NioTransport createTransport(SocketChannel channel, URL url) throws IOException {
+		if (!HTTPS.equals(url.getProtocol())) {
+			return new NioTransport.Plain(channel);
+		}
+		SSLEngine engine = getSSLContext().createSSLEngine(url.getHost(), getPort(url));
+		engine.setUseClientMode(true);
+		if (sslChecks) {
+			enableHostnameVerification(engine);
+		}
+		return new NioTransport.Ssl(channel, engine);
+	}
+
+	/**
+	 * Lets the engine verify the hostname against the server certificate.
+	 * This is only supported by jdk 7 and later.
+	 */
+	private void enableHostnameVerification(SSLEngine engine) {
+		try {
+			SSLParameters parameters = engine.getSSLParameters();
+			Method method = SSLParameters.class.getMethod("setEndpointIdentificationAlgorithm", String.class);
+			method.invoke(parameters, ENDPOINT_IDENTIFICATION_HTTPS);
+			engine.setSSLParameters(parameters);
+		} catch (NoSuchMethodException e) {
+			LOGGER.warn("Hostname verification is not supported by this jdk.");
+		} catch (Exception e) {
+			LOGGER.warn("Could not enable hostname verification", e);
+		}
+	}
+
+	/**
+	 * Sends the request and reads the response as far as the connection
+	 * currently allows.
+	 */
+	private void process(Connection connection) throws IOException {
+		Exchange exchange = connection.exchange;
+		NioTransport transport = connection.transport;
+		if (transport.write(exchange.request) > 0) {
+			exchange.touch(exchange.readTimeout);
+		}
+		if (!exchange.request.hasRemaining()
+				&& !transport.hasPendingOutput()
+				&& readResponse(connection)) {
+			return;
+		}
+		updateInterestOps(connection);
+	}
+
+	/**
+	 * Reads the response from the given connection.
+	 *
+	 * @return <code>true</code> if the response is complete
+	 */
+	private boolean readResponse(Connection connection) throws IOException {
+		Exchange exchange = connection.exchange;
+		while (true) {
+			readBuffer.clear();
+			int read = connection.transport.read(readBuffer);
+			if (read == -1) {
+				exchange.decoder.endOfStream();
+				complete(connection, false);
+				return true;
+			} else if (read == 0) {
+				return false;
+			}
+			exchange.touch(exchange.readTimeout);
+			readBuffer.flip();
+			if (exchange.decoder.decode(readBuffer)) {
+				complete(connection, exchange.decoder.isKeepAlive());
+				return true;
+			}
+		}
+	}
+
+	private void updateInterestOps(Connection connection) {
+		int interestOps = SelectionKey.OP_READ;
+		if (connection.transport.hasPendingOutput()
+				|| (connection.exchange.request.hasRemaining() && !connection.transport.needsInput())) {
+			interestOps = SelectionKey.OP_WRITE;
+		}
+		connection.selectionKey.interestOps(interestOps);
+	}
+
+	private void complete(Connection connection, boolean keepAlive) {
+		Exchange exchange = connection.exchange;
+		connection.exchange = null;
+		if (keepAlive) {
+			releaseIdle(connection);
+		} else {
+			close(connection);
+		}
+		HttpResponseDecoder response = exchange.decoder;
+		String body = null;
+		try {
+			byte[] decodedBody = response.getDecodedBody();
+			transferStatistics.record(response.getBodyLength(), decodedBody.length);
+			body = new String(decodedBody, CHARSET_UTF8);
+		} catch (IOException e) {
+			exchange.future.fail(new HttpClientException(e));
+			return;
+		}
+		if (response.getStatusCode() < STATUS_BAD_REQUEST) {
+			exchange.future.complete(body);
+		} else {
+			exchange.future.fail(UrlConnectionHttpClient.createException(
+					response.getStatusCode(), createErrorMessage(exchange.url, body, response), null));
+		}
+	}
+
+	private String createErrorMessage(URL url, String body, HttpResponseDecoder response) {
+		if (!StringUtils.isEmpty(body)) {
+			return body;
+		}
+		StringBuilder builder = new StringBuilder("Connection to ")
+				.append(url);
+		String reason = response.getReasonPhrase();
+		if (!StringUtils.isEmpty(reason)) {
+			builder.append(": ").append(reason);
+		}
+		return builder.toString();
+	}
+
+	private void fail(Connection connection, IOException e) {
+		Exchange exchange = connection.exchange;
+		connection.exchange = null;
+		close(connection);
+		if (exchange == null
+				|| exchange.future.isDone()) {
+			return;
+		}
+		if (isStaleConnection(connection, exchange, e)) {
+			LOGGER.trace("Connection to {} was closed by the server, retrying on a new connection", exchange.url);
+			exchange.retry();
+			start(exchange);
+		} else if (e instanceof SocketTimeoutException) {
+			exchange.future.fail(e);
+		} else {
+			exchange.future.fail(new HttpClientException(e));
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the given exchange failed because the
+	 * server had closed the (reused) connection before it received the
+	 * request.
+	 */
+	private boolean isStaleConnection(Connection connection, Exchange exchange, IOException e) {
+		return connection.reused
+				&& !exchange.retried
+				&& !exchange.decoder.isStarted()
+				&& !(e instanceof SocketTimeoutException);
+	}
+
+	private void processTimeouts() {
+		long now = System.currentTimeMillis();
+		for (SelectionKey key : new ArrayList<SelectionKey>(selector.keys())) {
+			Connection connection = (Connection) key.attachment();
+			Exchange exchange = connection.exchange;
+			if (exchange == null) {
+				if (now - connection.idleSince >= idleTimeout) {
+					closeIdle(connection);
+				}
+			} else if (exchange.future.isDone()) {
+				// cancelled
+				connection.exchange = null;
+				close(connection);
+			} else if (now >= exchange.deadline) {
+				if (connection.connected) {
+					fail(connection, new SocketTimeoutException("Read timed out"));
+				} else {
+					fail(connection, new SocketTimeoutException("Connect timed out"));
+				}
+			}
+		}
+	}
+
+	private Connection pollIdleConnection(String key) {
+		LinkedList<Connection> connections = idleConnections.get(key);
+		if (connections == null) {
+			return null;
+		}
+		Connection connection = null;
+		while ((connection = connections.pollFirst()) != null) {
+			if (connection.getChannel().isOpen()) {
+				connection.reused = true;
+				return connection;
+			}
+		}
+		return null;
+	}
+
+	private void releaseIdle(Connection connection) {
+		LinkedList<Connection> connections = idleConnections.get(connection.key);
+		if (connections == null) {
+			connections = new LinkedList<Connection>();
+			idleConnections.put(connection.key, connections);
+		}
+		if (connections.size() >= MAX_IDLE_CONNECTIONS_PER_HOST) {
+			close(connection);
+			return;
+		}
+		connection.idleSince = System.currentTimeMillis();
+		connection.selectionKey.interestOps(SelectionKey.OP_READ);
+		connections.addFirst(connection);
+	}
+
+	private void closeIdle(Connection connection) {
+		LinkedList<Connection> connections = idleConnections.get(connection.key);
+		if (connections != null) {
+			connections.remove(connection);
+		}
+		close(connection);
+	}
+
+	private void close(Connection connection) {
+		if (connection.selectionKey != null) {
+			connection.selectionKey.cancel();
+		}
+		connection.transport.close();
+	}
+
+	private void closeAll() {
+		IOException shutdownException = new IOException("The http client was shut down");
+		if (selector != null) {
+			for (SelectionKey key : new ArrayList<SelectionKey>(selector.keys())) {
+				Connection connection = (Connection) key.attachment();
+				if (connection.exchange != null) {
+					connection.exchange.future.fail(new HttpClientException(shutdownException));
+				}
+				close(connection);
+			}
+			try {
+				selector.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+		idleConnections.clear();
+		Exchange exchange = null;
+		while ((exchange = pendingExchanges.poll()) != null) {
+			exchange.future.fail(new HttpClientException(shutdownException));
+		}
+	}
+
+	private static int getPort(URL url) {
+		int port = url.getPort();
+		if (port == -1) {
+			port = url.getDefaultPort();
+		}
+		return port;
+	}
+
+	private static String getKey(URL url) {
+		return new StringBuilder(url.getProtocol())
+				.append("://").append(url.getHost())
+				.append(COLON).append(getPort(url))
+				.toString();
+	}
+
+	private static class Exchange {
+
+		private final URL url;
+		private final String key;
+		/** unresolved until the host was looked up in the executor of the client */
+		private volatile InetSocketAddress address;
+		private final ByteBuffer request;
+		private final CallbackFuture<String> future;
+		private final int connectTimeout;
+		private final int readTimeout;
+		/** the deadline of the thread that sent the request, may be <code>null</code> */
+		private final Deadline requestDeadline;
+		private HttpResponseDecoder decoder = new HttpResponseDecoder();
+		private boolean retried;
+		private long deadline;
+
+		private Exchange(URL url, ByteBuffer request, CallbackFuture<String> future,
+				int connectTimeout, int readTimeout, Deadline requestDeadline) {
+			this.url = url;
+			this.key = getKey(url);
+			this.address = InetSocketAddress.createUnresolved(url.getHost(), getPort(url));
+			this.request = request;
+			this.future = future;
+			this.connectTimeout = connectTimeout;
+			this.readTimeout = readTimeout;
+			this.requestDeadline = requestDeadline;
+		}
+
+		/**
+		 * Lets the exchange time out once the given timeout elapsed, but not
+		 * beyond the deadline of the request. A timeout of 0 is no timeout,
+		 * the same as for a {@link java.net.URLConnection}.
+		 */
+		private void touch(long timeout) {
+			long now = System.currentTimeMillis();
+			long remaining = timeout == 0 ? Long.MAX_VALUE - now : timeout;
+			if (requestDeadline != null) {
+				remaining = Math.min(remaining, Math.max(0, requestDeadline.getRemaining()));
+			}
+			this.deadline = now + remaining;
+		}
+
+		private void retry() {
+			request.rewind();
+			this.decoder = new HttpResponseDecoder();
+			this.retried = true;
+		}
+	}
+
+	private static class Connection {
+
+		private final String key;
+		private final NioTransport transport;
+		private SelectionKey selectionKey;
+		private boolean connected;
+		private boolean reused;
+		private long idleSince;
+		private Exchange exchange;
+
+		private Connection(String key, NioTransport transport) {
+			this.key = key;
+			this.transport = transport;
+		}
+
+		private SocketChannel getChannel() {
+			return transport.getChannel();
+		}
+	}
+}
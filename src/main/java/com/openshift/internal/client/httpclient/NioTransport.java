@@ -0,0 +1,307 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+/**
+ * Reads and writes application bytes from and to a non-blocking socket
+ * channel. None of the operations block, they transfer as many bytes as the
+ * channel currently allows.
+ *
+ * @author Andre Dietisheim
+ */
+abstract class NioTransport {
+
+	protected final SocketChannel channel;
+
+	protected NioTransport(SocketChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Reads application bytes into the given buffer.
+	 *
+	 * @return the number of bytes read, <code>-1</code> if the peer closed the
+	 *         connection
+	 */
+	public abstract int read(ByteBuffer dst) throws IOException;
+
+	/**
+	 * Writes application bytes from the given buffer.
+	 *
+	 * @return the number of bytes that were consumed from the buffer
+	 */
+	public abstract int write(ByteBuffer src) throws IOException;
+
+	/**
+	 * Writes the bytes that are buffered in this transport to the channel.
+	 *
+	 * @return <code>true</code> if all bytes were written
+	 */
+	public abstract boolean flush() throws IOException;
+
+	/**
+	 * Returns <code>true</code> if bytes are buffered that could not be
+	 * written to the channel yet.
+	 */
+	public abstract boolean hasPendingOutput();
+
+	/**
+	 * Returns <code>true</code> if this transport has to receive bytes
+	 * before it may send application bytes.
+	 */
+	public abstract boolean needsInput();
+
+	public SocketChannel getChannel() {
+		return channel;
+	}
+
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+	/**
+	 * A transport that transfers the bytes as is.
+	 */
+	static class Plain extends NioTransport {
+
+		Plain(SocketChannel channel) {
+			super(channel);
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			return channel.read(dst);
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			return channel.write(src);
+		}
+
+		@Override
+		public boolean flush() {
+			return true;
+		}
+
+		@Override
+		public boolean hasPendingOutput() {
+			return false;
+		}
+
+		@Override
+		public boolean needsInput() {
+			return false;
+		}
+	}
+
+	/**
+	 * A transport that encrypts and decrypts the bytes with a
+	 * {@link SSLEngine}. The handshake is driven by the reads and writes.
+	 */
+	static class Ssl extends NioTransport {
+
+		private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+		private final SSLEngine engine;
+		/** bytes received from the channel, in write mode */
+		private ByteBuffer networkIn;
+		/** encrypted bytes that are waiting to be written to the channel, in read mode */
+		private final ByteBuffer networkOut;
+		/** decrypted bytes, in write mode */
+		private ByteBuffer applicationIn;
+		private boolean endOfStream;
+
+		Ssl(SocketChannel channel, SSLEngine engine) throws SSLException {
+			super(channel);
+			this.engine = engine;
+			SSLSession session = engine.getSession();
+			this.networkIn = ByteBuffer.allocate(session.getPacketBufferSize());
+			this.networkOut = ByteBuffer.allocate(session.getPacketBufferSize());
+			networkOut.flip();
+			this.applicationIn = ByteBuffer.allocate(session.getApplicationBufferSize());
+			engine.beginHandshake();
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			if (!handshake()) {
+				return 0;
+			}
+			while (applicationIn.position() == 0) {
+				if (endOfStream) {
+					return -1;
+				}
+				if (!unwrap()) {
+					return endOfStream ? -1 : 0;
+				}
+				if (!handshake()) {
+					// post-handshake messages
+					return 0;
+				}
+			}
+			applicationIn.flip();
+			int count = Math.min(applicationIn.remaining(), dst.remaining());
+			int limit = applicationIn.limit();
+			applicationIn.limit(applicationIn.position() + count);
+			dst.put(applicationIn);
+			applicationIn.limit(limit);
+			applicationIn.compact();
+			return count;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if (!handshake()) {
+				return 0;
+			}
+			int consumed = 0;
+			while (src.hasRemaining()
+					&& flush()) {
+				consumed += wrap(src);
+			}
+			return consumed;
+		}
+
+		@Override
+		public boolean flush() throws IOException {
+			while (networkOut.hasRemaining()) {
+				if (channel.write(networkOut) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public boolean hasPendingOutput() {
+			return networkOut.hasRemaining();
+		}
+
+		@Override
+		public boolean needsInput() {
+			return engine.getHandshakeStatus() == HandshakeStatus.NEED_UNWRAP;
+		}
+
+		/**
+		 * Drives the handshake as far as the channel allows.
+		 *
+		 * @return <code>true</code> if the handshake is complete
+		 */
+		private boolean handshake() throws IOException {
+			while (true) {
+				if (!flush()) {
+					return false;
+				}
+				switch (engine.getHandshakeStatus()) {
+				case NEED_TASK:
+					runDelegatedTasks();
+					break;
+				case NEED_WRAP:
+					wrap(EMPTY);
+					break;
+				case NEED_UNWRAP:
+					if (!unwrap()) {
+						if (endOfStream) {
+							throw new EOFException("Connection was closed during the ssl handshake");
+						}
+						return false;
+					}
+					break;
+				default:
+					return true;
+				}
+			}
+		}
+
+		private void runDelegatedTasks() {
+			Runnable task = null;
+			while ((task = engine.getDelegatedTask()) != null) {
+				task.run();
+			}
+		}
+
+		private int wrap(ByteBuffer src) throws IOException {
+			networkOut.clear();
+			SSLEngineResult result = engine.wrap(src, networkOut);
+			networkOut.flip();
+			if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+				throw new SSLException("Ssl connection was closed");
+			}
+			flush();
+			return result.bytesConsumed();
+		}
+
+		/**
+		 * Decrypts the received bytes, reads more bytes from the channel if
+		 * they do not form a complete record.
+		 *
+		 * @return <code>false</code> if no progress can be made until the
+		 *         channel gets readable again
+		 */
+		private boolean unwrap() throws IOException {
+			networkIn.flip();
+			SSLEngineResult result = engine.unwrap(networkIn, applicationIn);
+			networkIn.compact();
+			switch (result.getStatus()) {
+			case OK:
+				return true;
+			case BUFFER_UNDERFLOW:
+				if (!networkIn.hasRemaining()) {
+					this.networkIn = enlarge(networkIn, engine.getSession().getPacketBufferSize());
+				}
+				int read = channel.read(networkIn);
+				if (read == -1) {
+					this.endOfStream = true;
+					closeInbound();
+					return false;
+				}
+				return read > 0;
+			case BUFFER_OVERFLOW:
+				this.applicationIn = enlarge(applicationIn, engine.getSession().getApplicationBufferSize());
+				return true;
+			default:
+				this.endOfStream = true;
+				return false;
+			}
+		}
+
+		private void closeInbound() {
+			try {
+				engine.closeInbound();
+			} catch (SSLException e) {
+				// peer closed without close_notify
+			}
+		}
+
+		private ByteBuffer enlarge(ByteBuffer buffer, int minimumCapacity) {
+			ByteBuffer enlarged =
+					ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + minimumCapacity));
+			buffer.flip();
+			enlarged.put(buffer);
+			return enlarged;
+		}
+	}
+}
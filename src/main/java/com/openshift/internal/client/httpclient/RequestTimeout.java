@@ -0,0 +1,74 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+/**
+ * The timeouts of the request that the calling thread is sending. The rest
+ * service sets them before it hands a request to the http client, the http
+ * client uses them instead of its own timeouts.
+ *
+ * @author Andre Dietisheim
+ */
+public class RequestTimeout {
+
+	private static final ThreadLocal<RequestTimeout> current = new ThreadLocal<RequestTimeout>();
+
+	private final int connectTimeout;
+	private final int readTimeout;
+
+	/**
+	 * @param connectTimeout
+	 *            the connect timeout (in milliseconds), -1 to use the one of
+	 *            the client
+	 * @param readTimeout
+	 *            the read timeout (in milliseconds), -1 to use the one of the
+	 *            client
+	 */
+	public RequestTimeout(int connectTimeout, int readTimeout) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * Sets the timeouts of the calling thread.
+	 *
+	 * @param timeout
+	 *            the timeouts, <code>null</code> to use the ones of the client
+	 * @return the timeouts that were set before
+	 */
+	public static RequestTimeout set(RequestTimeout timeout) {
+		RequestTimeout previous = current.get();
+		if (timeout == null) {
+			current.remove();
+		} else {
+			current.set(timeout);
+		}
+		return previous;
+	}
+
+	public static RequestTimeout get() {
+		return current.get();
+	}
+
+	public int getConnectTimeout(int defaultTimeout) {
+		if (connectTimeout < 0) {
+			return defaultTimeout;
+		}
+		return connectTimeout;
+	}
+
+	public int getReadTimeout(int defaultTimeout) {
+		if (readTimeout < 0) {
+			return defaultTimeout;
+		}
+		return readTimeout;
+	}
+}
@@ -0,0 +1,75 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache that holds the most recently used responses by url. The responses
+ * are only served once the server confirmed (via a conditional request) that
+ * they did not change.
+ *
+ * @author Andre Dietisheim
+ * 
+ * @see com.openshift.client.IConditionalHttpClient
+ */
+public class ResponseCache<T> {
+
+	public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+	private final Map<String, CachedResponse<T>> responses;
+
+	public ResponseCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	public ResponseCache(final int maxEntries) {
+		this.responses = new LinkedHashMap<String, CachedResponse<T>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedResponse<T>> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	public synchronized CachedResponse<T> get(URL url) {
+		return responses.get(url.toString());
+	}
+
+	/**
+	 * Caches the given response if it may be validated by a conditional
+	 * request. Any previous response for the same url is dropped otherwise.
+	 */
+	public synchronized void put(URL url, CachedResponse<T> response) {
+		if (response == null
+				|| !response.isValidatable()) {
+			responses.remove(url.toString());
+		} else {
+			responses.put(url.toString(), response);
+		}
+	}
+
+	/**
+	 * Drops all responses, the next requests will fetch complete responses.
+	 */
+	public synchronized void clear() {
+		responses.clear();
+	}
+
+	public synchronized int size() {
+		return responses.size();
+	}
+}
@@ -0,0 +1,63 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.httpclient;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the responses that a http client received and their size as
+ * received and once they were decoded (decompressed).
+ *
+ * @author Andre Dietisheim
+ */
+public class TransferStatistics {
+
+	private final AtomicLong responses = new AtomicLong();
+	private final AtomicLong bytesReceived = new AtomicLong();
+	private final AtomicLong bytesDecoded = new AtomicLong();
+
+	void record(long received, long decoded) {
+		responses.incrementAndGet();
+		bytesReceived.addAndGet(received);
+		bytesDecoded.addAndGet(decoded);
+	}
+
+	/**
+	 * @return the number of responses that were read
+	 */
+	public long getResponses() {
+		return responses.get();
+	}
+
+	/**
+	 * @return the number of body bytes that were received
+	 */
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	/**
+	 * @return the number of body bytes once they were decoded. Equals the
+	 *         number of bytes received if the responses were not compressed
+	 */
+	public long getBytesDecoded() {
+		return bytesDecoded.get();
+	}
+
+	@Override
+	public String toString() {
+		return "TransferStatistics ["
+				+ "responses=" + responses
+				+ ", bytesReceived=" + bytesReceived
+				+ ", bytesDecoded=" + bytesDecoded
+				+ "]";
+	}
+}
@@ -10,6 +10,8 @@
  ******************************************************************************/ 
 package com.openshift.internal.client.httpclient;
 
+import com.openshift.client.IHttpClient;
+
 /**
  * @author André Dietisheim
  */
@@ -25,4 +27,8 @@ public class UnauthorizedException extends HttpClientException {
 		super(cause);
 	}
 
+	@Override
+	public int getStatus() {
+		return IHttpClient.STATUS_UNAUTHORIZED;
+	}
 }
@@ -11,14 +11,15 @@
 package com.openshift.internal.client.httpclient;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.URLConnection;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Map;
@@ -30,32 +31,49 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.openshift.client.Deadline;
 import com.openshift.client.HttpMethod;
-import com.openshift.client.IHttpClient;
+import com.openshift.client.IConditionalHttpClient;
+import com.openshift.client.IResponseReader;
+import com.openshift.client.metrics.ClientMetrics;
 import com.openshift.client.utils.Base64Coder;
+import com.openshift.internal.client.utils.CountingInputStream;
 import com.openshift.internal.client.utils.StreamUtils;
 import com.openshift.internal.client.utils.StringUtils;
 
 /**
  * @author Andre Dietisheim
  */
-public class UrlConnectionHttpClient implements IHttpClient {
+public class UrlConnectionHttpClient implements IConditionalHttpClient {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(UrlConnectionHttpClient.class);
 
-	private static final int DEFAULT_CONNECT_TIMEOUT = 10 * 1024;
-	private static final int DEFAULT_READ_TIMEOUT = 60 * 1024;
+	static final int DEFAULT_CONNECT_TIMEOUT = 10 * 1024;
+	static final int DEFAULT_READ_TIMEOUT = 60 * 1024;
 	private static final String SYSPROP_OPENSHIFT_CONNECT_TIMEOUT = "com.openshift.httpclient.timeout";
 	private static final String SYSPROP_DEFAULT_CONNECT_TIMEOUT = "sun.net.client.defaultConnectTimeout";
 	private static final String SYSPROP_DEFAULT_READ_TIMEOUT = "sun.net.client.defaultReadTimeout";
 	private static final String SYSPROP_ENABLE_SNI_EXTENSION = "jsse.enableSNIExtension";
 
 	private static final String USERAGENT_FOR_KEYAUTH = "OpenShift";
+	private static final String SSL_PROTOCOL = "SSL";
+	/** the time in seconds that tls sessions may get resumed */
+	private static final int SSL_SESSION_TIMEOUT = 60 * 60;
+
+	private static final IResponseReader<String> STRING_READER = new IResponseReader<String>() {
+
+		public String read(InputStream inputStream) throws IOException {
+			return StreamUtils.readToString(inputStream);
+		}
+	};
+
+	private static boolean sniExtensionDisabled = false;
 
 	private String userAgent;
 	private boolean sslChecks;
@@ -66,6 +84,13 @@ public class UrlConnectionHttpClient implements IHttpClient {
 	private IMediaType requestMediaType;
 	private String acceptedMediaType;
 	private String version;
+	private final HttpConnectionPool connectionPool;
+	private final KeyStore trustStore;
+	private SSLSocketFactory sslSocketFactory;
+	private HostnameVerifier hostnameVerifier;
+	private final TransferStatistics transferStatistics = new TransferStatistics();
+	private volatile int connectTimeout;
+	private volatile int readTimeout;
 
 	public UrlConnectionHttpClient(String username, String password, String userAgent, boolean sslChecks,
 			IMediaType requestMediaType, String acceptedMediaType, String version) {
@@ -74,6 +99,40 @@ public class UrlConnectionHttpClient implements IHttpClient {
 	
 	public UrlConnectionHttpClient(String username, String password, String userAgent, boolean sslChecks,
 			IMediaType requestMediaType, String acceptedMediaType, String version, String authKey, String authIV) {
+		this(username, password, userAgent, sslChecks, requestMediaType, acceptedMediaType, version, authKey, authIV,
+				new HttpConnectionPool());
+	}
+
+	/**
+	 * Creates a new client.
+	 * 
+	 * @param connectionPool
+	 *            the pool that keeps connections alive in between requests.
+	 *            If <code>null</code> every connection is closed once its
+	 *            response was read.
+	 */
+	public UrlConnectionHttpClient(String username, String password, String userAgent, boolean sslChecks,
+			IMediaType requestMediaType, String acceptedMediaType, String version, String authKey, String authIV,
+			HttpConnectionPool connectionPool) {
+		this(username, password, userAgent, sslChecks, requestMediaType, acceptedMediaType, version, authKey, authIV,
+				connectionPool, null);
+	}
+
+	/**
+	 * Creates a new client.
+	 * 
+	 * @param connectionPool
+	 *            the pool that keeps connections alive in between requests.
+	 *            If <code>null</code> every connection is closed once its
+	 *            response was read.
+	 * @param trustStore
+	 *            the keystore holding the certificates that shall be trusted
+	 *            when ssl checks are enabled. If <code>null</code> the jdk
+	 *            default truststore is used.
+	 */
+	public UrlConnectionHttpClient(String username, String password, String userAgent, boolean sslChecks,
+			IMediaType requestMediaType, String acceptedMediaType, String version, String authKey, String authIV,
+			HttpConnectionPool connectionPool, KeyStore trustStore) {
 		this.username = username;
 		this.password = password;
 		this.userAgent = userAgent;
@@ -82,6 +141,10 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		this.acceptedMediaType = acceptedMediaType;
 		this.authKey = authKey;
 		this.authIV = authIV;
+		this.connectionPool = connectionPool;
+		this.trustStore = trustStore;
+		this.connectTimeout = getDefaultConnectTimeout();
+		this.readTimeout = getDefaultReadTimeout();
 	}
 	
 	public void setAcceptedMediaType(String acceptedMediaType) {
@@ -94,14 +157,59 @@ public class UrlConnectionHttpClient implements IHttpClient {
 
 
 	public String get(URL url) throws HttpClientException, SocketTimeoutException {
+		return get(url, STRING_READER);
+	}
+
+	public <T> T get(URL url, IResponseReader<T> reader) throws HttpClientException, SocketTimeoutException {
+		acquire(url);
 		HttpURLConnection connection = null;
-		try {			
+		boolean reusable = false;
+		try {
 			connection = createConnection(username, password, authKey, authIV, userAgent, url);
-			return StreamUtils.readToString(connection.getInputStream());
+			T response = readResponse(connection, reader);
+			reusable = true;
+			return response;
 		} catch (IOException e) {
 			throw createException(e, connection);
 		} finally {
-			disconnect(connection);
+			release(url, connection, reusable);
+		}
+	}
+
+	public <T> CachedResponse<T> get(URL url, CachedResponse<T> cached, IResponseReader<T> reader)
+			throws HttpClientException, SocketTimeoutException {
+		acquire(url);
+		HttpURLConnection connection = null;
+		boolean reusable = false;
+		try {
+			connection = createConnection(username, password, authKey, authIV, userAgent, url);
+			setValidators(cached, connection);
+			if (cached != null
+					&& connection.getResponseCode() == STATUS_NOT_MODIFIED) {
+				LOGGER.trace("{} was not modified, using cached response", url);
+				reusable = true;
+				return cached;
+			}
+			T response = readResponse(connection, reader);
+			reusable = true;
+			return new CachedResponse<T>(response,
+					connection.getHeaderField(PROPERTY_ETAG), connection.getHeaderField(PROPERTY_LAST_MODIFIED));
+		} catch (IOException e) {
+			throw createException(e, connection);
+		} finally {
+			release(url, connection, reusable);
+		}
+	}
+
+	private void setValidators(CachedResponse<?> cached, HttpURLConnection connection) {
+		if (cached == null) {
+			return;
+		}
+		if (cached.getETag() != null) {
+			connection.setRequestProperty(PROPERTY_IF_NONE_MATCH, cached.getETag());
+		}
+		if (cached.getLastModified() != null) {
+			connection.setRequestProperty(PROPERTY_IF_MODIFIED_SINCE, cached.getLastModified());
 		}
 	}
 
@@ -126,6 +234,11 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		return write(data, HttpMethod.PUT.toString(), url);
 	}
 
+	public <T> T put(Map<String, Object> parameters, URL url, IResponseReader<T> reader)
+			throws SocketTimeoutException, UnsupportedEncodingException, HttpClientException {
+		return write(requestMediaType.encodeParameters(parameters), HttpMethod.PUT.toString(), url, reader);
+	}
+
 	public String post(Map<String, Object> parameters, URL url)
 			throws SocketTimeoutException, UnsupportedEncodingException, HttpClientException {
 		return post(requestMediaType.encodeParameters(parameters), url);
@@ -135,6 +248,11 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		return write(data, HttpMethod.POST.toString(), url);
 	}
 
+	public <T> T post(Map<String, Object> parameters, URL url, IResponseReader<T> reader)
+			throws SocketTimeoutException, UnsupportedEncodingException, HttpClientException {
+		return write(requestMediaType.encodeParameters(parameters), HttpMethod.POST.toString(), url, reader);
+	}
+
 	public String delete(Map<String, Object> parameters, URL url)
 			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException {
 		return delete(requestMediaType.encodeParameters(parameters), url);
@@ -149,49 +267,121 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		return write(data, HttpMethod.DELETE.toString(), url);
 	}
 
+	public <T> T delete(Map<String, Object> parameters, URL url, IResponseReader<T> reader)
+			throws HttpClientException, SocketTimeoutException, UnsupportedEncodingException {
+		return write(requestMediaType.encodeParameters(parameters), HttpMethod.DELETE.toString(), url, reader);
+	}
+
 	protected String write(String data, String requestMethod, URL url)
 			throws SocketTimeoutException, HttpClientException {
+		return write(data, requestMethod, url, STRING_READER);
+	}
+
+	protected <T> T write(String data, String requestMethod, URL url, IResponseReader<T> reader)
+			throws SocketTimeoutException, HttpClientException {
+		acquire(url);
 		HttpURLConnection connection = null;
+		boolean reusable = false;
 		try {
 			connection = createConnection(username, password, authKey, authIV, userAgent, url);
 			connection.setRequestMethod(requestMethod);
 			connection.setDoOutput(true);
 			if (data != null) {
 				LOGGER.trace("Sending \"{}\" to {}", data, url);
-				StreamUtils.writeTo(data.getBytes(), connection.getOutputStream());
+				byte[] bytes = data.getBytes();
+				StreamUtils.writeTo(bytes, connection.getOutputStream());
+				ClientMetrics.get().bytesSent(bytes.length);
 			}
-			return StreamUtils.readToString(connection.getInputStream());
+			T response = readResponse(connection, reader);
+			reusable = true;
+			return response;
 		} catch (IOException e) {
 			throw createException(e, connection);
 		} finally {
-			disconnect(connection);
+			release(url, connection, reusable);
 		}
 
 	}
 
+	/**
+	 * Reads the response of the given connection with the given reader. The
+	 * stream is not closed here, it is closed when the connection is released:
+	 * Closing it hands the connection to the keep-alive cache, disconnecting
+	 * closes the socket.
+	 * <p>
+	 * Compressed responses are decompressed while they are read.
+	 */
+	private <T> T readResponse(HttpURLConnection connection, IResponseReader<T> reader) throws IOException {
+		CountingInputStream received = new CountingInputStream(connection.getInputStream());
+		CountingInputStream decoded = null;
+		try {
+			decoded = new CountingInputStream(ContentEncoding.decode(received, connection.getContentEncoding()));
+			return reader.read(decoded);
+		} finally {
+			long decodedBytes = decoded == null ? 0 : decoded.getCount();
+			transferStatistics.record(received.getCount(), decodedBytes);
+			ClientMetrics.get().bytesReceived(received.getCount(), decodedBytes);
+			LOGGER.debug("Received {} bytes ({} decoded) from {}",
+					new Object[] { received.getCount(), decodedBytes, connection.getURL() });
+		}
+	}
+
+	/**
+	 * Leases a connection from the pool (if any). Has to be called outside of
+	 * the block that releases the connection: a lease that failed must not be
+	 * released.
+	 */
+	private void acquire(URL url) throws HttpClientException {
+		if (connectionPool == null) {
+			return;
+		}
+		try {
+			connectionPool.acquire(url);
+		} catch (InterruptedIOException e) {
+			throw new HttpClientException(e);
+		}
+	}
+
+	private void release(URL url, HttpURLConnection connection, boolean reusable) {
+		if (connectionPool != null) {
+			connectionPool.release(url, connection, reusable);
+		} else {
+			disconnect(connection);
+		}
+	}
+
 	private void disconnect(HttpURLConnection connection) {
 		if (connection != null) {
 			connection.disconnect();
 		}
 	}
 
+	/**
+	 * Returns the pool that keeps connections alive in between requests.
+	 * 
+	 * @return the connection pool or <code>null</code> if connections are not
+	 *         pooled
+	 */
+	public HttpConnectionPool getConnectionPool() {
+		return connectionPool;
+	}
+
+	/**
+	 * Returns the number of responses and bytes that this client received.
+	 */
+	public TransferStatistics getTransferStatistics() {
+		return transferStatistics;
+	}
+
 	private HttpClientException createException(IOException ioe, HttpURLConnection connection)
 			throws SocketTimeoutException {
+		if (connection == null) {
+			return new HttpClientException(ioe);
+		}
 		try {
 			int responseCode = connection.getResponseCode();
 			String errorMessage = createErrorMessage(ioe, connection);
-			switch (responseCode) {
-			case STATUS_INTERNAL_SERVER_ERROR:
-				return new InternalServerErrorException(errorMessage, ioe);
-			case STATUS_BAD_REQUEST:
-				return new BadRequestException(errorMessage, ioe);
-			case STATUS_UNAUTHORIZED:
-				return new UnauthorizedException(errorMessage, ioe);
-			case STATUS_NOT_FOUND:
-				return new NotFoundException(errorMessage, ioe);
-			default:
-				return new HttpClientException(errorMessage, ioe);
-			}
+			return createException(responseCode, errorMessage, ioe);
 		} catch (SocketTimeoutException e) {
 			throw e;
 		} catch (IOException e) {
@@ -199,8 +389,24 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		}
 	}
 
+	static HttpClientException createException(int responseCode, String errorMessage, Throwable cause) {
+		switch (responseCode) {
+		case STATUS_INTERNAL_SERVER_ERROR:
+			return new InternalServerErrorException(errorMessage, cause);
+		case STATUS_BAD_REQUEST:
+			return new BadRequestException(errorMessage, cause);
+		case STATUS_UNAUTHORIZED:
+			return new UnauthorizedException(errorMessage, cause);
+		case STATUS_NOT_FOUND:
+			return new NotFoundException(errorMessage, cause);
+		default:
+			return new HttpClientException(responseCode, errorMessage, cause);
+		}
+	}
+
 	protected String createErrorMessage(IOException ioe, HttpURLConnection connection) throws IOException {
-		String errorMessage = StreamUtils.readToString(connection.getErrorStream());
+		String errorMessage = StreamUtils.readToString(
+				ContentEncoding.decode(connection.getErrorStream(), connection.getContentEncoding()));
 		if (!StringUtils.isEmpty(errorMessage)) {
 			return errorMessage;
 		}
@@ -219,25 +425,74 @@ public class UrlConnectionHttpClient implements IHttpClient {
 	}
 
 	/**
-	 * Sets a trust manager that will always trust.
+	 * Returns the socket factory that https connections of this client shall
+	 * use. The factory is created once and shared by all connections so that
+	 * the ssl context is initialized a single time, tls sessions get resumed
+	 * and the jdk keep-alive cache (which keys https connections by their
+	 * socket factory) reuses connections.
+	 * 
+	 * @return the socket factory or <code>null</code> if the jdk default
+	 *         factory shall be used
+	 */
+	protected synchronized SSLSocketFactory getSSLSocketFactory() {
+		if (sslSocketFactory == null) {
+			this.sslSocketFactory = createSSLSocketFactory();
+		}
+		return sslSocketFactory;
+	}
+
+	/**
+	 * Creates a socket factory that trusts any certificate if ssl checks are
+	 * disabled or the certificates in the truststore if one was given.
 	 * <p>
-	 * TODO: dont swallog exceptions and setup things so that they dont disturb
+	 * TODO: dont swallow exceptions and setup things so that they dont disturb
 	 * other components.
 	 */
-	private void setPermissiveSSLSocketFactory(HttpsURLConnection connection) {
+	private SSLSocketFactory createSSLSocketFactory() {
 		try {
-			SSLContext sslContext = SSLContext.getInstance("SSL");
-			sslContext.init(
-					new KeyManager[0], new TrustManager[] { new PermissiveTrustManager() }, new SecureRandom());
-			SSLSocketFactory socketFactory = sslContext.getSocketFactory();
-			((HttpsURLConnection) connection).setSSLSocketFactory(socketFactory);
-		} catch (KeyManagementException e) {
-			// ignore
-		} catch (NoSuchAlgorithmException e) {
-			// ignore
+			SSLContext sslContext = createSSLContext(sslChecks, trustStore);
+			if (sslContext == null) {
+				return null;
+			}
+			return sslContext.getSocketFactory();
+		} catch (GeneralSecurityException e) {
+			LOGGER.error("Could not create ssl socket factory", e);
+			return null;
 		}
 	}
 
+	/**
+	 * Creates a ssl context that trusts any certificate if ssl checks are
+	 * disabled or the certificates in the given truststore.
+	 * 
+	 * @return the ssl context or <code>null</code> if the jdk default context
+	 *         shall be used
+	 */
+	static SSLContext createSSLContext(boolean sslChecks, KeyStore trustStore) throws GeneralSecurityException {
+		TrustManager[] trustManagers = null;
+		if (!sslChecks) {
+			trustManagers = new TrustManager[] { new PermissiveTrustManager() };
+		} else if (trustStore != null) {
+			TrustManagerFactory trustManagerFactory =
+					TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+			trustManagerFactory.init(trustStore);
+			trustManagers = trustManagerFactory.getTrustManagers();
+		} else {
+			return null;
+		}
+		SSLContext sslContext = SSLContext.getInstance(SSL_PROTOCOL);
+		sslContext.init(new KeyManager[0], trustManagers, null);
+		sslContext.getClientSessionContext().setSessionTimeout(SSL_SESSION_TIMEOUT);
+		return sslContext;
+	}
+
+	private synchronized HostnameVerifier getHostnameVerifier() {
+		if (hostnameVerifier == null) {
+			this.hostnameVerifier = new NoopHostnameVerifier();
+		}
+		return hostnameVerifier;
+	}
+
 	protected HttpURLConnection createConnection(String username, String password, String userAgent, URL url)
 			throws IOException {
 		return createConnection(username, password, null, null, userAgent, url);
@@ -254,12 +509,12 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		connection.setUseCaches(false);
 		connection.setDoInput(true);
 		connection.setAllowUserInteraction(false);
-		setConnectTimeout(connection);
-		setReadTimeout(connection);
+		setTimeouts(connection);
 		// wont work when switching http->https
 		// http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4620571
 		connection.setInstanceFollowRedirects(true);
 		setAcceptHeader(connection);
+		connection.setRequestProperty(ContentEncoding.PROPERTY_ACCEPT_ENCODING, ContentEncoding.ACCEPTED_ENCODINGS);
 		setUserAgent(connection);
 		
 		connection.setRequestProperty(PROPERTY_CONTENT_TYPE, requestMediaType.getType());
@@ -268,74 +523,158 @@ public class UrlConnectionHttpClient implements IHttpClient {
 	}
 
 	private void setUserAgent(HttpURLConnection connection) {
-		String userAgent = this.userAgent;
-		if (!StringUtils.isEmpty(authKey)) {
-			userAgent = USERAGENT_FOR_KEYAUTH;
-		}
-		
+		String userAgent = getUserAgent(this.userAgent, authKey);
 		if (userAgent != null){
 			connection.setRequestProperty(PROPERTY_USER_AGENT, userAgent);
 		}
 	}
 
+	static String getUserAgent(String userAgent, String authKey) {
+		if (!StringUtils.isEmpty(authKey)) {
+			return USERAGENT_FOR_KEYAUTH;
+		}
+		return userAgent;
+	}
+
 	private void setAcceptHeader(HttpURLConnection connection) {
+		connection.setRequestProperty(PROPERTY_ACCEPT, createAcceptHeader(acceptedMediaType, version));
+	}
+
+	static String createAcceptHeader(String acceptedMediaType, String version) {
 		StringBuilder builder =
 				new StringBuilder(acceptedMediaType);
 		if (version != null) {
 			builder.append(SEMICOLON).append(SPACE)
 					.append(VERSION).append(EQUALS).append(version);
 		}
-
-		connection.setRequestProperty(PROPERTY_ACCEPT, builder.toString());
+		return builder.toString();
 	}
 
 	private void setAuthorisation(String username, String password, String authKey, String authIV, HttpURLConnection connection) {
-		if (username == null || username.trim().length() == 0
-				|| password == null || password.trim().length() == 0) {
+		if (!hasCredentials(username, password)) {
 			if (authKey != null && authIV != null) {
 				connection.setRequestProperty(PROPERTY_AUTHKEY, authKey);
 				connection.setRequestProperty(PROPERTY_AUTHIV, authIV);
 			}
 		} else {
-			String credentials = Base64Coder.encode(
-					new StringBuilder().append(username).append(COLON).append(password).toString().getBytes());
-			connection.setRequestProperty(PROPERTY_AUTHORIZATION,
-					new StringBuilder().append(AUTHORIZATION_BASIC).append(SPACE).append(credentials).toString());
+			connection.setRequestProperty(PROPERTY_AUTHORIZATION, createBasicAuthorization(username, password));
 		}
 	}
 
+	static boolean hasCredentials(String username, String password) {
+		return username != null && username.trim().length() > 0
+				&& password != null && password.trim().length() > 0;
+	}
+
+	static String createBasicAuthorization(String username, String password) {
+		String credentials = Base64Coder.encode(
+				new StringBuilder().append(username).append(COLON).append(password).toString().getBytes());
+		return new StringBuilder().append(AUTHORIZATION_BASIC).append(SPACE).append(credentials).toString();
+	}
+
 	private void setSSLChecks(URL url, HttpURLConnection connection) {
-		if (isHttps(url)
-				&& !sslChecks) {
-			// JDK7 bug workaround
+		if (!isHttps(url)) {
+			return;
+		}
+		HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
+		if (!sslChecks) {
+			disableSNIExtension();
+			httpsConnection.setHostnameVerifier(getHostnameVerifier());
+		}
+		SSLSocketFactory socketFactory = getSSLSocketFactory();
+		if (socketFactory != null) {
+			httpsConnection.setSSLSocketFactory(socketFactory);
+		}
+	}
+
+	/**
+	 * JDK7 bug workaround
+	 */
+	private static synchronized void disableSNIExtension() {
+		if (!sniExtensionDisabled) {
 			System.setProperty(SYSPROP_ENABLE_SNI_EXTENSION, "false");
+			sniExtensionDisabled = true;
+		}
+	}
 
-			HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
-			httpsConnection.setHostnameVerifier(new NoopHostnameVerifier());
-			setPermissiveSSLSocketFactory(httpsConnection);
+	/**
+	 * Sets the timeouts of the request that the calling thread is sending or
+	 * the ones of this client. They are shortened so that they end before the
+	 * deadline of the calling thread.
+	 * 
+	 * @see RequestTimeout
+	 * @see Deadline
+	 */
+	private void setTimeouts(URLConnection connection) {
+		int connectTimeout = this.connectTimeout;
+		int readTimeout = this.readTimeout;
+		RequestTimeout requestTimeout = RequestTimeout.get();
+		if (requestTimeout != null) {
+			connectTimeout = requestTimeout.getConnectTimeout(connectTimeout);
+			readTimeout = requestTimeout.getReadTimeout(readTimeout);
 		}
+		connection.setConnectTimeout(limitToDeadline(connectTimeout));
+		connection.setReadTimeout(limitToDeadline(readTimeout));
 	}
 
-	private void setConnectTimeout(URLConnection connection) {
+	private int limitToDeadline(int timeout) {
+		Deadline deadline = Deadline.current();
+		if (deadline == null) {
+			return timeout;
+		}
+		// 0 is no timeout to a connection
+		long remaining = Math.max(1, Math.min(Integer.MAX_VALUE, deadline.getRemaining()));
+		if (timeout == 0
+				|| remaining < timeout) {
+			return (int) remaining;
+		}
+		return timeout;
+	}
+
+	/**
+	 * Sets the timeouts of the requests that have none of their own.
+	 * 
+	 * @param connectTimeout
+	 *            the time (in milliseconds) to wait for a connection, 0 to
+	 *            wait forever
+	 * @param readTimeout
+	 *            the time (in milliseconds) to wait for a response, 0 to wait
+	 *            forever
+	 */
+	public void setTimeouts(int connectTimeout, int readTimeout) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	private static int getDefaultConnectTimeout() {
 		int timeout = getSystemPropertyInteger(SYSPROP_OPENSHIFT_CONNECT_TIMEOUT);
 		if (timeout > -1) {
-			connection.setConnectTimeout(timeout);
-			return;
+			return timeout;
 		}
 		timeout = getSystemPropertyInteger(SYSPROP_DEFAULT_CONNECT_TIMEOUT);
-		if (timeout == -1) {
-			connection.setConnectTimeout(DEFAULT_CONNECT_TIMEOUT);
+		if (timeout > -1) {
+			return timeout;
 		}
+		return DEFAULT_CONNECT_TIMEOUT;
 	}
 
-	private void setReadTimeout(URLConnection connection) {
+	private static int getDefaultReadTimeout() {
 		int timeout = getSystemPropertyInteger(SYSPROP_DEFAULT_READ_TIMEOUT);
-		if (timeout == -1) {
-			connection.setReadTimeout(DEFAULT_READ_TIMEOUT);
+		if (timeout > -1) {
+			return timeout;
 		}
+		return DEFAULT_READ_TIMEOUT;
 	}
 
-	private int getSystemPropertyInteger(String key) {
+	private static int getSystemPropertyInteger(String key) {
 		try {
 			return Integer.parseInt(System.getProperty(key));
 		} catch (NumberFormatException e) {
@@ -343,7 +682,7 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		}
 	}
 
-	private class PermissiveTrustManager implements X509TrustManager {
+	private static class PermissiveTrustManager implements X509TrustManager {
 
 		public X509Certificate[] getAcceptedIssuers() {
 			return null;
@@ -358,7 +697,7 @@ public class UrlConnectionHttpClient implements IHttpClient {
 		}
 	}
 
-	private class NoopHostnameVerifier implements HostnameVerifier {
+	private static class NoopHostnameVerifier implements HostnameVerifier {
 
 		public boolean verify(String hostname, SSLSession sslSession) {
 			return true;
@@ -10,6 +10,9 @@
  ******************************************************************************/
 package com.openshift.internal.client.httpclient;
 
+import java.security.KeyStore;
+
+import com.openshift.client.IAsyncHttpClient;
 import com.openshift.client.IHttpClient;
 
 /**
@@ -26,6 +29,11 @@ public class UrlConnectionHttpClientBuilder {
 	private IMediaType requestMediaType = new FormUrlEncodedMediaType();
 	private String acceptedMediaType = IHttpClient.MEDIATYPE_APPLICATION_JSON;
 	private String version = "1.0";
+	private boolean connectionPooling = true;
+	private HttpConnectionPool connectionPool;
+	private KeyStore trustStore;
+	private int connectTimeout = -1;
+	private int readTimeout = -1;
 
 	public UrlConnectionHttpClientBuilder setUserAgent(String userAgent) {
 		this.userAgent = userAgent;
@@ -64,16 +72,98 @@ public class UrlConnectionHttpClientBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets whether connections shall be kept alive and reused in between
+	 * requests. Pooling is enabled by default, disabling it closes each
+	 * connection once its response was read.
+	 */
+	public UrlConnectionHttpClientBuilder setConnectionPooling(boolean pooling) {
+		this.connectionPooling = pooling;
+		return this;
+	}
+
+	/**
+	 * Sets the pool that the client shall use. Allows clients to share a pool
+	 * or to use a pool that limits the connections per host. The default pool
+	 * does not limit them.
+	 */
+	public UrlConnectionHttpClientBuilder setConnectionPool(HttpConnectionPool connectionPool) {
+		this.connectionPool = connectionPool;
+		return this;
+	}
+
+	/**
+	 * Sets the keystore holding the certificates that the client shall trust
+	 * if ssl checks are enabled. The jdk default truststore is used if none is
+	 * set.
+	 */
+	public UrlConnectionHttpClientBuilder setTrustStore(KeyStore trustStore) {
+		this.trustStore = trustStore;
+		return this;
+	}
+
+	/**
+	 * Sets the timeouts (in milliseconds) of the client. The client uses the
+	 * timeouts from the system properties if none are set.
+	 */
+	public UrlConnectionHttpClientBuilder setTimeouts(int connectTimeout, int readTimeout) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+		return this;
+	}
+
 	public IHttpClient client() {
-		if (authKey != null && authKey.trim().length() > 0) {
-			if (userAgent == null) {
-				userAgent = "OpenShift";
-			} else if (!userAgent.startsWith("OpenShift")) {
-				userAgent = "OpenShift-" + userAgent;
-			}
+		UrlConnectionHttpClient client = new UrlConnectionHttpClient(username, password, getUserAgent(),
+				sslChecks, requestMediaType, acceptedMediaType, version,
+				authKey, authIV, getConnectionPool(), trustStore);
+		if (connectTimeout > -1
+				&& readTimeout > -1) {
+			client.setTimeouts(connectTimeout, readTimeout);
+		}
+		return client;
+	}
+
+	/**
+	 * Returns a client that executes its requests without blocking the
+	 * calling thread. Connection pooling settings do not apply to it.
+	 */
+	public IAsyncHttpClient asyncClient() {
+		if (connectTimeout > -1
+				&& readTimeout > -1) {
+			return new NioHttpClient(username, password, getUserAgent(),
+					sslChecks, requestMediaType, acceptedMediaType, version,
+					authKey, authIV, trustStore, connectTimeout, readTimeout, NioHttpClient.DEFAULT_IDLE_TIMEOUT);
 		}
-		return new UrlConnectionHttpClient(username, password, userAgent,
+		return new NioHttpClient(username, password, getUserAgent(),
 				sslChecks, requestMediaType, acceptedMediaType, version,
-				authKey, authIV);
+				authKey, authIV, trustStore);
+	}
+
+	/**
+	 * Returns the user agent that the clients shall send, prefixed with
+	 * "OpenShift" if they authenticate with a key. Leaves the configured user
+	 * agent untouched so that building several clients yields the same agent.
+	 */
+	private String getUserAgent() {
+		if (authKey == null
+				|| authKey.trim().length() == 0) {
+			return userAgent;
+		}
+		if (userAgent == null) {
+			return "OpenShift";
+		} else if (!userAgent.startsWith("OpenShift")) {
+			return "OpenShift-" + userAgent;
+		}
+		return userAgent;
+	}
+
+	private HttpConnectionPool getConnectionPool() {
+		if (!connectionPooling) {
+			return null;
+		}
+		if (connectionPool == null) {
+			return new HttpConnectionPool();
+		}
+		return connectionPool;
 	}
 }
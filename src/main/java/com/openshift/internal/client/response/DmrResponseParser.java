@@ -0,0 +1,650 @@
+/******************************************************************************* 
+ * Copyright (c) 2012 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.response;
+
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_ALIASES;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_APP_URL;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_CONSUMED_GEARS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_CREATION_TIME;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_DATA;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_DOMAIN;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_DOMAIN_ID;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_EMBEDDED;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_FRAMEWORK;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_GEARS_COMPONENTS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_GEAR_PROFILE;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_GIT_URL;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_HREF;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_ID;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_INFO;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_INTERNAL_PORT;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_LINKS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_LOGIN;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_MAX_GEARS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_METHOD;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_NAME;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_OPTIONAL_PARAMS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_PROXY_HOST;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_PROXY_PORT;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_REL;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_REQUIRED_PARAMS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_SCALABLE;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_SUFFIX;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_TYPE;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_UUID;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_VALID_OPTIONS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+
+import com.openshift.client.ApplicationScale;
+import com.openshift.client.IGearGroup;
+import com.openshift.client.IGearProfile;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftRequestException;
+import com.openshift.internal.client.GearProfile;
+import com.openshift.internal.client.utils.IOpenShiftJsonConstants;
+
+/**
+ * A response parser that builds a jboss-dmr {@link ModelNode} tree out of the
+ * response and then creates the dtos out of this tree.
+ * 
+ * @author Xavier Coulon
+ */
+public class DmrResponseParser implements IResponseParser {
+
+	public RestResponse parse(final String content) throws OpenShiftException {
+		return createResponse(getModelNode(content));
+	}
+
+	public RestResponse parse(final InputStream inputStream) throws IOException, OpenShiftException {
+		return createResponse(ModelNode.fromJSONStream(inputStream));
+	}
+
+	static RestResponse createResponse(final ModelNode rootNode) throws OpenShiftException {
+		if (!rootNode.isDefined()) {
+			throw new OpenShiftException("Could not unmarshall response: erroneous content.");
+		}
+		final String type = rootNode.get(IOpenShiftJsonConstants.PROPERTY_TYPE).asString();
+		final String status = rootNode.get(IOpenShiftJsonConstants.PROPERTY_STATUS).asString();
+		final List<Message> messages = createMessages(rootNode.get(IOpenShiftJsonConstants.PROPERTY_MESSAGES));
+
+		final EnumDataType dataType = EnumDataType.safeValueOf(type);
+		// the response is after an error, only the messages are relevant
+		
+
+		if (dataType == null) {
+			return new RestResponse(status, messages, null, null);
+		}
+		
+		
+		switch (dataType) {
+		case user:
+			return new RestResponse(status, messages, createUser(rootNode), dataType);
+		case keys:
+			return new RestResponse(status, messages, createKeys(rootNode), dataType);
+		case key:
+			return new RestResponse(status, messages, createKey(rootNode, messages), dataType);
+		case links:
+			return new RestResponse(status, messages, createLinks(rootNode), dataType);
+		case domains:
+			return new RestResponse(status, messages, createDomains(rootNode), dataType);
+		case domain:
+			return new RestResponse(status, messages, createDomain(rootNode, messages), dataType);
+		case applications:
+			return new RestResponse(status, messages, createApplications(rootNode), dataType);
+		case application:
+			return new RestResponse(status, messages, createApplication(rootNode, messages), dataType);
+		case gears:
+			return new RestResponse(status, messages, createGears(rootNode), dataType);
+		case cartridges:
+			return new RestResponse(status, messages, createCartridges(rootNode), dataType);
+		case cartridge:
+			return new RestResponse(status, messages, createCartridge(rootNode, messages), dataType);
+		case gear_groups:
+			return new RestResponse(status, messages, createGearGroups(rootNode), dataType);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a new ResourceDTO object.
+	 * 
+	 * @param messagesNode
+	 *            the messages node
+	 * @return the list< string>
+	 */
+	static List<Message> createMessages(ModelNode messagesNode) {
+		List<Message> messages = new ArrayList<Message>();
+		if (messagesNode.getType() == ModelType.LIST) {
+			for (ModelNode messageNode : messagesNode.asList()) {
+				messages.add(createMessage(messageNode));
+			}
+		}
+		return messages;
+	}
+
+	static Message createMessage(ModelNode messageNode) {
+		String text = getString(messageNode.get(IOpenShiftJsonConstants.PROPERTY_TEXT));
+		String parameter = getString(messageNode.get(IOpenShiftJsonConstants.PROPERTY_FIELD));
+		int exitCode = getInt(messageNode.get(IOpenShiftJsonConstants.PROPERTY_EXIT_CODE));
+		String severity = getString(messageNode.get(IOpenShiftJsonConstants.PROPERTY_SEVERITY));
+		return new Message(text, parameter, severity, exitCode);
+	}
+
+	private static int getInt(ModelNode messageNode) {
+		if (messageNode == null
+				|| !messageNode.isDefined()) {
+			return -1;
+		}
+		return messageNode.asInt();
+	}
+
+	private static String getString(ModelNode node) {
+		if (node == null
+				|| !node.isDefined()) {
+			return null;
+		}
+		return node.asString();
+	}
+
+	/**
+	 * Gets the model node.
+	 * 
+	 * @param content
+	 *            the content
+	 * @return the model node
+	 * @throws OpenShiftException
+	 *             the open shift exception
+	 */
+	private static ModelNode getModelNode(final String content) throws OpenShiftException {
+		if (content == null) {
+			throw new OpenShiftException("Could not unmarshall response: no content.");
+		}
+		return ModelNode.fromJSONString(content);
+	}
+
+	/**
+	 * Creates a new ResourceDTO object.
+	 * 
+	 * @param userNode
+	 *            the root node
+	 * @return the user resource dto
+	 * @throws OpenShiftException
+	 */
+	static UserResourceDTO createUser(ModelNode userNode) throws OpenShiftException {
+		if (userNode.has(PROPERTY_DATA)) {
+			// loop inside 'data' node
+			return createUser(userNode.get(PROPERTY_DATA));
+		}
+		final String rhlogin = getAsString(userNode, PROPERTY_LOGIN);
+		final int maxGears = getAsInteger(userNode, PROPERTY_MAX_GEARS);
+		final int consumedGears = getAsInteger(userNode, PROPERTY_CONSUMED_GEARS);
+		final Map<String, Link> links = createLinks(userNode.get(PROPERTY_LINKS));
+		return new UserResourceDTO(rhlogin, maxGears, consumedGears, links);
+	}
+
+	/**
+	 * Creates a new ResourceDTO object.
+	 * 
+	 * @param rootNode
+	 *            the root node
+	 * @return the list< key resource dt o>
+	 * @throws OpenShiftException
+	 *             the open shift exception
+	 */
+	static List<KeyResourceDTO> createKeys(ModelNode rootNode) throws OpenShiftException {
+		final List<KeyResourceDTO> keys = new ArrayList<KeyResourceDTO>();
+		// temporarily supporting single and multiple values for 'keys' node
+		if (rootNode.has(PROPERTY_DATA)) {
+			for (ModelNode dataNode : rootNode.get(PROPERTY_DATA).asList()) {
+				if (dataNode.getType() == ModelType.OBJECT) {
+					keys.add(createKey(dataNode, null));
+				}
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Creates a new ResourceDTO object.
+	 * 
+	 * @param keyNode
+	 *            the key node
+	 * @return the key resource dto
+	 * @throws OpenShiftException
+	 */
+	static KeyResourceDTO createKey(ModelNode keyNode, List<Message> creationLog) throws OpenShiftException {
+		if (keyNode.has(PROPERTY_DATA)) {
+			// loop inside 'data' node
+			return createKey(keyNode.get(PROPERTY_DATA), creationLog);
+		}
+		final String name = getAsString(keyNode, IOpenShiftJsonConstants.PROPERTY_NAME);
+		final String type = getAsString(keyNode, IOpenShiftJsonConstants.PROPERTY_TYPE);
+		final String content = getAsString(keyNode, IOpenShiftJsonConstants.PROPERTY_CONTENT);
+		final Map<String, Link> links = createLinks(keyNode.get(PROPERTY_LINKS));
+		return new KeyResourceDTO(name, type, content, links, creationLog);
+	}
+
+	/**
+	 * Creates a new set of indexed links.
+	 * 
+	 * @param linksNode
+	 *            the root node
+	 * @return the list< domain dt o>
+	 * @throws OpenShiftException
+	 *             the open shift exception
+	 */
+	static Map<String, Link> createLinks(final ModelNode linksNode) throws OpenShiftException {
+		if (linksNode.has(PROPERTY_DATA)) {
+			// loop inside 'data' node
+			return createLinks(linksNode.get(PROPERTY_DATA));
+		}
+		Map<String, Link> links = new HashMap<String, Link>();
+		if (linksNode.isDefined()) {
+			for (ModelNode linkNode : linksNode.asList()) {
+				final String linkName = linkNode.asProperty().getName();
+				final ModelNode valueNode = linkNode.asProperty().getValue();
+				if (valueNode.isDefined()) {
+					final String rel = valueNode.get(PROPERTY_REL).asString();
+					final String href = valueNode.get(PROPERTY_HREF).asString();
+					final String method = valueNode.get(PROPERTY_METHOD).asString();
+					final List<LinkParameter> requiredParams = createLinkParameters(valueNode
+							.get(PROPERTY_REQUIRED_PARAMS));
+					final List<LinkParameter> optionalParams = createLinkParameters(valueNode
+							.get(PROPERTY_OPTIONAL_PARAMS));
+					links.put(linkName, new Link(rel, href, method, requiredParams, optionalParams));
+				}
+			}
+		}
+		return links;
+	}
+
+	/**
+	 * Creates a new DTO object.
+	 * 
+	 * @param rootNode
+	 *            the root node
+	 * @return the list< domain dt o>
+	 * @throws OpenShiftException
+	 *             the open shift exception
+	 */
+	static List<DomainResourceDTO> createDomains(final ModelNode rootNode) throws OpenShiftException {
+		final List<DomainResourceDTO> domains = new ArrayList<DomainResourceDTO>();
+		// temporarily supporting absence of 'data' node in the 'domain'
+		// response message
+		// FIXME: simplify once openshift response is fixed
+		if (rootNode.has(PROPERTY_DATA)) {
+			for (ModelNode dataNode : rootNode.get(PROPERTY_DATA).asList()) {
+				if (dataNode.getType() == ModelType.OBJECT) {
+					domains.add(createDomain(dataNode, null));
+				} else {
+					throw new OpenShiftException("Unexpected node type: {0}", dataNode.getType());
+				}
+			}
+		} else {
+			final ModelNode domainNode = rootNode.get(PROPERTY_DOMAIN);
+			if (domainNode.isDefined()
+					&& domainNode.getType() == ModelType.OBJECT) {
+				domains.add(createDomain(domainNode, null));
+			} else {
+				throw new OpenShiftException("Unexpected node type: {0}", domainNode.getType());
+			}
+		}
+
+		return domains;
+	}
+
+	/**
+	 * Creates a new DTO object.
+	 * 
+	 * @param domainNode
+	 *            the domain node
+	 * @return the domain dto
+	 * @throws OpenShiftException
+	 */
+	static DomainResourceDTO createDomain(final ModelNode domainNode, List<Message> creationLog)
+			throws OpenShiftException {
+		if (domainNode.has(PROPERTY_DATA)) {
+			// recurse into "data" node
+			return createDomain(domainNode.get(PROPERTY_DATA), creationLog);
+		}
+		final String namespace = getAsString(domainNode, PROPERTY_ID);
+		final String suffix = getAsString(domainNode, PROPERTY_SUFFIX);
+		final Map<String, Link> links = createLinks(domainNode.get(PROPERTY_LINKS));
+		return new DomainResourceDTO(namespace, suffix, links, creationLog);
+	}
+
+	/**
+	 * Creates a new DTO object.
+	 * 
+	 * @param rootNode
+	 *            the domain node
+	 * @return the list< application dt o>
+	 * @throws OpenShiftException
+	 */
+	static List<ApplicationResourceDTO> createApplications(final ModelNode rootNode)
+			throws OpenShiftException {
+		final List<ApplicationResourceDTO> applicationDTOs = new ArrayList<ApplicationResourceDTO>();
+		if (rootNode.has(PROPERTY_DATA)) {
+			for (ModelNode applicationNode : rootNode.get(PROPERTY_DATA).asList()) {
+				applicationDTOs.add(createApplication(applicationNode, null));
+			}
+		}
+		return applicationDTOs;
+	}
+
+	/**
+	 * Creates a new DTO object.
+	 * 
+	 * @param appNode
+	 *            the app node
+	 * @return the application dto
+	 * @throws OpenShiftException
+	 */
+	static ApplicationResourceDTO createApplication(ModelNode appNode, List<Message> creationLog)
+			throws OpenShiftException {
+		if (appNode.has(PROPERTY_DATA)) {
+			// recurse into 'data' node
+			return createApplication(appNode.get(PROPERTY_DATA), creationLog);
+		}
+		final String framework = getAsString(appNode, PROPERTY_FRAMEWORK);
+		final String creationTime = getAsString(appNode, PROPERTY_CREATION_TIME);
+		final String name = getAsString(appNode, PROPERTY_NAME);
+		final String uuid = getAsString(appNode, PROPERTY_UUID);
+		final ApplicationScale scalable = ApplicationScale.safeValueOf(getAsString(appNode, PROPERTY_SCALABLE));
+		final IGearProfile gearProfile = createGearProfile(appNode);
+		final String applicationUrl = getAsString(appNode, PROPERTY_APP_URL);
+		final String gitUrl = getAsString(appNode, PROPERTY_GIT_URL);
+		final String domainId = getAsString(appNode, PROPERTY_DOMAIN_ID);
+		final Map<String, Link> links = createLinks(appNode.get(PROPERTY_LINKS));
+		final List<String> aliases = createAliases(appNode.get(PROPERTY_ALIASES));
+		final Map<String, String> embeddedCartridgesInfos = createEmbeddedCartridgesInfos(appNode.get(PROPERTY_EMBEDDED));
+		
+		return new ApplicationResourceDTO(
+				framework, 
+				domainId, 
+				creationTime, 
+				name, 
+				gearProfile, 
+				scalable, 
+				uuid, 
+				applicationUrl, 
+				gitUrl, 
+				aliases, 
+				embeddedCartridgesInfos, 
+				links, 
+				creationLog);
+	}
+
+	private static GearProfile createGearProfile(ModelNode appNode) {
+		String gearProfileName = getAsString(appNode, PROPERTY_GEAR_PROFILE);
+		if (gearProfileName == null) {
+			return null;
+		}
+		return new GearProfile(gearProfileName);
+	}
+
+	/**
+	 * TODO: fix this workaround once
+	 * https://bugzilla.redhat.com/show_bug.cgi?id=812046 is fixed
+	 */
+	static Map<String, String> createEmbeddedCartridgesInfos(ModelNode embeddedNode) {
+		HashMap<String, String> infos = new HashMap<String, String>();
+		for (Property embeddedCartridgeProperty : embeddedNode.asPropertyList()) {
+			String embeddedCartridgeInfo = getEmbeddedCartridgeInfo(embeddedCartridgeProperty.getValue());
+			if (embeddedCartridgeInfo != null) {
+				infos.put(embeddedCartridgeProperty.getName(), embeddedCartridgeInfo);
+			}
+		}
+		return infos;
+	}
+
+	static String getEmbeddedCartridgeInfo(ModelNode embeddedCartridgeNode) {
+		if (embeddedCartridgeNode == null
+				|| !embeddedCartridgeNode.has(PROPERTY_INFO)
+				|| !embeddedCartridgeNode.get(PROPERTY_INFO).isDefined()) {
+			return null;
+		}
+		return embeddedCartridgeNode.get(PROPERTY_INFO).asString();
+	}
+	
+	static List<GearGroupDTO> createGearGroups(ModelNode gearGroupsNode) {
+		if (gearGroupsNode.has(PROPERTY_DATA)) {
+			// loop inside 'data' node
+			return createGearGroups(gearGroupsNode.get(PROPERTY_DATA));
+		}
+		final List<GearGroupDTO> gearGroups = new ArrayList<GearGroupDTO>();
+		if (gearGroupsNode.getType() == ModelType.LIST) {
+			for (ModelNode childNode : gearGroupsNode.asList()) {
+				gearGroups.add(createGearGroup(childNode, null));
+			}
+		}
+		return gearGroups;
+	}
+	
+	static GearGroupDTO createGearGroup(ModelNode gearGroupNode, List<Message> creationLog) {
+		if (gearGroupNode.has(PROPERTY_DATA)) {
+			// recurse into 'data' node
+			return createGearGroup(gearGroupNode.get(PROPERTY_DATA), creationLog);
+		}
+		
+		String name = getAsString(gearGroupNode, "name");
+		String gear_profile = getAsString(gearGroupNode, "gear_profile");
+		final List<GearDTO> gears = createGears(gearGroupNode.get("gears"));
+				
+		return new GearGroupDTO(name, gear_profile, gears, creationLog);
+	}
+	
+	static List<GearDTO> createGears(ModelNode gearNode) {
+		if (gearNode.has(PROPERTY_DATA)) {
+			// loop inside 'data' node
+			return createGears(gearNode.get(PROPERTY_DATA));
+		}
+		final List<GearDTO> gears = new ArrayList<GearDTO>();
+		if (gearNode.getType() == ModelType.LIST) {
+			for (ModelNode childNode : gearNode.asList()) {
+				gears.add(createGear(childNode, null));
+			}
+		}
+		return gears;
+	}
+	
+	static GearDTO createGear(ModelNode gearNode, List<Message> creationLog) {
+		if (gearNode.has(PROPERTY_DATA)) {
+			// recurse into 'data' node
+			return createGear(gearNode.get(PROPERTY_DATA), creationLog);
+		}
+		
+		String uuid = getAsString(gearNode, "id");
+		String state = getAsString(gearNode, "state");
+				
+		return new GearDTO(uuid, state, creationLog);
+	}
+
+	/**
+	 * Creates a new ResourceDTO object.
+	 * 
+	 * @param rootNode
+	 *            the root node
+	 * @return the list< cartridge resource dt o>
+	 * @throws OpenShiftException
+	 */
+	static List<CartridgeResourceDTO> createCartridges(ModelNode rootNode) throws OpenShiftException {
+		final List<CartridgeResourceDTO> cartridges = new ArrayList<CartridgeResourceDTO>();
+		if (rootNode.has(PROPERTY_DATA)) {
+			for (ModelNode cartridgeNode : rootNode.get(PROPERTY_DATA).asList()) {
+				cartridges.add(createCartridge(cartridgeNode, null));
+			}
+		}
+		return cartridges;
+	}
+
+	/**
+	 * Creates a new ResourceDTO object.
+	 * 
+	 * @param cartridgeNode
+	 *            the cartridge node
+	 * @return the cartridge resource dto
+	 * @throws OpenShiftException
+	 */
+	static CartridgeResourceDTO createCartridge(ModelNode cartridgeNode, List<Message> creationLog)
+			throws OpenShiftException {
+		if (cartridgeNode.has(PROPERTY_DATA)) {
+			// recurse into 'data' node
+			return createCartridge(cartridgeNode.get(PROPERTY_DATA), creationLog);
+		}
+		
+		final String name = getAsString(cartridgeNode, PROPERTY_NAME);
+		final String type = getAsString(cartridgeNode, PROPERTY_TYPE);
+		final Map<String, Link> links = createLinks(cartridgeNode.get(PROPERTY_LINKS));
+		return new CartridgeResourceDTO(name, type, links, creationLog);
+	}
+
+	/**
+	 * Creates a new ResourceDTO object.
+	 * 
+	 * @param aliasNodeList
+	 *            the alias node list
+	 * @return the list< string>
+	 */
+	static List<String> createAliases(ModelNode aliasNodesList) {
+		final List<String> aliases = new ArrayList<String>();
+		switch (aliasNodesList.getType()) {
+		case OBJECT:
+		case LIST:
+			for (ModelNode aliasNode : aliasNodesList.asList()) {
+				aliases.add(aliasNode.asString());
+			}
+			break;
+		default:
+			aliases.add(aliasNodesList.asString());
+		}
+		return aliases;
+	}
+
+	/**
+	 * Creates a new DTO object.
+	 * 
+	 * @param linkParamNodes
+	 *            the link param nodes
+	 * @return the list< link param>
+	 * @throws OpenShiftRequestException
+	 */
+	static List<LinkParameter> createLinkParameters(ModelNode linkParamNodes)
+			throws OpenShiftRequestException {
+		List<LinkParameter> linkParams = new ArrayList<LinkParameter>();
+		if (linkParamNodes.isDefined()) {
+			for (ModelNode linkParamNode : linkParamNodes.asList()) {
+				linkParams.add(createLinkParameter(linkParamNode));
+			}
+		}
+		return linkParams;
+	}
+
+	/**
+	 * Creates a new link parameter for the given link parameter node.
+	 * 
+	 * @param linkParamNode
+	 *            the model node that contains the link parameters
+	 * @return the link parameter
+	 * @throws OpenShiftRequestException
+	 */
+	static LinkParameter createLinkParameter(ModelNode linkParamNode) throws OpenShiftRequestException {
+		final String description = linkParamNode.get(IOpenShiftJsonConstants.PROPERTY_DESCRIPTION).asString();
+		final String type = linkParamNode.get(IOpenShiftJsonConstants.PROPERTY_TYPE).asString();
+		final String defaultValue = linkParamNode.get(IOpenShiftJsonConstants.PROPERTY_DEFAULT_VALUE).asString();
+		final String name = linkParamNode.get(IOpenShiftJsonConstants.PROPERTY_NAME).asString();
+		return new LinkParameter(name, type, defaultValue, description, createValidOptions(linkParamNode));
+	}
+
+	/**
+	 * Gets the valid options.
+	 * 
+	 * @param linkParamNode
+	 *            the link param node
+	 * @return the valid options
+	 */
+	private static List<String> createValidOptions(ModelNode linkParamNode) {
+		final List<String> validOptions = new ArrayList<String>();
+		final ModelNode validOptionsNode = linkParamNode.get(PROPERTY_VALID_OPTIONS);
+		if (validOptionsNode.isDefined()) {
+			switch (validOptionsNode.getType()) {
+			case STRING: // if there's only one value, it is not serialized as a
+							// list, but just a string
+				validOptions.add(validOptionsNode.asString());
+				break;
+			case LIST:
+				for (ModelNode validOptionNode : validOptionsNode.asList()) {
+					validOptions.add(validOptionNode.asString());
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		return validOptions;
+	}
+
+	/**
+	 * Returns the property identified by the given name in the given model
+	 * node, or null if the named property is undefined.
+	 * 
+	 * @param node
+	 *            the model node
+	 * @param propertyName
+	 *            the name of the property
+	 * @return the property as a String
+	 */
+	private static String getAsString(final ModelNode node, String propertyName) {
+		final ModelNode propertyNode = node.get(propertyName);
+		return propertyNode.isDefined() ? propertyNode.asString() : null;
+	}
+	
+	/**
+	 * Returns the property identified by the given name in the given model node, or null if the named property is
+	 * undefined.
+	 * 
+	 * @param node
+	 *            the model node
+	 * @param propertyName
+	 *            the name of the property
+	 * @return the property as a String
+	 */
+	private static Boolean getAsBoolean(final ModelNode node, String propertyName) {
+		final ModelNode propertyNode = node.get(propertyName);
+		return propertyNode.isDefined() ? propertyNode.asBoolean() : Boolean.FALSE;
+	}
+	
+	/**
+	 * Returns the property identified by the given name in the given model node, or null if the named property is
+	 * undefined.
+	 * 
+	 * @param node
+	 *            the model node
+	 * @param propertyName
+	 *            the name of the property
+	 * @return the property as an Integer
+	 */
+	private static int getAsInteger(final ModelNode node, String propertyName) {
+		final ModelNode propertyNode = node.get(propertyName);
+		return propertyNode.isDefined() ? propertyNode.asInt() : 0;
+	}
+}
@@ -0,0 +1,52 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.response;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.openshift.client.OpenShiftException;
+
+/**
+ * Turns the json responses of the OpenShift REST service into dtos.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see ResourceDTOFactory
+ */
+public interface IResponseParser {
+
+	/**
+	 * Parses the given (non-empty) response.
+	 *
+	 * @param content
+	 *            the response
+	 * @return the dtos
+	 * @throws OpenShiftException
+	 *             if the content is no valid response
+	 */
+	public RestResponse parse(String content) throws OpenShiftException;
+
+	/**
+	 * Parses the (non-empty) response in the given stream.
+	 *
+	 * @param inputStream
+	 *            the stream to read the response from
+	 * @return the dtos
+	 * @throws IOException
+	 *             if the stream could not be read or its content is no
+	 *             valid json
+	 * @throws OpenShiftException
+	 *             if the content is no valid response
+	 */
+	public RestResponse parse(InputStream inputStream) throws IOException, OpenShiftException;
+
+}
@@ -0,0 +1,959 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.response;
+
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_ALIASES;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_APP_URL;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_CONSUMED_GEARS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_CONTENT;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_CREATION_TIME;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_DATA;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_DEFAULT_VALUE;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_DESCRIPTION;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_DOMAIN_ID;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_EMBEDDED;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_EXIT_CODE;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_FIELD;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_FRAMEWORK;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_GEAR_PROFILE;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_GIT_URL;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_HREF;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_ID;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_INFO;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_LINKS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_LOGIN;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_MAX_GEARS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_MESSAGES;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_METHOD;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_NAME;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_OPTIONAL_PARAMS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_REL;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_REQUIRED_PARAMS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_SCALABLE;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_SEVERITY;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_STATUS;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_SUFFIX;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_TEXT;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_TYPE;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_UUID;
+import static com.openshift.internal.client.utils.IOpenShiftJsonConstants.PROPERTY_VALID_OPTIONS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jboss.dmr.ModelNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.ApplicationScale;
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IGearProfile;
+import com.openshift.client.OpenShiftException;
+import com.openshift.internal.client.GearProfile;
+import com.openshift.internal.client.utils.JsonReader;
+import com.openshift.internal.client.utils.JsonReader.Token;
+
+/**
+ * A response parser that creates the dtos while it reads the json tokens. No
+ * intermediate tree is built for the response.
+ * <p>
+ * The parser maps the response structures that the OpenShift REST service
+ * sends. Values that have an unexpected structure (ex. a string where an
+ * object is expected) are handed to the {@link DmrResponseParser} so that
+ * both parsers create the very same dtos. Content that is no valid json is
+ * parsed by the {@link DmrResponseParser} too.
+ *
+ * @author Andre Dietisheim
+ */
+public class JsonResponseParser implements IResponseParser {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(JsonResponseParser.class);
+
+	private static final String UTF8 = "UTF-8";
+
+	/** the string value of undefined (missing or <code>null</code>) properties in the dmr parser */
+	private static final String UNDEFINED = new ModelNode().asString();
+
+	/** the number of link templates that are kept by the raw json of their link */
+	private static final int MAX_LINK_TEMPLATES = 512;
+
+	private final DmrResponseParser fallbackParser = new DmrResponseParser();
+
+	private final Map<String, LinkTemplate> linkTemplates =
+			new LinkedHashMap<String, LinkTemplate>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, LinkTemplate> eldest) {
+					return size() > MAX_LINK_TEMPLATES;
+				}
+			};
+
+	public RestResponse parse(String content) throws OpenShiftException {
+		try {
+			return createResponse(new JsonReader(new StringReader(content)));
+		} catch (IOException e) {
+			LOGGER.debug("Could not parse response, falling back to dmr: {}", e.getMessage());
+			return fallbackParser.parse(content);
+		}
+	}
+
+	public RestResponse parse(InputStream inputStream) throws IOException, OpenShiftException {
+		return createResponse(new JsonReader(new InputStreamReader(inputStream, UTF8)));
+	}
+
+	private RestResponse createResponse(JsonReader reader) throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createResponse(readModelNode(reader));
+		}
+		// raw json of all the properties but the data, they're tiny
+		final Map<String, String> properties = new LinkedHashMap<String, String>();
+		final List<Message> messages = new ArrayList<Message>();
+		String type = UNDEFINED;
+		String status = UNDEFINED;
+		EnumDataType dataType = null;
+		boolean hasData = false;
+		boolean hasType = false;
+		Object data = null;
+		String rawData = null;
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DATA.equals(name)) {
+				hasData = true;
+				if (!hasType) {
+					// data may only be mapped once its type is known
+					rawData = reader.nextRawValue();
+				} else if (dataType == null) {
+					reader.skipValue();
+				} else {
+					data = createData(dataType, reader, messages);
+				}
+			} else {
+				String rawValue = reader.nextRawValue();
+				properties.put(name, rawValue);
+				if (PROPERTY_TYPE.equals(name)) {
+					hasType = true;
+					type = asString(createReader(rawValue));
+					dataType = EnumDataType.safeValueOf(type);
+				} else if (PROPERTY_STATUS.equals(name)) {
+					status = asString(createReader(rawValue));
+				} else if (PROPERTY_MESSAGES.equals(name)) {
+					messages.clear();
+					messages.addAll(createMessages(createReader(rawValue)));
+				}
+			}
+		}
+		reader.endObject();
+		if (reader.peek() != Token.END_DOCUMENT) {
+			throw new JsonReader.MalformedJsonException("Unexpected content after the response");
+		}
+
+		// the response is after an error, only the messages are relevant
+		if (dataType == null) {
+			return new RestResponse(status, messages, null, null);
+		}
+		if (!hasData) {
+			// the dmr parser then looks for the dto properties in the root object
+			return DmrResponseParser.createResponse(ModelNode.fromJSONString(toJson(properties)));
+		}
+		if (rawData != null) {
+			data = createData(dataType, createReader(rawData), messages);
+		}
+		if (dataType == EnumDataType.embedded) {
+			return null;
+		}
+		return new RestResponse(status, messages, data, dataType);
+	}
+
+	private Object createData(EnumDataType dataType, JsonReader reader, List<Message> messages)
+			throws IOException, OpenShiftException {
+		switch (dataType) {
+		case user:
+			return createUser(reader);
+		case keys:
+			return createKeys(reader);
+		case key:
+			return createKey(reader, messages);
+		case links:
+			return createLinks(reader);
+		case domains:
+			return createDomains(reader);
+		case domain:
+			return createDomain(reader, messages);
+		case applications:
+			return createApplications(reader);
+		case application:
+			return createApplication(reader, messages);
+		case gears:
+			return createGears(reader);
+		case cartridges:
+			return createCartridges(reader);
+		case cartridge:
+			return createCartridge(reader, messages);
+		case gear_groups:
+			return createGearGroups(reader);
+		default:
+			reader.skipValue();
+			return null;
+		}
+	}
+
+	private List<Message> createMessages(JsonReader reader) throws IOException {
+		final List<Message> messages = new ArrayList<Message>();
+		if (reader.peek() != Token.BEGIN_ARRAY) {
+			reader.skipValue();
+			return messages;
+		}
+		reader.beginArray();
+		while (reader.hasNext()) {
+			messages.add(createMessage(reader));
+		}
+		reader.endArray();
+		return messages;
+	}
+
+	private Message createMessage(JsonReader reader) throws IOException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createMessage(readModelNode(reader));
+		}
+		String text = null;
+		String parameter = null;
+		int exitCode = -1;
+		String severity = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_TEXT.equals(name)) {
+				text = getAsString(reader);
+			} else if (PROPERTY_FIELD.equals(name)) {
+				parameter = getAsString(reader);
+			} else if (PROPERTY_EXIT_CODE.equals(name)) {
+				exitCode = getAsInteger(reader, -1);
+			} else if (PROPERTY_SEVERITY.equals(name)) {
+				severity = getAsString(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return new Message(text, parameter, severity, exitCode);
+	}
+
+	private UserResourceDTO createUser(JsonReader reader) throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createUser(readModelNode(reader));
+		}
+		UserResourceDTO data = null;
+		String rhlogin = null;
+		int maxGears = 0;
+		int consumedGears = 0;
+		Map<String, Link> links = new HashMap<String, Link>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DATA.equals(name)) {
+				data = createUser(reader);
+			} else if (PROPERTY_LOGIN.equals(name)) {
+				rhlogin = getAsString(reader);
+			} else if (PROPERTY_MAX_GEARS.equals(name)) {
+				maxGears = getAsInteger(reader, 0);
+			} else if (PROPERTY_CONSUMED_GEARS.equals(name)) {
+				consumedGears = getAsInteger(reader, 0);
+			} else if (PROPERTY_LINKS.equals(name)) {
+				links = createLinks(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (data != null) {
+			return data;
+		}
+		return new UserResourceDTO(rhlogin, maxGears, consumedGears, links);
+	}
+
+	private List<KeyResourceDTO> createKeys(JsonReader reader) throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_ARRAY) {
+			return DmrResponseParser.createKeys(createDataNode(readModelNode(reader)));
+		}
+		final List<KeyResourceDTO> keys = new ArrayList<KeyResourceDTO>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			if (reader.peek() == Token.BEGIN_OBJECT) {
+				keys.add(createKey(reader, null));
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endArray();
+		return keys;
+	}
+
+	private KeyResourceDTO createKey(JsonReader reader, List<Message> creationLog)
+			throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createKey(readModelNode(reader), creationLog);
+		}
+		KeyResourceDTO data = null;
+		String keyName = null;
+		String type = null;
+		String content = null;
+		Map<String, Link> links = new HashMap<String, Link>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DATA.equals(name)) {
+				data = createKey(reader, creationLog);
+			} else if (PROPERTY_NAME.equals(name)) {
+				keyName = getAsString(reader);
+			} else if (PROPERTY_TYPE.equals(name)) {
+				type = getAsString(reader);
+			} else if (PROPERTY_CONTENT.equals(name)) {
+				content = getAsString(reader);
+			} else if (PROPERTY_LINKS.equals(name)) {
+				links = createLinks(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (data != null) {
+			return data;
+		}
+		return new KeyResourceDTO(keyName, type, content, links, creationLog);
+	}
+
+	private Map<String, Link> createLinks(JsonReader reader) throws IOException, OpenShiftException {
+		switch (reader.peek()) {
+		case NULL:
+			reader.nextNull();
+			return new HashMap<String, Link>();
+		case BEGIN_OBJECT:
+			break;
+		default:
+			return DmrResponseParser.createLinks(readModelNode(reader));
+		}
+		Map<String, Link> data = null;
+		final Map<String, Link> links = new HashMap<String, Link>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DATA.equals(name)) {
+				data = createLinks(reader);
+			} else {
+				switch (reader.peek()) {
+				case NULL:
+					reader.nextNull();
+					break;
+				case BEGIN_OBJECT:
+					links.put(name, createLink(reader));
+					break;
+				default:
+					ModelNode linksNode = new ModelNode();
+					linksNode.get(name).set(readModelNode(reader));
+					links.putAll(DmrResponseParser.createLinks(linksNode));
+				}
+			}
+		}
+		reader.endObject();
+		if (data != null) {
+			return data;
+		}
+		return links;
+	}
+
+	/**
+	 * Creates the link that the reader is positioned at. The parameters are
+	 * kept as raw json until the template for them is looked up, they are
+	 * only parsed if no link of the same kind was parsed before.
+	 */
+	private Link createLink(JsonReader reader) throws IOException, OpenShiftException {
+		String rel = UNDEFINED;
+		String href = UNDEFINED;
+		String method = UNDEFINED;
+		String rawRequiredParams = null;
+		String rawOptionalParams = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_REL.equals(name)) {
+				rel = asString(reader);
+			} else if (PROPERTY_HREF.equals(name)) {
+				href = asString(reader);
+			} else if (PROPERTY_METHOD.equals(name)) {
+				method = asString(reader);
+			} else if (PROPERTY_REQUIRED_PARAMS.equals(name)) {
+				rawRequiredParams = reader.nextRawValue();
+			} else if (PROPERTY_OPTIONAL_PARAMS.equals(name)) {
+				rawOptionalParams = reader.nextRawValue();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return new Link(href, getLinkTemplate(rel, method, rawRequiredParams, rawOptionalParams));
+	}
+
+	/**
+	 * Returns the template for the given rel, method and raw parameters. The
+	 * templates of the latest links are kept by their raw json so that the
+	 * parameters of the links of a kind are only parsed once.
+	 */
+	private LinkTemplate getLinkTemplate(String rel, String method, String rawRequiredParams,
+			String rawOptionalParams) throws IOException, OpenShiftException {
+		String key = new StringBuilder(rel)
+				.append('\n').append(method)
+				.append('\n').append(rawRequiredParams)
+				.append('\n').append(rawOptionalParams)
+				.toString();
+		synchronized (linkTemplates) {
+			LinkTemplate template = linkTemplates.get(key);
+			if (template != null) {
+				return template;
+			}
+		}
+		LinkTemplate template = LinkTemplate.get(rel, HttpMethod.valueOf(method),
+				createLinkParameters(rawRequiredParams), createLinkParameters(rawOptionalParams));
+		synchronized (linkTemplates) {
+			linkTemplates.put(key, template);
+		}
+		return template;
+	}
+
+	private List<LinkParameter> createLinkParameters(String rawLinkParameters)
+			throws IOException, OpenShiftException {
+		if (rawLinkParameters == null) {
+			return new ArrayList<LinkParameter>();
+		}
+		return createLinkParameters(createReader(rawLinkParameters));
+	}
+
+	private List<LinkParameter> createLinkParameters(JsonReader reader) throws IOException, OpenShiftException {
+		switch (reader.peek()) {
+		case NULL:
+			reader.nextNull();
+			return new ArrayList<LinkParameter>();
+		case BEGIN_ARRAY:
+			break;
+		default:
+			return DmrResponseParser.createLinkParameters(readModelNode(reader));
+		}
+		final List<LinkParameter> linkParameters = new ArrayList<LinkParameter>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			linkParameters.add(createLinkParameter(reader));
+		}
+		reader.endArray();
+		return linkParameters;
+	}
+
+	private LinkParameter createLinkParameter(JsonReader reader) throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createLinkParameter(readModelNode(reader));
+		}
+		String description = UNDEFINED;
+		String type = UNDEFINED;
+		String defaultValue = UNDEFINED;
+		String parameterName = UNDEFINED;
+		List<String> validOptions = new ArrayList<String>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DESCRIPTION.equals(name)) {
+				description = asString(reader);
+			} else if (PROPERTY_TYPE.equals(name)) {
+				type = asString(reader);
+			} else if (PROPERTY_DEFAULT_VALUE.equals(name)) {
+				defaultValue = asString(reader);
+			} else if (PROPERTY_NAME.equals(name)) {
+				parameterName = asString(reader);
+			} else if (PROPERTY_VALID_OPTIONS.equals(name)) {
+				validOptions = createValidOptions(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return new LinkParameter(parameterName, type, defaultValue, description, validOptions);
+	}
+
+	private List<String> createValidOptions(JsonReader reader) throws IOException {
+		final List<String> validOptions = new ArrayList<String>();
+		switch (reader.peek()) {
+		case STRING:
+			// if there's only one value, it is not serialized as a list, but
+			// just a string
+			validOptions.add(reader.nextString());
+			break;
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			while (reader.hasNext()) {
+				validOptions.add(asString(reader));
+			}
+			reader.endArray();
+			break;
+		default:
+			reader.skipValue();
+		}
+		return validOptions;
+	}
+
+	private List<DomainResourceDTO> createDomains(JsonReader reader) throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_ARRAY) {
+			return DmrResponseParser.createDomains(createDataNode(readModelNode(reader)));
+		}
+		final List<DomainResourceDTO> domains = new ArrayList<DomainResourceDTO>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			if (reader.peek() == Token.BEGIN_OBJECT) {
+				domains.add(createDomain(reader, null));
+			} else {
+				throw new OpenShiftException("Unexpected node type: {0}", readModelNode(reader).getType());
+			}
+		}
+		reader.endArray();
+		return domains;
+	}
+
+	private DomainResourceDTO createDomain(JsonReader reader, List<Message> creationLog)
+			throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createDomain(readModelNode(reader), creationLog);
+		}
+		DomainResourceDTO data = null;
+		String namespace = null;
+		String suffix = null;
+		Map<String, Link> links = new HashMap<String, Link>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DATA.equals(name)) {
+				data = createDomain(reader, creationLog);
+			} else if (PROPERTY_ID.equals(name)) {
+				namespace = getAsString(reader);
+			} else if (PROPERTY_SUFFIX.equals(name)) {
+				suffix = getAsString(reader);
+			} else if (PROPERTY_LINKS.equals(name)) {
+				links = createLinks(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (data != null) {
+			return data;
+		}
+		return new DomainResourceDTO(namespace, suffix, links, creationLog);
+	}
+
+	private List<ApplicationResourceDTO> createApplications(JsonReader reader)
+			throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_ARRAY) {
+			return DmrResponseParser.createApplications(createDataNode(readModelNode(reader)));
+		}
+		final List<ApplicationResourceDTO> applications = new ArrayList<ApplicationResourceDTO>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			applications.add(createApplication(reader, null));
+		}
+		reader.endArray();
+		return applications;
+	}
+
+	private ApplicationResourceDTO createApplication(JsonReader reader, List<Message> creationLog)
+			throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createApplication(readModelNode(reader), creationLog);
+		}
+		ApplicationResourceDTO data = null;
+		String framework = null;
+		String creationTime = null;
+		String applicationName = null;
+		String uuid = null;
+		ApplicationScale scalable = ApplicationScale.safeValueOf(null);
+		IGearProfile gearProfile = null;
+		String applicationUrl = null;
+		String gitUrl = null;
+		String domainId = null;
+		Map<String, Link> links = new HashMap<String, Link>();
+		List<String> aliases = null;
+		Map<String, String> embeddedCartridgesInfos = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DATA.equals(name)) {
+				data = createApplication(reader, creationLog);
+			} else if (PROPERTY_FRAMEWORK.equals(name)) {
+				framework = getAsString(reader);
+			} else if (PROPERTY_CREATION_TIME.equals(name)) {
+				creationTime = getAsString(reader);
+			} else if (PROPERTY_NAME.equals(name)) {
+				applicationName = getAsString(reader);
+			} else if (PROPERTY_UUID.equals(name)) {
+				uuid = getAsString(reader);
+			} else if (PROPERTY_SCALABLE.equals(name)) {
+				scalable = ApplicationScale.safeValueOf(getAsString(reader));
+			} else if (PROPERTY_GEAR_PROFILE.equals(name)) {
+				gearProfile = createGearProfile(getAsString(reader));
+			} else if (PROPERTY_APP_URL.equals(name)) {
+				applicationUrl = getAsString(reader);
+			} else if (PROPERTY_GIT_URL.equals(name)) {
+				gitUrl = getAsString(reader);
+			} else if (PROPERTY_DOMAIN_ID.equals(name)) {
+				domainId = getAsString(reader);
+			} else if (PROPERTY_LINKS.equals(name)) {
+				links = createLinks(reader);
+			} else if (PROPERTY_ALIASES.equals(name)) {
+				aliases = createAliases(reader);
+			} else if (PROPERTY_EMBEDDED.equals(name)) {
+				embeddedCartridgesInfos = createEmbeddedCartridgesInfos(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (data != null) {
+			return data;
+		}
+		if (aliases == null) {
+			aliases = DmrResponseParser.createAliases(new ModelNode());
+		}
+		if (embeddedCartridgesInfos == null) {
+			embeddedCartridgesInfos = DmrResponseParser.createEmbeddedCartridgesInfos(new ModelNode());
+		}
+		return new ApplicationResourceDTO(
+				framework,
+				domainId,
+				creationTime,
+				applicationName,
+				gearProfile,
+				scalable,
+				uuid,
+				applicationUrl,
+				gitUrl,
+				aliases,
+				embeddedCartridgesInfos,
+				links,
+				creationLog);
+	}
+
+	private GearProfile createGearProfile(String gearProfileName) {
+		if (gearProfileName == null) {
+			return null;
+		}
+		return new GearProfile(gearProfileName);
+	}
+
+	private List<String> createAliases(JsonReader reader) throws IOException {
+		if (reader.peek() != Token.BEGIN_ARRAY) {
+			return DmrResponseParser.createAliases(readModelNode(reader));
+		}
+		final List<String> aliases = new ArrayList<String>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			aliases.add(asString(reader));
+		}
+		reader.endArray();
+		return aliases;
+	}
+
+	private Map<String, String> createEmbeddedCartridgesInfos(JsonReader reader) throws IOException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createEmbeddedCartridgesInfos(readModelNode(reader));
+		}
+		final Map<String, String> infos = new HashMap<String, String>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String cartridgeName = reader.nextName();
+			String info = getEmbeddedCartridgeInfo(reader);
+			if (info != null) {
+				infos.put(cartridgeName, info);
+			}
+		}
+		reader.endObject();
+		return infos;
+	}
+
+	private String getEmbeddedCartridgeInfo(JsonReader reader) throws IOException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.getEmbeddedCartridgeInfo(readModelNode(reader));
+		}
+		String info = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if (PROPERTY_INFO.equals(reader.nextName())) {
+				info = getAsString(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return info;
+	}
+
+	private List<GearGroupDTO> createGearGroups(JsonReader reader) throws IOException {
+		final List<GearGroupDTO> gearGroups = new ArrayList<GearGroupDTO>();
+		switch (reader.peek()) {
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			while (reader.hasNext()) {
+				gearGroups.add(createGearGroup(reader, null));
+			}
+			reader.endArray();
+			return gearGroups;
+		case BEGIN_OBJECT:
+			List<GearGroupDTO> data = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (PROPERTY_DATA.equals(reader.nextName())) {
+					data = createGearGroups(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			return data != null ? data : gearGroups;
+		default:
+			return DmrResponseParser.createGearGroups(readModelNode(reader));
+		}
+	}
+
+	private GearGroupDTO createGearGroup(JsonReader reader, List<Message> creationLog) throws IOException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createGearGroup(readModelNode(reader), creationLog);
+		}
+		GearGroupDTO data = null;
+		String groupName = null;
+		String gearProfile = null;
+		List<GearDTO> gears = new ArrayList<GearDTO>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DATA.equals(name)) {
+				data = createGearGroup(reader, creationLog);
+			} else if (PROPERTY_NAME.equals(name)) {
+				groupName = getAsString(reader);
+			} else if (PROPERTY_GEAR_PROFILE.equals(name)) {
+				gearProfile = getAsString(reader);
+			} else if ("gears".equals(name)) {
+				gears = createGears(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (data != null) {
+			return data;
+		}
+		return new GearGroupDTO(groupName, gearProfile, gears, creationLog);
+	}
+
+	private List<GearDTO> createGears(JsonReader reader) throws IOException {
+		final List<GearDTO> gears = new ArrayList<GearDTO>();
+		switch (reader.peek()) {
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			while (reader.hasNext()) {
+				gears.add(createGear(reader, null));
+			}
+			reader.endArray();
+			return gears;
+		case BEGIN_OBJECT:
+			List<GearDTO> data = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (PROPERTY_DATA.equals(reader.nextName())) {
+					data = createGears(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			return data != null ? data : gears;
+		default:
+			return DmrResponseParser.createGears(readModelNode(reader));
+		}
+	}
+
+	private GearDTO createGear(JsonReader reader, List<Message> creationLog) throws IOException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createGear(readModelNode(reader), creationLog);
+		}
+		GearDTO data = null;
+		String uuid = null;
+		String state = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DATA.equals(name)) {
+				data = createGear(reader, creationLog);
+			} else if (PROPERTY_ID.equals(name)) {
+				uuid = getAsString(reader);
+			} else if ("state".equals(name)) {
+				state = getAsString(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (data != null) {
+			return data;
+		}
+		return new GearDTO(uuid, state, creationLog);
+	}
+
+	private List<CartridgeResourceDTO> createCartridges(JsonReader reader) throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_ARRAY) {
+			return DmrResponseParser.createCartridges(createDataNode(readModelNode(reader)));
+		}
+		final List<CartridgeResourceDTO> cartridges = new ArrayList<CartridgeResourceDTO>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			cartridges.add(createCartridge(reader, null));
+		}
+		reader.endArray();
+		return cartridges;
+	}
+
+	private CartridgeResourceDTO createCartridge(JsonReader reader, List<Message> creationLog)
+			throws IOException, OpenShiftException {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			return DmrResponseParser.createCartridge(readModelNode(reader), creationLog);
+		}
+		CartridgeResourceDTO data = null;
+		String cartridgeName = null;
+		String type = null;
+		Map<String, Link> links = new HashMap<String, Link>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (PROPERTY_DATA.equals(name)) {
+				data = createCartridge(reader, creationLog);
+			} else if (PROPERTY_NAME.equals(name)) {
+				cartridgeName = getAsString(reader);
+			} else if (PROPERTY_TYPE.equals(name)) {
+				type = getAsString(reader);
+			} else if (PROPERTY_LINKS.equals(name)) {
+				links = createLinks(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (data != null) {
+			return data;
+		}
+		return new CartridgeResourceDTO(cartridgeName, type, links, creationLog);
+	}
+
+	/**
+	 * Returns the next value as string, the same way {@link ModelNode#asString()} does.
+	 */
+	private String asString(JsonReader reader) throws IOException {
+		switch (reader.peek()) {
+		case STRING:
+		case BOOLEAN:
+			return reader.nextString();
+		case NUMBER:
+			return toNumber(reader.nextString());
+		case NULL:
+			reader.nextNull();
+			return UNDEFINED;
+		default:
+			return readModelNode(reader).asString();
+		}
+	}
+
+	/**
+	 * Returns the next value as string or <code>null</code> if it is
+	 * <code>null</code>.
+	 */
+	private String getAsString(JsonReader reader) throws IOException {
+		if (reader.peek() == Token.NULL) {
+			reader.nextNull();
+			return null;
+		}
+		return asString(reader);
+	}
+
+	/**
+	 * Returns the next value as integer or the given default value if it is
+	 * <code>null</code>.
+	 */
+	private int getAsInteger(JsonReader reader, int defaultValue) throws IOException {
+		switch (reader.peek()) {
+		case NULL:
+			reader.nextNull();
+			return defaultValue;
+		case NUMBER:
+			return new BigDecimal(reader.nextString()).intValue();
+		default:
+			return readModelNode(reader).asInt();
+		}
+	}
+
+	/**
+	 * Returns the given number literal the way dmr prints it. Dmr parses
+	 * integers to {@link java.math.BigInteger} and decimals to
+	 * {@link BigDecimal}.
+	 */
+	private String toNumber(String literal) {
+		BigDecimal number = new BigDecimal(literal);
+		if (literal.indexOf('.') == -1) {
+			return number.toBigInteger().toString();
+		}
+		return number.toString();
+	}
+
+	/**
+	 * Reads the next value into a dmr model node, the dmr parser is then used
+	 * to map it.
+	 */
+	private ModelNode readModelNode(JsonReader reader) throws IOException {
+		return ModelNode.fromJSONString("{\"value\":" + reader.nextRawValue() + "}").get("value");
+	}
+
+	private ModelNode createDataNode(ModelNode dataNode) {
+		ModelNode node = new ModelNode();
+		node.get(PROPERTY_DATA).set(dataNode);
+		return node;
+	}
+
+	private JsonReader createReader(String json) {
+		return new JsonReader(new StringReader(json));
+	}
+
+	private String toJson(Map<String, String> properties) {
+		StringBuilder builder = new StringBuilder("{");
+		for (Entry<String, String> entry : properties.entrySet()) {
+			if (builder.length() > 1) {
+				builder.append(',');
+			}
+			builder.append('"')
+					.append(entry.getKey().replace("\\", "\\\\").replace("\"", "\\\""))
+					.append("\":")
+					.append(entry.getValue());
+		}
+		return builder.append('}').toString();
+	}
+}
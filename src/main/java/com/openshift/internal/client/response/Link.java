@@ -15,26 +15,20 @@ import java.util.List;
 import com.openshift.client.HttpMethod;
 
 /**
- * The Class Link.
+ * The Class Link. The rel, the http method and the parameters are held in a
+ * {@link LinkTemplate} that is shared with the equal links of other resources,
+ * only the href is specific to this link.
  * 
  * @author Xavier Coulon
+ * @author Andre Dietisheim
  */
 public class Link {
 
-	/** The related resource (destination) this link points to */
-	private final String rel;
-
 	/** The url/href this link point to. */
 	private final String href;
 
-	/** The http method that this link operates on. */
-	private final HttpMethod httpMethod;
-
-	/** The required params of this link. */
-	private final List<LinkParameter> requiredParams;
-
-	/** The optional params of this link. */
-	private final List<LinkParameter> optionalParams;
+	/** The rel, http method and params that this link shares with other links. */
+	private final LinkTemplate template;
 
 	public Link(final String rel, final String href, final HttpMethod httpMethod) {
 		this(rel, href, httpMethod, null, null);
@@ -61,11 +55,16 @@ public class Link {
 	 */
 	public Link(final String rel, final String href, final HttpMethod httpMethod,
 			final List<LinkParameter> requiredParams, final List<LinkParameter> optionalParams) {
-		this.rel = rel;
+		this(href, LinkTemplate.get(rel, httpMethod, requiredParams, optionalParams));
+	}
+
+	/**
+	 * Creates a link for the given href that shares the given template with
+	 * the other links of its kind.
+	 */
+	Link(final String href, final LinkTemplate template) {
 		this.href = href;
-		this.httpMethod = httpMethod;
-		this.requiredParams = requiredParams;
-		this.optionalParams = optionalParams;
+		this.template = template;
 	}
 
 	/**
@@ -74,7 +73,7 @@ public class Link {
 	 * @return the rel
 	 */
 	public final String getRel() {
-		return rel;
+		return template.getRel();
 	}
 
 	/**
@@ -92,31 +91,31 @@ public class Link {
 	 * @return the httpMethod
 	 */
 	public final HttpMethod getHttpMethod() {
-		return httpMethod;
+		return template.getHttpMethod();
 	}
 
 	/**
-	 * Gets the required params.
+	 * Gets the required params. The list is shared and cannot be modified.
 	 * 
 	 * @return the requiredParams
 	 */
 	public final List<LinkParameter> getRequiredParams() {
-		return requiredParams;
+		return template.getRequiredParams();
 	}
 
 	/**
-	 * Gets the optional params.
+	 * Gets the optional params. The list is shared and cannot be modified.
 	 * 
 	 * @return the optionalParams
 	 */
 	public final List<LinkParameter> getOptionalParams() {
-		return optionalParams;
+		return template.getOptionalParams();
 	}
 
 	public String toString() {
 		return "Link [" +
-				"rel=" + rel + ", "
-				+ "httpMethod=" + httpMethod + ", "
+				"rel=" + getRel() + ", "
+				+ "httpMethod=" + getHttpMethod() + ", "
 				+ "href=" + href
 				+ "]";
 	}
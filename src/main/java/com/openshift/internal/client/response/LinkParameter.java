@@ -10,6 +10,8 @@
  ******************************************************************************/
 package com.openshift.internal.client.response;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.openshift.client.OpenShiftRequestException;
@@ -38,7 +40,14 @@ public class LinkParameter {
 		this.type = type;
 		this.description = description;
 		this.defaultValue = defaultValue;
-		this.validOptions = validOptions;
+		this.validOptions = toUnmodifiableList(validOptions);
+	}
+
+	private static List<String> toUnmodifiableList(List<String> list) {
+		if (list == null) {
+			return null;
+		}
+		return Collections.unmodifiableList(new ArrayList<String>(list));
 	}
 
 	/**
@@ -72,4 +81,50 @@ public class LinkParameter {
 	public List<String> getValidOptions() {
 		return validOptions;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + ((type == null) ? 0 : type.hashCode());
+		result = prime * result + ((description == null) ? 0 : description.hashCode());
+		result = prime * result + ((defaultValue == null) ? 0 : defaultValue.hashCode());
+		result = prime * result + ((validOptions == null) ? 0 : validOptions.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		LinkParameter other = (LinkParameter) obj;
+		if (name == null) {
+			if (other.name != null)
+				return false;
+		} else if (!name.equals(other.name))
+			return false;
+		if (type != other.type)
+			return false;
+		if (description == null) {
+			if (other.description != null)
+				return false;
+		} else if (!description.equals(other.description))
+			return false;
+		if (defaultValue == null) {
+			if (other.defaultValue != null)
+				return false;
+		} else if (!defaultValue.equals(other.defaultValue))
+			return false;
+		if (validOptions == null) {
+			if (other.validOptions != null)
+				return false;
+		} else if (!validOptions.equals(other.validOptions))
+			return false;
+		return true;
+	}
+}
@@ -0,0 +1,142 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.response;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.openshift.client.HttpMethod;
+
+/**
+ * The parts of a link that are the same for all the resources of a kind: the
+ * rel, the http method and the parameters. Resources only differ in the href
+ * of their links.
+ * <p>
+ * Templates are immutable and interned, equal templates are shared among all
+ * links. A template is kept as long as a link refers to it.
+ *
+ * @author Andre Dietisheim
+ *
+ * @see Link
+ */
+class LinkTemplate {
+
+	private static final Map<LinkTemplate, WeakReference<LinkTemplate>> templates =
+			new WeakHashMap<LinkTemplate, WeakReference<LinkTemplate>>();
+
+	private final String rel;
+	private final HttpMethod httpMethod;
+	private final List<LinkParameter> requiredParams;
+	private final List<LinkParameter> optionalParams;
+	private final int hashCode;
+
+	private LinkTemplate(final String rel, final HttpMethod httpMethod,
+			final List<LinkParameter> requiredParams, final List<LinkParameter> optionalParams) {
+		this.rel = rel;
+		this.httpMethod = httpMethod;
+		this.requiredParams = toUnmodifiableList(requiredParams);
+		this.optionalParams = toUnmodifiableList(optionalParams);
+		this.hashCode = createHashCode();
+	}
+
+	/**
+	 * Returns the shared template for the given rel, method and parameters.
+	 */
+	static LinkTemplate get(final String rel, final HttpMethod httpMethod,
+			final List<LinkParameter> requiredParams, final List<LinkParameter> optionalParams) {
+		LinkTemplate template = new LinkTemplate(rel, httpMethod, requiredParams, optionalParams);
+		synchronized (templates) {
+			WeakReference<LinkTemplate> reference = templates.get(template);
+			LinkTemplate shared = null;
+			if (reference != null
+					&& (shared = reference.get()) != null) {
+				return shared;
+			}
+			templates.put(template, new WeakReference<LinkTemplate>(template));
+			return template;
+		}
+	}
+
+	private static <T> List<T> toUnmodifiableList(List<T> list) {
+		if (list == null) {
+			return null;
+		} else if (list.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(new ArrayList<T>(list));
+	}
+
+	String getRel() {
+		return rel;
+	}
+
+	HttpMethod getHttpMethod() {
+		return httpMethod;
+	}
+
+	List<LinkParameter> getRequiredParams() {
+		return requiredParams;
+	}
+
+	List<LinkParameter> getOptionalParams() {
+		return optionalParams;
+	}
+
+	private int createHashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((rel == null) ? 0 : rel.hashCode());
+		result = prime * result + ((httpMethod == null) ? 0 : httpMethod.hashCode());
+		result = prime * result + ((requiredParams == null) ? 0 : requiredParams.hashCode());
+		result = prime * result + ((optionalParams == null) ? 0 : optionalParams.hashCode());
+		return result;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		LinkTemplate other = (LinkTemplate) obj;
+		if (hashCode != other.hashCode)
+			return false;
+		if (rel == null) {
+			if (other.rel != null)
+				return false;
+		} else if (!rel.equals(other.rel))
+			return false;
+		if (httpMethod != other.httpMethod)
+			return false;
+		if (requiredParams == null) {
+			if (other.requiredParams != null)
+				return false;
+		} else if (!requiredParams.equals(other.requiredParams))
+			return false;
+		if (optionalParams == null) {
+			if (other.optionalParams != null)
+				return false;
+		} else if (!optionalParams.equals(other.optionalParams))
+			return false;
+		return true;
+	}
+}
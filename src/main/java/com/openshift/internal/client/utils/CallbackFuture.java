@@ -0,0 +1,88 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.openshift.client.IResponseCallback;
+
+/**
+ * A future that is completed from the outside and notifies an (optional)
+ * callback once it's done.
+ *
+ * @author Andre Dietisheim
+ */
+public class CallbackFuture<V> extends FutureTask<V> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CallbackFuture.class);
+
+	private final IResponseCallback<V> callback;
+
+	public CallbackFuture() {
+		this(null);
+	}
+
+	/**
+	 * @param callback
+	 *            the callback to notify once this future is done. May be
+	 *            <code>null</code>.
+	 */
+	public CallbackFuture(IResponseCallback<V> callback) {
+		super(new Callable<V>() {
+
+			public V call() throws Exception {
+				throw new IllegalStateException("A callback future is completed from the outside, it cannot be run.");
+			}
+		});
+		this.callback = callback;
+	}
+
+	public void complete(V value) {
+		set(value);
+	}
+
+	public void fail(Throwable cause) {
+		setException(cause);
+	}
+
+	@Override
+	protected void done() {
+		if (callback == null) {
+			return;
+		}
+		try {
+			callback.completed(get());
+		} catch (ExecutionException e) {
+			notifyFailed(e.getCause());
+		} catch (CancellationException e) {
+			notifyFailed(e);
+		} catch (InterruptedException e) {
+			// cannot happen, the future is done
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			LOGGER.error("Callback failed to process the response", e);
+		}
+	}
+
+	private void notifyFailed(Throwable cause) {
+		try {
+			callback.failed(cause);
+		} catch (RuntimeException e) {
+			LOGGER.error("Callback failed to process the failure", e);
+		}
+	}
+}
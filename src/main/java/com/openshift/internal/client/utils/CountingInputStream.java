@@ -0,0 +1,77 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that counts the bytes that were read from it.
+ *
+ * @author Andre Dietisheim
+ */
+public class CountingInputStream extends FilterInputStream {
+
+	private long count = 0;
+	private long mark = -1;
+
+	public CountingInputStream(InputStream in) {
+		super(in);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int read = in.read();
+		if (read != -1) {
+			count++;
+		}
+		return read;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int read = in.read(b, off, len);
+		if (read != -1) {
+			count += read;
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = in.skip(n);
+		count += skipped;
+		return skipped;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		in.mark(readlimit);
+		this.mark = count;
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		if (!in.markSupported()) {
+			throw new IOException("Mark not supported");
+		}
+		if (mark == -1) {
+			throw new IOException("Mark not set");
+		}
+		in.reset();
+		this.count = mark;
+	}
+}
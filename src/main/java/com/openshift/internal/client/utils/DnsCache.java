@@ -0,0 +1,193 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.openshift.client.IDnsCacheStatistics;
+
+/**
+ * Caches the addresses that host names resolve to. Hosts that resolve are
+ * kept for {@link #getPositiveTtl()}, hosts that do not resolve for
+ * {@link #getNegativeTtl()}. The negative ttl is short, hosts of new
+ * applications only resolve once the OpenShift dns was updated.
+ * <p>
+ * Lookups of the same host are not coalesced, concurrent misses may resolve a
+ * host more than once.
+ *
+ * @author Andre Dietisheim
+ */
+public class DnsCache {
+
+	public static final long DEFAULT_POSITIVE_TTL = 60 * 1000;
+	public static final long DEFAULT_NEGATIVE_TTL = 1000;
+	public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final long positiveTtl;
+	private final long negativeTtl;
+	private final int maxEntries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public DnsCache() {
+		this(DEFAULT_POSITIVE_TTL, DEFAULT_NEGATIVE_TTL, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param positiveTtl
+	 *            the time (in milliseconds) to keep hosts that resolved
+	 * @param negativeTtl
+	 *            the time (in milliseconds) to keep hosts that did not
+	 *            resolve
+	 * @param maxEntries
+	 *            the maximum number of hosts to keep
+	 */
+	public DnsCache(long positiveTtl, long negativeTtl, int maxEntries) {
+		this.positiveTtl = positiveTtl;
+		this.negativeTtl = negativeTtl;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Returns the address of the given host or <code>null</code> if it does
+	 * not resolve. Resolves the host if it's not cached or its entry expired.
+	 *
+	 * @param host
+	 *            the host to resolve
+	 * @return the address or <code>null</code>
+	 */
+	public InetAddress resolve(String host) {
+		long now = System.currentTimeMillis();
+		Entry entry = entries.get(host);
+		if (entry != null
+				&& !entry.isExpired(now)) {
+			hits.incrementAndGet();
+			return entry.address;
+		}
+		misses.incrementAndGet();
+		InetAddress address = lookup(host);
+		put(host, new Entry(address, now + (address != null ? positiveTtl : negativeTtl)), now);
+		return address;
+	}
+
+	protected InetAddress lookup(String host) {
+		try {
+			return InetAddress.getByName(host);
+		} catch (UnknownHostException e) {
+			return null;
+		}
+	}
+
+	private void put(String host, Entry entry, long now) {
+		if (entries.size() >= maxEntries) {
+			evict(now);
+		}
+		entries.put(host, entry);
+	}
+
+	/**
+	 * Removes the expired entries. Removes arbitrary entries if there are
+	 * still too many.
+	 */
+	private void evict(long now) {
+		for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+			if (it.next().isExpired(now)) {
+				it.remove();
+			}
+		}
+		for (Iterator<Entry> it = entries.values().iterator(); it.hasNext()
+				&& entries.size() >= maxEntries;) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Removes the given host so that it gets resolved on the next request.
+	 */
+	public void invalidate(String host) {
+		entries.remove(host);
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	public long getPositiveTtl() {
+		return positiveTtl;
+	}
+
+	public long getNegativeTtl() {
+		return negativeTtl;
+	}
+
+	public Statistics getStatistics() {
+		return new Statistics(entries.size(), hits.get(), misses.get());
+	}
+
+	private static class Entry {
+
+		private final InetAddress address;
+		private final long expires;
+
+		private Entry(InetAddress address, long expires) {
+			this.address = address;
+			this.expires = expires;
+		}
+
+		private boolean isExpired(long now) {
+			return now >= expires;
+		}
+	}
+
+	/**
+	 * A snapshot of the size and the counters of a dns cache.
+	 */
+	public static class Statistics implements IDnsCacheStatistics {
+
+		private final int size;
+		private final long hits;
+		private final long misses;
+
+		Statistics(int size, long hits, long misses) {
+			this.size = size;
+			this.hits = hits;
+			this.misses = misses;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics ["
+					+ "size=" + size
+					+ ", hits=" + hits
+					+ ", misses=" + misses
+					+ "]";
+		}
+	}
+}
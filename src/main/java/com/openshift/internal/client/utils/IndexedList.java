@@ -0,0 +1,261 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A list that keeps hash indexes of its values so that they can be looked up
+ * by key without scanning the list. The indexes are kept up to date when
+ * values are added or removed, {@link #reindex()} has to be called if the key
+ * of a value changed (ex. a domain was renamed).
+ * <p>
+ * Readers get immutable snapshots: {@link #asList()} and
+ * {@link Index#getAll(String)} return lists that are shared by all readers
+ * and never copied nor locked once they exist. Writes are serialized and
+ * only invalidate the snapshots, a snapshot is taken by the first reader
+ * that comes after a write. Adding values one by one thus doesn't copy the
+ * list for each of them.
+ *
+ * <pre>
+ * IndexedList&lt;IApplication&gt; applications = new IndexedList&lt;IApplication&gt;();
+ * Index&lt;IApplication&gt; byName = applications.addIndex(new Index&lt;IApplication&gt;() {
+ *
+ * 	protected String getKey(IApplication application) {
+ * 		return application.getName();
+ * 	}
+ * });
+ * </pre>
+ *
+ * @author Andre Dietisheim
+ */
+public class IndexedList<V> {
+
+	private final SnapshotList<V> values = new SnapshotList<V>();
+	private final List<Index<V>> indexes = new CopyOnWriteArrayList<Index<V>>();
+
+	/**
+	 * Adds the given index and indexes the values that are in the list.
+	 *
+	 * @return the index that was added
+	 */
+	public synchronized <I extends Index<V>> I addIndex(I index) {
+		index.addAll(values.asList());
+		indexes.add(index);
+		return index;
+	}
+
+	public void add(V value) {
+		addAll(Collections.singletonList(value));
+	}
+
+	public synchronized void addAll(Collection<V> values) {
+		this.values.addAll(values);
+		for (Index<V> index : indexes) {
+			index.addAll(values);
+		}
+	}
+
+	public synchronized boolean remove(V value) {
+		if (!values.remove(value)) {
+			return false;
+		}
+		for (Index<V> index : indexes) {
+			index.remove(value);
+		}
+		return true;
+	}
+
+	/**
+	 * Rebuilds the indexes. Has to be called once the key of a value changed.
+	 */
+	public synchronized void reindex() {
+		List<V> values = this.values.asList();
+		for (Index<V> index : indexes) {
+			index.rebuild(values);
+		}
+	}
+
+	/**
+	 * Returns an immutable snapshot of the values. It does not reflect later
+	 * modifications, a new snapshot is returned once values were added or
+	 * removed.
+	 */
+	public List<V> asList() {
+		return values.asList();
+	}
+
+	public int size() {
+		return values.size();
+	}
+
+	/**
+	 * A list whose immutable snapshot is taken when it's requested and kept
+	 * until the list is modified.
+	 */
+	private static class SnapshotList<V> {
+
+		private final List<V> values = new ArrayList<V>();
+		/** <code>null</code> if the values were modified since the last snapshot */
+		private volatile List<V> snapshot = Collections.emptyList();
+		private volatile int size;
+
+		private synchronized void add(V value) {
+			values.add(value);
+			modified();
+		}
+
+		private synchronized void addAll(Collection<V> values) {
+			this.values.addAll(values);
+			modified();
+		}
+
+		private synchronized boolean remove(V value) {
+			if (!values.remove(value)) {
+				return false;
+			}
+			modified();
+			return true;
+		}
+
+		private void modified() {
+			this.snapshot = null;
+			this.size = values.size();
+		}
+
+		private List<V> asList() {
+			List<V> snapshot = this.snapshot;
+			if (snapshot != null) {
+				return snapshot;
+			}
+			synchronized (this) {
+				if (this.snapshot == null) {
+					this.snapshot = toImmutableList(values);
+				}
+				return this.snapshot;
+			}
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private static <V> List<V> toImmutableList(List<V> values) {
+			if (values.isEmpty()) {
+				return Collections.emptyList();
+			}
+			return Collections.unmodifiableList(new ArrayList<V>(values));
+		}
+	}
+
+	/**
+	 * An index that maps the key of a value to the values with this key.
+	 * Values whose key is <code>null</code> are not indexed.
+	 */
+	public abstract static class Index<V> {
+
+		/** the map is replaced when the index is rebuilt */
+		private volatile ConcurrentMap<String, SnapshotList<V>> valuesByKey =
+				new ConcurrentHashMap<String, SnapshotList<V>>();
+
+		protected abstract String getKey(V value);
+
+		/**
+		 * Returns the first value with the given key, <code>null</code> if
+		 * there is none.
+		 */
+		public V get(String key) {
+			List<V> values = getAll(key);
+			if (values.isEmpty()) {
+				return null;
+			}
+			return values.get(0);
+		}
+
+		/**
+		 * Returns an immutable snapshot of the values with the given key.
+		 */
+		public List<V> getAll(String key) {
+			if (key == null) {
+				return Collections.emptyList();
+			}
+			SnapshotList<V> values = valuesByKey.get(key);
+			if (values == null) {
+				return Collections.emptyList();
+			}
+			return values.asList();
+		}
+
+		void addAll(Collection<V> values) {
+			addAll(values, valuesByKey);
+		}
+
+		private void addAll(Collection<V> values, ConcurrentMap<String, SnapshotList<V>> valuesByKey) {
+			for (V value : values) {
+				String key = getKey(value);
+				if (key == null) {
+					continue;
+				}
+				SnapshotList<V> valuesForKey = valuesByKey.get(key);
+				if (valuesForKey == null) {
+					valuesForKey = new SnapshotList<V>();
+					valuesForKey.add(value);
+					valuesByKey.put(key, valuesForKey);
+				} else {
+					valuesForKey.add(value);
+				}
+			}
+		}
+
+		/**
+		 * Indexes the given values in a new map and then replaces the current
+		 * one, readers thus never see a partially built index.
+		 */
+		void rebuild(Collection<V> values) {
+			ConcurrentMap<String, SnapshotList<V>> valuesByKey = new ConcurrentHashMap<String, SnapshotList<V>>();
+			addAll(values, valuesByKey);
+			this.valuesByKey = valuesByKey;
+		}
+
+		void remove(V value) {
+			if (remove(getKey(value), value)) {
+				return;
+			}
+			// key changed since the value was indexed
+			for (String key : valuesByKey.keySet()) {
+				if (remove(key, value)) {
+					return;
+				}
+			}
+		}
+
+		private boolean remove(String key, V value) {
+			if (key == null) {
+				return false;
+			}
+			SnapshotList<V> values = valuesByKey.get(key);
+			if (values == null
+					|| !values.remove(value)) {
+				return false;
+			}
+			if (values.size() == 0) {
+				valuesByKey.remove(key, values);
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,552 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A pull parser that reads a json document token by token. Values are handed
+ * out as they are read, no tree is built in memory.
+ *
+ * @author Andre Dietisheim
+ */
+public class JsonReader implements Closeable {
+
+	public enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int DANGLING_NAME = 3;
+	private static final int NONEMPTY_OBJECT = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+
+	private static final String TRUE = "true";
+	private static final String FALSE = "false";
+	private static final String NULL = "null";
+
+	private final Reader reader;
+	private final char[] buffer = new char[1024];
+	private int position = 0;
+	private int limit = 0;
+	/** the number of characters that were read before the current buffer */
+	private int bufferOffset = 0;
+
+	private int[] scopes = new int[32];
+	private int depth = 0;
+	private Token peeked;
+
+	/** whether the characters of the current value are captured */
+	private boolean capturing;
+	/** the captured characters that were evicted from the buffer */
+	private StringBuilder capture;
+	private int captureStart;
+
+	public JsonReader(Reader reader) {
+		this.reader = reader;
+		push(EMPTY_DOCUMENT);
+	}
+
+	/**
+	 * Returns the type of the next token without consuming it.
+	 */
+	public Token peek() throws IOException {
+		if (peeked != null) {
+			return peeked;
+		}
+		switch (scopes[depth - 1]) {
+		case EMPTY_ARRAY:
+			scopes[depth - 1] = NONEMPTY_ARRAY;
+			if (peekCharacter() == ']') {
+				return peeked = Token.END_ARRAY;
+			}
+			break;
+		case NONEMPTY_ARRAY:
+			int character = peekCharacter();
+			if (character == ']') {
+				return peeked = Token.END_ARRAY;
+			} else if (character != ',') {
+				throw syntaxError("Expected ',' or ']'");
+			}
+			position++;
+			break;
+		case EMPTY_OBJECT:
+		case NONEMPTY_OBJECT:
+			return peeked = peekName();
+		case DANGLING_NAME:
+			if (peekCharacter() != ':') {
+				throw syntaxError("Expected ':'");
+			}
+			position++;
+			scopes[depth - 1] = NONEMPTY_OBJECT;
+			break;
+		case EMPTY_DOCUMENT:
+			scopes[depth - 1] = NONEMPTY_DOCUMENT;
+			break;
+		default:
+			if (peekCharacter() != -1) {
+				throw syntaxError("Expected end of document");
+			}
+			return peeked = Token.END_DOCUMENT;
+		}
+		return peeked = peekValue();
+	}
+
+	private Token peekName() throws IOException {
+		boolean empty = scopes[depth - 1] == EMPTY_OBJECT;
+		scopes[depth - 1] = DANGLING_NAME;
+		int character = peekCharacter();
+		if (character == '}') {
+			return Token.END_OBJECT;
+		}
+		if (!empty) {
+			if (character != ',') {
+				throw syntaxError("Expected ',' or '}'");
+			}
+			position++;
+			character = peekCharacter();
+		}
+		if (character != '"') {
+			throw syntaxError("Expected name");
+		}
+		return Token.NAME;
+	}
+
+	private Token peekValue() throws IOException {
+		int character = peekCharacter();
+		switch (character) {
+		case '{':
+			return Token.BEGIN_OBJECT;
+		case '[':
+			return Token.BEGIN_ARRAY;
+		case '"':
+			return Token.STRING;
+		case 't':
+		case 'f':
+			return Token.BOOLEAN;
+		case 'n':
+			return Token.NULL;
+		case '-':
+		case '0':
+		case '1':
+		case '2':
+		case '3':
+		case '4':
+		case '5':
+		case '6':
+		case '7':
+		case '8':
+		case '9':
+			return Token.NUMBER;
+		case -1:
+			throw syntaxError("Unexpected end of document");
+		default:
+			throw syntaxError("Unexpected character '" + (char) character + "'");
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the current object or array has more
+	 * elements.
+	 */
+	public boolean hasNext() throws IOException {
+		Token token = peek();
+		return token != Token.END_OBJECT
+				&& token != Token.END_ARRAY
+				&& token != Token.END_DOCUMENT;
+	}
+
+	public void beginObject() throws IOException {
+		expect(Token.BEGIN_OBJECT);
+		position++;
+		push(EMPTY_OBJECT);
+	}
+
+	public void endObject() throws IOException {
+		expect(Token.END_OBJECT);
+		position++;
+		depth--;
+	}
+
+	public void beginArray() throws IOException {
+		expect(Token.BEGIN_ARRAY);
+		position++;
+		push(EMPTY_ARRAY);
+	}
+
+	public void endArray() throws IOException {
+		expect(Token.END_ARRAY);
+		position++;
+		depth--;
+	}
+
+	public String nextName() throws IOException {
+		expect(Token.NAME);
+		return readQuoted();
+	}
+
+	/**
+	 * Returns the next string, number or boolean as it is written in the
+	 * document.
+	 */
+	public String nextString() throws IOException {
+		Token token = peek();
+		switch (token) {
+		case STRING:
+			peeked = null;
+			return readQuoted();
+		case NUMBER:
+			peeked = null;
+			return readNumber();
+		case BOOLEAN:
+			peeked = null;
+			String literal = readLiteral();
+			if (!TRUE.equals(literal)
+					&& !FALSE.equals(literal)) {
+				throw syntaxError("Invalid literal '" + literal + "'");
+			}
+			return literal;
+		default:
+			throw syntaxError("Expected a string but was " + token);
+		}
+	}
+
+	public void nextNull() throws IOException {
+		expect(Token.NULL);
+		String literal = readLiteral();
+		if (!NULL.equals(literal)) {
+			throw syntaxError("Invalid literal '" + literal + "'");
+		}
+	}
+
+	/**
+	 * Skips the next value including all the values that are nested in it.
+	 */
+	public void skipValue() throws IOException {
+		int nesting = 0;
+		do {
+			switch (peek()) {
+			case BEGIN_OBJECT:
+				beginObject();
+				nesting++;
+				break;
+			case BEGIN_ARRAY:
+				beginArray();
+				nesting++;
+				break;
+			case END_OBJECT:
+				endObject();
+				nesting--;
+				break;
+			case END_ARRAY:
+				endArray();
+				nesting--;
+				break;
+			case NAME:
+			case STRING:
+				peeked = null;
+				skipQuoted();
+				break;
+			case NULL:
+				nextNull();
+				break;
+			case END_DOCUMENT:
+				throw syntaxError("Unexpected end of document");
+			default:
+				nextString();
+			}
+		} while (nesting > 0);
+	}
+
+	/**
+	 * Returns the json text of the next value, including all the values that
+	 * are nested in it.
+	 */
+	public String nextRawValue() throws IOException {
+		peek();
+		this.capturing = true;
+		this.captureStart = position;
+		try {
+			skipValue();
+			if (capture == null) {
+				return new String(buffer, captureStart, position - captureStart);
+			}
+			capture.append(buffer, captureStart, position - captureStart);
+			return capture.toString();
+		} finally {
+			this.capturing = false;
+			this.capture = null;
+		}
+	}
+
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private void expect(Token expected) throws IOException {
+		Token token = peek();
+		if (token != expected) {
+			throw syntaxError("Expected " + expected + " but was " + token);
+		}
+		peeked = null;
+	}
+
+	private void push(int scope) {
+		if (depth == scopes.length) {
+			int[] enlarged = new int[depth * 2];
+			System.arraycopy(scopes, 0, enlarged, 0, depth);
+			this.scopes = enlarged;
+		}
+		scopes[depth++] = scope;
+	}
+
+	/**
+	 * Returns the next character that is no whitespace without consuming it.
+	 *
+	 * @return the character or <code>-1</code> if the end of the document was
+	 *         reached
+	 */
+	private int peekCharacter() throws IOException {
+		while (fill()) {
+			char character = buffer[position];
+			if (character != ' '
+					&& character != '\n'
+					&& character != '\r'
+					&& character != '\t') {
+				return character;
+			}
+			position++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Reads a quoted string, the reader is positioned at the opening quote.
+	 */
+	private String readQuoted() throws IOException {
+		// opening quote
+		position++;
+		StringBuilder builder = null;
+		while (true) {
+			int start = position;
+			while (position < limit) {
+				char character = buffer[position++];
+				if (character == '"') {
+					if (builder == null) {
+						return new String(buffer, start, position - start - 1);
+					}
+					builder.append(buffer, start, position - start - 1);
+					return builder.toString();
+				} else if (character == '\\') {
+					if (builder == null) {
+						builder = new StringBuilder();
+					}
+					builder.append(buffer, start, position - start - 1);
+					builder.append(readEscaped());
+					start = position;
+				}
+			}
+			if (builder == null) {
+				builder = new StringBuilder();
+			}
+			builder.append(buffer, start, position - start);
+			if (!fill()) {
+				throw syntaxError("Unterminated string");
+			}
+		}
+	}
+
+	/**
+	 * Skips a quoted string without decoding it, the reader is positioned at
+	 * the opening quote.
+	 */
+	private void skipQuoted() throws IOException {
+		// opening quote
+		position++;
+		while (fill()) {
+			char character = buffer[position++];
+			if (character == '"') {
+				return;
+			} else if (character == '\\') {
+				readEscaped();
+			}
+		}
+		throw syntaxError("Unterminated string");
+	}
+
+	private char readEscaped() throws IOException {
+		char character = readCharacter();
+		switch (character) {
+		case 'b':
+			return '\b';
+		case 'f':
+			return '\f';
+		case 'n':
+			return '\n';
+		case 'r':
+			return '\r';
+		case 't':
+			return '\t';
+		case 'u':
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				int digit = Character.digit(readCharacter(), 16);
+				if (digit == -1) {
+					throw syntaxError("Invalid unicode escape sequence");
+				}
+				value = (value << 4) + digit;
+			}
+			return (char) value;
+		case '"':
+		case '\\':
+		case '/':
+			return character;
+		default:
+			throw syntaxError("Invalid escape sequence '\\" + character + "'");
+		}
+	}
+
+	private char readCharacter() throws IOException {
+		if (!fill()) {
+			throw syntaxError("Unexpected end of document");
+		}
+		return buffer[position++];
+	}
+
+	private String readNumber() throws IOException {
+		String number = readLiteral();
+		if (!isNumber(number)) {
+			throw syntaxError("Invalid number '" + number + "'");
+		}
+		return number;
+	}
+
+	private boolean isNumber(String literal) {
+		int i = 0;
+		int length = literal.length();
+		if (i < length
+				&& literal.charAt(i) == '-') {
+			i++;
+		}
+		int digitsStart = i;
+		i = skipDigits(literal, i);
+		if (i == digitsStart) {
+			return false;
+		}
+		if (i < length
+				&& literal.charAt(i) == '.') {
+			int fractionStart = ++i;
+			i = skipDigits(literal, i);
+			if (i == fractionStart) {
+				return false;
+			}
+		}
+		if (i < length
+				&& (literal.charAt(i) == 'e' || literal.charAt(i) == 'E')) {
+			i++;
+			if (i < length
+					&& (literal.charAt(i) == '+' || literal.charAt(i) == '-')) {
+				i++;
+			}
+			int exponentStart = i;
+			i = skipDigits(literal, i);
+			if (i == exponentStart) {
+				return false;
+			}
+		}
+		return i == length;
+	}
+
+	private int skipDigits(String literal, int index) {
+		while (index < literal.length()
+				&& Character.isDigit(literal.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+
+	/**
+	 * Reads an unquoted literal up to the next delimiter.
+	 */
+	private String readLiteral() throws IOException {
+		StringBuilder builder = new StringBuilder();
+		while (fill()) {
+			char character = buffer[position];
+			switch (character) {
+			case ' ':
+			case '\n':
+			case '\r':
+			case '\t':
+			case ',':
+			case ':':
+			case ']':
+			case '}':
+				return builder.toString();
+			default:
+				builder.append(character);
+				position++;
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Makes sure there are characters left in the buffer, reads more from the
+	 * underlying reader if needed.
+	 *
+	 * @return <code>false</code> if the end of the document was reached
+	 */
+	private boolean fill() throws IOException {
+		if (position < limit) {
+			return true;
+		}
+		if (capturing) {
+			if (capture == null) {
+				this.capture = new StringBuilder();
+			}
+			capture.append(buffer, captureStart, limit - captureStart);
+			this.captureStart = 0;
+		}
+		bufferOffset += limit;
+		this.position = 0;
+		this.limit = 0;
+		int read = 0;
+		while ((read = reader.read(buffer, 0, buffer.length)) == 0) {
+			// try again
+		}
+		if (read == -1) {
+			return false;
+		}
+		this.limit = read;
+		return true;
+	}
+
+	private IOException syntaxError(String message) {
+		return new MalformedJsonException(message + " at character " + (bufferOffset + position));
+	}
+
+	/**
+	 * Indicates that the document is no valid json.
+	 */
+	public static class MalformedJsonException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		public MalformedJsonException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.openshift.client.OpenShiftException;
+
+/**
+ * A value that is loaded when it's requested for the first time. Loading is
+ * single flight: if several threads request the value while it is not
+ * loaded, the first one loads it and the others wait for its result instead
+ * of loading it again. A failed load is reported to all threads that waited
+ * for it, the next request loads again. Reloading is single flight, too: a
+ * reload that is requested while the value is being loaded waits for that
+ * load.
+ * <p>
+ * No lock is held while the value is loaded, threads that find the value
+ * loaded dont synchronize at all.
+ *
+ * @author Andre Dietisheim
+ */
+public abstract class LazyValue<V> {
+
+	private final AtomicReference<Load> current = new AtomicReference<Load>();
+
+	/**
+	 * Loads the value. Called by a single thread at a time.
+	 */
+	protected abstract V load() throws OpenShiftException;
+
+	/**
+	 * Returns the value, loads it if it's not loaded yet or waits for the
+	 * thread that's loading it.
+	 *
+	 * @return the value
+	 * @throws OpenShiftException
+	 *             if the value could not be loaded
+	 */
+	public V get() throws OpenShiftException {
+		while (true) {
+			Load load = current.get();
+			if (load != null) {
+				return load.await();
+			}
+			Load newLoad = new Load();
+			if (current.compareAndSet(null, newLoad)) {
+				return newLoad.run();
+			}
+		}
+	}
+
+	/**
+	 * Loads the value again, regardless whether it was loaded before. Threads
+	 * that request or reload the value meanwhile wait for the new value.
+	 *
+	 * @return the new value
+	 */
+	public V reload() throws OpenShiftException {
+		while (true) {
+			Load load = current.get();
+			if (load != null
+					&& !load.isDone()) {
+				return load.await();
+			}
+			Load newLoad = new Load();
+			if (current.compareAndSet(load, newLoad)) {
+				return newLoad.run();
+			}
+		}
+	}
+
+	/**
+	 * Returns the value if it is loaded, <code>null</code> otherwise. Never
+	 * loads nor waits.
+	 */
+	public V getIfLoaded() {
+		Load load = current.get();
+		if (load == null
+				|| !load.isLoaded()) {
+			return null;
+		}
+		return load.value;
+	}
+
+	public boolean isLoaded() {
+		return getIfLoaded() != null;
+	}
+
+	/**
+	 * Sets the value, it won't be loaded until it is reset.
+	 */
+	public void set(V value) {
+		Load load = new Load();
+		load.loaded(value);
+		current.set(load);
+	}
+
+	/**
+	 * Discards the value so that it gets loaded on the next request.
+	 */
+	public void reset() {
+		current.set(null);
+	}
+
+	private class Load {
+
+		private final CountDownLatch done = new CountDownLatch(1);
+		private volatile V value;
+		private volatile Throwable failure;
+
+		/**
+		 * Loads the value. Whatever the load throws, the waiting threads are
+		 * released and the next request loads again.
+		 */
+		private V run() {
+			boolean loaded = false;
+			try {
+				V value = load();
+				loaded(value);
+				loaded = true;
+				return value;
+			} catch (RuntimeException e) {
+				this.failure = e;
+				throw e;
+			} catch (Error e) {
+				this.failure = e;
+				throw e;
+			} finally {
+				if (!loaded) {
+					current.compareAndSet(this, null);
+					done.countDown();
+				}
+			}
+		}
+
+		private void loaded(V value) {
+			this.value = value;
+			done.countDown();
+		}
+
+		private boolean isLoaded() {
+			return isDone()
+					&& failure == null;
+		}
+
+		private boolean isDone() {
+			return done.getCount() == 0;
+		}
+
+		private V await() throws OpenShiftException {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OpenShiftException(e, "Interrupted while waiting for a value to be loaded");
+			}
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			} else if (failure != null) {
+				throw (RuntimeException) failure;
+			}
+			return value;
+		}
+	}
+}
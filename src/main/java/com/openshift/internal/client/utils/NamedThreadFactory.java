@@ -0,0 +1,40 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread factory that creates daemon threads that are named after the given
+ * prefix and a sequence number. Daemon threads dont keep the jvm from exiting
+ * if a client forgets to shut an executor down.
+ *
+ * @author Andre Dietisheim
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+	private final String prefix;
+	private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+	public NamedThreadFactory(String prefix) {
+		this.prefix = prefix;
+	}
+
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, prefix + "-" + threadNumber.getAndIncrement());
+		thread.setDaemon(true);
+		if (thread.getPriority() != Thread.NORM_PRIORITY) {
+			thread.setPriority(Thread.NORM_PRIORITY);
+		}
+		return thread;
+	}
+}
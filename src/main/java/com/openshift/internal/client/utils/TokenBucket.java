@@ -0,0 +1,127 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A rate limiter that hands out permits at a constant rate. Up to
+ * <code>capacity</code> unused permits are saved and allow short bursts.
+ * Callers that find no permit reserve the next one and wait for it, they
+ * therefore get their permits in the order they asked for them.
+ *
+ * @author Andre Dietisheim
+ */
+public class TokenBucket {
+
+	private final double permitsPerNano;
+	private final double capacity;
+	private double permits;
+	private long lastRefill;
+
+	/**
+	 * @param permitsPerSecond
+	 *            the rate at which permits are handed out
+	 * @param capacity
+	 *            the maximum number of permits that are saved
+	 */
+	public TokenBucket(double permitsPerSecond, int capacity) {
+		Assert.isTrue(permitsPerSecond > 0);
+		this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+		this.capacity = Math.max(1, capacity);
+		this.permits = this.capacity;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Takes a permit, waits for it if there's none.
+	 * 
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting
+	 */
+	public void acquire() throws InterruptedException {
+		sleep(reserve(Long.MAX_VALUE));
+	}
+
+	/**
+	 * Takes a permit if there's one available within the given timeout, waits
+	 * for it if it's not available right away.
+	 * 
+	 * @return <code>true</code> if a permit was taken, <code>false</code>
+	 *         if none would be available within the timeout
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting
+	 */
+	public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+		long wait = reserve(unit.toNanos(timeout));
+		if (wait < 0) {
+			return false;
+		}
+		sleep(wait);
+		return true;
+	}
+
+	private void sleep(long wait) throws InterruptedException {
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	/**
+	 * Takes a permit if there's one available right away.
+	 * 
+	 * @return <code>true</code> if a permit was taken
+	 */
+	public synchronized boolean tryAcquire() {
+		refill();
+		if (permits < 1) {
+			return false;
+		}
+		permits--;
+		return true;
+	}
+
+	/**
+	 * Returns the number of permits that are available right away.
+	 */
+	public synchronized int getAvailablePermits() {
+		refill();
+		return (int) Math.max(0, permits);
+	}
+
+	public double getPermitsPerSecond() {
+		return permitsPerNano * TimeUnit.SECONDS.toNanos(1);
+	}
+
+	/**
+	 * Takes a permit and returns the time (in nanoseconds) to wait until it
+	 * may be used. Takes no permit and returns -1 if the wait would exceed
+	 * the given maximum.
+	 */
+	private synchronized long reserve(long maxWait) {
+		refill();
+		long wait = 0;
+		if (permits < 1) {
+			wait = (long) Math.ceil((1 - permits) / permitsPerNano);
+			if (wait > maxWait) {
+				return -1;
+			}
+		}
+		permits--;
+		return wait;
+	}
+
+	private void refill() {
+		long now = System.nanoTime();
+		permits = Math.min(capacity, permits + (now - lastRefill) * permitsPerNano);
+		lastRefill = now;
+	}
+}
@@ -56,6 +56,7 @@ public enum Samples {
 	GET_DOMAINS_1329997507457_JSON("get-domains-1329997507457.json"),
 	GET_DOMAINS_1329997507457_XML("get-domains-1329997507457.xml"),
 	GET_DOMAINS_1EXISTING("get-domains-1existing.json"),
+	GET_DOMAINS_2EXISTING("get-domains-2existing.json"),
 	GET_DOMAINS_JSON("get-domains.json"),
 	GET_DOMAINS_NOEXISTING_JSON("get-domains-noexisting.json"),
 	REMOVE_DOMAIN_EXISTING_JSON("remove-domain-existing.json"),
@@ -98,4 +99,8 @@ public enum Samples {
 		}
 		return content;
 	}
+
+	public InputStream getContentAsStream() {
+		return Samples.class.getResourceAsStream(filePath);
+	}
 }
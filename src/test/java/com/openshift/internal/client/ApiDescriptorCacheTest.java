@@ -0,0 +1,157 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.utils.FileUtils;
+import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.httpclient.InternalServerErrorException;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class ApiDescriptorCacheTest {
+
+	private static final String BROKER_URL = "https://mock";
+
+	private File directory;
+	private ExecutorService executor;
+	private IHttpClient mockClient;
+
+	@Before
+	public void setUp() throws Throwable {
+		CartridgeCatalog.clear();
+		this.directory = FileUtils.createRandomTempFile();
+		directory.delete();
+		this.executor = Executors.newSingleThreadExecutor();
+		this.mockClient = mock(IHttpClient.class);
+		when(mockClient.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/cartridges")))
+				.thenReturn(Samples.GET_CARTRIDGES.getContentAsString());
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		CartridgeCatalog.clear();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				FileUtils.silentlyDelete(file);
+			}
+		}
+		FileUtils.silentlyDelete(directory);
+	}
+
+	@Test
+	public void shouldStoreApiDescriptorWhenConnecting() throws Throwable {
+		// pre-conditions
+		ApiDescriptorCache cache = new ApiDescriptorCache(directory, false);
+		// operation
+		connect(mockClient);
+		// verification
+		ApiDescriptorCache.Entry descriptor =
+				cache.get(BROKER_URL, RestService.SERVICE_VERSION, ApiDescriptorCache.DESCRIPTOR);
+		assertThat(descriptor).isNotNull();
+		assertThat(descriptor.getContent()).contains("LIST_CARTRIDGES");
+	}
+
+	@Test
+	public void shouldConnectWithCachedApiDescriptorIfBrokerFails() throws Throwable {
+		// pre-conditions
+		connect(mockClient);
+		IHttpClient failingClient = mock(IHttpClient.class);
+		when(failingClient.get(urlEndsWith("/broker/rest/api")))
+				.thenThrow(new InternalServerErrorException("broker unavailable"));
+		when(failingClient.get(urlEndsWith("/cartridges")))
+				.thenReturn(Samples.GET_CARTRIDGES.getContentAsString());
+		// operation
+		IOpenShiftConnection connection = connect(failingClient);
+		// verification
+		assertThat(connection.getStandaloneCartridges()).hasSize(8);
+	}
+
+	@Test
+	public void shouldRevalidateCachedApiDescriptorInBackground() throws Throwable {
+		// pre-conditions
+		ApiDescriptorCache cache = new ApiDescriptorCache(directory, false);
+		cache.put(BROKER_URL, RestService.SERVICE_VERSION, ApiDescriptorCache.DESCRIPTOR,
+				Samples.GET_REST_API_JSON.getContentAsString().replace("LIST_CARTRIDGES", "LIST_OUTDATED"));
+		// operation
+		connect(mockClient);
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+		// verification
+		verify(mockClient, times(1)).get(urlEndsWith("/broker/rest/api"));
+		assertThat(cache.get(BROKER_URL, RestService.SERVICE_VERSION, ApiDescriptorCache.DESCRIPTOR).getContent())
+				.contains("LIST_CARTRIDGES")
+				.excludes("LIST_OUTDATED");
+	}
+
+	@Test
+	public void shouldRequestApiDescriptorIfCachedOneIsCorrupt() throws Throwable {
+		// pre-conditions
+		new ApiDescriptorCache(directory, false)
+				.put(BROKER_URL, RestService.SERVICE_VERSION, ApiDescriptorCache.DESCRIPTOR, "{ corrupt");
+		// operation
+		IOpenShiftConnection connection = connect(mockClient);
+		// verification
+		assertThat(connection.getStandaloneCartridges()).hasSize(8);
+	}
+
+	@Test
+	public void shouldReadCachedCartridgesInNewProcess() throws Throwable {
+		// pre-conditions
+		new OpenShiftConnectionFactory(executor)
+				.setApiDescriptorCache(directory, true)
+				.getConnection(new RestService(BROKER_URL, "clientId", mockClient), "foo@redhat.com", "bar")
+				.getStandaloneCartridges();
+		// simulate a new process
+		CartridgeCatalog.clear();
+		IHttpClient failingClient = mock(IHttpClient.class);
+		when(failingClient.get(urlEndsWith("/cartridges")))
+				.thenThrow(new InternalServerErrorException("broker unavailable"));
+		// operation
+		IOpenShiftConnection connection = new OpenShiftConnectionFactory(executor)
+				.setApiDescriptorCache(directory, true)
+				.getConnection(new RestService(BROKER_URL, "clientId", failingClient), "foo@redhat.com", "bar");
+		// verification
+		assertThat(connection.getStandaloneCartridges()).hasSize(8);
+		assertThat(connection.getEmbeddableCartridges()).hasSize(10);
+		verify(failingClient, times(0)).get(urlEndsWith("/cartridges"));
+	}
+
+	private IOpenShiftConnection connect(IHttpClient client) throws IOException {
+		return new OpenShiftConnectionFactory(executor)
+				.setApiDescriptorCache(directory, false)
+				.getConnection(new RestService(BROKER_URL, "clientId", client), "foo@redhat.com", "bar");
+	}
+}
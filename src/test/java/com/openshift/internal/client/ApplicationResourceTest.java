@@ -43,6 +43,12 @@ import static org.mockito.Mockito.when;
 import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.fest.assertions.Condition;
 import org.junit.Before;
@@ -57,11 +63,13 @@ import com.openshift.client.IDomain;
 import com.openshift.client.IEmbeddedCartridge;
 import com.openshift.client.IHttpClient;
 import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.IResponseCallback;
 import com.openshift.client.IUser;
 import com.openshift.client.InvalidCredentialsOpenShiftException;
 import com.openshift.client.OpenShiftConnectionFactory;
 import com.openshift.client.OpenShiftEndpointException;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftExecutors;
 import com.openshift.client.OpenShiftTimeoutException;
 import com.openshift.client.utils.Samples;
 import com.openshift.internal.client.httpclient.HttpClientException;
@@ -625,4 +633,61 @@ public class ApplicationResourceTest {
 		assertTrue(System.currentTimeMillis() < (startTime + timeout));
 	}
 
+	@Test(timeout = 10 * 1000)
+	public void shouldWaitForAccessibleWhileExecutorIsBusy() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_1LOCALHOST_JSON.getContentAsString());
+		ExecutorService executor = OpenShiftExecutors.newThreadPool(1);
+		final CountDownLatch blocked = new CountDownLatch(1);
+		try {
+			executor.submit(new Runnable() {
+
+				public void run() {
+					try {
+						blocked.await();
+					} catch (InterruptedException e) {
+						// test done
+					}
+				}
+			});
+			IApplication app = new OpenShiftConnectionFactory(executor)
+					.getConnection(new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar")
+					.getUser()
+					.getDomain("foobar")
+					.getApplicationByName("sample");
+			// operation
+			boolean successfull = app.waitForAccessible(5 * 1024);
+			// verifications
+			assertTrue(successfull);
+		} finally {
+			blocked.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldNotifyCallbackOnceAccessible() throws HttpClientException, Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications")))
+				.thenReturn(GET_APPLICATIONS_WITH2APPS_1LOCALHOST_JSON.getContentAsString());
+		final IApplication app = domain.getApplicationByName("sample");
+		final BlockingQueue<Boolean> accessible = new ArrayBlockingQueue<Boolean>(1);
+
+		// operation
+		Future<Boolean> future = app.waitForAccessibleAsync(10 * 1024, new IResponseCallback<Boolean>() {
+
+			public void completed(Boolean response) {
+				accessible.offer(response);
+			}
+
+			public void failed(Throwable cause) {
+			}
+		});
+
+		// verifications
+		assertThat(future.get(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(accessible.poll(10, TimeUnit.SECONDS)).isTrue();
+	}
+
 }
@@ -0,0 +1,206 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.openshift.client.EmbeddableCartridge;
+import com.openshift.client.IApplication;
+import com.openshift.client.ICartridgeOperationResult;
+import com.openshift.client.IEmbeddableCartridge;
+import com.openshift.client.IEmbeddedCartridge;
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftExecutors;
+import com.openshift.client.utils.Samples;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class CartridgeBatchTest {
+
+	private static final IEmbeddableCartridge MYSQL = new EmbeddableCartridge("mysql-5.1");
+	private static final IEmbeddableCartridge PHPMYADMIN = new EmbeddableCartridge("phpmyadmin-3.4");
+
+	private IOpenShiftConnection connection;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws Throwable {
+		IHttpClient mockClient = mock(IHttpClient.class);
+		when(mockClient.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+		this.executor = OpenShiftExecutors.newThreadPool(8);
+		this.connection = new OpenShiftConnectionFactory(executor).getConnection(
+				new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldAddCartridgesToAllApplicationsInOrder() throws Throwable {
+		// pre-conditions
+		List<IApplication> applications = createApplications(5);
+		// operation
+		List<ICartridgeOperationResult> results =
+				connection.addEmbeddableCartridges(applications, Arrays.asList(MYSQL, PHPMYADMIN), 3);
+		// verifications
+		assertThat(results).hasSize(10);
+		for (int i = 0; i < applications.size(); i++) {
+			IApplication application = applications.get(i);
+			assertResult(results.get(2 * i), application, MYSQL);
+			assertResult(results.get(2 * i + 1), application, PHPMYADMIN);
+			InOrder inOrder = inOrder(application);
+			inOrder.verify(application).addEmbeddableCartridge(MYSQL);
+			inOrder.verify(application).addEmbeddableCartridge(PHPMYADMIN);
+		}
+	}
+
+	@Test
+	public void shouldReportFailureAndContinue() throws Throwable {
+		// pre-conditions
+		List<IApplication> applications = createApplications(3);
+		IApplication failing = applications.get(1);
+		OpenShiftException failure = new OpenShiftException("mysql failed");
+		when(failing.addEmbeddableCartridge(MYSQL)).thenThrow(failure);
+		// operation
+		List<ICartridgeOperationResult> results =
+				connection.addEmbeddableCartridges(applications, Arrays.asList(MYSQL, PHPMYADMIN), 2);
+		// verifications
+		assertThat(results).hasSize(6);
+		assertThat(results.get(2).isSuccessful()).isFalse();
+		assertThat(results.get(2).getFailure()).isSameAs(failure);
+		assertThat(results.get(2).getEmbeddedCartridge()).isNull();
+		assertThat(results.get(3).isSuccessful()).isTrue();
+		assertThat(results.get(4).isSuccessful()).isTrue();
+	}
+
+	@Test
+	public void shouldWrapUnexpectedExceptions() throws Throwable {
+		// pre-conditions
+		List<IApplication> applications = createApplications(1);
+		doThrow(new IllegalStateException()).when(applications.get(0)).removeEmbeddedCartridge(MYSQL);
+		// operation
+		List<ICartridgeOperationResult> results =
+				connection.removeEmbeddedCartridges(applications, Arrays.asList(MYSQL), 1);
+		// verifications
+		assertThat(results).hasSize(1);
+		assertThat(results.get(0).getFailure()).isNotNull();
+		assertThat(results.get(0).getFailure().getCause()).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void shouldNotExceedMaxConcurrency() throws Throwable {
+		// pre-conditions
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		List<IApplication> applications = new ArrayList<IApplication>();
+		for (int i = 0; i < 12; i++) {
+			IApplication application = mock(IApplication.class);
+			when(application.addEmbeddableCartridge(MYSQL)).thenAnswer(new Answer<IEmbeddedCartridge>() {
+
+				public IEmbeddedCartridge answer(InvocationOnMock invocation) throws Throwable {
+					int current = running.incrementAndGet();
+					synchronized (maxRunning) {
+						maxRunning.set(Math.max(maxRunning.get(), current));
+					}
+					Thread.sleep(20);
+					running.decrementAndGet();
+					return mock(IEmbeddedCartridge.class);
+				}
+			});
+			applications.add(application);
+		}
+		// operation
+		List<ICartridgeOperationResult> results =
+				connection.addEmbeddableCartridges(applications, Arrays.asList(MYSQL), 3);
+		// verifications
+		assertThat(results).hasSize(12);
+		assertThat(maxRunning.get()).isLessThanOrEqualTo(3).isGreaterThan(1);
+	}
+
+	@Test
+	public void shouldCompleteWhenRunInItsOwnSaturatedExecutor() throws Throwable {
+		// pre-conditions
+		final List<IApplication> applications = createApplications(4);
+		ExecutorService singleThreadExecutor = OpenShiftExecutors.newThreadPool(1);
+		try {
+			IHttpClient mockClient = mock(IHttpClient.class);
+			when(mockClient.get(urlEndsWith("/broker/rest/api")))
+					.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+			final IOpenShiftConnection connection = new OpenShiftConnectionFactory(singleThreadExecutor).getConnection(
+					new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
+			// operation
+			Future<List<ICartridgeOperationResult>> future = singleThreadExecutor.submit(
+					new Callable<List<ICartridgeOperationResult>>() {
+
+						public List<ICartridgeOperationResult> call() throws Exception {
+							return connection.addEmbeddableCartridges(applications, Arrays.asList(MYSQL), 3);
+						}
+					});
+			// verifications
+			List<ICartridgeOperationResult> results = future.get(10, TimeUnit.SECONDS);
+			assertThat(results).hasSize(4);
+			for (int i = 0; i < applications.size(); i++) {
+				assertResult(results.get(i), applications.get(i), MYSQL);
+			}
+		} finally {
+			singleThreadExecutor.shutdownNow();
+		}
+	}
+
+	private void assertResult(ICartridgeOperationResult result, IApplication application,
+			IEmbeddableCartridge cartridge) {
+		assertThat(result.isSuccessful()).isTrue();
+		assertThat(result.getApplication()).isSameAs(application);
+		assertThat(result.getCartridge()).isSameAs(cartridge);
+		assertThat(result.getEmbeddedCartridge()).isNotNull();
+		assertThat(result.getDuration()).isGreaterThanOrEqualTo(0);
+	}
+
+	private List<IApplication> createApplications(int numOfApplications) throws OpenShiftException {
+		List<IApplication> applications = new ArrayList<IApplication>();
+		for (int i = 0; i < numOfApplications; i++) {
+			IApplication application = mock(IApplication.class);
+			when(application.getName()).thenReturn("app" + i);
+			when(application.addEmbeddableCartridge(MYSQL)).thenReturn(mock(IEmbeddedCartridge.class));
+			when(application.addEmbeddableCartridge(PHPMYADMIN)).thenReturn(mock(IEmbeddedCartridge.class));
+			applications.add(application);
+		}
+		return applications;
+	}
+}
@@ -0,0 +1,164 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.CartridgeCatalog.Cartridges;
+import com.openshift.internal.client.CartridgeCatalog.ICartridgesLoader;
+import com.openshift.internal.client.response.CartridgeResourceDTO;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class CartridgeCatalogTest {
+
+	private static final Executor SAME_THREAD = new Executor() {
+
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	private long now;
+	private CartridgeCatalog catalog;
+
+	@Before
+	public void setUp() {
+		CartridgeCatalog.clear();
+		this.catalog = new CartridgeCatalog("http://mock") {
+
+			@Override
+			protected long now() {
+				return now;
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		CartridgeCatalog.clear();
+	}
+
+	@Test
+	public void shouldListCartridgesOnceForAllConnectionsToBroker() throws Throwable {
+		// pre-conditions
+		IHttpClient mockClient = mock(IHttpClient.class);
+		when(mockClient.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/cartridges")))
+				.thenReturn(Samples.GET_CARTRIDGES.getContentAsString());
+		OpenShiftConnectionFactory factory = new OpenShiftConnectionFactory();
+		IOpenShiftConnection connection1 =
+				factory.getConnection(new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
+		IOpenShiftConnection connection2 =
+				factory.getConnection(new RestService("http://mock", "clientId", mockClient), "bar@redhat.com", "foo");
+		// operation
+		connection1.getStandaloneCartridges();
+		connection2.getStandaloneCartridges();
+		connection2.getEmbeddableCartridges();
+		// verification
+		verify(mockClient, times(1)).get(urlEndsWith("/cartridges"));
+		assertThat(connection2.getEmbeddableCartridges()).isSameAs(connection1.getEmbeddableCartridges());
+	}
+
+	@Test
+	public void shouldReturnCachedCartridgesWithinTimeToLive() throws Throwable {
+		// pre-conditions
+		CountingLoader loader = new CountingLoader();
+		Cartridges cartridges = catalog.getCartridges(loader, 1000, SAME_THREAD);
+		// operation
+		now += TimeUnit.MILLISECONDS.toNanos(1000);
+		Cartridges cachedCartridges = catalog.getCartridges(loader, 1000, SAME_THREAD);
+		// verification
+		assertThat(cachedCartridges).isSameAs(cartridges);
+		assertThat(loader.loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldReturnStaleCartridgesAndRevalidate() throws Throwable {
+		// pre-conditions
+		CountingLoader loader = new CountingLoader();
+		Cartridges cartridges = catalog.getCartridges(loader, 1000, SAME_THREAD);
+		now += TimeUnit.MILLISECONDS.toNanos(1001);
+		// operation
+		Cartridges staleCartridges = catalog.getCartridges(loader, 1000, SAME_THREAD);
+		// verification
+		assertThat(staleCartridges).isSameAs(cartridges);
+		assertThat(loader.loads.get()).isEqualTo(2);
+		assertThat(catalog.getCartridges(loader, 1000, SAME_THREAD)).isNotSameAs(cartridges);
+	}
+
+	@Test
+	public void shouldKeepStaleCartridgesIfRevalidationFails() throws Throwable {
+		// pre-conditions
+		CountingLoader loader = new CountingLoader();
+		Cartridges cartridges = catalog.getCartridges(loader, 1000, SAME_THREAD);
+		now += TimeUnit.MILLISECONDS.toNanos(1001);
+		loader.failure = new OpenShiftException("broker unavailable");
+		// operation
+		Cartridges staleCartridges = catalog.getCartridges(loader, 1000, SAME_THREAD);
+		// verification
+		assertThat(staleCartridges).isSameAs(cartridges);
+		assertThat(catalog.getCartridges(loader, 1000, SAME_THREAD)).isSameAs(cartridges);
+		assertThat(loader.loads.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldReportFailureIfNeverLoaded() throws Throwable {
+		// pre-conditions
+		CountingLoader loader = new CountingLoader();
+		loader.failure = new OpenShiftException("broker unavailable");
+		// operation
+		try {
+			catalog.getCartridges(loader, 1000, SAME_THREAD);
+			fail("exception expected");
+		} catch (OpenShiftException e) {
+			// verification
+			assertThat(e).isSameAs(loader.failure);
+		}
+	}
+
+	private static class CountingLoader implements ICartridgesLoader {
+
+		private final AtomicInteger loads = new AtomicInteger();
+		private volatile OpenShiftException failure;
+
+		public List<CartridgeResourceDTO> load() throws OpenShiftException {
+			loads.incrementAndGet();
+			if (failure != null) {
+				throw failure;
+			}
+			return Collections.emptyList();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.NotFoundOpenShiftException;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.OpenShiftExecutors;
+import com.openshift.client.metrics.ClientMetrics;
+import com.openshift.client.metrics.SimpleClientMetrics;
+import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.httpclient.NotFoundException;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class ClientMetricsTest {
+
+	private SimpleClientMetrics metrics;
+
+	@Before
+	public void setUp() {
+		this.metrics = new SimpleClientMetrics();
+		ClientMetrics.set(metrics);
+	}
+
+	@After
+	public void tearDown() {
+		ClientMetrics.set(null);
+	}
+
+	@Test
+	public void shouldReportPercentilesOfHistogram() {
+		// pre-conditions
+		for (int i = 1; i <= 99; i++) {
+			metrics.requestCompleted(HttpMethod.GET, "Get user information", TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		metrics.requestCompleted(HttpMethod.GET, "Get user information", TimeUnit.MILLISECONDS.toNanos(500));
+		// operation
+		SimpleClientMetrics.Histogram latency = metrics.getLatency(HttpMethod.GET, "Get user information");
+		// verifications
+		assertThat(latency.getCount()).isEqualTo(100);
+		assertThat(latency.getPercentile(0.5)).isGreaterThanOrEqualTo(1).isLessThan(2.1);
+		assertThat(latency.getPercentile(1)).isEqualTo(500);
+		assertThat(latency.getMax()).isEqualTo(500);
+	}
+
+	@Test
+	public void shouldRecordRequestsOfConnection() throws Throwable {
+		// pre-conditions
+		IHttpClient mockClient = mock(IHttpClient.class);
+		when(mockClient.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/user")))
+				.thenThrow(new NotFoundException("user not found"));
+		IOpenShiftConnection connection = new OpenShiftConnectionFactory()
+				.getConnection(new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
+		// operation
+		try {
+			connection.getUser();
+			fail("exception expected");
+		} catch (NotFoundOpenShiftException e) {
+			// expected
+		}
+		// verifications
+		assertThat(metrics.getLatency(HttpMethod.GET, "Get API").getCount()).isEqualTo(1);
+		assertThat(metrics.getLatency(HttpMethod.GET, "Get user information").getCount()).isEqualTo(1);
+		assertThat(metrics.getFailures(IHttpClient.STATUS_NOT_FOUND)).isEqualTo(1);
+		assertThat(metrics.getParseTimes().getCount()).isGreaterThanOrEqualTo(1);
+	}
+
+	@Test
+	public void shouldRecordExecutorUsage() throws Throwable {
+		// pre-conditions
+		ExecutorService executor = OpenShiftExecutors.newThreadPool(1);
+		try {
+			// operation
+			executor.submit(new Runnable() {
+
+				public void run() {
+				}
+			}).get(10, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+		}
+		// verifications
+		assertThat(metrics.getMaxQueued()).isGreaterThanOrEqualTo(1);
+		assertThat(metrics.getMaxActive()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,151 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.openshift.client.IDnsCacheStatistics;
+import com.openshift.client.OpenShiftExecutors;
+import com.openshift.client.utils.HostUtils;
+import com.openshift.internal.client.utils.DnsCache;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class DnsCacheTest {
+
+	private static final String HOST = "app-foobar.rhcloud.com";
+
+	@Test
+	public void shouldReuseResolvedAddress() throws Throwable {
+		// pre-conditions
+		CountingDnsCache cache = new CountingDnsCache(60 * 1000, 60 * 1000, true);
+		// operation
+		InetAddress address1 = cache.resolve(HOST);
+		InetAddress address2 = cache.resolve(HOST);
+		// verifications
+		assertThat(address1).isNotNull().isSameAs(address2);
+		assertThat(cache.getLookups()).isEqualTo(1);
+		assertThat(cache.getStatistics().getHits()).isEqualTo(1);
+		assertThat(cache.getStatistics().getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldResolveAgainOnceNegativeTtlExpired() throws Throwable {
+		// pre-conditions
+		CountingDnsCache cache = new CountingDnsCache(60 * 1000, 50, false);
+		assertThat(cache.resolve(HOST)).isNull();
+		assertThat(cache.resolve(HOST)).isNull();
+		assertThat(cache.getLookups()).isEqualTo(1);
+		// operation
+		Thread.sleep(100);
+		cache.setResolves(true);
+		InetAddress address = cache.resolve(HOST);
+		// verifications
+		assertThat(address).isNotNull();
+		assertThat(cache.getLookups()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldResolveAgainOnceInvalidated() throws Throwable {
+		// pre-conditions
+		CountingDnsCache cache = new CountingDnsCache(60 * 1000, 60 * 1000, true);
+		cache.resolve(HOST);
+		// operation
+		cache.invalidate(HOST);
+		cache.resolve(HOST);
+		// verifications
+		assertThat(cache.getLookups()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldNotExceedMaximumEntries() throws Throwable {
+		// pre-conditions
+		CountingDnsCache cache = new CountingDnsCache(60 * 1000, 60 * 1000, 2, true);
+		// operation
+		cache.resolve("app1-foobar.rhcloud.com");
+		cache.resolve("app2-foobar.rhcloud.com");
+		cache.resolve("app3-foobar.rhcloud.com");
+		// verifications
+		assertThat(cache.getStatistics().getSize()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldPreResolveInExecutor() throws Throwable {
+		// pre-conditions
+		ExecutorService executor = OpenShiftExecutors.newThreadPool(1);
+		IDnsCacheStatistics before = HostUtils.getDnsCacheStatistics();
+		try {
+			// operation
+			boolean resolved = HostUtils.preResolve("http://localhost/", executor).get(10, TimeUnit.SECONDS);
+			boolean canResolv = HostUtils.canResolv("http://localhost/");
+			// verifications
+			assertThat(resolved).isTrue();
+			assertThat(canResolv).isTrue();
+			IDnsCacheStatistics after = HostUtils.getDnsCacheStatistics();
+			// pre-resolving is a miss or a hit, the following lookup is a hit
+			assertThat(after.getHits() + after.getMisses()).isGreaterThanOrEqualTo(
+					before.getHits() + before.getMisses() + 2);
+			assertThat(after.getHits()).isGreaterThan(before.getHits());
+			assertThat(after.getSize()).isGreaterThan(0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * A cache that does not query the dns but answers with the loopback
+	 * address if it's told to resolve.
+	 */
+	private static class CountingDnsCache extends DnsCache {
+
+		private final AtomicInteger lookups = new AtomicInteger();
+		private volatile boolean resolves;
+
+		private CountingDnsCache(long positiveTtl, long negativeTtl, boolean resolves) {
+			this(positiveTtl, negativeTtl, DEFAULT_MAX_ENTRIES, resolves);
+		}
+
+		private CountingDnsCache(long positiveTtl, long negativeTtl, int maxEntries, boolean resolves) {
+			super(positiveTtl, negativeTtl, maxEntries);
+			this.resolves = resolves;
+		}
+
+		@Override
+		protected InetAddress lookup(String host) {
+			lookups.incrementAndGet();
+			if (!resolves) {
+				return null;
+			}
+			try {
+				return InetAddress.getByAddress(host, new byte[] { 127, 0, 0, 1 });
+			} catch (UnknownHostException e) {
+				return null;
+			}
+		}
+
+		private void setResolves(boolean resolves) {
+			this.resolves = resolves;
+		}
+
+		private int getLookups() {
+			return lookups.get();
+		}
+	}
+}
@@ -16,6 +16,7 @@ import static com.openshift.client.utils.Samples.DELETE_DOMAIN_JSON;
 import static com.openshift.client.utils.Samples.GET_APPLICATIONS_WITH2APPS_JSON;
 import static com.openshift.client.utils.Samples.GET_DOMAIN;
 import static com.openshift.client.utils.Samples.GET_DOMAINS_1EXISTING;
+import static com.openshift.client.utils.Samples.GET_DOMAINS_2EXISTING;
 import static com.openshift.client.utils.Samples.GET_DOMAINS_NOEXISTING_JSON;
 import static com.openshift.client.utils.Samples.UPDATE_DOMAIN_ID;
 import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
@@ -30,6 +31,8 @@ import static org.mockito.Mockito.when;
 
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 
 import org.junit.Before;
 import org.junit.Ignore;
@@ -38,16 +41,20 @@ import org.junit.Test;
 import org.junit.rules.ErrorCollector;
 import org.junit.rules.ExpectedException;
 
+import com.openshift.client.IApplicationsByDomain;
 import com.openshift.client.IDomain;
 import com.openshift.client.IGearProfile;
 import com.openshift.client.IHttpClient;
 import com.openshift.client.IOpenShiftConnection;
 import com.openshift.client.IUser;
+import com.openshift.client.NotFoundOpenShiftException;
 import com.openshift.client.OpenShiftConnectionFactory;
 import com.openshift.client.OpenShiftEndpointException;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftExecutors;
 import com.openshift.client.utils.Samples;
 import com.openshift.internal.client.httpclient.BadRequestException;
+import com.openshift.internal.client.httpclient.NotFoundException;
 
 /**
  * @author Xavier Coulon
@@ -56,6 +63,7 @@ import com.openshift.internal.client.httpclient.BadRequestException;
 public class DomainResourceTest {
 
 	private IUser user;
+	private IOpenShiftConnection connection;
 	private IHttpClient mockClient;
 
 	@Rule
@@ -71,7 +79,7 @@ public class DomainResourceTest {
 				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
 		when(mockClient.get(urlEndsWith("/user"))).thenReturn(Samples.GET_USER_JSON.getContentAsString());
 		when(mockClient.get(urlEndsWith("/domains"))).thenReturn(GET_DOMAINS_1EXISTING.getContentAsString());
-		final IOpenShiftConnection connection = new OpenShiftConnectionFactory().getConnection(new RestService(
+		this.connection = new OpenShiftConnectionFactory().getConnection(new RestService(
 				"http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
 		this.user = connection.getUser();
 	}
@@ -218,7 +226,65 @@ public class DomainResourceTest {
 		verify(mockClient, times(0)).get(urlEndsWith("/domains/foobar/applications")); // no call, neither before and while refresh
 	}
 
-	
+	@Test
+	public void shouldLoadApplicationsOfAllDomains() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains"))).thenReturn(GET_DOMAINS_2EXISTING.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobarbaz/applications"))).thenThrow(
+				new NotFoundException("domain foobarbaz not found", null));
+		// operation
+		IApplicationsByDomain applications = connection.loadAllApplications();
+		// verifications
+		IDomain foobar = user.getDomain("foobar");
+		IDomain foobarbaz = user.getDomain("foobarbaz");
+		assertThat(applications.getDomains()).containsExactly(foobar);
+		assertThat(applications.getApplications()).hasSize(2);
+		assertThat(applications.getApplications(foobar)).isEqualTo(foobar.getApplications());
+		assertThat(applications.getApplications(foobarbaz)).isNull();
+		assertThat(applications.hasFailures()).isTrue();
+		assertThat(applications.getFailures().keySet()).containsOnly(foobarbaz);
+		assertThat(applications.getFailures().get(foobarbaz)).isInstanceOf(NotFoundOpenShiftException.class);
+		// applications were loaded into the domain
+		verify(mockClient, times(1)).get(urlEndsWith("/domains/foobar/applications"));
+	}
+
+	@Test(timeout = 10 * 1000)
+	public void shouldLoadApplicationsOfAllDomainsWhileExecutorIsBusy() throws Throwable {
+		// pre-conditions
+		when(mockClient.get(urlEndsWith("/domains"))).thenReturn(GET_DOMAINS_2EXISTING.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobar/applications"))).thenReturn(
+				GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains/foobarbaz/applications"))).thenReturn(
+				GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		ExecutorService executor = OpenShiftExecutors.newThreadPool(1);
+		final CountDownLatch blocked = new CountDownLatch(1);
+		try {
+			executor.submit(new Runnable() {
+
+				public void run() {
+					try {
+						blocked.await();
+					} catch (InterruptedException e) {
+						// test done
+					}
+				}
+			});
+			IOpenShiftConnection connection = new OpenShiftConnectionFactory(executor).getConnection(
+					new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
+			// operation
+			IApplicationsByDomain applications = connection.loadAllApplications();
+			// verifications
+			assertThat(applications.hasFailures()).isFalse();
+			assertThat(applications.getDomains()).hasSize(2);
+			assertThat(applications.getApplications()).hasSize(4);
+		} finally {
+			blocked.countDown();
+			executor.shutdownNow();
+		}
+	}
+
 	@Test
 	@Ignore
 	public void shouldRefreshDomain() throws Throwable {
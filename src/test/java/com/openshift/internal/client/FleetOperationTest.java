@@ -0,0 +1,246 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.openshift.client.ApplicationOperation;
+import com.openshift.client.FleetOperation;
+import com.openshift.client.IApplication;
+import com.openshift.client.IApplicationFilter;
+import com.openshift.client.IApplicationOperationResult;
+import com.openshift.client.IDomain;
+import com.openshift.client.IFleetOperationListener;
+import com.openshift.client.IFleetReport;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftExecutors;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class FleetOperationTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		this.executor = OpenShiftExecutors.newThreadPool(8);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldRestartAllApplications() throws Throwable {
+		// pre-conditions
+		List<IApplication> applications = createApplications(6);
+		// operation
+		IFleetReport report = new FleetOperation(ApplicationOperation.RESTART, executor)
+				.setParallelism(3)
+				.run(applications);
+		// verifications
+		assertThat(report.getResults()).hasSize(6);
+		assertThat(report.hasFailures()).isFalse();
+		for (int i = 0; i < applications.size(); i++) {
+			assertThat(report.getResults().get(i).getApplication()).isSameAs(applications.get(i));
+			verify(applications.get(i)).restart();
+		}
+	}
+
+	@Test
+	public void shouldReportFailuresAndContinue() throws Throwable {
+		// pre-conditions
+		List<IApplication> applications = createApplications(3);
+		OpenShiftException failure = new OpenShiftException("stop failed");
+		doThrow(failure).when(applications.get(0)).stop(true);
+		// operation
+		IFleetReport report = new FleetOperation(ApplicationOperation.FORCE_STOP, executor)
+				.run(applications);
+		// verifications
+		assertThat(report.getFailed()).hasSize(1);
+		assertThat(report.getFailed().get(0).getFailure()).isSameAs(failure);
+		assertThat(report.getSuccessful()).hasSize(2);
+		verify(applications.get(2)).stop(true);
+	}
+
+	@Test
+	public void shouldFinishBatchBeforeStartingNextOne() throws Throwable {
+		// pre-conditions
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		List<IApplication> applications = createApplications(6);
+		for (IApplication application : applications) {
+			doAnswer(new Answer<Void>() {
+
+				public Void answer(InvocationOnMock invocation) throws Throwable {
+					int current = running.incrementAndGet();
+					synchronized (maxRunning) {
+						maxRunning.set(Math.max(maxRunning.get(), current));
+					}
+					Thread.sleep(20);
+					running.decrementAndGet();
+					return null;
+				}
+			}).when(application).start();
+		}
+		// operation
+		IFleetReport report = new FleetOperation(ApplicationOperation.START, executor)
+				.setParallelism(5)
+				.setBatchSize(2)
+				.run(applications);
+		// verifications
+		assertThat(report.hasFailures()).isFalse();
+		assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	public void shouldCancelRemainingBatchesOnFailure() throws Throwable {
+		// pre-conditions
+		List<IApplication> applications = createApplications(4);
+		doThrow(new OpenShiftException("start failed")).when(applications.get(1)).start();
+		// operation
+		IFleetReport report = new FleetOperation(ApplicationOperation.START, executor)
+				.setBatchSize(2)
+				.setStopOnFailure(true)
+				.run(applications);
+		// verifications
+		assertThat(report.getSuccessful()).hasSize(1);
+		assertThat(report.getFailed()).hasSize(3);
+		verify(applications.get(2), never()).start();
+		verify(applications.get(3), never()).start();
+	}
+
+	@Test
+	public void shouldLimitRate() throws Throwable {
+		// pre-conditions
+		List<IApplication> applications = createApplications(5);
+		// operation
+		IFleetReport report = new FleetOperation(ApplicationOperation.STOP, executor)
+				.setParallelism(5)
+				.setRateLimit(20)
+				.run(applications);
+		// verifications
+		// 1 operation right away, the 4 others 50ms apart
+		assertThat(report.getDuration()).isGreaterThanOrEqualTo(150);
+	}
+
+	@Test
+	public void shouldWaitForRateLimitInCallingThread() throws Throwable {
+		// pre-conditions
+		List<IApplication> applications = createApplications(3);
+		ExecutorService singleThreadExecutor = OpenShiftExecutors.newThreadPool(1);
+		final CountDownLatch blocked = new CountDownLatch(1);
+		try {
+			singleThreadExecutor.submit(new Runnable() {
+
+				public void run() {
+					try {
+						blocked.await();
+					} catch (InterruptedException e) {
+						// test done
+					}
+				}
+			});
+			// operation
+			IFleetReport report = new FleetOperation(ApplicationOperation.STOP, singleThreadExecutor)
+					.setParallelism(3)
+					.setRateLimit(20)
+					.run(applications);
+			// verifications
+			assertThat(report.getResults()).hasSize(3);
+			for (IApplicationOperationResult result : report.getResults()) {
+				assertThat(result.isSuccessful()).isTrue();
+			}
+			assertThat(report.getDuration()).isGreaterThanOrEqualTo(100);
+		} finally {
+			blocked.countDown();
+			singleThreadExecutor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldNotifyListener() throws Throwable {
+		// pre-conditions
+		List<IApplication> applications = createApplications(3);
+		final List<IApplication> started = Collections.synchronizedList(new ArrayList<IApplication>());
+		final List<Integer> completed = Collections.synchronizedList(new ArrayList<Integer>());
+		// operation
+		new FleetOperation(ApplicationOperation.RESTART, executor)
+				.setParallelism(1)
+				.setListener(new IFleetOperationListener() {
+
+					public void started(IApplication application, ApplicationOperation operation) {
+						started.add(application);
+					}
+
+					public void completed(IApplicationOperationResult result, int numOfCompleted, int total) {
+						assertThat(total).isEqualTo(3);
+						completed.add(numOfCompleted);
+					}
+				})
+				.run(applications);
+		// verifications
+		assertThat(started).isEqualTo(applications);
+		assertThat(completed).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	public void shouldRunOnFilteredApplicationsOfDomain() throws Throwable {
+		// pre-conditions
+		final List<IApplication> applications = createApplications(4);
+		IDomain domain = mock(IDomain.class);
+		when(domain.getApplications()).thenReturn(applications);
+		// operation
+		IFleetReport report = new FleetOperation(ApplicationOperation.RESTART, executor)
+				.run(domain, new IApplicationFilter() {
+
+					public boolean accept(IApplication application) {
+						return applications.indexOf(application) % 2 == 0;
+					}
+				});
+		// verifications
+		assertThat(report.getResults()).hasSize(2);
+		verify(applications.get(0)).restart();
+		verify(applications.get(1), never()).restart();
+		verify(applications.get(2)).restart();
+	}
+
+	private List<IApplication> createApplications(int numOfApplications) {
+		List<IApplication> applications = new ArrayList<IApplication>();
+		for (int i = 0; i < numOfApplications; i++) {
+			IApplication application = mock(IApplication.class);
+			when(application.getName()).thenReturn("app" + i);
+			applications.add(application);
+		}
+		return applications;
+	}
+}
@@ -16,30 +16,45 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.net.ssl.HttpsURLConnection;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.openshift.client.IAsyncHttpClient;
+import com.openshift.client.IConditionalHttpClient;
 import com.openshift.client.IHttpClient;
+import com.openshift.client.IResponseReader;
+import com.openshift.client.IStreamingHttpClient;
 import com.openshift.client.OpenShiftException;
 import com.openshift.client.fakes.HttpClientFake;
 import com.openshift.client.fakes.HttpServerFake;
 import com.openshift.client.utils.Base64Coder;
+import com.openshift.internal.client.httpclient.CachedResponse;
 import com.openshift.internal.client.httpclient.HttpClientException;
 import com.openshift.internal.client.httpclient.NotFoundException;
+import com.openshift.internal.client.httpclient.TransferStatistics;
+import com.openshift.internal.client.httpclient.UrlConnectionHttpClient;
 import com.openshift.internal.client.httpclient.UrlConnectionHttpClientBuilder;
+import com.openshift.internal.client.utils.StreamUtils;
 
 /**
  * @author Andre Dietisheim
@@ -97,6 +112,90 @@ public class HttpClientTest {
 		assertTrue(response.startsWith("DELETE"));
 	}
 
+	@Test
+	public void canReadResponseStream() throws SocketTimeoutException, HttpClientException, MalformedURLException {
+		IResponseReader<String> firstLineReader = new IResponseReader<String>() {
+
+			public String read(InputStream inputStream) throws IOException {
+				return new BufferedReader(new InputStreamReader(inputStream)).readLine();
+			}
+		};
+		String firstLine = ((IStreamingHttpClient) httpClient).get(serverFake.getUrl(), firstLineReader);
+		assertEquals("GET / HTTP/1.1", firstLine);
+	}
+
+	@Test
+	public void shouldSendValidatorsOfCachedResponse() throws IOException {
+		// pre-conditions
+		CachedResponse<String> cached = new CachedResponse<String>("cached", "\"42\"", "Mon, 01 Jul 2013 10:00:00 GMT");
+		// operation
+		CachedResponse<String> response =
+				((IConditionalHttpClient) httpClient).get(serverFake.getUrl(), cached, new StringReader());
+		// verifications
+		assertThat(response).isNotSameAs(cached);
+		assertThat(response.getResponse()).contains("If-None-Match: \"42\"");
+		assertThat(response.getResponse()).contains("If-Modified-Since: Mon, 01 Jul 2013 10:00:00 GMT");
+	}
+
+	@Test
+	public void shouldReturnValidatorsOfResponse() throws IOException {
+		HttpServerFake server = null;
+		try {
+			// precondition
+			this.serverFake.stop();
+			server = startHttServerFake("HTTP/1.1 200 OK\nETag: \"42\"\nLast-Modified: Mon, 01 Jul 2013 10:00:00 GMT");
+			// operation
+			CachedResponse<String> response =
+					((IConditionalHttpClient) httpClient).get(server.getUrl(), null, new StringReader());
+			// verifications
+			assertThat(response.getETag()).isEqualTo("\"42\"");
+			assertThat(response.getLastModified()).isEqualTo("Mon, 01 Jul 2013 10:00:00 GMT");
+			assertThat(response.getResponse()).doesNotContain("If-None-Match");
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void shouldReturnCachedResponseIfNotModified() throws IOException {
+		HttpServerFake server = null;
+		try {
+			// precondition
+			this.serverFake.stop();
+			server = startHttServerFake("HTTP/1.1 304 Not Modified");
+			CachedResponse<String> cached = new CachedResponse<String>("cached", "\"42\"", null);
+			// operation
+			CachedResponse<String> response =
+					((IConditionalHttpClient) httpClient).get(server.getUrl(), cached, new StringReader());
+			// verifications
+			assertThat(response).isSameAs(cached);
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void shouldAcceptCompressedResponses() throws SocketTimeoutException, HttpClientException,
+			MalformedURLException {
+		// operation
+		String response = httpClient.get(serverFake.getUrl());
+		// verifications
+		assertThat(response).contains("Accept-Encoding: gzip, deflate");
+	}
+
+	@Test
+	public void shouldCountReceivedBytes() throws SocketTimeoutException, HttpClientException,
+			MalformedURLException {
+		// pre-conditions
+		TransferStatistics statistics = ((UrlConnectionHttpClient) httpClient).getTransferStatistics();
+		// operation
+		String response = httpClient.get(serverFake.getUrl());
+		// verifications
+		assertThat(statistics.getResponses()).isEqualTo(1);
+		assertThat(statistics.getBytesReceived()).isEqualTo(response.length());
+		assertThat(statistics.getBytesDecoded()).isEqualTo(statistics.getBytesReceived());
+	}
+
 	@Test
 	public void canAddAuthorization() throws SocketTimeoutException, HttpClientException, MalformedURLException {
 		String username = "andre.dietisheim@redhat.com";
@@ -142,6 +241,18 @@ public class HttpClientTest {
 		assertEquals("OpenShift", httpClient.getUserAgent());
 	}
 
+	@Test
+	public void hasProperAgentForEachClientOfBuilder() {
+		UrlConnectionHttpClientBuilder builder = new UrlConnectionHttpClientBuilder()
+				.setUserAgent("com.needskey").setCredentials("blah", "bluh", "authkey", "authiv");
+
+		assertEquals("OpenShift-com.needskey", builder.client().getUserAgent());
+		IAsyncHttpClient asyncClient = builder.asyncClient();
+		assertEquals("OpenShift-com.needskey", asyncClient.getUserAgent());
+		asyncClient.shutdown();
+		assertEquals("com.needskey", builder.setCredentials("blah", "bluh").client().getUserAgent());
+	}
+
 	@Test
 	public void shouldEncodeParametersCorrectly() throws HttpClientException, FileNotFoundException, IOException,
 			OpenShiftException {
@@ -198,6 +309,38 @@ public class HttpClientTest {
 		httpClient.get(serverFake.getUrl());
 	}
 
+	@Test
+	public void shouldReuseSSLSocketFactoryForHttpsConnections() throws FileNotFoundException, IOException,
+			OpenShiftException {
+		// pre-conditions
+		final URL url = new URL("https://localhost:8443/broker/rest/api");
+		final List<HttpsURLConnection> connections = new ArrayList<HttpsURLConnection>();
+		IHttpClient httpClient = new HttpClientFake("1.0") {
+
+			@Override
+			protected String write(String data, String requestMethod, URL url)
+					throws SocketTimeoutException, HttpClientException {
+				try {
+					connections.add((HttpsURLConnection) createConnection("dummyUser", "dummyPassword",
+							"dummyUserAgent", url));
+					return data;
+				} catch (IOException e) {
+					fail("could not create HttpURLConnection");
+					return null;
+				}
+			}
+		};
+
+		// operation
+		httpClient.post(new HashMap<String, Object>(), url);
+		httpClient.post(new HashMap<String, Object>(), url);
+
+		// verification
+		assertThat(connections).hasSize(2);
+		assertThat(connections.get(0).getSSLSocketFactory()).isSameAs(connections.get(1).getSSLSocketFactory());
+		assertThat(connections.get(0).getHostnameVerifier()).isSameAs(connections.get(1).getHostnameVerifier());
+	}
+
 	@Test(expected = NotFoundException.class)
 	public void shouldThrowNotFoundException() throws IOException {
 		HttpServerFake server = null;
@@ -257,6 +400,13 @@ public class HttpClientTest {
 		}
 	}
 
+	private static class StringReader implements IResponseReader<String> {
+
+		public String read(InputStream inputStream) throws IOException {
+			return StreamUtils.readToString(inputStream);
+		}
+	}
+
 	protected HttpServerFake startHttServerFake(String statusLine) throws IOException {
 		int port = new Random().nextInt(9 * 1024) + 1024;
 		HttpServerFake serverFake = null;
@@ -0,0 +1,175 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.IHttpClient;
+import com.openshift.internal.client.httpclient.ConnectionLeaseTimeoutException;
+import com.openshift.internal.client.httpclient.HttpConnectionPool;
+import com.openshift.internal.client.httpclient.HttpConnectionPool.Statistics;
+import com.openshift.internal.client.httpclient.UrlConnectionHttpClientBuilder;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class HttpConnectionPoolTest {
+
+	private URL url;
+
+	@Before
+	public void setUp() throws Exception {
+		this.url = new URL("https://openshift.redhat.com/broker/rest/api");
+	}
+
+	@Test
+	public void shouldKeepReusableConnectionAlive() throws Exception {
+		// pre-conditions
+		HttpConnectionPool pool = new HttpConnectionPool();
+		HttpURLConnection connection = mock(HttpURLConnection.class);
+		pool.acquire(url);
+		// operation
+		pool.release(url, connection, true);
+		// verifications
+		verify(connection, times(1)).getInputStream();
+		verify(connection, never()).disconnect();
+		Statistics statistics = pool.getStatistics();
+		assertThat(statistics.getKeptAlive()).isEqualTo(1);
+		assertThat(statistics.getLeased()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldDisconnectConnectionThatIsNotReusable() throws Exception {
+		// pre-conditions
+		HttpConnectionPool pool = new HttpConnectionPool();
+		HttpURLConnection connection = mock(HttpURLConnection.class);
+		pool.acquire(url);
+		// operation
+		pool.release(url, connection, false);
+		// verifications
+		verify(connection, times(1)).disconnect();
+		Statistics statistics = pool.getStatistics();
+		assertThat(statistics.getDiscarded()).isEqualTo(1);
+		assertThat(statistics.getKeptAlive()).isEqualTo(0);
+		assertThat(statistics.getLeased()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldTrackConnectionsPerHost() throws Exception {
+		// pre-conditions
+		HttpConnectionPool pool = new HttpConnectionPool();
+		URL otherHostUrl = new URL("https://localhost:8443/broker/rest/api");
+		pool.acquire(url);
+		pool.release(url, mock(HttpURLConnection.class), true);
+		// operation
+		pool.acquire(otherHostUrl);
+		// verifications
+		Statistics statistics = pool.getStatistics();
+		assertThat(statistics.getHosts()).isEqualTo(2);
+		assertThat(statistics.getLeased()).isEqualTo(1);
+	}
+
+	@Test(timeout = 10 * 1000)
+	public void shouldNotLimitLeasesByDefault() throws Exception {
+		// pre-conditions
+		HttpConnectionPool pool = new HttpConnectionPool();
+		// operation
+		for (int i = 0; i < 100; i++) {
+			pool.acquire(url);
+		}
+		// verifications
+		assertThat(pool.getMaxConnectionsPerHost()).isEqualTo(HttpConnectionPool.NO_LIMIT);
+		Statistics statistics = pool.getStatistics();
+		assertThat(statistics.getLeased()).isEqualTo(100);
+		assertThat(statistics.getWaiting()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldBlockIfMaxConnectionsAreLeased() throws Exception {
+		// pre-conditions
+		final HttpConnectionPool pool = new HttpConnectionPool(1, 60 * 1000);
+		final CountDownLatch acquired = new CountDownLatch(1);
+		pool.acquire(url);
+		// operation
+		new Thread() {
+			public void run() {
+				try {
+					pool.acquire(url);
+					acquired.countDown();
+				} catch (Exception e) {
+					// ignore
+				}
+			}
+		}.start();
+		// verifications
+		assertThat(acquired.await(200, TimeUnit.MILLISECONDS)).isFalse();
+		pool.release(url, mock(HttpURLConnection.class), true);
+		assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void shouldTimeoutIfNoConnectionCanBeLeased() throws Exception {
+		// pre-conditions
+		HttpConnectionPool pool = new HttpConnectionPool(1, 10);
+		pool.acquire(url);
+		// operation
+		try {
+			pool.acquire(url);
+			fail("ConnectionLeaseTimeoutException expected");
+		} catch (ConnectionLeaseTimeoutException e) {
+			// expected
+		}
+		// verifications
+		Statistics statistics = pool.getStatistics();
+		assertThat(statistics.getTimedOut()).isEqualTo(1);
+		assertThat(statistics.getLeased()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotReleaseLeaseThatClientFailedToAcquire() throws Exception {
+		// pre-conditions
+		HttpConnectionPool pool = new HttpConnectionPool(1, 10);
+		IHttpClient client = new UrlConnectionHttpClientBuilder()
+				.setConnectionPool(pool)
+				.client();
+		pool.acquire(url);
+		// operation
+		try {
+			client.get(url);
+			fail("ConnectionLeaseTimeoutException expected");
+		} catch (ConnectionLeaseTimeoutException e) {
+			// expected
+		}
+		pool.release(url, null, false);
+		// verifications
+		assertThat(pool.getStatistics().getLeased()).isEqualTo(0);
+		pool.acquire(url);
+		try {
+			pool.acquire(url);
+			fail("per host limit should still be 1");
+		} catch (ConnectionLeaseTimeoutException e) {
+			// expected
+		}
+	}
+}
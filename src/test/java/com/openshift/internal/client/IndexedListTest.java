@@ -0,0 +1,205 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.internal.client.utils.IndexedList;
+import com.openshift.internal.client.utils.IndexedList.Index;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class IndexedListTest {
+
+	private IndexedList<Application> applications;
+	private Index<Application> byName;
+	private Index<Application> byCartridge;
+
+	@Before
+	public void setUp() {
+		this.applications = new IndexedList<Application>();
+		this.byName = applications.addIndex(new Index<Application>() {
+
+			@Override
+			protected String getKey(Application application) {
+				return application.name;
+			}
+		});
+		this.byCartridge = applications.addIndex(new Index<Application>() {
+
+			@Override
+			protected String getKey(Application application) {
+				return application.cartridge;
+			}
+		});
+	}
+
+	@Test
+	public void shouldLookupAddedValuesByKey() {
+		// pre-conditions
+		Application php = new Application("php", "php-5.3");
+		Application jboss = new Application("jboss", "jbossas-7");
+		Application blog = new Application("blog", "php-5.3");
+		// operation
+		applications.add(php);
+		applications.add(jboss);
+		applications.add(blog);
+		// verification
+		assertThat(byName.get("jboss")).isSameAs(jboss);
+		assertThat(byName.get("ruby")).isNull();
+		assertThat(byCartridge.getAll("php-5.3")).containsExactly(php, blog);
+		assertThat(byCartridge.getAll("ruby-1.9")).isEmpty();
+	}
+
+	@Test
+	public void shouldNotFindRemovedValues() {
+		// pre-conditions
+		Application php = new Application("php", "php-5.3");
+		applications.add(php);
+		// operation
+		boolean removed = applications.remove(php);
+		// verification
+		assertThat(removed).isTrue();
+		assertThat(byName.get("php")).isNull();
+		assertThat(byCartridge.getAll("php-5.3")).isEmpty();
+		assertThat(applications.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldFindValueByNewKeyOnceReindexed() {
+		// pre-conditions
+		Application php = new Application("php", "php-5.3");
+		applications.add(php);
+		// operation
+		php.name = "blog";
+		applications.reindex();
+		// verification
+		assertThat(byName.get("php")).isNull();
+		assertThat(byName.get("blog")).isSameAs(php);
+	}
+
+	@Test
+	public void shouldFindValuesWhileReindexing() throws Exception {
+		// pre-conditions
+		List<Application> values = new ArrayList<Application>();
+		for (int i = 0; i < 1000; i++) {
+			values.add(new Application("app" + i, "php-5.3"));
+		}
+		applications.addAll(values);
+		final AtomicBoolean reindexing = new AtomicBoolean(true);
+		Thread reindexer = new Thread() {
+
+			@Override
+			public void run() {
+				while (reindexing.get()) {
+					applications.reindex();
+				}
+			}
+		};
+		reindexer.start();
+		// operation
+		int misses = 0;
+		try {
+			for (int i = 0; i < 10000; i++) {
+				if (byName.get("app" + (i % 1000)) == null) {
+					misses++;
+				}
+			}
+		} finally {
+			reindexing.set(false);
+			reindexer.join();
+		}
+		// verification
+		assertThat(misses).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldRemoveValueWhoseKeyChanged() {
+		// pre-conditions
+		Application php = new Application("php", "php-5.3");
+		applications.add(php);
+		// operation
+		php.name = null;
+		applications.remove(php);
+		// verification
+		php.name = "php";
+		assertThat(byName.get("php")).isNull();
+	}
+
+	@Test
+	public void shouldShareSnapshotUntilModified() {
+		// pre-conditions
+		applications.add(new Application("php", "php-5.3"));
+		List<Application> snapshot = applications.asList();
+		// operation
+		applications.add(new Application("jboss", "jbossas-7"));
+		// verification
+		assertThat(snapshot).hasSize(1);
+		assertThat(applications.asList()).hasSize(2);
+		assertThat(applications.asList()).isSameAs(applications.asList());
+		assertThat(byCartridge.getAll("php-5.3")).isSameAs(byCartridge.getAll("php-5.3"));
+		try {
+			snapshot.clear();
+			fail("UnsupportedOperationException expected");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void shouldTakeSnapshotOfKeyOnceModified() {
+		// pre-conditions
+		Application php = new Application("php", "php-5.3");
+		Application blog = new Application("blog", "php-5.3");
+		applications.add(php);
+		List<Application> snapshot = byCartridge.getAll("php-5.3");
+		// operation
+		applications.add(blog);
+		// verification
+		assertThat(snapshot).containsExactly(php);
+		assertThat(byCartridge.getAll("php-5.3")).containsExactly(php, blog);
+		assertThat(applications.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldIndexValuesAddedAtOnce() {
+		// pre-conditions
+		Application php = new Application("php", "php-5.3");
+		Application blog = new Application("blog", "php-5.3");
+		// operation
+		applications.addAll(Arrays.asList(php, blog));
+		// verification
+		assertThat(applications.asList()).containsExactly(php, blog);
+		assertThat(byName.get("blog")).isSameAs(blog);
+		assertThat(byCartridge.getAll("php-5.3")).containsExactly(php, blog);
+	}
+
+	private static class Application {
+
+		private String name;
+		private final String cartridge;
+
+		private Application(String name, String cartridge) {
+			this.name = name;
+			this.cartridge = cartridge;
+		}
+	}
+}
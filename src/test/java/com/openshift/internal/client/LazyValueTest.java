@@ -0,0 +1,257 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.IDomain;
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.utils.LazyValue;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class LazyValueTest {
+
+	private static final int THREADS = 8;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		this.executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldLoadOnceForConcurrentRequests() throws Throwable {
+		// pre-conditions
+		final CountDownLatch requested = new CountDownLatch(THREADS);
+		final AtomicInteger loads = new AtomicInteger();
+		final LazyValue<String> value = new LazyValue<String>() {
+
+			@Override
+			protected String load() throws OpenShiftException {
+				loads.incrementAndGet();
+				await(requested);
+				return "loaded";
+			}
+		};
+		// operation
+		List<Future<String>> results = getConcurrently(value, requested);
+		// verification
+		for (Future<String> result : results) {
+			assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("loaded");
+		}
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(value.isLoaded()).isTrue();
+	}
+
+	@Test
+	public void shouldReportFailureToAllWaitersAndLoadAgain() throws Throwable {
+		// pre-conditions
+		final CountDownLatch requested = new CountDownLatch(THREADS);
+		final AtomicInteger loads = new AtomicInteger();
+		final LazyValue<String> value = new LazyValue<String>() {
+
+			@Override
+			protected String load() throws OpenShiftException {
+				if (loads.incrementAndGet() == 1) {
+					await(requested);
+					throw new OpenShiftException("broker unavailable");
+				}
+				return "loaded";
+			}
+		};
+		// operation
+		List<Future<String>> results = getConcurrently(value, requested);
+		// verification
+		for (Future<String> result : results) {
+			try {
+				result.get(10, TimeUnit.SECONDS);
+				fail("exception expected");
+			} catch (ExecutionException e) {
+				assertThat(e.getCause()).isInstanceOf(OpenShiftException.class);
+			}
+		}
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(value.isLoaded()).isFalse();
+		assertThat(value.get()).isEqualTo("loaded");
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test(timeout = 10 * 1000)
+	public void shouldReleaseWaitersIfLoadThrowsError() throws Throwable {
+		// pre-conditions
+		final CountDownLatch requested = new CountDownLatch(THREADS);
+		final AtomicInteger loads = new AtomicInteger();
+		final LazyValue<String> value = new LazyValue<String>() {
+
+			@Override
+			protected String load() throws OpenShiftException {
+				if (loads.incrementAndGet() == 1) {
+					await(requested);
+					throw new OutOfMemoryError("fake");
+				}
+				return "loaded";
+			}
+		};
+		// operation
+		List<Future<String>> results = getConcurrently(value, requested);
+		// verification
+		for (Future<String> result : results) {
+			try {
+				result.get(10, TimeUnit.SECONDS);
+				fail("exception expected");
+			} catch (ExecutionException e) {
+				assertThat(e.getCause()).isInstanceOf(OutOfMemoryError.class);
+			}
+		}
+		assertThat(value.get()).isEqualTo("loaded");
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldReloadOnceForConcurrentReloads() throws Throwable {
+		// pre-conditions
+		final CountDownLatch requested = new CountDownLatch(THREADS);
+		final AtomicInteger loads = new AtomicInteger();
+		final LazyValue<String> value = new LazyValue<String>() {
+
+			@Override
+			protected String load() throws OpenShiftException {
+				if (loads.incrementAndGet() > 1) {
+					await(requested);
+				}
+				return "loaded " + loads.get();
+			}
+		};
+		value.get();
+		List<Future<String>> results = new ArrayList<Future<String>>();
+		// operation
+		for (int i = 0; i < THREADS; i++) {
+			results.add(executor.submit(new Callable<String>() {
+
+				public String call() throws Exception {
+					requested.countDown();
+					return value.reload();
+				}
+			}));
+		}
+		// verification
+		for (Future<String> result : results) {
+			assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("loaded 2");
+		}
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldNotLoadValueThatWasSet() throws Throwable {
+		// pre-conditions
+		final AtomicInteger loads = new AtomicInteger();
+		LazyValue<String> value = new LazyValue<String>() {
+
+			@Override
+			protected String load() throws OpenShiftException {
+				loads.incrementAndGet();
+				return "loaded";
+			}
+		};
+		// operation
+		value.set("set");
+		// verification
+		assertThat(value.get()).isEqualTo("set");
+		assertThat(loads.get()).isEqualTo(0);
+		assertThat(value.reload()).isEqualTo("loaded");
+		value.reset();
+		assertThat(value.getIfLoaded()).isNull();
+	}
+
+	@Test
+	public void shouldListDomainsOnceForConcurrentCallers() throws Throwable {
+		// pre-conditions
+		IHttpClient mockClient = mock(IHttpClient.class);
+		when(mockClient.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains")))
+				.thenReturn(Samples.GET_DOMAINS_NOEXISTING_JSON.getContentAsString());
+		final IOpenShiftConnection connection = new OpenShiftConnectionFactory()
+				.getConnection(new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
+		List<Future<List<IDomain>>> results = new ArrayList<Future<List<IDomain>>>();
+		// operation
+		for (int i = 0; i < THREADS; i++) {
+			results.add(executor.submit(new Callable<List<IDomain>>() {
+
+				public List<IDomain> call() throws Exception {
+					return connection.getDomains();
+				}
+			}));
+		}
+		// verification
+		for (Future<List<IDomain>> result : results) {
+			assertThat(result.get(10, TimeUnit.SECONDS)).isEmpty();
+		}
+		verify(mockClient, times(1)).get(urlEndsWith("/domains"));
+	}
+
+	private List<Future<String>> getConcurrently(final LazyValue<String> value, final CountDownLatch requested) {
+		List<Future<String>> results = new ArrayList<Future<String>>();
+		for (int i = 0; i < THREADS; i++) {
+			results.add(executor.submit(new Callable<String>() {
+
+				public String call() throws Exception {
+					requested.countDown();
+					return value.get();
+				}
+			}));
+		}
+		return results;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+			// give the last thread the time to start waiting
+			Thread.sleep(50);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,307 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.Deadline;
+import com.openshift.client.IAsyncHttpClient;
+import com.openshift.client.IResponseCallback;
+import com.openshift.client.fakes.HttpServerFake;
+import com.openshift.internal.client.httpclient.ContentEncoding;
+import com.openshift.internal.client.httpclient.HttpResponseDecoder;
+import com.openshift.internal.client.httpclient.NioHttpClient;
+import com.openshift.internal.client.httpclient.NotFoundException;
+import com.openshift.internal.client.httpclient.RequestTimeout;
+import com.openshift.internal.client.httpclient.UrlConnectionHttpClientBuilder;
+import com.openshift.internal.client.utils.StreamUtils;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class NioHttpClientTest {
+
+	private HttpServerFake serverFake;
+	private IAsyncHttpClient httpClient;
+
+	@Before
+	public void setUp() throws IOException {
+		this.httpClient = new UrlConnectionHttpClientBuilder()
+				.setUserAgent("com.openshift.client.test")
+				.asyncClient();
+	}
+
+	@After
+	public void tearDown() {
+		if (serverFake != null) {
+			serverFake.stop();
+		}
+		httpClient.shutdown();
+	}
+
+	@Test
+	public void shouldGetAsynchronously() throws Exception {
+		// pre-conditions
+		this.serverFake = startHttpServerFake(null);
+		final CountDownLatch callbackNotified = new CountDownLatch(1);
+		final AtomicReference<String> callbackResponse = new AtomicReference<String>();
+		// operation
+		Future<String> future = httpClient.get(serverFake.getUrl(), new IResponseCallback<String>() {
+
+			public void completed(String response) {
+				callbackResponse.set(response);
+				callbackNotified.countDown();
+			}
+
+			public void failed(Throwable cause) {
+				callbackNotified.countDown();
+			}
+		});
+		// verifications
+		String response = future.get(10, TimeUnit.SECONDS);
+		assertThat(response).startsWith("GET / HTTP/1.1");
+		assertThat(response).contains("User-Agent: com.openshift.client.test");
+		assertThat(callbackNotified.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(callbackResponse.get()).isEqualTo(response);
+	}
+
+	@Test
+	public void shouldResolveHostInExecutor() throws Exception {
+		// pre-conditions
+		this.serverFake = startHttpServerFake(null);
+		final AtomicInteger executed = new AtomicInteger();
+		((NioHttpClient) httpClient).setExecutor(new Executor() {
+
+			public void execute(Runnable command) {
+				executed.incrementAndGet();
+				new Thread(command).start();
+			}
+		});
+		// operation
+		String response = httpClient.get(serverFake.getUrl(), null).get(10, TimeUnit.SECONDS);
+		// verifications
+		assertThat(response).startsWith("GET / HTTP/1.1");
+		assertThat(executed.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldPostParametersAsynchronously() throws Exception {
+		// pre-conditions
+		this.serverFake = startHttpServerFake(null);
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("adietish", "redhat");
+		// operation
+		String response = httpClient.post(parameters, serverFake.getUrl(), null).get(10, TimeUnit.SECONDS);
+		// verifications
+		assertThat(response).startsWith("POST / HTTP/1.1");
+		assertThat(response).contains("Content-Length: 15");
+	}
+
+	@Test
+	public void shouldFailWithNotFoundException() throws Exception {
+		// pre-conditions
+		this.serverFake = startHttpServerFake("HTTP/1.1 404 Not Found\n");
+		// operation
+		Future<String> future = httpClient.get(serverFake.getUrl(), null);
+		// verifications
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			fail("Expected NotFoundException not thrown");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(NotFoundException.class);
+		}
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void shouldThrowNotFoundExceptionWhenRequestingSynchronously() throws Exception {
+		// pre-conditions
+		this.serverFake = startHttpServerFake("HTTP/1.1 404 Not Found\n");
+		// operation
+		httpClient.get(serverFake.getUrl());
+	}
+
+	@Test
+	public void shouldDecodeResponseWithContentLength() throws Exception {
+		// pre-conditions
+		HttpResponseDecoder decoder = new HttpResponseDecoder();
+		// operation
+		boolean complete = decoder.decode(toBuffer(
+				"HTTP/1.1 200 OK\r\nContent-Length: 13\r\nContent-Type: application/json\r\n\r\n{\"id\":\"foo\"}\n"));
+		// verifications
+		assertThat(complete).isTrue();
+		assertThat(decoder.getStatusCode()).isEqualTo(200);
+		assertThat(decoder.getHeader("content-type")).isEqualTo("application/json");
+		assertThat(decoder.getBodyAsString()).isEqualTo("{\"id\":\"foo\"}\n");
+		assertThat(decoder.isKeepAlive()).isTrue();
+	}
+
+	@Test
+	public void shouldDecodeChunkedResponseReceivedInPieces() throws Exception {
+		// pre-conditions
+		HttpResponseDecoder decoder = new HttpResponseDecoder();
+		// operation
+		boolean complete = decoder.decode(toBuffer("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nHel"));
+		assertThat(complete).isFalse();
+		complete = decoder.decode(toBuffer("lo\r\n7;ext=1\r\n, World\r\n0\r\n\r\n"));
+		// verifications
+		assertThat(complete).isTrue();
+		assertThat(decoder.getBodyAsString()).isEqualTo("Hello, World");
+		assertThat(decoder.isKeepAlive()).isTrue();
+	}
+
+	@Test
+	public void shouldDecodeResponseTerminatedByConnectionClose() throws Exception {
+		// pre-conditions
+		HttpResponseDecoder decoder = new HttpResponseDecoder();
+		// operation
+		boolean complete = decoder.decode(toBuffer("HTTP/1.0 404 Not Found\n\nnot there"));
+		assertThat(complete).isFalse();
+		complete = decoder.endOfStream();
+		// verifications
+		assertThat(complete).isTrue();
+		assertThat(decoder.getStatusCode()).isEqualTo(404);
+		assertThat(decoder.getReasonPhrase()).isEqualTo("Not Found");
+		assertThat(decoder.getBodyAsString()).isEqualTo("not there");
+		assertThat(decoder.isKeepAlive()).isFalse();
+	}
+
+	@Test
+	public void shouldDecodeGzipCompressedBody() throws Exception {
+		// pre-conditions
+		byte[] body = gzip("{\"id\":\"foo\"}");
+		HttpResponseDecoder decoder = new HttpResponseDecoder();
+		// operation
+		decoder.decode(toBuffer("HTTP/1.1 200 OK\r\nContent-Encoding: gzip\r\nContent-Length: " + body.length
+				+ "\r\n\r\n"));
+		boolean complete = decoder.decode(ByteBuffer.wrap(body));
+		// verifications
+		assertThat(complete).isTrue();
+		assertThat(decoder.getBodyLength()).isEqualTo(body.length);
+		assertThat(decoder.getBodyAsString()).isEqualTo("{\"id\":\"foo\"}");
+	}
+
+	@Test
+	public void shouldDecodeZlibAndRawDeflateStreams() throws Exception {
+		// pre-conditions
+		byte[] zlib = deflate("zlib", false);
+		byte[] raw = deflate("raw", true);
+		// operation
+		String decodedZlib = StreamUtils.readToString(
+				ContentEncoding.decode(new ByteArrayInputStream(zlib), ContentEncoding.DEFLATE));
+		String decodedRaw = StreamUtils.readToString(
+				ContentEncoding.decode(new ByteArrayInputStream(raw), ContentEncoding.DEFLATE));
+		// verifications
+		assertThat(decodedZlib).isEqualTo("zlib\n");
+		assertThat(decodedRaw).isEqualTo("raw\n");
+	}
+
+	@Test(timeout = 10 * 1000)
+	public void shouldTimeoutOnceReadTimeoutOfRequestElapsed() throws Exception {
+		// pre-conditions
+		ServerSocket silentServer = new ServerSocket(0);
+		RequestTimeout previousTimeout = RequestTimeout.set(new RequestTimeout(-1, 200));
+		try {
+			// operation
+			httpClient.get(new URL("http://localhost:" + silentServer.getLocalPort() + "/"));
+			fail("SocketTimeoutException expected");
+		} catch (SocketTimeoutException e) {
+			// expected
+		} finally {
+			RequestTimeout.set(previousTimeout);
+			silentServer.close();
+		}
+	}
+
+	@Test(timeout = 10 * 1000)
+	public void shouldTimeoutOnceDeadlineIsReached() throws Exception {
+		// pre-conditions
+		ServerSocket silentServer = new ServerSocket(0);
+		Deadline deadline = Deadline.after(200, TimeUnit.MILLISECONDS).attach();
+		try {
+			// operation
+			httpClient.get(new URL("http://localhost:" + silentServer.getLocalPort() + "/"));
+			fail("SocketTimeoutException expected");
+		} catch (SocketTimeoutException e) {
+			// expected
+		} finally {
+			deadline.detach();
+			silentServer.close();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldThrowIfConnectionIsClosedBeforeResponseIsComplete() throws Exception {
+		// pre-conditions
+		HttpResponseDecoder decoder = new HttpResponseDecoder();
+		decoder.decode(toBuffer("HTTP/1.1 200 OK\r\nContent-Length: 100\r\n\r\nshort"));
+		// operation
+		decoder.endOfStream();
+	}
+
+	private byte[] gzip(String data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		return compress(data, new GZIPOutputStream(out), out);
+	}
+
+	private byte[] deflate(String data, boolean raw) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		return compress(data, new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw)), out);
+	}
+
+	private byte[] compress(String data, DeflaterOutputStream compressingStream, ByteArrayOutputStream out)
+			throws IOException {
+		compressingStream.write(data.getBytes("UTF-8"));
+		compressingStream.close();
+		return out.toByteArray();
+	}
+
+	private ByteBuffer toBuffer(String data) throws IOException {
+		return ByteBuffer.wrap(data.getBytes("ISO-8859-1"));
+	}
+
+	private HttpServerFake startHttpServerFake(String statusLine) throws IOException {
+		int port = new Random().nextInt(9 * 1024) + 1024;
+		HttpServerFake serverFake = null;
+		if (statusLine == null) {
+			serverFake = new HttpServerFake(port);
+		} else {
+			serverFake = new HttpServerFake(port, null, statusLine);
+		}
+		serverFake.start();
+		return serverFake;
+	}
+}
@@ -0,0 +1,162 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.OpenShiftExecutors;
+import com.openshift.client.OpenShiftExecutors.Statistics;
+import com.openshift.client.utils.Samples;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class OpenShiftExecutorsTest {
+
+	private IHttpClient mockClient;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws Throwable {
+		this.mockClient = mock(IHttpClient.class);
+		when(mockClient.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+	}
+
+	@After
+	public void tearDown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void shouldShareExecutorAmongConnections() throws Throwable {
+		// pre-conditions
+		IOpenShiftConnection connection1 = createConnection(new OpenShiftConnectionFactory());
+		IOpenShiftConnection connection2 = createConnection(new OpenShiftConnectionFactory());
+		// operation
+		ExecutorService executor1 = connection1.getExecutorService();
+		ExecutorService executor2 = connection2.getExecutorService();
+		// verifications
+		assertThat(executor1).isSameAs(executor2);
+		assertThat(executor1).isSameAs(OpenShiftExecutors.getShared());
+	}
+
+	@Test
+	public void shouldUseInjectedExecutorAndNotShutItDown() throws Throwable {
+		// pre-conditions
+		this.executor = OpenShiftExecutors.newThreadPool(1);
+		IOpenShiftConnection connection = createConnection(new OpenShiftConnectionFactory(executor));
+		// operation
+		ExecutorService connectionExecutor = connection.getExecutorService();
+		((APIResource) connection).disconnect();
+		// verifications
+		assertThat(connectionExecutor).isSameAs(executor);
+		assertThat(executor.isShutdown()).isFalse();
+	}
+
+	@Test
+	public void shouldRecreateSharedExecutorIfShutDown() throws Throwable {
+		// pre-conditions
+		ExecutorService shared = OpenShiftExecutors.getShared();
+		// operation
+		shared.shutdown();
+		// verifications
+		assertThat(OpenShiftExecutors.getShared()).isNotSameAs(shared);
+		assertThat(OpenShiftExecutors.getShared().isShutdown()).isFalse();
+	}
+
+	@Test
+	public void shouldRunTasksInNamedDaemonThreads() throws Throwable {
+		// pre-conditions
+		this.executor = OpenShiftExecutors.newThreadPool(1);
+		// operation
+		Thread thread = executor.submit(new Callable<Thread>() {
+
+			public Thread call() throws Exception {
+				return Thread.currentThread();
+			}
+		}).get(10, TimeUnit.SECONDS);
+		// verifications
+		assertThat(thread.isDaemon()).isTrue();
+		assertThat(thread.getName()).startsWith("openshift-client-");
+	}
+
+	@Test
+	public void shouldReportQueuedAndActiveTasks() throws Throwable {
+		// pre-conditions
+		this.executor = OpenShiftExecutors.newThreadPool(1);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		Runnable blocking = new Runnable() {
+
+			public void run() {
+				started.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		// operation
+		Future<?> first = executor.submit(blocking);
+		Future<?> second = executor.submit(blocking);
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		Statistics whileBlocked = OpenShiftExecutors.getStatistics(executor);
+		release.countDown();
+		first.get(10, TimeUnit.SECONDS);
+		second.get(10, TimeUnit.SECONDS);
+		// verifications
+		assertThat(whileBlocked.getActive()).isEqualTo(1);
+		assertThat(whileBlocked.getQueued()).isEqualTo(1);
+		Statistics afterwards = OpenShiftExecutors.getStatistics(executor);
+		assertThat(afterwards.getQueued()).isEqualTo(0);
+		assertThat(afterwards.getCompleted()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldCreateVirtualThreadExecutorOrFallBackToThreadPool() throws Throwable {
+		// pre-conditions
+		this.executor = OpenShiftExecutors.newVirtualThreadExecutor();
+		// operation
+		String result = executor.submit(new Callable<String>() {
+
+			public String call() throws Exception {
+				return "done";
+			}
+		}).get(10, TimeUnit.SECONDS);
+		// verifications
+		assertThat(result).isEqualTo("done");
+		assertThat(OpenShiftExecutors.getStatistics(executor)).isNotNull();
+	}
+
+	private IOpenShiftConnection createConnection(OpenShiftConnectionFactory factory) throws Throwable {
+		return factory.getConnection(new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
+	}
+}
@@ -13,14 +13,18 @@ package com.openshift.internal.client;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import com.openshift.internal.client.response.JsonResponseParserTest;
 import com.openshift.internal.client.response.ResourceDTOFactoryTest;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 	ConfigurationTest.class,
 	HttpClientTest.class,
+	HttpConnectionPoolTest.class,
+	NioHttpClientTest.class,
 	RestServiceTest.class,
 	ResourceDTOFactoryTest.class,
+	JsonResponseParserTest.class,
 	DomainResourceTest.class,
 	ApplicationResourceTest.class,
 	CartridgesTest.class,
@@ -28,7 +32,20 @@ import com.openshift.internal.client.response.ResourceDTOFactoryTest;
 	LatestVersionOfTest.class,
 	UserTest.class,
 	SSHKeyTest.class,
-	OpenShiftExceptionTest.class
+	OpenShiftExceptionTest.class,
+	OpenShiftExecutorsTest.class,
+	ReadinessCheckerTest.class,
+	DnsCacheTest.class,
+	CartridgeBatchTest.class,
+	FleetOperationTest.class,
+	RequestLimiterTest.class,
+	RequestRetrierTest.class,
+	RequestTimeoutsTest.class,
+	ClientMetricsTest.class,
+	LazyValueTest.class,
+	IndexedListTest.class,
+	CartridgeCatalogTest.class,
+	ApiDescriptorCacheTest.class
 })
 
 /**
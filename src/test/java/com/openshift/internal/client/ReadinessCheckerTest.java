@@ -0,0 +1,225 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.IResponseCallback;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftExecutors;
+import com.openshift.internal.client.ReadinessChecker.IProbe;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class ReadinessCheckerTest {
+
+	private ExecutorService executor;
+	private ReadinessChecker checker;
+
+	@Before
+	public void setUp() {
+		this.executor = OpenShiftExecutors.newThreadPool(1);
+		this.checker = new ReadinessChecker(executor, 10, 40);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldCompleteOnceProbeSucceeds() throws Throwable {
+		// pre-conditions
+		CountingProbe probe = new CountingProbe(3);
+		// operation
+		Future<Boolean> future = checker.check(10 * 1000, null, probe);
+		// verifications
+		assertThat(future.get(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(probe.getAttempts()).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldCompleteWithFalseOnceTimedOut() throws Throwable {
+		// pre-conditions
+		CountingProbe probe = new CountingProbe(Integer.MAX_VALUE);
+		long timeout = 200;
+		long startTime = System.currentTimeMillis();
+		// operation
+		Future<Boolean> future = checker.check(timeout, null, probe);
+		// verifications
+		assertThat(future.get(10, TimeUnit.SECONDS)).isFalse();
+		assertThat(System.currentTimeMillis() - startTime).isGreaterThanOrEqualTo(timeout);
+		assertThat(probe.getAttempts()).isGreaterThan(1);
+	}
+
+	@Test
+	public void shouldNotRunFollowingProbesIfProbeFails() throws Throwable {
+		// pre-conditions
+		CountingProbe failing = new CountingProbe(Integer.MAX_VALUE);
+		CountingProbe following = new CountingProbe(1);
+		// operation
+		Future<Boolean> future = checker.check(100, null, failing, following);
+		// verifications
+		assertThat(future.get(10, TimeUnit.SECONDS)).isFalse();
+		assertThat(following.getAttempts()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldFailIfProbeThrows() throws Throwable {
+		// pre-conditions
+		IProbe probe = new IProbe() {
+
+			public boolean isReady() throws OpenShiftException {
+				throw new OpenShiftException("invalid url");
+			}
+		};
+		// operation
+		Future<Boolean> future = checker.check(10 * 1000, null, probe);
+		// verifications
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			fail("exception expected");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(OpenShiftException.class);
+		}
+	}
+
+	@Test
+	public void shouldStopProbingOnceCancelled() throws Throwable {
+		// pre-conditions
+		CountingProbe probe = new CountingProbe(Integer.MAX_VALUE);
+		Future<Boolean> future = checker.check(10 * 1000, null, probe);
+		// operation
+		future.cancel(false);
+		int attempts = probe.getAttempts();
+		Thread.sleep(200);
+		// verifications
+		assertThat(probe.getAttempts()).isLessThanOrEqualTo(attempts + 1);
+	}
+
+	@Test
+	public void shouldRunManyChecksInSingleThread() throws Throwable {
+		// pre-conditions
+		int numOfChecks = 200;
+		final CountDownLatch completed = new CountDownLatch(numOfChecks);
+		final AtomicInteger ready = new AtomicInteger();
+		IResponseCallback<Boolean> callback = new IResponseCallback<Boolean>() {
+
+			public void completed(Boolean response) {
+				if (response) {
+					ready.incrementAndGet();
+				}
+				completed.countDown();
+			}
+
+			public void failed(Throwable cause) {
+				completed.countDown();
+			}
+		};
+		// operation
+		List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+		for (int i = 0; i < numOfChecks; i++) {
+			futures.add(checker.check(10 * 1000, callback, new CountingProbe(3)));
+		}
+		// verifications
+		assertThat(completed.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(ready.get()).isEqualTo(numOfChecks);
+		assertThat(OpenShiftExecutors.getStatistics(executor).getCompleted()).isEqualTo(3 * numOfChecks);
+	}
+
+	@Test
+	public void shouldProbeInCallingThreadWhenAwaiting() throws Throwable {
+		// pre-conditions
+		final CountDownLatch blocked = new CountDownLatch(1);
+		executor.submit(new Runnable() {
+
+			public void run() {
+				try {
+					blocked.await();
+				} catch (InterruptedException e) {
+					// test done
+				}
+			}
+		});
+		CountingProbe probe = new CountingProbe(3);
+		try {
+			// operation
+			boolean ready = checker.await(10 * 1000, probe);
+			// verifications
+			assertThat(ready).isTrue();
+			assertThat(probe.getAttempts()).isEqualTo(3);
+		} finally {
+			blocked.countDown();
+		}
+	}
+
+	@Test
+	public void shouldReturnFalseOnceAwaitTimedOut() throws Throwable {
+		// pre-conditions
+		CountingProbe probe = new CountingProbe(Integer.MAX_VALUE);
+		long timeout = 200;
+		long startTime = System.currentTimeMillis();
+		// operation
+		boolean ready = checker.await(timeout, probe);
+		// verifications
+		assertThat(ready).isFalse();
+		assertThat(System.currentTimeMillis() - startTime).isGreaterThanOrEqualTo(timeout);
+		assertThat(probe.getAttempts()).isGreaterThan(1);
+	}
+
+	@Test
+	public void shouldGrowDelayUpToMaximum() {
+		// pre-conditions
+		ReadinessChecker checker = new ReadinessChecker(executor, 100, 1000);
+		// operation
+		// verifications
+		assertThat(checker.getDelay(0)).isGreaterThanOrEqualTo(50).isLessThanOrEqualTo(100);
+		assertThat(checker.getDelay(2)).isGreaterThanOrEqualTo(200).isLessThanOrEqualTo(400);
+		assertThat(checker.getDelay(20)).isGreaterThanOrEqualTo(500).isLessThanOrEqualTo(1000);
+		assertThat(checker.getDelay(100)).isGreaterThanOrEqualTo(500).isLessThanOrEqualTo(1000);
+	}
+
+	/**
+	 * A probe that succeeds at the given attempt.
+	 */
+	private static class CountingProbe implements IProbe {
+
+		private final int readyAt;
+		private final AtomicInteger attempts = new AtomicInteger();
+
+		private CountingProbe(int readyAt) {
+			this.readyAt = readyAt;
+		}
+
+		public boolean isReady() throws OpenShiftException {
+			return attempts.incrementAndGet() >= readyAt;
+		}
+
+		private int getAttempts() {
+			return attempts.get();
+		}
+	}
+}
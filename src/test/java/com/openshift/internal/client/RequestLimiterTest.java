@@ -0,0 +1,279 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.openshift.client.Deadline;
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftTimeoutException;
+import com.openshift.client.RequestLimits;
+import com.openshift.client.fakes.HttpServerFake;
+import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.httpclient.InternalServerErrorException;
+import com.openshift.internal.client.httpclient.UrlConnectionHttpClientBuilder;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class RequestLimiterTest {
+
+	@Test
+	public void shouldBlockOnceConcurrencyLimitIsReached() throws Throwable {
+		// pre-conditions
+		final RequestLimiter limiter = new RequestLimiter(new RequestLimits().setConcurrency(2, 1, 2));
+		limiter.acquire();
+		limiter.acquire();
+		final CountDownLatch acquired = new CountDownLatch(1);
+		Thread thread = new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					limiter.acquire();
+					acquired.countDown();
+				} catch (InterruptedException e) {
+					// test fails
+				}
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
+		// operation
+		boolean acquiredBeforeRelease = acquired.await(100, TimeUnit.MILLISECONDS);
+		int waiting = limiter.getStatistics().getWaiting();
+		limiter.release(10, false);
+		// verifications
+		assertThat(acquiredBeforeRelease).isFalse();
+		assertThat(waiting).isEqualTo(1);
+		assertThat(acquired.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(limiter.getStatistics().getInFlight()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldIncreaseLimitAdditively() throws Throwable {
+		// pre-conditions
+		RequestLimiter limiter = new RequestLimiter(new RequestLimits().setConcurrency(2, 1, 10));
+		// operation
+		for (int i = 0; i < 5; i++) {
+			limiter.acquire();
+			limiter.release(10, false);
+		}
+		// verifications
+		// 2 + 1/2 + 1/2.5 + ... grows by 1 every couple of requests
+		assertThat(limiter.getStatistics().getLimit()).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldDecreaseLimitMultiplicativelyOncePerInterval() throws Throwable {
+		// pre-conditions
+		RequestLimiter limiter = new RequestLimiter(new RequestLimits().setConcurrency(8, 1, 8));
+		// operation
+		limiter.acquire();
+		limiter.release(10, true);
+		limiter.acquire();
+		limiter.release(10, true);
+		// verifications
+		RequestLimiter.Statistics statistics = limiter.getStatistics();
+		assertThat(statistics.getLimit()).isEqualTo(4);
+		assertThat(statistics.getOverloads()).isEqualTo(2);
+		assertThat(statistics.getDecreases()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotChangeLimitForCancelledRequest() throws Throwable {
+		// pre-conditions
+		RequestLimiter limiter = new RequestLimiter(new RequestLimits().setConcurrency(2, 1, 10));
+		// operation
+		for (int i = 0; i < 5; i++) {
+			limiter.acquire();
+			limiter.cancel();
+		}
+		// verifications
+		RequestLimiter.Statistics statistics = limiter.getStatistics();
+		assertThat(statistics.getLimit()).isEqualTo(2);
+		assertThat(statistics.getInFlight()).isEqualTo(0);
+		assertThat(statistics.getOverloads()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldNotTreatSlowResponseAsOverloadByDefault() throws Throwable {
+		// pre-conditions
+		RequestLimiter limiter = new RequestLimiter(new RequestLimits().setConcurrency(8, 2, 8));
+		// operation
+		limiter.acquire();
+		limiter.release(10 * 60 * 1000, false);
+		// verifications
+		assertThat(limiter.getStatistics().getLimit()).isEqualTo(8);
+		assertThat(limiter.getStatistics().getOverloads()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldTreatSlowResponseAsOverload() throws Throwable {
+		// pre-conditions
+		RequestLimiter limiter = new RequestLimiter(new RequestLimits()
+				.setConcurrency(8, 2, 8)
+				.setLatencyThreshold(100));
+		// operation
+		limiter.acquire();
+		limiter.release(200, false);
+		// verifications
+		assertThat(limiter.getStatistics().getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	public void shouldLimitRate() throws Throwable {
+		// pre-conditions
+		RequestLimiter limiter = new RequestLimiter(new RequestLimits().setRate(20, 1));
+		long start = System.currentTimeMillis();
+		// operation
+		for (int i = 0; i < 4; i++) {
+			limiter.acquire();
+			limiter.release(0, false);
+		}
+		// verifications
+		assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(140);
+	}
+
+	@Test
+	public void shouldStopWaitingOnceTimeoutElapsed() throws Throwable {
+		// pre-conditions
+		RequestLimiter limiter = new RequestLimiter(new RequestLimits().setConcurrency(1, 1, 1));
+		limiter.acquire();
+		long start = System.currentTimeMillis();
+		// operation
+		boolean acquired = limiter.tryAcquire(100);
+		// verifications
+		assertThat(acquired).isFalse();
+		assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(90);
+		assertThat(limiter.getStatistics().getWaiting()).isEqualTo(0);
+		assertThat(limiter.getStatistics().getInFlight()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotTakeRatePermitBeyondTimeout() throws Throwable {
+		// pre-conditions
+		RequestLimiter limiter = new RequestLimiter(new RequestLimits().setRate(1, 1));
+		limiter.acquire();
+		limiter.release(0, false);
+		// operation
+		boolean acquired = limiter.tryAcquire(10);
+		// verifications
+		assertThat(acquired).isFalse();
+		assertThat(limiter.getStatistics().getRequests()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotSpendRatePermitIfConcurrencyLimitTimedOut() throws Throwable {
+		// pre-conditions
+		RequestLimiter limiter = new RequestLimiter(new RequestLimits()
+				.setRate(1, 2)
+				.setConcurrency(1, 1, 1));
+		limiter.acquire();
+		// operation
+		boolean acquired = limiter.tryAcquire(10);
+		// verifications
+		assertThat(acquired).isFalse();
+		assertThat(limiter.getStatistics().getAvailablePermits()).isEqualTo(1);
+		limiter.release(0, false);
+		assertThat(limiter.tryAcquire(0)).isTrue();
+	}
+
+	@Test
+	public void shouldNotWaitForLimiterBeyondDeadline() throws Throwable {
+		// pre-conditions
+		IHttpClient mockClient = mock(IHttpClient.class);
+		RestService service = new RestService("http://mock", "clientId", mockClient);
+		service.setRequestLimiter(new RequestLimiter(new RequestLimits().setConcurrency(1, 1, 1)));
+		service.getRequestLimiter().acquire();
+		long start = System.currentTimeMillis();
+		Deadline deadline = Deadline.after(100, TimeUnit.MILLISECONDS).attach();
+		// operation
+		try {
+			service.request("http://mock/broker/rest/user", HttpMethod.GET, Collections.<String, Object> emptyMap());
+			fail("exception expected");
+		} catch (OpenShiftTimeoutException e) {
+			// verifications
+			assertThat(System.currentTimeMillis() - start).isLessThan(5 * 1000);
+		} finally {
+			deadline.detach();
+		}
+		assertThat(service.getRequestLimiter().getStatistics().getInFlight()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldReportInternalServerErrorsOfConnection() throws Throwable {
+		// pre-conditions
+		IHttpClient mockClient = mock(IHttpClient.class);
+		when(mockClient.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/user")))
+				.thenThrow(new InternalServerErrorException("broker overloaded"));
+		RestService service = new RestService("http://mock", "clientId", mockClient);
+		IOpenShiftConnection connection = new OpenShiftConnectionFactory()
+				.setRequestLimits(new RequestLimits().setConcurrency(4, 1, 4))
+				.getConnection(service, "foo@redhat.com", "bar");
+		// operation
+		try {
+			connection.getUser();
+			fail("exception expected");
+		} catch (OpenShiftException e) {
+			// expected
+		}
+		// verifications
+		RequestLimiter.Statistics statistics = service.getRequestLimiter().getStatistics();
+		assertThat(statistics.getRequests()).isEqualTo(2);
+		assertThat(statistics.getOverloads()).isEqualTo(1);
+		assertThat(statistics.getLimit()).isEqualTo(2);
+		assertThat(statistics.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void shouldDecreaseLimitOnInternalServerErrorResponse() throws Throwable {
+		// pre-conditions
+		HttpServerFake server = new HttpServerFake(
+				new Random().nextInt(9 * 1024) + 1024, null, "HTTP/1.1 500 Internal Server Error\n");
+		server.start();
+		try {
+			IHttpClient client = new UrlConnectionHttpClientBuilder().client();
+			RestService service = new RestService(server.getUrl().toString(), "clientId", client);
+			service.setRequestLimiter(new RequestLimiter(new RequestLimits().setConcurrency(4, 1, 4)));
+			// operation
+			try {
+				service.request(server.getUrl().toString(), HttpMethod.GET, Collections.<String, Object> emptyMap());
+				fail("exception expected");
+			} catch (OpenShiftException e) {
+				// verifications
+				assertThat(e.getCause()).isInstanceOf(InternalServerErrorException.class);
+			}
+			RequestLimiter.Statistics statistics = service.getRequestLimiter().getStatistics();
+			assertThat(statistics.getOverloads()).isEqualTo(1);
+			assertThat(statistics.getLimit()).isEqualTo(2);
+		} finally {
+			server.stop();
+		}
+	}
+}
@@ -0,0 +1,315 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.NotFoundOpenShiftException;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.OpenShiftEndpointException;
+import com.openshift.client.OpenShiftException;
+import com.openshift.client.OpenShiftTimeoutException;
+import com.openshift.client.RetryPolicy;
+import com.openshift.client.fakes.HttpServerFake;
+import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.RequestRetrier.IRequest;
+import com.openshift.internal.client.httpclient.ConnectionLeaseTimeoutException;
+import com.openshift.internal.client.httpclient.NotFoundException;
+import com.openshift.internal.client.httpclient.UrlConnectionHttpClientBuilder;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class RequestRetrierTest {
+
+	private URL url;
+	private RetryPolicy policy;
+
+	@Before
+	public void setUp() throws Exception {
+		this.url = new URL("https://openshift.redhat.com/broker/rest/user");
+		this.policy = new RetryPolicy()
+				.setMaxAttempts(3)
+				.setBackoff(1, 2);
+	}
+
+	@Test
+	public void shouldRetryGetThatTimedOut() throws Throwable {
+		// pre-conditions
+		RequestRetrier retrier = new RequestRetrier(policy);
+		FailingRequest request = new FailingRequest(timeout(), 2);
+		// operation
+		String response = retrier.execute(url, HttpMethod.GET, null, request);
+		// verifications
+		assertThat(response).isEqualTo("ok");
+		assertThat(request.attempts.get()).isEqualTo(3);
+		assertThat(retrier.getStatistics().getRetries()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldNotRetryPost() throws Throwable {
+		// pre-conditions
+		RequestRetrier retrier = new RequestRetrier(policy);
+		FailingRequest request = new FailingRequest(timeout(), 1);
+		// operation
+		try {
+			retrier.execute(url, HttpMethod.POST, "Create new application", request);
+			fail("exception expected");
+		} catch (OpenShiftTimeoutException e) {
+			// expected
+		}
+		// verifications
+		assertThat(request.attempts.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldRetryPostThatWasMarkedSafe() throws Throwable {
+		// pre-conditions
+		RequestRetrier retrier = new RequestRetrier(policy.markSafe("Start application"));
+		FailingRequest request = new FailingRequest(timeout(), 1);
+		// operation
+		String response = retrier.execute(url, HttpMethod.POST, "Start application", request);
+		// verifications
+		assertThat(response).isEqualTo("ok");
+		assertThat(request.attempts.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldNotRetryFailureThatIsNotTransient() throws Throwable {
+		// pre-conditions
+		RequestRetrier retrier = new RequestRetrier(policy);
+		FailingRequest request = new FailingRequest(
+				new NotFoundOpenShiftException(url.toString(), new NotFoundException("not found")), 1);
+		// operation
+		try {
+			retrier.execute(url, HttpMethod.GET, null, request);
+			fail("exception expected");
+		} catch (NotFoundOpenShiftException e) {
+			// expected
+		}
+		// verifications
+		assertThat(request.attempts.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldGiveUpOnceAttemptsAreSpent() throws Throwable {
+		// pre-conditions
+		RequestRetrier retrier = new RequestRetrier(policy);
+		FailingRequest request = new FailingRequest(timeout(), 10);
+		// operation
+		try {
+			retrier.execute(url, HttpMethod.GET, null, request);
+			fail("exception expected");
+		} catch (OpenShiftTimeoutException e) {
+			// expected
+		}
+		// verifications
+		assertThat(request.attempts.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldGiveUpOnceTimeBudgetIsSpent() throws Throwable {
+		// pre-conditions
+		RequestRetrier retrier = new RequestRetrier(policy
+				.setMaxAttempts(10)
+				.setBackoff(200, 200)
+				.setTimeBudget(100));
+		FailingRequest request = new FailingRequest(timeout(), 10);
+		// operation
+		try {
+			retrier.execute(url, HttpMethod.GET, null, request);
+			fail("exception expected");
+		} catch (OpenShiftTimeoutException e) {
+			// expected
+		}
+		// verifications
+		assertThat(request.attempts.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldFailFastOnceCircuitBreakerIsOpen() throws Throwable {
+		// pre-conditions
+		RequestRetrier retrier = new RequestRetrier(policy
+				.setMaxAttempts(1)
+				.setCircuitBreaker(2, 60 * 1000));
+		FailingRequest request = new FailingRequest(timeout(), 10);
+		for (int i = 0; i < 2; i++) {
+			try {
+				retrier.execute(url, HttpMethod.GET, null, request);
+			} catch (OpenShiftTimeoutException e) {
+				// expected
+			}
+		}
+		// operation
+		try {
+			retrier.execute(url, HttpMethod.GET, null, request);
+			fail("exception expected");
+		} catch (OpenShiftTimeoutException e) {
+			fail("circuit breaker should have rejected the request");
+		} catch (OpenShiftEndpointException e) {
+			// expected
+		}
+		// verifications
+		assertThat(request.attempts.get()).isEqualTo(2);
+		assertThat(retrier.getCircuitBreaker(url.getHost()).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(retrier.getStatistics().getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldCloseCircuitBreakerOnceTrialSucceeded() throws Throwable {
+		// pre-conditions
+		final long[] now = new long[] { 0 };
+		CircuitBreaker breaker = new CircuitBreaker(1, 1000) {
+
+			@Override
+			protected long now() {
+				return now[0];
+			}
+		};
+		breaker.failed();
+		assertThat(breaker.allowRequest()).isFalse();
+		now[0] = 1000;
+		// operation
+		boolean trialAllowed = breaker.allowRequest();
+		boolean secondAllowed = breaker.allowRequest();
+		breaker.succeeded();
+		// verifications
+		assertThat(trialAllowed).isTrue();
+		assertThat(secondAllowed).isFalse();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(breaker.allowRequest()).isTrue();
+	}
+
+	@Test
+	public void shouldIgnoreRequestThatFoundNoConnectionToLease() throws Throwable {
+		// pre-conditions
+		RequestRetrier retrier = new RequestRetrier(policy
+				.setCircuitBreaker(1, 1));
+		retrier.getCircuitBreaker(url.getHost()).failed();
+		// let the request be the trial
+		Thread.sleep(10);
+		FailingRequest request = new FailingRequest(
+				new OpenShiftEndpointException(url.toString(), new ConnectionLeaseTimeoutException("no connection"),
+						null, "Could not request {0}", url), 10);
+		// operation
+		try {
+			retrier.execute(url, HttpMethod.GET, null, request);
+			fail("exception expected");
+		} catch (OpenShiftEndpointException e) {
+			// expected
+		}
+		// verifications
+		assertThat(request.attempts.get()).isEqualTo(1);
+		assertThat(retrier.getStatistics().getRetries()).isEqualTo(0);
+		assertThat(retrier.getCircuitBreaker(url.getHost()).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+	}
+
+	@Test
+	public void shouldRetryTimedOutRequestsOfConnection() throws Throwable {
+		// pre-conditions
+		IHttpClient mockClient = mock(IHttpClient.class);
+		when(mockClient.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/user")))
+				.thenThrow(new SocketTimeoutException("read timed out"))
+				.thenReturn(Samples.GET_USER_JSON.getContentAsString());
+		when(mockClient.get(urlEndsWith("/domains")))
+				.thenReturn(Samples.GET_DOMAINS_NOEXISTING_JSON.getContentAsString());
+		when(mockClient.post(anyMapOf(String.class, Object.class), urlEndsWith("/domains")))
+				.thenThrow(new SocketTimeoutException("read timed out"));
+		RestService service = new RestService("http://mock", "clientId", mockClient);
+		IOpenShiftConnection connection = new OpenShiftConnectionFactory()
+				.setRetryPolicy(policy)
+				.getConnection(service, "foo@redhat.com", "bar");
+		// operation
+		connection.getUser();
+		try {
+			connection.getUser().createDomain("foobar");
+			fail("exception expected");
+		} catch (OpenShiftTimeoutException e) {
+			// expected
+		}
+		// verifications
+		verify(mockClient, times(2)).get(urlEndsWith("/user"));
+		verify(mockClient, times(1)).post(anyMapOf(String.class, Object.class), urlEndsWith("/domains"));
+	}
+
+	@Test
+	public void shouldCountInternalServerErrorResponseTowardsCircuitBreaker() throws Throwable {
+		// pre-conditions
+		HttpServerFake server = new HttpServerFake(
+				new Random().nextInt(9 * 1024) + 1024, null, "HTTP/1.1 500 Internal Server Error\n");
+		server.start();
+		try {
+			IHttpClient client = new UrlConnectionHttpClientBuilder().client();
+			RestService service = new RestService(server.getUrl().toString(), "clientId", client);
+			RequestRetrier retrier = new RequestRetrier(policy
+					.setMaxAttempts(1)
+					.setCircuitBreaker(1, 60 * 1000));
+			service.setRequestRetrier(retrier);
+			// operation
+			try {
+				service.request(server.getUrl().toString(), HttpMethod.GET, Collections.<String, Object> emptyMap());
+				fail("exception expected");
+			} catch (OpenShiftException e) {
+				// expected
+			}
+			// verifications
+			assertThat(retrier.getCircuitBreaker(server.getUrl().getHost()).getState())
+					.isEqualTo(CircuitBreaker.State.OPEN);
+		} finally {
+			server.stop();
+		}
+	}
+
+	private OpenShiftException timeout() {
+		return new OpenShiftTimeoutException(url.toString(), new SocketTimeoutException("read timed out"),
+				"Could not request url {0}, connection timed out", url);
+	}
+
+	private static class FailingRequest implements IRequest<String> {
+
+		private final OpenShiftException failure;
+		private final int failures;
+		private final AtomicInteger attempts = new AtomicInteger();
+
+		private FailingRequest(OpenShiftException failure, int failures) {
+			this.failure = failure;
+			this.failures = failures;
+		}
+
+		public String execute() throws OpenShiftException {
+			if (attempts.incrementAndGet() <= failures) {
+				throw failure;
+			}
+			return "ok";
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client;
+
+import static com.openshift.client.utils.UrlEndsWithMatcher.urlEndsWith;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.openshift.client.Deadline;
+import com.openshift.client.HttpMethod;
+import com.openshift.client.IHttpClient;
+import com.openshift.client.IOpenShiftConnection;
+import com.openshift.client.OpenShiftConnectionFactory;
+import com.openshift.client.OpenShiftTimeoutException;
+import com.openshift.client.RequestTimeouts;
+import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.httpclient.FormUrlEncodedMediaType;
+import com.openshift.internal.client.httpclient.RequestTimeout;
+import com.openshift.internal.client.httpclient.UrlConnectionHttpClient;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class RequestTimeoutsTest {
+
+	@Test
+	public void shouldPreferOperationTimeoutOverMethodTimeout() {
+		// pre-conditions
+		RequestTimeouts timeouts = new RequestTimeouts()
+				.setReadTimeout(30 * 1000)
+				.setReadTimeout(HttpMethod.POST, 60 * 1000)
+				.setReadTimeout("Create new application", 5 * 60 * 1000);
+		// operation
+		// verifications
+		assertThat(timeouts.getReadTimeout(HttpMethod.POST, "Create new application")).isEqualTo(5 * 60 * 1000);
+		assertThat(timeouts.getReadTimeout(HttpMethod.POST, "Add embedded cartridge")).isEqualTo(60 * 1000);
+		assertThat(timeouts.getReadTimeout(HttpMethod.GET, null)).isEqualTo(30 * 1000);
+		assertThat(timeouts.getConnectTimeout()).isEqualTo(RequestTimeouts.NO_TIMEOUT);
+	}
+
+	@Test
+	public void shouldApplyEarliestOfNestedDeadlines() {
+		// pre-conditions
+		Deadline outer = Deadline.after(1, TimeUnit.SECONDS).attach();
+		try {
+			Deadline inner = Deadline.after(1, TimeUnit.HOURS).attach();
+			// operation
+			long remaining = Deadline.getRemaining(Long.MAX_VALUE);
+			inner.detach();
+			// verifications
+			assertThat(remaining).isLessThanOrEqualTo(1000);
+			assertThat(Deadline.current()).isSameAs(outer);
+		} finally {
+			outer.detach();
+		}
+		assertThat(Deadline.current()).isNull();
+	}
+
+	@Test
+	public void shouldUseRequestTimeoutsLimitedByDeadline() throws IOException {
+		// pre-conditions
+		TestableHttpClient client = new TestableHttpClient();
+		client.setTimeouts(1000, 2000);
+		RequestTimeout previous = RequestTimeout.set(new RequestTimeout(-1, 30 * 1000));
+		try {
+			// operation
+			HttpURLConnection connection = client.createConnection(new URL("http://localhost/broker/rest/api"));
+			Deadline deadline = Deadline.after(10, TimeUnit.SECONDS).attach();
+			HttpURLConnection connectionWithDeadline;
+			try {
+				connectionWithDeadline = client.createConnection(new URL("http://localhost/broker/rest/api"));
+			} finally {
+				deadline.detach();
+			}
+			// verifications
+			assertThat(connection.getConnectTimeout()).isEqualTo(1000);
+			assertThat(connection.getReadTimeout()).isEqualTo(30 * 1000);
+			assertThat(connectionWithDeadline.getConnectTimeout()).isEqualTo(1000);
+			assertThat(connectionWithDeadline.getReadTimeout()).isLessThanOrEqualTo(10 * 1000);
+		} finally {
+			RequestTimeout.set(previous);
+		}
+	}
+
+	@Test
+	public void shouldNotRequestOnceDeadlineWasReached() throws Throwable {
+		// pre-conditions
+		IHttpClient mockClient = mock(IHttpClient.class);
+		when(mockClient.get(urlEndsWith("/broker/rest/api")))
+				.thenReturn(Samples.GET_REST_API_JSON.getContentAsString());
+		IOpenShiftConnection connection = new OpenShiftConnectionFactory()
+				.setRequestTimeouts(new RequestTimeouts().setReadTimeout(HttpMethod.GET, 10 * 1000))
+				.getConnection(new RestService("http://mock", "clientId", mockClient), "foo@redhat.com", "bar");
+		Deadline deadline = Deadline.after(0, TimeUnit.MILLISECONDS).attach();
+		// operation
+		try {
+			connection.getUser();
+			fail("exception expected");
+		} catch (OpenShiftTimeoutException e) {
+			// expected
+		} finally {
+			deadline.detach();
+		}
+		// verifications
+		verify(mockClient, never()).get(urlEndsWith("/user"));
+	}
+
+	private static class TestableHttpClient extends UrlConnectionHttpClient {
+
+		private TestableHttpClient() {
+			super(null, null, "clientId", false, new FormUrlEncodedMediaType(),
+					IHttpClient.MEDIATYPE_APPLICATION_JSON, "1.0");
+		}
+
+		private HttpURLConnection createConnection(URL url) throws IOException {
+			return createConnection(null, null, "clientId", url);
+		}
+	}
+}
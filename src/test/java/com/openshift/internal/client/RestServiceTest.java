@@ -14,6 +14,8 @@ import static com.openshift.client.utils.MockUtils.anyForm;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -27,17 +29,30 @@ import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.openshift.client.HttpMethod;
+import com.openshift.client.IAsyncHttpClient;
+import com.openshift.client.IConditionalHttpClient;
 import com.openshift.client.IHttpClient;
+import com.openshift.client.IResponseCallback;
+import com.openshift.client.IResponseReader;
 import com.openshift.client.OpenShiftEndpointException;
 import com.openshift.client.OpenShiftException;
+import com.openshift.client.RetryPolicy;
 import com.openshift.client.utils.MessageAssert;
 import com.openshift.client.utils.OpenShiftTestConfiguration;
 import com.openshift.client.utils.Samples;
+import com.openshift.internal.client.httpclient.CachedResponse;
 import com.openshift.internal.client.httpclient.HttpClientException;
 import com.openshift.internal.client.httpclient.NotFoundException;
 import com.openshift.internal.client.response.Link;
@@ -45,6 +60,7 @@ import com.openshift.internal.client.response.LinkParameter;
 import com.openshift.internal.client.response.LinkParameterType;
 import com.openshift.internal.client.response.Message;
 import com.openshift.internal.client.response.Message.Severity;
+import com.openshift.internal.client.response.ResourceDTOFactory;
 import com.openshift.internal.client.response.RestResponse;
 
 /**
@@ -108,6 +124,66 @@ public class RestServiceTest {
 		verify(clientMock, times(1)).post(anyForm(), any(URL.class));
 	}
 
+	@Test
+	public void shouldRequestAsynchronouslyWithSynchronousClient() throws Exception {
+		// operation
+		Future<RestResponse> future = service.requestAsync(
+				new Link("0 required parameter", "http://www.redhat.com", HttpMethod.GET, null, null),
+				new HashMap<String, Object>(), null);
+		// verifications
+		assertThat(future.isDone()).isTrue();
+		verify(clientMock, times(1)).get(any(URL.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldParseAsyncResponseInExecutor() throws Exception {
+		// pre-conditions
+		IAsyncHttpClient asyncClient = mock(IAsyncHttpClient.class);
+		when(asyncClient.get(any(URL.class), any(IResponseCallback.class))).thenAnswer(new Answer<Future<String>>() {
+
+			public Future<String> answer(InvocationOnMock invocation) throws Throwable {
+				// notify in the calling thread, like the io thread of the client would
+				((IResponseCallback<String>) invocation.getArguments()[1])
+						.completed(Samples.GET_DOMAINS_1EXISTING.getContentAsString());
+				return null;
+			}
+		});
+		final AtomicInteger executed = new AtomicInteger();
+		RestService service = new RestService("http://mock", "clientId", asyncClient);
+		service.setExecutor(new Executor() {
+
+			public void execute(Runnable command) {
+				executed.incrementAndGet();
+				command.run();
+			}
+		});
+		// operation
+		Future<RestResponse> future = service.requestAsync(
+				new Link("0 required parameter", "http://www.redhat.com", HttpMethod.GET, null, null),
+				new HashMap<String, Object>(), null);
+		// verifications
+		assertThat(future.get(10, TimeUnit.SECONDS)).isNotNull();
+		assertThat(executed.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldFailAsyncRequestIfRequiredParameterMissing() throws Exception {
+		// pre-conditions
+		LinkParameter parameter =
+				new LinkParameter("required string parameter", LinkParameterType.STRING, null, null, null);
+		Link link = new Link("1 required parameter", "/dummy", HttpMethod.GET, Arrays.asList(parameter), null);
+		// operation
+		Future<RestResponse> future = service.requestAsync(link, new HashMap<String, Object>(), null);
+		// verifications
+		try {
+			future.get();
+			fail("Expected OpenShiftException not thrown");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(OpenShiftException.class);
+		}
+	}
+
 	@Test
 	public void shouldPutIfPutHttpMethod() throws OpenShiftException, SocketTimeoutException, HttpClientException,
 			UnsupportedEncodingException {
@@ -125,6 +201,45 @@ public class RestServiceTest {
 		verify(clientMock, times(1)).delete(anyForm(), any(URL.class));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldSendCachedResponseInConditionalGet() throws Throwable {
+		// pre-conditions
+		IConditionalHttpClient conditionalClient = mock(IConditionalHttpClient.class);
+		CachedResponse<RestResponse> cached = new CachedResponse<RestResponse>(
+				ResourceDTOFactory.get(Samples.GET_DOMAINS_1EXISTING.getContentAsString()), "\"42\"", null);
+		when(conditionalClient.get(any(URL.class), any(CachedResponse.class), any(IResponseReader.class)))
+				.thenReturn(cached);
+		IRestService service = new RestService("http://localhost", null, conditionalClient);
+		Link link = new Link("0 required parameter", "/domains", HttpMethod.GET, null, null);
+		// operation
+		RestResponse response = service.request(link);
+		RestResponse cachedResponse = service.request(link);
+		// verifications
+		verify(conditionalClient, times(1))
+				.get(any(URL.class), (CachedResponse<RestResponse>) isNull(), any(IResponseReader.class));
+		verify(conditionalClient, times(1))
+				.get(any(URL.class), same(cached), any(IResponseReader.class));
+		assertThat(cachedResponse).isSameAs(response);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void shouldNotCacheResponseWithoutValidators() throws Throwable {
+		// pre-conditions
+		IConditionalHttpClient conditionalClient = mock(IConditionalHttpClient.class);
+		when(conditionalClient.get(any(URL.class), any(CachedResponse.class), any(IResponseReader.class)))
+				.thenReturn(new CachedResponse<RestResponse>(null, null, null));
+		IRestService service = new RestService("http://localhost", null, conditionalClient);
+		Link link = new Link("0 required parameter", "/domains", HttpMethod.GET, null, null);
+		// operation
+		service.request(link);
+		service.request(link);
+		// verifications
+		verify(conditionalClient, times(2))
+				.get(any(URL.class), (CachedResponse<RestResponse>) isNull(), any(IResponseReader.class));
+	}
+
 	@Test
 	public void shouldNotAddServerToAbsUrl() throws OpenShiftException, SocketTimeoutException, HttpClientException,
 			MalformedURLException {
@@ -234,4 +349,25 @@ public class RestServiceTest {
 		// verifications
 		assertThat(platformUrl).isEqualTo(serverUrl);
 	}
+
+	@Test
+	public void shouldRetryRequestForMediaType() throws Throwable {
+		// pre-conditions
+		IHttpClient client = mock(IHttpClient.class);
+		when(client.get(any(URL.class)))
+				.thenThrow(new SocketTimeoutException("read timed out"))
+				.thenReturn("<log/>");
+		RestService service = new RestService("http://mock", "clientId", client);
+		service.setRequestRetrier(new RequestRetrier(new RetryPolicy()
+				.setMaxAttempts(2)
+				.setBackoff(1, 2)));
+		Link link = new Link("Get gear log", "http://mock/gear/log", HttpMethod.GET, null, null);
+		// operation
+		String response = service.request(link, IHttpClient.MEDIATYPE_APPLICATION_XML);
+		// verifications
+		assertThat(response).isEqualTo("<log/>");
+		verify(client, times(2)).get(any(URL.class));
+		verify(client, times(2)).setAcceptedMediaType(IHttpClient.MEDIATYPE_APPLICATION_XML);
+		assertThat(service.getRequestRetrier().getStatistics().getRetries()).isEqualTo(1);
+	}
 }
@@ -0,0 +1,233 @@
+/******************************************************************************* 
+ * Copyright (c) 2013 Red Hat, Inc. 
+ * Distributed under license by Red Hat, Inc. All rights reserved. 
+ * This program is made available under the terms of the 
+ * Eclipse Public License v1.0 which accompanies this distribution, 
+ * and is available at http://www.eclipse.org/legal/epl-v10.html 
+ * 
+ * Contributors: 
+ * Red Hat, Inc. - initial API and implementation 
+ ******************************************************************************/
+package com.openshift.internal.client.response;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.openshift.internal.client.utils.JsonReader;
+
+/**
+ * @author Andre Dietisheim
+ */
+public class JsonResponseParserTest {
+
+	private static final String SAMPLES_FOLDER = "/samples";
+
+	private JsonResponseParser parser = new JsonResponseParser();
+	private DmrResponseParser dmrParser = new DmrResponseParser();
+
+	@Test
+	public void shouldParseAllSamplesLikeDmrParser() throws Exception {
+		File[] samples = new File(getClass().getResource(SAMPLES_FOLDER).toURI()).listFiles();
+		assertThat(samples).isNotEmpty();
+		for (File sample : samples) {
+			String content = FileUtils.readFileToString(sample, "UTF-8");
+			if (content.trim().length() == 0) {
+				// no-content responses never get to the parsers
+				continue;
+			}
+			assertParsesLikeDmr(sample, content);
+			assertParsesStreamLikeDmr(sample);
+		}
+	}
+
+	@Test
+	public void shouldMapDataThatPrecedesItsType() throws Exception {
+		// pre-conditions
+		String content = "{\"data\":{\"id\":\"foobar\",\"suffix\":\"rhcloud.com\",\"links\":{}},"
+				+ "\"messages\":[{\"text\":\"created\",\"exit_code\":0,\"severity\":\"info\"}],"
+				+ "\"status\":\"created\",\"type\":\"domain\"}";
+		// operation
+		RestResponse response = parser.parse(content);
+		// verifications
+		assertThat(response.getDataType()).isEqualTo(EnumDataType.domain);
+		DomainResourceDTO domain = response.getData();
+		assertThat(domain.getNamespace()).isEqualTo("foobar");
+		assertThat(domain.getCreationLog()).hasSize(1);
+		assertThat(domain.getCreationLog()).isSameAs(response.getMessages());
+	}
+
+	@Test
+	public void shouldDecodeEscapedCharacters() throws Exception {
+		// pre-conditions
+		JsonReader reader = new JsonReader(new StringReader("[\"caf\\u00e9 \\\"t\\/o\\\"\\n\", -1.5e3, true, null]"));
+		// operation
+		reader.beginArray();
+		String string = reader.nextString();
+		String number = reader.nextString();
+		String bool = reader.nextString();
+		reader.nextNull();
+		reader.endArray();
+		// verifications
+		assertThat(string).isEqualTo("caf\u00e9 \"t/o\"\n");
+		assertThat(number).isEqualTo("-1.5e3");
+		assertThat(bool).isEqualTo("true");
+		assertThat(reader.peek()).isEqualTo(JsonReader.Token.END_DOCUMENT);
+	}
+
+	@Test
+	public void shouldReadRawValuesThatExceedTheBuffer() throws Exception {
+		// pre-conditions
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			builder.append("{\"name\":\"value").append(i).append("\"},");
+		}
+		String array = "[" + builder.substring(0, builder.length() - 1) + "]";
+		JsonReader reader = new JsonReader(new StringReader("{\"array\" : " + array + " }"));
+		// operation
+		reader.beginObject();
+		reader.nextName();
+		String raw = reader.nextRawValue();
+		reader.endObject();
+		// verifications
+		assertThat(raw).isEqualTo(array);
+	}
+
+	@Test
+	public void shouldShareTemplateAmongLinksOfSameKind() throws Exception {
+		// pre-conditions
+		String content = "{\"type\":\"domains\",\"status\":\"ok\",\"data\":["
+				+ createDomain("foo") + "," + createDomain("bar") + "]}";
+		// operation
+		List<DomainResourceDTO> domains = parser.parse(content).getData();
+		// verifications
+		Link fooLink = domains.get(0).getLinks().get("GET");
+		Link barLink = domains.get(1).getLinks().get("GET");
+		assertThat(fooLink.getHref()).isEqualTo("https://openshift/domains/foo");
+		assertThat(barLink.getHref()).isEqualTo("https://openshift/domains/bar");
+		assertThat(barLink.getRequiredParams()).isSameAs(fooLink.getRequiredParams());
+		assertThat(barLink.getOptionalParams()).isSameAs(fooLink.getOptionalParams());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldThrowOnInvalidLinkWhenParsing() throws Exception {
+		// pre-conditions
+		String content = "{\"type\":\"domain\",\"status\":\"ok\",\"data\":{\"id\":\"foobar\",\"links\":{"
+				+ "\"DELETE\":{\"rel\":\"Delete domain\",\"href\":\"https://openshift/domains/foobar\",\"method\":\"FOO\"}"
+				+ "}}}";
+		// operation
+		parser.parse(content);
+	}
+
+	private String createDomain(String id) {
+		return "{\"id\":\"" + id + "\",\"links\":{"
+				+ "\"GET\":{\"rel\":\"Get domain\",\"href\":\"https://openshift/domains/" + id + "\","
+				+ "\"method\":\"GET\",\"required_params\":[],\"optional_params\":["
+				+ "{\"name\":\"include\",\"type\":\"string\",\"description\":\"include\",\"valid_options\":[]}"
+				+ "]}}}";
+	}
+
+	@Test(expected = JsonReader.MalformedJsonException.class)
+	public void shouldThrowIfJsonIsMalformed() throws Exception {
+		// operation
+		parser.parse(new ByteArrayInputStream("{\"type\":\"links\",}".getBytes()));
+	}
+
+	private void assertParsesLikeDmr(File sample, String content) throws Exception {
+		RestResponse expected = null;
+		try {
+			expected = dmrParser.parse(content);
+		} catch (RuntimeException e) {
+			try {
+				parser.parse(content);
+				fail(sample.getName() + ": expected " + e.getClass().getSimpleName());
+			} catch (RuntimeException parserException) {
+				assertThat(parserException.getClass()).as(sample.getName()).isEqualTo(e.getClass());
+			}
+			return;
+		}
+		assertEqualDtos(sample.getName(), expected, parser.parse(content));
+	}
+
+	private void assertParsesStreamLikeDmr(File sample) throws Exception {
+		RestResponse expected = null;
+		try {
+			expected = parse(dmrParser, sample);
+		} catch (Exception e) {
+			try {
+				parse(parser, sample);
+				fail(sample.getName() + ": expected " + e.getClass().getSimpleName());
+			} catch (Exception parserException) {
+				// expected
+			}
+			return;
+		}
+		assertEqualDtos(sample.getName(), expected, parse(parser, sample));
+	}
+
+	private RestResponse parse(IResponseParser parser, File sample) throws IOException {
+		InputStream inputStream = new FileInputStream(sample);
+		try {
+			return parser.parse(inputStream);
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Compares the given dtos field by field.
+	 */
+	private void assertEqualDtos(String path, Object expected, Object actual) throws IllegalAccessException {
+		if (expected == null
+				|| actual == null) {
+			assertThat(actual).as(path).isEqualTo(expected);
+			return;
+		}
+		assertThat(actual.getClass()).as(path).isEqualTo(expected.getClass());
+		if (expected instanceof String
+				|| expected instanceof Number
+				|| expected instanceof Boolean
+				|| expected instanceof Enum) {
+			assertThat(actual).as(path).isEqualTo(expected);
+		} else if (expected instanceof List) {
+			List<?> expectedList = (List<?>) expected;
+			List<?> actualList = (List<?>) actual;
+			assertThat(actualList).as(path).hasSize(expectedList.size());
+			for (int i = 0; i < expectedList.size(); i++) {
+				assertEqualDtos(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+			}
+		} else if (expected instanceof Map) {
+			Map<?, ?> expectedMap = (Map<?, ?>) expected;
+			Map<?, ?> actualMap = (Map<?, ?>) actual;
+			assertThat(actualMap.keySet()).as(path).isEqualTo(expectedMap.keySet());
+			for (Iterator<?> it = expectedMap.keySet().iterator(); it.hasNext();) {
+				Object key = it.next();
+				assertEqualDtos(path + "." + key, expectedMap.get(key), actualMap.get(key));
+			}
+		} else {
+			for (Class<?> clazz = expected.getClass(); clazz != Object.class; clazz = clazz.getSuperclass()) {
+				for (Field field : clazz.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers())) {
+						continue;
+					}
+					field.setAccessible(true);
+					assertEqualDtos(path + "." + field.getName(), field.get(expected), field.get(actual));
+				}
+			}
+		}
+	}
+}
@@ -14,6 +14,7 @@ import static com.openshift.internal.client.response.ILinkNames.ADD_APPLICATION;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.junit.Assert.assertNotNull;
 
+import java.io.ByteArrayInputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -22,6 +23,7 @@ import org.fest.assertions.Condition;
 import org.junit.Test;
 
 import com.openshift.client.HttpMethod;
+import com.openshift.client.OpenShiftException;
 import com.openshift.client.utils.Samples;
 import com.openshift.internal.client.CartridgeType;
 
@@ -328,4 +330,57 @@ public class ResourceDTOFactoryTest {
 		assertThat(link.getRequiredParams().get(0).getValidOptions()).containsExactly("ssh-rsa", "ssh-dss");
 	}
 
+	@Test
+	public void shouldUnmarshallApplicationsFromStream() throws Throwable {
+		// pre-conditions
+		RestResponse stringResponse = ResourceDTOFactory.get(Samples.GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString());
+		// operation
+		RestResponse response = ResourceDTOFactory.get(Samples.GET_APPLICATIONS_WITH2APPS_JSON.getContentAsStream());
+		// verifications
+		assertThat(response.getDataType()).isEqualTo(EnumDataType.applications);
+		List<ApplicationResourceDTO> applications = response.getData();
+		List<ApplicationResourceDTO> stringApplications = stringResponse.getData();
+		assertThat(applications).hasSize(stringApplications.size());
+		for (int i = 0; i < applications.size(); i++) {
+			assertThat(applications.get(i).getName()).isEqualTo(stringApplications.get(i).getName());
+			assertThat(applications.get(i).getLinks().keySet()).isEqualTo(stringApplications.get(i).getLinks().keySet());
+		}
+	}
+
+	@Test
+	public void shouldShareLinkParametersAmongApplications() throws Throwable {
+		// pre-conditions
+		String content = Samples.GET_APPLICATIONS_WITH2APPS_JSON.getContentAsString();
+		// operation
+		RestResponse response = ResourceDTOFactory.get(content);
+		// verifications
+		List<ApplicationResourceDTO> applications = response.getData();
+		assertThat(applications).hasSize(2);
+		Map<String, Link> links = applications.get(0).getLinks();
+		Map<String, Link> otherLinks = applications.get(1).getLinks();
+		assertThat(links.keySet()).isEqualTo(otherLinks.keySet());
+		for (Entry<String, Link> entry : links.entrySet()) {
+			Link link = entry.getValue();
+			Link otherLink = otherLinks.get(entry.getKey());
+			assertThat(link.getHref()).isNotEqualTo(otherLink.getHref());
+			assertThat(link.getRel()).isSameAs(otherLink.getRel());
+			assertThat(link.getRequiredParams()).isSameAs(otherLink.getRequiredParams());
+			assertThat(link.getOptionalParams()).isSameAs(otherLink.getOptionalParams());
+		}
+	}
+
+	@Test
+	public void shouldReturnNullForEmptyStream() throws Throwable {
+		// operation
+		RestResponse response = ResourceDTOFactory.get(new ByteArrayInputStream(" \n".getBytes()));
+		// verifications
+		assertThat(response).isNull();
+	}
+
+	@Test(expected = OpenShiftException.class)
+	public void shouldThrowOpenShiftExceptionForInvalidStreamContent() throws Throwable {
+		// operation
+		ResourceDTOFactory.get(new ByteArrayInputStream("<html></html>".getBytes()));
+	}
+
 }